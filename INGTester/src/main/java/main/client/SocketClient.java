@@ -35,8 +35,8 @@ public class SocketClient implements IClient {
         out.println(requestString);
         try {
             String resultString = input.readLine();
-            JsonRpcChecker.checkJsonRpcMessage(requestString);
-            return requestString;
+            JsonRpcChecker.checkJsonRpcMessage(resultString);
+            return resultString;
         } catch (IOException e) {
             e.printStackTrace();
         }
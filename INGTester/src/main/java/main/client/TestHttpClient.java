@@ -21,10 +21,21 @@ public class TestHttpClient implements IClient {
 
     public static final HttpClient httpClient = HttpClientBuilder.create().build();
 
+    private final HttpClient client;
+
     private int requestCount = 0;
 
     public TestHttpClient(String url) {
+        this(url, httpClient);
+    }
+
+    /**
+     * Creates a client that sends its requests through the given http client, e.g. one with a larger connection
+     * pool for load tests.
+     */
+    public TestHttpClient(String url, HttpClient client) {
         this.url = url;
+        this.client = client;
     }
 
     public String processRequest(Methods method, Object object) {
@@ -33,7 +44,7 @@ public class TestHttpClient implements IClient {
             HttpPost request = new HttpPost(url);
             request.setHeader("content-type", "application/x-www-form-urlencoded");
             request.setEntity(new StringEntity(getJsonRpc(method.name(), object)));
-            HttpResponse response = httpClient.execute(request);
+            HttpResponse response = client.execute(request);
             String result = EntityUtils.toString(response.getEntity());
             result = removeEscapeCharacters(result);
             JsonRpcChecker.checkJsonRpcMessage(result);
@@ -0,0 +1,89 @@
+package main.load;
+
+import main.util.Methods;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms and error counts per api method. Latencies are recorded in microseconds.
+ */
+public class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Methods, Histogram> histograms = new EnumMap<>(Methods.class);
+    private final Map<Methods, AtomicLong> errors = new EnumMap<>(Methods.class);
+
+    public LatencyStats(List<Methods> methods) {
+        for (Methods method : methods) {
+            histograms.put(method, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(method, new AtomicLong());
+        }
+    }
+
+    public void record(Methods method, long latencyNanos, boolean success) {
+        long micros = Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        histograms.get(method).recordValue(micros);
+        if (!success) {
+            errors.get(method).incrementAndGet();
+        }
+    }
+
+    /**
+     * Prints the throughput and latency percentiles of every method and of all methods together.
+     * @param out Stream to print to.
+     * @param elapsedSeconds Duration of the test, used to calculate the throughput.
+     */
+    public void print(PrintStream out, double elapsedSeconds) {
+        out.println(String.format("%-24s %9s %8s %10s %9s %9s %9s %9s %9s %9s", "method", "requests", "errors",
+                "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        long totalErrors = 0;
+        for (Map.Entry<Methods, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue().copy();
+            long methodErrors = errors.get(entry.getKey()).get();
+            total.add(histogram);
+            totalErrors += methodErrors;
+            printLine(out, entry.getKey().name(), histogram, methodErrors, elapsedSeconds);
+        }
+        printLine(out, "total", total, totalErrors, elapsedSeconds);
+    }
+
+    private static void printLine(PrintStream out, String name, Histogram histogram, long errorCount,
+                                  double elapsedSeconds) {
+        out.println(String.format("%-24s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f", name,
+                histogram.getTotalCount(), errorCount, histogram.getTotalCount() / elapsedSeconds,
+                histogram.getMean() / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI));
+    }
+
+    /**
+     * Writes the full percentile distribution of every method in the HdrHistogram .hgrm format, in milliseconds.
+     * @param directory Directory to write the files to.
+     */
+    public void writeDistributions(File directory) throws FileNotFoundException {
+        directory.mkdirs();
+        for (Map.Entry<Methods, Histogram> entry : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(new File(directory, entry.getKey().name() + ".hgrm"))) {
+                entry.getValue().copy().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package main.load;
+
+import main.util.Methods;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Weighted mix of api methods, parsed from a string like "getBalance=40,transferMoney=20".
+ */
+public class LoadMix {
+
+    private final List<Methods> methods = new ArrayList<>();
+    private final List<Integer> cumulativeWeights = new ArrayList<>();
+    private int totalWeight = 0;
+
+    public LoadMix(String mix) {
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries should look like method=weight, found: " + entry);
+            }
+            Methods method = Methods.valueOf(parts[0].trim());
+            if (!VirtualUser.SUPPORTED_METHODS.contains(method)) {
+                throw new IllegalArgumentException("Method " + method + " is not supported by the load test.");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                totalWeight += weight;
+                methods.add(method);
+                cumulativeWeights.add(totalWeight);
+            }
+        }
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The mix should contain at least one method with a positive weight.");
+        }
+    }
+
+    /**
+     * Picks a method at random, according to the weights of the mix.
+     */
+    public Methods next(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < methods.size(); i++) {
+            if (value < cumulativeWeights.get(i)) {
+                return methods.get(i);
+            }
+        }
+        return methods.get(methods.size() - 1);
+    }
+
+    public List<Methods> getMethods() {
+        return methods;
+    }
+}
@@ -0,0 +1,160 @@
+package main.load;
+
+import main.client.IClient;
+import main.client.SocketClient;
+import main.client.TestHttpClient;
+import main.util.Methods;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the api, configured with system properties:
+ * <ul>
+ *     <li>load.client: http or socket, default http.</li>
+ *     <li>load.url: url of the api when using http, default http://localhost:9997/services/api/request.</li>
+ *     <li>load.users: amount of virtual users, each with its own account and connection, default 10.</li>
+ *     <li>load.durationSeconds: duration of the test, default 60.</li>
+ *     <li>load.thinkTimeMillis: mean time a virtual user waits between requests in closed loop mode, the actual
+ *     time is exponentially distributed, default 100.</li>
+ *     <li>load.arrivalRate: requests per second in open loop mode, 0 runs in closed loop mode, default 0.</li>
+ *     <li>load.mix: weights of the methods, default
+ *     getBalance=40,getTransactionsOverview=20,transferMoney=20,payFromAccount=15,openAccount=5.</li>
+ *     <li>load.histogramDir: directory to write the latency distributions to, not written by default.</li>
+ * </ul>
+ * In closed loop mode every virtual user sends its next request after the previous one is answered and the think
+ * time has passed. In open loop mode requests are started at a fixed rate regardless of how fast they are answered,
+ * their latency is measured from the moment they should have started, so a slow system is not hidden by requests that
+ * start late.
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX =
+            "getBalance=40,getTransactionsOverview=20,transferMoney=20,payFromAccount=15,openAccount=5";
+
+    private final int users = Integer.getInteger("load.users", 10);
+    private final long durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("load.durationSeconds", 60L));
+    private final long thinkTimeMillis = Long.getLong("load.thinkTimeMillis", 100L);
+    private final double arrivalRate = Double.parseDouble(System.getProperty("load.arrivalRate", "0"));
+    private final LoadMix mix = new LoadMix(System.getProperty("load.mix", DEFAULT_MIX));
+    private final LatencyStats stats = new LatencyStats(mix.getMethods());
+    private final List<VirtualUser> virtualUsers = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        try {
+            createUsers(executor);
+            System.out.println(String.format("Created %d virtual users, running %s for %d seconds.", users,
+                    arrivalRate > 0 ? "open loop at " + arrivalRate + " requests/s" : "closed loop",
+                    TimeUnit.NANOSECONDS.toSeconds(durationNanos)));
+            long start = System.nanoTime();
+            if (arrivalRate > 0) {
+                runOpenLoop(executor, start);
+            } else {
+                runClosedLoop(executor, start);
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            stats.print(System.out, (System.nanoTime() - start) / 1e9);
+            String histogramDir = System.getProperty("load.histogramDir");
+            if (histogramDir != null) {
+                stats.writeDistributions(new File(histogramDir));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void createUsers(ExecutorService executor) throws Exception {
+        int runId = (int) ((System.currentTimeMillis() / 1000) % 10000);
+        HttpClient httpClient = HttpClientBuilder.create().setMaxConnTotal(users).setMaxConnPerRoute(users).build();
+        String url = System.getProperty("load.url", "http://localhost:9997/services/api/request");
+        boolean socket = "socket".equals(System.getProperty("load.client", "http"));
+        List<Callable<VirtualUser>> setUps = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            setUps.add(() -> {
+                IClient client = socket ? new SocketClient() : new TestHttpClient(url, httpClient);
+                VirtualUser user = new VirtualUser(client, runId);
+                user.setUp();
+                return user;
+            });
+        }
+        for (Future<VirtualUser> user : executor.invokeAll(setUps)) {
+            virtualUsers.add(user.get());
+        }
+    }
+
+    private void runClosedLoop(ExecutorService executor, long start) {
+        for (VirtualUser user : virtualUsers) {
+            executor.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                while (System.nanoTime() - start < durationNanos) {
+                    long requestStart = System.nanoTime();
+                    execute(user, mix.next(random), requestStart, random);
+                    long thinkTime = (long) (-Math.log(1 - random.nextDouble()) * thinkTimeMillis);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(thinkTime));
+                }
+            });
+        }
+    }
+
+    private void runOpenLoop(ExecutorService executor, long start) {
+        BlockingQueue<VirtualUser> idleUsers = new ArrayBlockingQueue<>(users, false, virtualUsers);
+        long intervalNanos = (long) (1e9 / arrivalRate);
+        for (long intendedStart = start; intendedStart - start < durationNanos; intendedStart += intervalNanos) {
+            long delay = intendedStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            long requestStart = intendedStart;
+            executor.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                VirtualUser user = idleUsers.poll();
+                if (user == null) {
+                    try {
+                        user = idleUsers.take();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                try {
+                    execute(user, mix.next(random), requestStart, random);
+                } finally {
+                    idleUsers.add(user);
+                }
+            });
+        }
+    }
+
+    private void execute(VirtualUser user, Methods method, long requestStart, Random random) {
+        VirtualUser counterparty = virtualUsers.get(random.nextInt(virtualUsers.size()));
+        if (counterparty == user && virtualUsers.size() > 1) {
+            counterparty = virtualUsers.get((virtualUsers.indexOf(user) + 1) % virtualUsers.size());
+        }
+        boolean success;
+        try {
+            String result = user.execute(method, counterparty, random);
+            success = result != null && !result.contains("\"error\"");
+        } catch (RuntimeException | AssertionError e) {
+            success = false;
+        }
+        stats.record(method, System.nanoTime() - requestStart, success);
+    }
+}
@@ -0,0 +1,419 @@
+package main.load;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import main.client.TestHttpClient;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays captured api traffic against a test system, configured with system properties:
+ * <ul>
+ *     <li>replay.file: file with the captured calls, written by the traffic capture of the api (gni.api.captureFile)
+ *     or exported from the request log with util.RequestLogExporter, required.</li>
+ *     <li>replay.url: url of the api, default http://localhost:9997/services/api/request.</li>
+ *     <li>replay.speed: time compression, 1 replays at the captured pace, 10 ten times as fast and 0 as fast as
+ *     possible, default 1.</li>
+ *     <li>replay.concurrency: maximum amount of calls in flight, default 64.</li>
+ *     <li>replay.mappedKeys: result fields whose values are replaced in later calls by the values the test system
+ *     returned, default authToken,iBAN,pinCard,pinCode.</li>
+ *     <li>replay.histogramDir: directory to write the captured and replayed latency distributions to, not written by
+ *     default.</li>
+ * </ul>
+ * Calls are started in the order and at the relative times they were captured. The calls of a session, the calls
+ * with the same authToken or otherwise the same username, are sent one after the other, and a call that uses a token,
+ * account number or card of an earlier result waits for that result, so the test system receives the values it
+ * handed out instead of the captured ones. Mapping is best effort: values that occur in several results map to the
+ * latest one. The test system should not contain the customers of the capture, as they are created again.
+ * Latencies are measured from the moment a call could be sent, after its due time and the calls it depends on, so a
+ * slow test system is not hidden by calls that start late. At the end the captured and replayed latencies and errors
+ * of every method are printed, together with the amount of calls whose error code changed.
+ */
+public class Replay {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    /** Error code of a call that did not receive a response. */
+    private static final int NO_RESPONSE = -1;
+
+    private final String url = System.getProperty("replay.url", "http://localhost:9997/services/api/request");
+    private final double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+    private final int concurrency = Integer.getInteger("replay.concurrency", 64);
+    private final Set<String> mappedKeys = new HashSet<>(Arrays.asList(
+            System.getProperty("replay.mappedKeys", "authToken,iBAN,pinCard,pinCode").split(",")));
+    private final HttpClient httpClient = HttpClientBuilder.create().setMaxConnTotal(concurrency)
+            .setMaxConnPerRoute(concurrency).build();
+    /** Replayed value of every captured value in {@link #mappedKeys}, completed when the call that returns it is. */
+    private final Map<String, CompletableFuture<String>> mappedValues = new ConcurrentHashMap<>();
+    private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        String file = System.getProperty("replay.file");
+        if (file == null) {
+            System.err.println("Set replay.file to the file with the captured calls.");
+            return;
+        }
+        new Replay().run(readCalls(new File(file)));
+    }
+
+    private static List<CapturedCall> readCalls(File file) throws IOException {
+        List<CapturedCall> calls = new ArrayList<>();
+        JsonParser parser = new JsonParser();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    calls.add(new CapturedCall(parser.parse(line).getAsJsonObject()));
+                }
+            }
+        }
+        // the capture writes calls when they are answered, the replay starts them in the order they arrived
+        calls.sort(Comparator.comparingLong(call -> call.startMillis));
+        return calls;
+    }
+
+    private void run(List<CapturedCall> calls) throws InterruptedException {
+        if (calls.isEmpty()) {
+            System.out.println("No calls to replay.");
+            return;
+        }
+        long capturedMillis = calls.get(calls.size() - 1).startMillis - calls.get(0).startMillis;
+        System.out.println(String.format("Replaying %d calls captured over %.1f seconds %s.", calls.size(),
+                capturedMillis / 1000.0, speed > 0 ? "at " + speed + "x speed" : "as fast as possible"));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Semaphore inFlight = new Semaphore(concurrency);
+        Map<String, CompletableFuture<Void>> sessions = new HashMap<>();
+        long firstStartMillis = calls.get(0).startMillis;
+        long start = System.nanoTime();
+        try {
+            for (CapturedCall call : calls) {
+                long due = speed > 0 ? start + (long) ((call.startMillis - firstStartMillis) * 1e6 / speed)
+                        : System.nanoTime();
+                long delay = due - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                inFlight.acquire();
+                List<CompletableFuture<?>> dependencies = new ArrayList<>();
+                collectDependencies(call.request.get("params"), dependencies);
+                String session = call.session();
+                if (session != null && sessions.containsKey(session)) {
+                    dependencies.add(sessions.get(session));
+                }
+                registerResults(call);
+                // a failed dependency is replayed like a call with an error, the dependent call is still sent
+                CompletableFuture<Void> done = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]))
+                        .handle((ignored, error) -> null)
+                        .thenRunAsync(() -> {
+                            try {
+                                replay(call, Math.max(due, System.nanoTime()));
+                            } finally {
+                                inFlight.release();
+                            }
+                        }, executor);
+                if (session != null) {
+                    sessions.put(session, done);
+                }
+            }
+            inFlight.acquire(concurrency);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            print(System.out, elapsedSeconds);
+            String histogramDir = System.getProperty("replay.histogramDir");
+            if (histogramDir != null) {
+                writeDistributions(new File(histogramDir));
+            }
+        } catch (IOException e) {
+            System.err.println("Could not write the latency distributions: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds the results that the parameters of a call use to its dependencies.
+     */
+    private void collectDependencies(JsonElement params, List<CompletableFuture<?>> dependencies) {
+        if (params == null) {
+            return;
+        }
+        if (params.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> param : params.getAsJsonObject().entrySet()) {
+                collectDependencies(param.getValue(), dependencies);
+            }
+        } else if (params.isJsonArray()) {
+            for (JsonElement element : params.getAsJsonArray()) {
+                collectDependencies(element, dependencies);
+            }
+        } else if (params.isJsonPrimitive()) {
+            CompletableFuture<String> value = mappedValues.get(params.getAsString());
+            if (value != null) {
+                dependencies.add(value);
+            }
+        }
+    }
+
+    /**
+     * Registers the values of the captured result of a call that later calls will use, before the call is replayed.
+     */
+    private void registerResults(CapturedCall call) {
+        if (call.result == null) {
+            return;
+        }
+        for (String key : mappedKeys) {
+            JsonElement value = call.result.get(key);
+            if (value != null && value.isJsonPrimitive()) {
+                mappedValues.put(value.getAsString(), new CompletableFuture<>());
+            }
+        }
+    }
+
+    private void replay(CapturedCall call, long readyNanos) {
+        JsonObject request = new JsonObject();
+        for (Map.Entry<String, JsonElement> member : call.request.entrySet()) {
+            request.add(member.getKey(), "params".equals(member.getKey()) ? substitute(member.getValue())
+                    : member.getValue());
+        }
+        int error;
+        JsonObject result = null;
+        try {
+            HttpPost post = new HttpPost(url);
+            post.setHeader("content-type", "application/x-www-form-urlencoded");
+            post.setEntity(new StringEntity(request.toString(), StandardCharsets.UTF_8));
+            String reply = TestHttpClient.removeEscapeCharacters(
+                    EntityUtils.toString(httpClient.execute(post).getEntity()));
+            JsonObject response = new JsonParser().parse(reply).getAsJsonObject();
+            if (response.has("error")) {
+                error = response.getAsJsonObject("error").get("code").getAsInt();
+            } else {
+                error = 0;
+                JsonElement resultElement = response.get("result");
+                result = resultElement != null && resultElement.isJsonObject() ? resultElement.getAsJsonObject()
+                        : null;
+            }
+        } catch (IOException | RuntimeException e) {
+            error = NO_RESPONSE;
+        } finally {
+            completeResults(call, result);
+        }
+        long latencyNanos = System.nanoTime() - readyNanos;
+        stats.computeIfAbsent(call.request.get("method").getAsString(), method -> new MethodStats())
+                .record(call, latencyNanos, error);
+    }
+
+    /**
+     * Replaces the captured values in the parameters of a call by the values the test system returned.
+     */
+    private JsonElement substitute(JsonElement params) {
+        if (params.isJsonObject()) {
+            JsonObject substituted = new JsonObject();
+            for (Map.Entry<String, JsonElement> param : params.getAsJsonObject().entrySet()) {
+                substituted.add(param.getKey(), substitute(param.getValue()));
+            }
+            return substituted;
+        } else if (params.isJsonArray()) {
+            JsonArray substituted = new JsonArray();
+            for (JsonElement element : params.getAsJsonArray()) {
+                substituted.add(substitute(element));
+            }
+            return substituted;
+        } else if (params.isJsonPrimitive() && params.getAsJsonPrimitive().isString()) {
+            CompletableFuture<String> value = mappedValues.get(params.getAsString());
+            if (value != null && value.isDone()) {
+                return new JsonPrimitive(value.join());
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Completes the values that later calls wait for, with the captured values when the test system did not return
+     * them so the waiting calls are still sent.
+     */
+    private void completeResults(CapturedCall call, JsonObject result) {
+        if (call.result == null) {
+            return;
+        }
+        for (String key : mappedKeys) {
+            JsonElement captured = call.result.get(key);
+            if (captured == null || !captured.isJsonPrimitive()) {
+                continue;
+            }
+            JsonElement replayed = result == null ? null : result.get(key);
+            CompletableFuture<String> value = mappedValues.get(captured.getAsString());
+            if (value != null) {
+                value.complete(replayed != null && replayed.isJsonPrimitive() ? replayed.getAsString()
+                        : captured.getAsString());
+            }
+        }
+    }
+
+    /**
+     * Prints the captured and replayed latency percentiles and errors of every method.
+     * @param out Stream to print to.
+     * @param elapsedSeconds Duration of the replay.
+     */
+    private void print(PrintStream out, double elapsedSeconds) {
+        out.println(String.format("Replayed in %.1f seconds.", elapsedSeconds));
+        out.println(String.format("%-24s %9s %11s %11s %11s %11s %8s %8s %10s", "method", "calls", "p50 ms",
+                "replay p50", "p99 ms", "replay p99", "errors", "replay", "mismatches"));
+        MethodStats total = new MethodStats();
+        for (Map.Entry<String, MethodStats> entry : new TreeMap<>(stats).entrySet()) {
+            total.add(entry.getValue());
+            printLine(out, entry.getKey(), entry.getValue());
+        }
+        printLine(out, "total", total);
+    }
+
+    private static void printLine(PrintStream out, String name, MethodStats methodStats) {
+        Histogram captured = methodStats.captured.copy();
+        Histogram replayed = methodStats.replayed.copy();
+        out.println(String.format("%-24s %9d %11s %11.2f %11s %11.2f %8d %8d %10d", name, replayed.getTotalCount(),
+                percentile(captured, 50), replayed.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                percentile(captured, 99), replayed.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                methodStats.capturedErrors.get(), methodStats.replayedErrors.get(), methodStats.mismatches.get()));
+    }
+
+    /**
+     * Formats a percentile of the captured latencies, which are not known for calls exported from the request log.
+     */
+    private static String percentile(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? "-"
+                : String.format("%.2f", histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    /**
+     * Writes the captured and replayed latency distribution of every method in the HdrHistogram .hgrm format, in
+     * milliseconds.
+     * @param directory Directory to write the files to.
+     */
+    private void writeDistributions(File directory) throws IOException {
+        directory.mkdirs();
+        for (Map.Entry<String, MethodStats> entry : stats.entrySet()) {
+            try (PrintStream out = new PrintStream(new File(directory, entry.getKey() + ".captured.hgrm"))) {
+                entry.getValue().captured.copy().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+            try (PrintStream out = new PrintStream(new File(directory, entry.getKey() + ".replay.hgrm"))) {
+                entry.getValue().replayed.copy().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    /**
+     * A call read from the capture file.
+     */
+    private static class CapturedCall {
+        private final long startMillis;
+        /** Latency of the call when it was captured, -1 when it is not known. */
+        private final long latencyMicros;
+        /** Error code of the call when it was captured, 0 for success and -1 when it is not known. */
+        private final int error;
+        private final JsonObject request;
+        /** Result of the call when it was captured, null when it failed or was not captured. */
+        private final JsonObject result;
+
+        private CapturedCall(JsonObject line) {
+            this.startMillis = line.get("start").getAsLong();
+            this.latencyMicros = line.has("latencyMicros") ? line.get("latencyMicros").getAsLong() : -1;
+            this.error = line.has("error") ? line.get("error").getAsInt() : NO_RESPONSE;
+            this.request = line.getAsJsonObject("request");
+            this.result = line.has("result") && line.get("result").isJsonObject() ? line.getAsJsonObject("result")
+                    : null;
+        }
+
+        /**
+         * Returns the session of the call, the calls of a session are replayed one after the other.
+         * @return The authToken of the call, otherwise its username, or null if the call has neither.
+         */
+        private String session() {
+            JsonElement params = request.get("params");
+            if (params == null || !params.isJsonObject()) {
+                return null;
+            }
+            JsonObject named = params.getAsJsonObject();
+            if (named.has("authToken")) {
+                return "authToken:" + named.get("authToken").getAsString();
+            } else if (named.has("username")) {
+                return "username:" + named.get("username").getAsString();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Captured and replayed latencies and errors of a single method.
+     */
+    private static class MethodStats {
+        private final Histogram captured = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram replayed = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final AtomicLong capturedErrors = new AtomicLong();
+        private final AtomicLong replayedErrors = new AtomicLong();
+        /** Calls whose replayed error code differs from the captured one. */
+        private final AtomicLong mismatches = new AtomicLong();
+
+        private void record(CapturedCall call, long latencyNanos, int error) {
+            replayed.recordValue(trackable(TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            if (call.latencyMicros >= 0) {
+                captured.recordValue(trackable(call.latencyMicros));
+            }
+            if (call.error != 0 && call.error != NO_RESPONSE) {
+                capturedErrors.incrementAndGet();
+            }
+            if (error != 0) {
+                replayedErrors.incrementAndGet();
+            }
+            if (call.error != NO_RESPONSE && call.error != error) {
+                mismatches.incrementAndGet();
+            }
+        }
+
+        private void add(MethodStats other) {
+            captured.add(other.captured.copy());
+            replayed.add(other.replayed.copy());
+            capturedErrors.addAndGet(other.capturedErrors.get());
+            replayedErrors.addAndGet(other.replayedErrors.get());
+            mismatches.addAndGet(other.mismatches.get());
+        }
+
+        private static long trackable(long micros) {
+            return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, micros));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package main.load;
+
+import com.jayway.jsonpath.JsonPath;
+import main.client.IClient;
+import main.model.methods.DepositIntoAccount;
+import main.model.methods.GetBalance;
+import main.model.methods.GetTransactionsOverview;
+import main.model.methods.OpenAccount;
+import main.model.methods.PayFromAccount;
+import main.model.methods.TransferMoney;
+import main.util.AuthToken;
+import main.util.Methods;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static main.util.Methods.*;
+
+/**
+ * Customer of the bank used by the load test, with its own account and its own client. A virtual user executes one
+ * request at a time.
+ */
+public class VirtualUser {
+
+    public static final List<Methods> SUPPORTED_METHODS = Arrays.asList(openAccount, transferMoney, payFromAccount,
+            getBalance, getTransactionsOverview);
+
+    /** Used to create unique social security numbers and usernames within a run. */
+    private static final AtomicLong CUSTOMER_COUNTER = new AtomicLong();
+
+    private static final double INITIAL_DEPOSIT = 100000.0;
+
+    private final IClient client;
+    private final int runId;
+    private String authToken;
+    private String iBAN;
+    private String pinCard;
+    private String pinCode;
+
+    public VirtualUser(IClient client, int runId) {
+        this.client = client;
+        this.runId = runId;
+    }
+
+    /**
+     * Opens the account of the user, logs in and deposits money so the user can make payments during the test.
+     */
+    public void setUp() {
+        long customer = CUSTOMER_COUNTER.incrementAndGet();
+        String result = client.processRequest(openAccount, createOpenAccount(customer));
+        iBAN = JsonPath.read(result, "result.iBAN");
+        pinCard = JsonPath.read(result, "result.pinCard");
+        pinCode = JsonPath.read(result, "result.pinCode");
+        authToken = AuthToken.getAuthToken(client, username(customer), username(customer));
+        client.processRequest(depositIntoAccount, new DepositIntoAccount(iBAN, pinCard, pinCode, INITIAL_DEPOSIT));
+    }
+
+    /**
+     * Executes a single request.
+     * @param method Method to execute.
+     * @param counterparty User that receives the money of transfers and payments.
+     * @param random Used to pick amounts.
+     * @return The result of the request, or null if there was no result.
+     */
+    public String execute(Methods method, VirtualUser counterparty, Random random) {
+        double amount = 1 + random.nextInt(10);
+        switch (method) {
+            case openAccount:
+                return client.processRequest(openAccount, createOpenAccount(CUSTOMER_COUNTER.incrementAndGet()));
+            case transferMoney:
+                return client.processRequest(transferMoney, new TransferMoney(authToken, iBAN, counterparty.iBAN,
+                        "Load Test", amount, "Load test transfer"));
+            case payFromAccount:
+                return client.processRequest(payFromAccount, new PayFromAccount(iBAN, counterparty.iBAN, pinCard,
+                        pinCode, amount));
+            case getBalance:
+                return client.processRequest(getBalance, new GetBalance(authToken, iBAN));
+            case getTransactionsOverview:
+                return client.processRequest(getTransactionsOverview, new GetTransactionsOverview(authToken, iBAN,
+                        20));
+            default:
+                throw new IllegalArgumentException("Method " + method + " is not supported by the load test.");
+        }
+    }
+
+    private String username(long customer) {
+        return "load" + runId + "u" + customer;
+    }
+
+    /**
+     * Creates the request for a new customer, the run id and the customer number make the ssn and username unique.
+     */
+    private OpenAccount createOpenAccount(long customer) {
+        String ssn = String.format("%04d%05d", runId, customer % 100000);
+        String username = username(customer);
+        return new OpenAccount("Load", "Test", "L.", "1990-1-1", ssn, "1 Load Street, Duckburg", "+316 12345678",
+                username + "@example.com", username, username);
+    }
+}
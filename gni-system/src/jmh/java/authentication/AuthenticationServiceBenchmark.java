@@ -0,0 +1,41 @@
+package authentication;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Saul
+ * @version 1
+ * Benchmarks the decoding of the cookie that is sent with every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AuthenticationServiceBenchmark {
+    /** Cookie in the format created on login. */
+    private String cookie;
+
+    @Setup
+    public void setUp() {
+        cookie = "12345:" + new String(Base64.getEncoder().encode(("" + 8765432109876543210L).getBytes()));
+    }
+
+    @Benchmark
+    public Long[] decodeCookie() {
+        return AuthenticationService.decodeCookie(cookie);
+    }
+}
@@ -0,0 +1,60 @@
+package databeans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Saul
+ * @version 1
+ * Benchmarks the balance checks and updates of an {@link Account} that are done for every outgoing transaction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AccountBenchmark {
+    /** Account the transactions are checked against. */
+    private Account account;
+    /** Withdrawal from the account to another account. */
+    private Transaction withdrawal;
+    /** Transfer from the account to its savings account. */
+    private Transaction savingsTransfer;
+
+    @Setup
+    public void setUp() {
+        account = new Account("Test Name", 1000.0, 5000.0, true, 1000.0);
+        withdrawal = new Transaction(1L, "NL00GNIB5695858627", "NL00GNIB5695858628", "Test Name",
+                "Benchmark transaction", 10.0);
+        savingsTransfer = new Transaction(2L, "NL00GNIB5695858627", "NL00GNIB5695858627S", "Test Name",
+                "Benchmark savings transfer", 10.0);
+    }
+
+    @Benchmark
+    public boolean withdrawTransactionIsAllowed() {
+        return account.withdrawTransactionIsAllowed(withdrawal);
+    }
+
+    @Benchmark
+    public boolean savingsTransferIsAllowed() {
+        return account.withdrawTransactionIsAllowed(savingsTransfer);
+    }
+
+    @Benchmark
+    public Account processWithdraw() {
+        Account withdrawAccount = new Account("Test Name", 1000.0, 5000.0, true, 1000.0);
+        withdrawAccount.processWithdraw(withdrawal);
+        return withdrawAccount;
+    }
+}
@@ -0,0 +1,64 @@
+package databeans;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Saul
+ * @version 1
+ * Benchmarks the serialization of the data of a {@link MessageWrapper}, which happens for every message that is sent
+ * between the services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MessageWrapperBenchmark {
+    /** Amount of transactions in the transaction overview. */
+    private static final int OVERVIEW_SIZE = 50;
+    /** A single transaction, as sent for every transaction request. */
+    private Transaction transaction;
+    /** A transaction overview, as sent for getTransactionsOverview requests. */
+    private DataReply transactionOverview;
+
+    @Setup
+    public void setUp() {
+        transaction = new Transaction(1L, LocalDate.of(2017, 1, 1), "NL00GNIB5695858627", "NL00GNIB5695858628",
+                "Test Name", "Benchmark transaction", 10.0, 990.0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < OVERVIEW_SIZE; i++) {
+            transactions.add(new Transaction(i, LocalDate.of(2017, 1, 1).plusDays(i), "NL00GNIB5695858627",
+                    "NL00GNIB5695858628", "Test Name", "Benchmark transaction " + i, 10.0, 1000.0 - i * 10));
+        }
+        transactionOverview = new DataReply("NL00GNIB5695858627", RequestType.TRANSACTIONHISTORY, transactions);
+    }
+
+    @Benchmark
+    public Object transactionRoundTrip() {
+        MessageWrapper messageWrapper = new MessageWrapper();
+        messageWrapper.setData(transaction);
+        return messageWrapper.getData();
+    }
+
+    @Benchmark
+    public Object dataReplyRoundTrip() {
+        MessageWrapper messageWrapper = new MessageWrapper();
+        messageWrapper.setData(transactionOverview);
+        return messageWrapper.getData();
+    }
+}
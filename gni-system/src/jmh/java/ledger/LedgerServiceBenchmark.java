@@ -0,0 +1,66 @@
+package ledger;
+
+import databeans.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Saul
+ * @version 1
+ * Benchmarks the account number generation and the daily overdraft interest calculation of the ledger.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LedgerServiceBenchmark {
+    /** Account the interest is calculated for. */
+    private static final String ACCOUNT_NUMBER = "NL00GNIB5695858627";
+    /** Daily interest rate of an overdraft account in January. */
+    private static final double DAILY_INTEREST_RATE = 0.00797 / 31;
+    /** First day of the interest period. */
+    private static final LocalDate FIRST_DAY = LocalDate.of(2017, 1, 1);
+    /** Last day of the interest period. */
+    private static final LocalDate LAST_DAY = LocalDate.of(2017, 1, 31);
+    /** Transactions of a month with two transactions per day, the calculation consumes the list it is given. */
+    private List<Transaction> overdraftTransactions;
+
+    @Setup
+    public void setUp() {
+        overdraftTransactions = new ArrayList<>();
+        double balance = 0.0;
+        for (int day = 0; day < 31; day++) {
+            for (int i = 0; i < 2; i++) {
+                balance += (day + i) % 3 == 0 ? 25.0 : -20.0;
+                overdraftTransactions.add(new Transaction(day * 2 + i, FIRST_DAY.plusDays(day), ACCOUNT_NUMBER,
+                        "NL00GNIB5695858628", "Test Name", "Benchmark transaction", 20.0, balance));
+            }
+        }
+    }
+
+    @Benchmark
+    public String attemptAccountNumberGeneration() {
+        return LedgerService.attemptAccountNumberGeneration("Test Name", 0);
+    }
+
+    @Benchmark
+    public Double dailyOverdraftInterestCalculation() {
+        return LedgerService.doDailyOverdraftInterestCalculation(ACCOUNT_NUMBER,
+                new ArrayList<>(overdraftTransactions), FIRST_DAY, LAST_DAY, DAILY_INTEREST_RATE);
+    }
+}
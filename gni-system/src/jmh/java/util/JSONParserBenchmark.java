@@ -0,0 +1,69 @@
+package util;
+
+import com.google.gson.Gson;
+import databeans.DataReply;
+import databeans.MessageWrapper;
+import databeans.RequestType;
+import databeans.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Saul
+ * @version 1
+ * Benchmarks {@link JSONParser#removeEscapeCharacters(String)}, which is applied to every reply a service receives.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JSONParserBenchmark {
+    /** Escaped json of a reply containing a single transaction. */
+    private String transactionReply;
+    /** Escaped json of a reply containing a transaction overview. */
+    private String overviewReply;
+
+    @Setup
+    public void setUp() {
+        Gson jsonConverter = new Gson();
+        Transaction transaction = new Transaction(1L, LocalDate.of(2017, 1, 1), "NL00GNIB5695858627",
+                "NL00GNIB5695858628", "Test Name", "Benchmark transaction", 10.0, 990.0);
+        transactionReply = escape(jsonConverter, JSONParser.createMessageWrapper(false, 200, "Normal Reply",
+                transaction));
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transactions.add(transaction);
+        }
+        overviewReply = escape(jsonConverter, JSONParser.createMessageWrapper(false, 200, "Normal Reply",
+                new DataReply("NL00GNIB5695858627", RequestType.TRANSACTIONHISTORY, transactions)));
+    }
+
+    private static String escape(final Gson jsonConverter, final MessageWrapper messageWrapper) {
+        return jsonConverter.toJson(jsonConverter.toJson(messageWrapper));
+    }
+
+    @Benchmark
+    public String removeEscapeCharactersTransaction() {
+        return JSONParser.removeEscapeCharacters(transactionReply);
+    }
+
+    @Benchmark
+    public String removeEscapeCharactersOverview() {
+        return JSONParser.removeEscapeCharacters(overviewReply);
+    }
+}
@@ -0,0 +1,189 @@
+package api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Saul
+ * @version 1
+ * Limits the amount of api requests that are handled at the same time, requests over the limit are rejected right
+ * away instead of being queued in the services. Every api method has a fixed limit, the limit for all methods
+ * together adapts to the latency of the requests: while requests finish close to the fastest latency seen for their
+ * method the limit grows slowly, once they take more than {@link #LATENCY_TOLERANCE} times as long the services are
+ * queueing and the limit is decreased.
+ */
+class AdmissionController {
+    /** Limit for all methods together when the service starts. */
+    private static final int INITIAL_LIMIT = Integer.getInteger("gni.api.initialConcurrency", 64);
+    /** Lowest value the adaptive limit can reach. */
+    private static final int MIN_LIMIT = Integer.getInteger("gni.api.minConcurrency", 8);
+    /** Highest value the adaptive limit can reach. */
+    private static final int MAX_LIMIT = Integer.getInteger("gni.api.maxConcurrency", 1000);
+    /** Limit of a single method, can be overridden per method with gni.api.concurrency.[method]. */
+    private static final int METHOD_LIMIT = Integer.getInteger("gni.api.methodConcurrency", 200);
+    /** Factor by which a request may be slower than the fastest request of its method before the limit drops. */
+    private static final double LATENCY_TOLERANCE = 2.0;
+    /** Factor the limit is multiplied with when requests are too slow. */
+    private static final double DECREASE_FACTOR = 0.9;
+    /** Amount of requests of a method after which the fastest latency of the method is measured again. */
+    private static final int LATENCY_WINDOW = 1000;
+    /** Amount of methods that are tracked separately, other method names share one state. */
+    private static final int MAX_METHODS = 64;
+    /** Name of the state shared by the methods that are not tracked separately. */
+    private static final String OTHER_METHODS = "other";
+    /** Current limit for all methods together. */
+    private double limit;
+    /** Amount of requests that are being handled. */
+    private int inFlight;
+    /** Time of the last decrease, requests that started before it do not decrease the limit again. */
+    private long lastDecreaseNanos;
+    /** Amount of requests that were admitted. */
+    private long admitted;
+    /** Amount of requests that were rejected. */
+    private long rejected;
+    /** State of every method that was requested, indexed by method name. */
+    private final Map<String, MethodState> methods;
+
+    /**
+     * Creates a controller with the initial limit.
+     */
+    AdmissionController() {
+        this.limit = Math.max(MIN_LIMIT, Math.min(MAX_LIMIT, INITIAL_LIMIT));
+        this.methods = new HashMap<>();
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Admits a request if neither the limit of its method nor the overall limit is reached.
+     * @param method Name of the api method that is requested.
+     * @return Permit that has to be released when the request is answered, or null if the request is rejected.
+     */
+    synchronized Permit tryAcquire(final String method) {
+        String stateName = method;
+        if (!methods.containsKey(method) && methods.size() >= MAX_METHODS) {
+            stateName = OTHER_METHODS;
+        }
+        MethodState state = methods.computeIfAbsent(stateName, MethodState::new);
+        if (inFlight >= (int) limit || state.inFlight >= state.limit) {
+            rejected++;
+            state.rejected++;
+            return null;
+        }
+        inFlight++;
+        state.inFlight++;
+        admitted++;
+        return new Permit(this, state, System.nanoTime());
+    }
+
+    /**
+     * Registers that a request has been answered and adapts the limit to its latency.
+     * @param permit Permit of the request.
+     */
+    private synchronized void release(final Permit permit) {
+        MethodState state = permit.state;
+        inFlight--;
+        state.inFlight--;
+        long latency = System.nanoTime() - permit.startNanos;
+        if (state.windowSamples++ >= LATENCY_WINDOW) {
+            state.minLatencyNanos = state.windowMinLatencyNanos;
+            state.windowMinLatencyNanos = Long.MAX_VALUE;
+            state.windowSamples = 0;
+        }
+        state.windowMinLatencyNanos = Math.min(state.windowMinLatencyNanos, latency);
+        state.minLatencyNanos = Math.min(state.minLatencyNanos, latency);
+        if (inFlight * 2 < limit) {
+            // the limit is only adapted while it is being used
+            return;
+        }
+        if (latency > state.minLatencyNanos * LATENCY_TOLERANCE) {
+            if (permit.startNanos > lastDecreaseNanos) {
+                limit = Math.max(MIN_LIMIT, limit * DECREASE_FACTOR);
+                lastDecreaseNanos = System.nanoTime();
+            }
+        } else {
+            limit = Math.min(MAX_LIMIT, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Creates a snapshot of the counters of the controller.
+     * @return The limit, the amount of requests in flight and the admitted and rejected requests, overall and per
+     * method.
+     */
+    synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("limit", (int) limit);
+        statistics.put("inFlight", inFlight);
+        statistics.put("admitted", admitted);
+        statistics.put("rejected", rejected);
+        Map<String, Object> methodStatistics = new HashMap<>();
+        for (MethodState state : methods.values()) {
+            Map<String, Object> stateStatistics = new HashMap<>();
+            stateStatistics.put("limit", state.limit);
+            stateStatistics.put("inFlight", state.inFlight);
+            stateStatistics.put("rejected", state.rejected);
+            stateStatistics.put("minLatencyMillis", state.minLatencyNanos == Long.MAX_VALUE ? null
+                    : state.minLatencyNanos / 1000000.0);
+            methodStatistics.put(state.method, stateStatistics);
+        }
+        statistics.put("methods", methodStatistics);
+        return statistics;
+    }
+
+    /**
+     * Admission of a single request, releasing it more than once has no effect.
+     */
+    static final class Permit {
+        /** Controller that admitted the request. */
+        private final AdmissionController controller;
+        /** State of the method of the request. */
+        private final MethodState state;
+        /** Time the request was admitted. */
+        private final long startNanos;
+        /** Whether the permit has been released. */
+        private final AtomicBoolean released;
+
+        private Permit(final AdmissionController newController, final MethodState newState,
+                       final long newStartNanos) {
+            this.controller = newController;
+            this.state = newState;
+            this.startNanos = newStartNanos;
+            this.released = new AtomicBoolean(false);
+        }
+
+        /**
+         * Registers that the request has been answered.
+         */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                controller.release(this);
+            }
+        }
+    }
+
+    /**
+     * Counters of a single api method.
+     */
+    private static final class MethodState {
+        /** Name of the method. */
+        private final String method;
+        /** Maximum amount of requests of the method that are handled at the same time. */
+        private final int limit;
+        /** Amount of requests of the method that are being handled. */
+        private int inFlight;
+        /** Amount of requests of the method that were rejected. */
+        private long rejected;
+        /** Fastest latency of the method, used as the latency of the method without queueing. */
+        private long minLatencyNanos = Long.MAX_VALUE;
+        /** Fastest latency of the method in the current window. */
+        private long windowMinLatencyNanos = Long.MAX_VALUE;
+        /** Amount of requests of the method in the current window. */
+        private int windowSamples;
+
+        private MethodState(final String newMethod) {
+            this.method = newMethod;
+            this.limit = Integer.getInteger("gni.api.concurrency." + newMethod, METHOD_LIMIT);
+        }
+    }
+}
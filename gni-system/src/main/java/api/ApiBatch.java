@@ -0,0 +1,102 @@
+package api;
+
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Error;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
+import io.advantageous.qbit.reactive.Callback;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author Saul
+ * @version 1
+ * Collects the responses to the calls of a JSON-RPC batch request. Every call of the batch is answered through its
+ * own callback, once all calls are answered the responses are sent back to the source of the batch as a single
+ * array, in the order of the calls in the batch. Notifications are executed but get no response, a batch of only
+ * notifications is answered with an empty reply instead of an empty array.
+ */
+class ApiBatch {
+    /** Stored for notifications, which are left out of the array of responses. */
+    private static final String NO_RESPONSE = "";
+    /** Responses to the calls of the batch, in the order of the batch. */
+    private final AtomicReferenceArray<String> responses;
+    /** Amount of calls that have not been answered yet. */
+    private final AtomicInteger remaining;
+    /** Used to send the array of responses back to the source of the batch. */
+    private final Callback<String> callback;
+
+    /**
+     * Creates a batch without responses.
+     * @param size Amount of calls in the batch.
+     * @param newCallback Used to send the array of responses back to the source of the batch.
+     */
+    ApiBatch(final int size, final Callback<String> newCallback) {
+        this.responses = new AtomicReferenceArray<>(size);
+        this.remaining = new AtomicInteger(size);
+        this.callback = newCallback;
+    }
+
+    /**
+     * Creates the callback a call of the batch replies to, a call that fails without replying is answered with an
+     * internal error.
+     * @param index Position of the call in the batch.
+     * @param id Id of the call, used in the error response.
+     * @return The callback of the call.
+     */
+    Callback<String> callbackFor(final int index, final Object id) {
+        return new Callback<String>() {
+            @Override
+            public void accept(final String response) {
+                complete(index, response);
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                complete(index, new JSONRPC2Response(new JSONRPC2Error(500, "An unknown error occurred.",
+                        String.valueOf(error.getMessage())), id).toJSONString());
+            }
+        };
+    }
+
+    /**
+     * Creates the callback a notification of the batch replies to, the reply is only used to know when the batch is
+     * complete.
+     * @param index Position of the notification in the batch.
+     * @return The callback of the notification.
+     */
+    Callback<String> notificationCallbackFor(final int index) {
+        return new Callback<String>() {
+            @Override
+            public void accept(final String response) {
+                complete(index, NO_RESPONSE);
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                complete(index, NO_RESPONSE);
+            }
+        };
+    }
+
+    /**
+     * Stores the response of a call, the array of responses is sent once every call has been answered. Only the
+     * first response to a call is used.
+     * @param index Position of the call in the batch.
+     * @param response Json representation of the response to the call.
+     */
+    void complete(final int index, final String response) {
+        if (responses.compareAndSet(index, null, response) && remaining.decrementAndGet() == 0) {
+            StringBuilder batchResponse = new StringBuilder("[");
+            for (int i = 0; i < responses.length(); i++) {
+                if (!NO_RESPONSE.equals(responses.get(i))) {
+                    if (batchResponse.length() > 1) {
+                        batchResponse.append(",");
+                    }
+                    batchResponse.append(responses.get(i));
+                }
+            }
+            batchResponse.append("]");
+            callback.reply(batchResponse.length() > 2 ? batchResponse.toString() : NO_RESPONSE);
+        }
+    }
+}
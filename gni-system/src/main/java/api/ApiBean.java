@@ -1,8 +1,8 @@
 package api;
 
 import com.google.gson.Gson;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.CallbackBuilder;
+import util.ServiceTransport;
 
 /**
  * @author Saul
@@ -56,7 +56,7 @@ public class ApiBean {
      * Returns the connection to the Pin Service.
      * @return The connection
      */
-    public HttpClient getPinClient() {
+    public ServiceTransport getPinClient() {
         return service.getPinClient();
     }
 
@@ -64,7 +64,7 @@ public class ApiBean {
      * Returns the connection to the Pin Service.
      * @return The connection
      */
-    public HttpClient getSystemInformationClient() {
+    public ServiceTransport getSystemInformationClient() {
         return service.getSystemInformationClient();
     }
 
@@ -72,7 +72,7 @@ public class ApiBean {
      * Returns the connection to the Pin Service.
      * @return The connection
      */
-    public HttpClient getAuthenticationClient() {
+    public ServiceTransport getAuthenticationClient() {
         return service.getAuthenticationClient();
     }
 
@@ -0,0 +1,248 @@
+package api;
+
+import databeans.CacheScope;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Saul
+ * @version 1
+ * Read-through cache for the results of the read-only api methods, indexed by method, authToken and iBAN. Entries
+ * expire after {@link #TTL_MILLIS} and the least recently used entries are evicted once the cache holds
+ * {@link #MAX_ENTRIES} entries. Writes invalidate the entries they affect, either through the api itself or through
+ * notifications of the services. A result is only stored if its entry was not invalidated while it was being
+ * fetched, so a read that overlaps with a write never stores the result from before the write.
+ */
+class ApiResponseCache {
+    /** Time a result stays in the cache. */
+    static final long TTL_MILLIS = Long.getLong("gni.api.cacheTtlMillis", 5000L);
+    /** Maximum amount of results in the cache. */
+    static final int MAX_ENTRIES = Integer.getInteger("gni.api.cacheSize", 10000);
+    /** Api methods whose results are cached. */
+    private static final Set<String> CACHED_METHODS = new HashSet<>(Arrays.asList("getBalance",
+            "getBankAccountAccess", "getUserAccess", "getOverdraftLimit", "getDate"));
+    /** Api methods that only read, and therefore do not invalidate anything. Their results are not cached either,
+     * getBankStatistics for example changes with every balance that is written. */
+    private static final Set<String> READ_METHODS = new HashSet<>(Arrays.asList("getAuthToken",
+            "getTransactionsOverview", "getEventLogs", "getBankStatistics"));
+    /** Api methods that change which customers have access to an account. */
+    private static final Set<String> ACCESS_METHODS = new HashSet<>(Arrays.asList("openAccount",
+            "openAdditionalAccount", "closeAccount", "provideAccess", "revokeAccess", "transferBankAccount"));
+    /** Api methods that can change the result of every cached method. */
+    private static final Set<String> GLOBAL_METHODS = new HashSet<>(Arrays.asList("simulateTime", "reset",
+            "setFreezeUserAccount", "setValue"));
+    /** Parameters of api methods that contain the iBAN of an account. */
+    private static final List<String> ACCOUNT_PARAMS = Arrays.asList("iBAN", "sourceIBAN", "targetIBAN");
+    /** Cached results, in least recently used order. */
+    private final LinkedHashMap<String, Entry> entries;
+    /** Keys of the cached results for an account, indexed by iBAN. */
+    private final Map<String, Set<String>> keysByAccount;
+    /** Keys of the cached results of getUserAccess. */
+    private final Set<String> userAccessKeys;
+    /** Version of the last invalidation of each account, in invalidation order. */
+    private final LinkedHashMap<String, Long> accountInvalidations;
+    /** Incremented on every invalidation. */
+    private long version;
+    /** Version of the last invalidation of all results. */
+    private long lastGlobalInvalidation;
+    /** Version of the last invalidation of the getUserAccess results. */
+    private long lastAccessInvalidation;
+    /** Highest version that was dropped from accountInvalidations, used for accounts that are no longer tracked. */
+    private long forgottenInvalidation;
+
+    /**
+     * Creates an empty cache.
+     */
+    ApiResponseCache() {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.keysByAccount = new HashMap<>();
+        this.userAccessKeys = new HashSet<>();
+        this.accountInvalidations = new LinkedHashMap<String, Long>() {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                if (size() > MAX_ENTRIES) {
+                    forgottenInvalidation = Math.max(forgottenInvalidation, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Checks if the results of an api method are cached.
+     * @param method Name of the api method.
+     * @return Whether the results are cached.
+     */
+    static boolean isCached(final String method) {
+        return CACHED_METHODS.contains(method);
+    }
+
+    /**
+     * Creates the key of a request to a cached api method.
+     * @param method Name of the api method.
+     * @param params Parameters of the request.
+     * @return The key.
+     */
+    static String createKey(final String method, final Map<String, Object> params) {
+        return method + "|" + params.get("authToken") + "|" + params.get("iBAN");
+    }
+
+    /**
+     * Fetches a result from the cache.
+     * @param key Key of the request.
+     * @return The result, or null if there is no result for the request or the result has expired.
+     */
+    synchronized Object get(final String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry.result;
+    }
+
+    /**
+     * Returns the version of the cache, which has to be passed to {@link #put} when the result is stored.
+     * @return The amount of invalidations so far.
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Stores a result, unless the entry of the result was invalidated since the result was requested.
+     * @param key Key of the request.
+     * @param method Name of the api method.
+     * @param params Parameters of the request.
+     * @param result Result of the request.
+     * @param requestVersion Version of the cache when the result was requested.
+     */
+    synchronized void put(final String key, final String method, final Map<String, Object> params,
+                          final Object result, final long requestVersion) {
+        Object accountNumber = params.get("iBAN");
+        long lastInvalidation = lastGlobalInvalidation;
+        if ("getUserAccess".equals(method)) {
+            lastInvalidation = Math.max(lastInvalidation, lastAccessInvalidation);
+        }
+        if (accountNumber != null) {
+            lastInvalidation = Math.max(lastInvalidation,
+                    accountInvalidations.getOrDefault(accountNumber.toString(), forgottenInvalidation));
+        }
+        if (lastInvalidation > requestVersion) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(result, System.currentTimeMillis() + TTL_MILLIS,
+                accountNumber == null ? null : accountNumber.toString()));
+        if (accountNumber != null) {
+            keysByAccount.computeIfAbsent(accountNumber.toString(), k -> new HashSet<>()).add(key);
+        }
+        if ("getUserAccess".equals(method)) {
+            userAccessKeys.add(key);
+        }
+        if (entries.size() > MAX_ENTRIES) {
+            remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Invalidates the results that can be changed by a request to an api method.
+     * @param method Name of the api method.
+     * @param params Parameters of the request.
+     */
+    void invalidateFor(final String method, final Map<String, Object> params) {
+        if (isCached(method) || READ_METHODS.contains(method)) {
+            return;
+        }
+        if (GLOBAL_METHODS.contains(method)) {
+            invalidate(CacheScope.ALL, null);
+            return;
+        }
+        CacheScope scope = ACCESS_METHODS.contains(method) ? CacheScope.ACCESS : CacheScope.ACCOUNT;
+        boolean foundAccount = false;
+        for (String param : ACCOUNT_PARAMS) {
+            Object accountNumber = params == null ? null : params.get(param);
+            if (accountNumber != null) {
+                invalidate(scope, accountNumber.toString());
+                foundAccount = true;
+            }
+        }
+        if (!foundAccount && scope == CacheScope.ACCESS) {
+            invalidate(scope, null);
+        }
+    }
+
+    /**
+     * Invalidates results.
+     * @param scope Kind of change that happened.
+     * @param accountNumber Account that changed, or null if the change is not limited to one account, in which case
+     *                      all results are invalidated.
+     */
+    synchronized void invalidate(final CacheScope scope, final String accountNumber) {
+        version++;
+        if (scope == CacheScope.ALL || accountNumber == null) {
+            lastGlobalInvalidation = version;
+            entries.clear();
+            keysByAccount.clear();
+            userAccessKeys.clear();
+            accountInvalidations.clear();
+            return;
+        }
+        accountInvalidations.remove(accountNumber);
+        accountInvalidations.put(accountNumber, version);
+        if (scope == CacheScope.ACCESS) {
+            lastAccessInvalidation = version;
+            for (String key : new HashSet<>(userAccessKeys)) {
+                remove(key);
+            }
+        }
+        Set<String> accountKeys = keysByAccount.get(accountNumber);
+        if (accountKeys != null) {
+            for (String key : new HashSet<>(accountKeys)) {
+                remove(key);
+            }
+        }
+    }
+
+    private void remove(final String key) {
+        Entry entry = entries.remove(key);
+        userAccessKeys.remove(key);
+        if (entry != null && entry.accountNumber != null) {
+            Set<String> accountKeys = keysByAccount.get(entry.accountNumber);
+            if (accountKeys != null) {
+                accountKeys.remove(key);
+                if (accountKeys.isEmpty()) {
+                    keysByAccount.remove(entry.accountNumber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cached result of a request.
+     */
+    private static final class Entry {
+        /** Result of the request. */
+        private final Object result;
+        /** Time after which the result is no longer used, in epoch milliseconds. */
+        private final long expiresAt;
+        /** Account the result belongs to, or null. */
+        private final String accountNumber;
+
+        private Entry(final Object newResult, final long newExpiresAt, final String newAccountNumber) {
+            this.result = newResult;
+            this.expiresAt = newExpiresAt;
+            this.accountNumber = newAccountNumber;
+        }
+    }
+}
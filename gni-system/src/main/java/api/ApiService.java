@@ -2,7 +2,13 @@ package api;
 
 import api.methods.*;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.thetransactioncompany.jsonrpc2.JSONRPC2Error;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Message;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Notification;
 import com.thetransactioncompany.jsonrpc2.JSONRPC2ParseException;
 import com.thetransactioncompany.jsonrpc2.JSONRPC2Request;
 import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
@@ -10,14 +16,20 @@ import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
+import util.InternalToken;
 import util.JSONParser;
+import util.Log;
+import util.Metrics;
+import util.RequestDeadline;
+import util.RequestTrace;
+import util.ServiceTransport;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -27,13 +39,21 @@ import static java.net.HttpURLConnection.HTTP_OK;
 @RequestMapping("/api")
 public class ApiService {
     /** Connection to the pin service. */
-    private HttpClient pinClient;
+    private ServiceTransport pinClient;
     /** Connection to the SystemInformation service. */
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
     /** Connection to the authentication service. */
-    private HttpClient authenticationClient;
+    private ServiceTransport authenticationClient;
     /** Used for json conversions. */
     private Gson jsonConverter;
+    /** Results of the read-only api methods. */
+    private final ApiResponseCache responseCache;
+    /** Limits the amount of requests that are handled at the same time. */
+    private final AdmissionController admissionController;
+    /** Name of the service in the spans of request traces. */
+    private static final String TRACE_SERVICE = "ApiService";
+    /** Records the api calls for replaying them, null when capturing is disabled. */
+    private static final TrafficCapture CAPTURE = TrafficCapture.open();
     /** Prefix used when printing to indicate the message is coming from the Api Service. */
     public static final String PREFIX = "[API]                 :";
     /** Number of the ATM system for internal use. */
@@ -46,6 +66,11 @@ public class ApiService {
     public static final int CHARACTER_LIMIT = 50;
     /** Character limit used to check if a transaction description is too long. */
     public static final int DESCRIPTION_LIMIT = 200;
+    /** Time a request may take before the calls made to handle it are abandoned and an error is replied. */
+    public static final long REQUEST_TIMEOUT_MILLIS = Long.getLong("gni.api.requestTimeoutMillis", 30000L);
+    /** Time a maintenance request (simulateTime, reset) may take, these run long chains of dependent steps in the
+     * other services and get their own deadline instead of {@link #REQUEST_TIMEOUT_MILLIS}. */
+    public static final long MAINTENANCE_TIMEOUT_MILLIS = Long.getLong("gni.api.maintenanceTimeoutMillis", 600000L);
 
     /**
      * Constructor.
@@ -56,9 +81,11 @@ public class ApiService {
      */
     ApiService(final int servicePort, final String serviceHost,
                       final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.jsonConverter = new Gson();
+        this.responseCache = new ApiResponseCache();
+        this.admissionController = new AdmissionController();
         sendServiceInformation(servicePort, serviceHost);
     }
 
@@ -69,7 +96,7 @@ public class ApiService {
      */
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(servicePort, serviceHost, ServiceType.API_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -94,28 +121,332 @@ public class ApiService {
         ServiceInformation pin = sysInfo.getPinServiceInformation();
         ServiceInformation authentication = sysInfo.getAuthenticationServiceInformation();
 
-        this.pinClient = httpClientBuilder().setHost(pin.getServiceHost())
-                .setPort(pin.getServicePort()).buildAndStart();
-        this.authenticationClient = httpClientBuilder().setHost(authentication.getServiceHost())
-                .setPort(authentication.getServicePort()).buildAndStart();
+        this.pinClient = ServiceTransport.connect(pin.getServiceHost(), pin.getServicePort());
+        this.authenticationClient = ServiceTransport.connect(authentication.getServiceHost(), authentication.getServicePort());
 
-        System.out.printf("%s Initialization of Api service connections complete.\n", PREFIX);
+        Log.info(PREFIX, "Initialization of Api service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
     /**
-     * Parses the request and then calls the logging method.
+     * Parses the request and then calls the logging method, all calls made to handle the request share a deadline of
+     * {@link #REQUEST_TIMEOUT_MILLIS}. The request is either a single call or a batch of calls, the calls of a batch
+     * are executed concurrently.
      * @param callback Callback to the source of the request.
      * @param requestJson Json string containing the request that was made.
      */
     @RequestMapping(value = "/request", method = RequestMethod.POST)
     public void handleApiRequest(final Callback<String> callback, final String requestJson) {
+        RequestDeadline.runWithin(RequestDeadline.after(REQUEST_TIMEOUT_MILLIS),
+                () -> handleRequest(requestJson, false, callback));
+    }
+
+    /**
+     * Same as {@link #handleApiRequest(Callback, String)}, but the calls of a batch are executed one at a time in the
+     * order of the batch, for calls that depend on the result of an earlier call. When a call fails the calls after
+     * it are not executed.
+     * @param callback Callback to the source of the request.
+     * @param requestJson Json string containing the request that was made.
+     */
+    @RequestMapping(value = "/request/ordered", method = RequestMethod.POST)
+    public void handleOrderedApiRequest(final Callback<String> callback, final String requestJson) {
+        RequestDeadline.runWithin(RequestDeadline.after(REQUEST_TIMEOUT_MILLIS),
+                () -> handleRequest(requestJson, true, callback));
+    }
+
+    private void handleRequest(final String requestJson, final boolean ordered, final Callback<String> callback) {
+        if (requestJson != null && requestJson.trim().startsWith("[")) {
+            RequestTrace.Span span = RequestTrace.startTrace(TRACE_SERVICE, ordered ? "ordered batch" : "batch");
+            RequestTrace.runWithin(span.context(),
+                    () -> handleBatchRequest(requestJson, ordered, traced(span, callback)));
+        } else {
+            try {
+                JSONRPC2Request request = JSONRPC2Request.parse(requestJson);
+                RequestTrace.Span span = RequestTrace.startTrace(TRACE_SERVICE, request.getMethod());
+                Callback<String> timedCallback = timed(request, span, callback);
+                RequestTrace.runWithin(span.context(), () -> {
+                    if (!replyFromCacheAndLog(request, timedCallback)) {
+                        Callback<String> admittedCallback = admit(request, timedCallback);
+                        if (admittedCallback != null) {
+                            sendLogEvent(request, admittedCallback);
+                        }
+                    }
+                });
+            } catch (JSONRPC2ParseException e) {
+                callback.reply(new JSONRPC2Response(JSONRPC2Error.PARSE_ERROR).toJSONString());
+            }
+        }
+    }
+
+    /**
+     * Parses a batch request, calls that can not be parsed are answered with an invalid request error, the other
+     * calls are logged with a single event log and then forwarded.
+     * @param requestJson Json array containing the calls of the batch.
+     * @param ordered Whether the calls should be executed one at a time in the order of the batch.
+     * @param callback Used to send the array of responses back to the request source.
+     */
+    private void handleBatchRequest(final String requestJson, final boolean ordered,
+                                    final Callback<String> callback) {
+        JsonArray calls;
         try {
-            JSONRPC2Request request = JSONRPC2Request.parse(requestJson);
-            sendLogEvent(request, callback);
-        } catch (JSONRPC2ParseException e) {
+            calls = new JsonParser().parse(requestJson).getAsJsonArray();
+        } catch (JsonParseException | IllegalStateException e) {
             callback.reply(new JSONRPC2Response(JSONRPC2Error.PARSE_ERROR).toJSONString());
+            return;
+        }
+        if (calls.size() == 0) {
+            callback.reply(new JSONRPC2Response(JSONRPC2Error.INVALID_REQUEST, null).toJSONString());
+            return;
+        }
+        Log.debug(PREFIX, "Received batch of %d requests.", calls.size());
+        ApiBatch batch = new ApiBatch(calls.size(), callback);
+        List<JSONRPC2Request> requests = new ArrayList<>();
+        List<Callback<String>> callbacks = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            JsonElement call = calls.get(i);
+            try {
+                JSONRPC2Message message = JSONRPC2Message.parse(call.toString());
+                JSONRPC2Request request = toRequest(message);
+                Callback<String> callCallback = timed(request,
+                        RequestTrace.startSpan(TRACE_SERVICE, request.getMethod()),
+                        message instanceof JSONRPC2Notification ? batch.notificationCallbackFor(i)
+                                : batch.callbackFor(i, request.getID()));
+                if (!ordered) {
+                    // calls of an ordered batch are admitted one at a time when they are forwarded
+                    callCallback = admit(request, callCallback);
+                }
+                if (callCallback != null) {
+                    requests.add(request);
+                    callbacks.add(callCallback);
+                }
+            } catch (JSONRPC2ParseException e) {
+                batch.complete(i, new JSONRPC2Response(JSONRPC2Error.INVALID_REQUEST, null).toJSONString());
+            }
+        }
+        if (!requests.isEmpty()) {
+            sendBatchLogEvent(requests, callbacks, ordered);
+        }
+    }
+
+    /**
+     * Turns a call of a batch into a request, notifications become requests without an id.
+     * @param message The parsed call.
+     * @return The request.
+     * @throws JSONRPC2ParseException Thrown when the call is not a request or a notification.
+     */
+    private static JSONRPC2Request toRequest(final JSONRPC2Message message) throws JSONRPC2ParseException {
+        if (message instanceof JSONRPC2Request) {
+            return (JSONRPC2Request) message;
+        } else if (message instanceof JSONRPC2Notification) {
+            JSONRPC2Request request = new JSONRPC2Request(((JSONRPC2Notification) message).getMethod(), null);
+            request.setParams(((JSONRPC2Notification) message).getParams());
+            return request;
+        }
+        throw new JSONRPC2ParseException("Invalid JSON-RPC 2.0 request: Not a request or notification");
+    }
+
+    /**
+     * Logs all calls of a batch in the systemInfo service with a single request and then forwards the calls.
+     * @param requests Calls of the batch that could be parsed and were admitted.
+     * @param callbacks Callback of each call, used to send the response to the call back to the batch.
+     * @param ordered Whether the calls should be executed one at a time in the order of the batch.
+     */
+    private void sendBatchLogEvent(final List<JSONRPC2Request> requests, final List<Callback<String>> callbacks,
+                                   final boolean ordered) {
+        Log.debug(PREFIX, "Sending batch event log to SysInfo");
+        systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/log/requests",
+                "requests", jsonConverter.toJson(requests), (httpStatusCode, httpContentType, replyJson) -> {
+                    if (httpStatusCode == HTTP_OK) {
+                        if (ordered) {
+                            forwardOrderedApiRequests(requests, callbacks, 0);
+                        } else {
+                            for (int i = 0; i < requests.size(); i++) {
+                                forwardApiRequest(requests.get(i), callbacks.get(i));
+                            }
+                        }
+                    } else {
+                        for (int i = 0; i < requests.size(); i++) {
+                            callbacks.get(i).reply(new JSONRPC2Response(new JSONRPC2Error(500,
+                                    "An unknown error occurred.", "There was a problem with one of the HTTP requests"),
+                                    requests.get(i).getID()).toJSONString());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Forwards the call of an ordered batch at the given index, the next call is forwarded once this call has been
+     * answered successfully. When the call fails or is not admitted the remaining calls are answered with an error.
+     * @param requests Calls of the batch that could be parsed.
+     * @param callbacks Callback of each call, used to send the response to the call back to the batch.
+     * @param index Index of the call to forward.
+     */
+    private void forwardOrderedApiRequests(final List<JSONRPC2Request> requests,
+                                           final List<Callback<String>> callbacks, final int index) {
+        if (index >= requests.size()) {
+            return;
+        }
+        JSONRPC2Request request = requests.get(index);
+        Callback<String> callCallback = admit(request, callbacks.get(index));
+        if (callCallback == null) {
+            skipOrderedApiRequests(requests, callbacks, index + 1);
+            return;
+        }
+        forwardApiRequest(request, new Callback<String>() {
+            @Override
+            public void accept(final String response) {
+                callCallback.accept(response);
+                if (isSuccessfulResponse(response)) {
+                    forwardOrderedApiRequests(requests, callbacks, index + 1);
+                } else {
+                    skipOrderedApiRequests(requests, callbacks, index + 1);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                callCallback.onError(error);
+                skipOrderedApiRequests(requests, callbacks, index + 1);
+            }
+        });
+    }
+
+    private static void skipOrderedApiRequests(final List<JSONRPC2Request> requests,
+                                               final List<Callback<String>> callbacks, final int fromIndex) {
+        for (int i = fromIndex; i < requests.size(); i++) {
+            callbacks.get(i).reply(new JSONRPC2Response(new JSONRPC2Error(500,
+                    "An unknown error occurred.", "An earlier request in the ordered batch failed."),
+                    requests.get(i).getID()).toJSONString());
+        }
+    }
+
+    private static boolean isSuccessfulResponse(final String responseJson) {
+        try {
+            return JSONRPC2Response.parse(responseJson).indicatesSuccess();
+        } catch (JSONRPC2ParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Replies to a request from the cache if possible, the request is still logged in the systemInfo service but the
+     * reply does not wait for it.
+     * @param request Request to reply to.
+     * @param callback Used to send the result of the request back to the request source.
+     * @return Whether the request was answered.
+     */
+    private boolean replyFromCacheAndLog(final JSONRPC2Request request, final Callback<String> callback) {
+        if (!replyFromCache(request, callback)) {
+            return false;
+        }
+        systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/log/request",
+                "request", jsonConverter.toJson(request), (httpStatusCode, httpContentType, replyJson) -> {
+                    if (httpStatusCode != HTTP_OK) {
+                        Log.warn(PREFIX, "Failed to log a request that was answered from the cache.");
+                    }
+                });
+        return true;
+    }
+
+    /**
+     * Wraps the callback of a request so the latency and the error code of the reply are recorded in the metrics of
+     * the api method and in the span of the request, this includes replies from the cache and rejected requests.
+     * When capturing is enabled the call is also written to the capture file.
+     * @param request Request that is timed.
+     * @param span Span of the request in its trace.
+     * @param callback Used to send the result of the request back to the request source.
+     * @return Callback that records the reply before it is sent to the request source.
+     */
+    private static Callback<String> timed(final JSONRPC2Request request, final RequestTrace.Span span,
+                                          final Callback<String> callback) {
+        Metrics.Timer timer = Metrics.API_REQUESTS.timer(request.getMethod());
+        long startNanos = System.nanoTime();
+        long startMillis = CAPTURE == null ? 0L : System.currentTimeMillis();
+        return new Callback<String>() {
+            @Override
+            public void accept(final String reply) {
+                int status = Metrics.jsonRpcErrorCode(reply);
+                long latencyNanos = System.nanoTime() - startNanos;
+                timer.record(latencyNanos, status);
+                span.finish(status);
+                if (CAPTURE != null) {
+                    CAPTURE.record(request, reply, status, startMillis, latencyNanos);
+                }
+                callback.reply(reply);
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                timer.recordSince(startNanos, 500);
+                span.finish(500);
+                callback.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Wraps the callback of a batch so its span is finished when the batch is answered.
+     * @param span Span of the batch in its trace.
+     * @param callback Used to send the responses of the batch back to the request source.
+     * @return Callback that finishes the span before the responses are sent to the request source.
+     */
+    private static Callback<String> traced(final RequestTrace.Span span, final Callback<String> callback) {
+        return new Callback<String>() {
+            @Override
+            public void accept(final String reply) {
+                span.finish(Metrics.jsonRpcErrorCode(reply));
+                callback.reply(reply);
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                span.finish(500);
+                callback.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Admits a request if the api is not handling too many requests, a request that is not admitted is answered
+     * with a server busy error.
+     * @param request Request to admit.
+     * @param callback Used to send the result of the request back to the request source.
+     * @return Callback that has to be used for the reply of the admitted request, or null if the request was
+     * answered because it was not admitted.
+     */
+    private Callback<String> admit(final JSONRPC2Request request, final Callback<String> callback) {
+        AdmissionController.Permit permit = admissionController.tryAcquire(request.getMethod());
+        if (permit == null) {
+            Log.debug(PREFIX, "Too many requests in progress, rejecting %s request.",
+                    request.getMethod());
+            callback.reply(new JSONRPC2Response(new JSONRPC2Error(503, "Server busy.",
+                    "The server is handling too many requests, try again later."), request.getID()).toJSONString());
+            return null;
         }
+        return new Callback<String>() {
+            @Override
+            public void accept(final String reply) {
+                permit.release();
+                callback.reply(reply);
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                permit.release();
+                callback.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Sends the counters of the admission controller, which show how many requests are in progress and how many
+     * requests were rejected because the api was too busy.
+     * @param callback Used to send the counters back to the request source.
+     */
+    @RequestMapping(value = "/admission", method = RequestMethod.GET)
+    public void getAdmissionStatistics(final Callback<String> callback) {
+        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply",
+                admissionController.getStatistics())));
     }
 
     /**
@@ -124,7 +455,7 @@ public class ApiService {
      * @param callback Used to send the result of the request back to the request source.
      */
     private void sendLogEvent(final JSONRPC2Request request, final Callback<String> callback) {
-        System.out.printf("%s Sending event log to SysInfo\n", PREFIX);
+        Log.debug(PREFIX, "Sending event log to SysInfo");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/log/request",
                 "request", jsonConverter.toJson(request), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode == HTTP_OK) {
@@ -138,15 +469,43 @@ public class ApiService {
     }
 
     /**
-     * Forwards the request to the correct request handler.
+     * Forwards the request to the correct request handler, maintenance requests are given their own deadline of
+     * {@link #MAINTENANCE_TIMEOUT_MILLIS}.
      * @param request Request to forward.
      * @param callback Used to send the result of the request back to the request source.
      */
     private void forwardApiRequest(final JSONRPC2Request request, final Callback<String> callback) {
+        if (replyFromCache(request, callback)) {
+            return;
+        }
+        if (isMaintenanceRequest(request.getMethod())) {
+            RequestDeadline.runWithin(RequestDeadline.after(MAINTENANCE_TIMEOUT_MILLIS),
+                    () -> dispatchApiRequest(request, callback));
+        } else {
+            dispatchApiRequest(request, callback);
+        }
+    }
+
+    /**
+     * Checks if a method is a maintenance request that runs a chain of dependent steps in the other services.
+     * @param method Method of the request.
+     * @return True if the method is simulateTime or reset.
+     */
+    private static boolean isMaintenanceRequest(final String method) {
+        return "simulateTime".equals(method) || "reset".equals(method);
+    }
+
+    /**
+     * Calls the request handler of the method of the request.
+     * @param request Request to handle.
+     * @param callback Used to send the result of the request back to the request source.
+     */
+    private void dispatchApiRequest(final JSONRPC2Request request, final Callback<String> callback) {
         String method = request.getMethod();
         Object id = request.getID();
         Map<String, Object> params = request.getNamedParams();
-        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder()
+                .withStringCallback(updateCacheOnReply(request, callback));
         ApiBean api = new ApiBean(this, callbackBuilder, id);
         switch (method) {
             case "openAccount":             OpenAccount.openAccount(params, api);
@@ -205,17 +564,109 @@ public class ApiService {
                 break;
             case "setValue":                SetValue.setValue(params, api);
                 break;
+            case "getBankStatistics":       GetBankStatistics.getBankStatistics(params, api);
+                break;
             default:
                 callback.reply(new JSONRPC2Response(JSONRPC2Error.METHOD_NOT_FOUND, request.getID()).toJSONString());
                 break;
         }
     }
 
+    /**
+     * Replies to a request with a cached result if the api method is cached and the cache holds a result for the
+     * request.
+     * @param request Request to reply to.
+     * @param callback Used to send the result back to the request source.
+     * @return Whether the request was answered.
+     */
+    private boolean replyFromCache(final JSONRPC2Request request, final Callback<String> callback) {
+        Map<String, Object> params = request.getNamedParams();
+        if (params == null || !ApiResponseCache.isCached(request.getMethod())) {
+            return false;
+        }
+        Object result = responseCache.get(ApiResponseCache.createKey(request.getMethod(), params));
+        if (result == null) {
+            return false;
+        }
+        Log.debug(PREFIX, "Answering %s request from the cache.", request.getMethod());
+        callback.reply(new JSONRPC2Response(result, request.getID()).toJSONString());
+        return true;
+    }
+
+    /**
+     * Wraps the callback of a request so the reply updates the cache before it is sent to the request source, the
+     * result of a cached api method is stored and the results affected by any other api method are invalidated.
+     * @param request Request that is forwarded.
+     * @param callback Used to send the result back to the request source.
+     * @return The callback to forward the request with.
+     */
+    private Callback<String> updateCacheOnReply(final JSONRPC2Request request, final Callback<String> callback) {
+        String method = request.getMethod();
+        Map<String, Object> params = request.getNamedParams();
+        if (params == null) {
+            return callback;
+        }
+        long cacheVersion = responseCache.getVersion();
+        return new Callback<String>() {
+            @Override
+            public void accept(final String reply) {
+                if (ApiResponseCache.isCached(method)) {
+                    try {
+                        JSONRPC2Response response = JSONRPC2Response.parse(reply);
+                        if (response.indicatesSuccess()) {
+                            responseCache.put(ApiResponseCache.createKey(method, params), method, params,
+                                    response.getResult(), cacheVersion);
+                        }
+                    } catch (JSONRPC2ParseException e) {
+                        // error replies of the services are not json-rpc responses, they are not cached
+                    }
+                } else {
+                    responseCache.invalidateFor(method, params);
+                }
+                callback.reply(reply);
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                responseCache.invalidateFor(method, params);
+                callback.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Invalidates cached results after a service changed the data they were created from, only services that send
+     * the {@link InternalToken} can invalidate results.
+     * @param callback Used to send the result back to the source of the notification.
+     * @param token Internal token of the services.
+     * @param scope Name of the {@link CacheScope} of the change.
+     * @param accountNumber Account that changed, or null if the change is not limited to one account.
+     */
+    @RequestMapping(value = "/cache/invalidate", method = RequestMethod.PUT)
+    public void invalidateCache(final Callback<String> callback, @RequestParam("token") final String token,
+                                @RequestParam("scope") final String scope,
+                                @RequestParam("accountNumber") final String accountNumber) {
+        if (!InternalToken.matches(token)) {
+            Log.warn(PREFIX, "Rejected a cache invalidation without a valid internal token.");
+            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                    "The user is not authorized to perform this action.",
+                    "Only services can invalidate the api cache.")));
+            return;
+        }
+        try {
+            responseCache.invalidate(CacheScope.valueOf(scope), accountNumber);
+            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418,
+                    "One of the parameters has an invalid value.", "Unknown cache scope.")));
+        }
+    }
+
     /**
      * Returns the connection to the Pin Service.
      * @return The connection
      */
-    public HttpClient getPinClient() {
+    public ServiceTransport getPinClient() {
         return pinClient;
     }
 
@@ -223,7 +674,7 @@ public class ApiService {
      * Returns the connection to the System Information Service.
      * @return The connection
      */
-    public HttpClient getSystemInformationClient() {
+    public ServiceTransport getSystemInformationClient() {
         return systemInformationClient;
     }
 
@@ -231,7 +682,7 @@ public class ApiService {
      * Returns the connection to the Authentication Service.
      * @return The connection
      */
-    public HttpClient getAuthenticationClient() {
+    public ServiceTransport getAuthenticationClient() {
         return authenticationClient;
     }
 
@@ -1,14 +1,21 @@
 package api;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.Log;
+import util.MetricsServer;
 import util.PortScanner;
 
+import java.io.IOException;
+
 /**
  * Utility class that contains a main method to start up the ApiService.
  * @author Saul & Noel
  * @version 1
  */
 public final class ApiServiceMain {
+    /** Port of the socket endpoint for JSON-RPC over TCP, 0 disables the endpoint. */
+    private static final int SOCKET_PORT = Integer.getInteger("gni.api.socketPort", 9090);
 
     /**
      * Private constructor for utility class.
@@ -33,10 +40,20 @@ public final class ApiServiceMain {
                             .setRootURI("/services")
                             .setPort(servicePort);
 
-            managedServiceBuilder.addEndpointService(new ApiService(
-                    servicePort, "localhost",
-                    Integer.parseInt(args[0]), args[1]))
+            final ApiService apiService = new ApiService(servicePort, "localhost",
+                    Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register("localhost", servicePort, "/services", apiService);
+            managedServiceBuilder.addEndpointService(apiService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
+            if (SOCKET_PORT > 0) {
+                try {
+                    new ApiSocketServer(SOCKET_PORT, apiService).start();
+                } catch (IOException e) {
+                    Log.error(ApiService.PREFIX, "Could not open the socket endpoint on port %d: %s", SOCKET_PORT,
+                            e.getMessage());
+                }
+            }
         }
     }
 }
@@ -0,0 +1,415 @@
+package api;
+
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Error;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2ParseException;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Request;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
+import io.advantageous.qbit.reactive.Callback;
+import util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static api.ApiService.PREFIX;
+
+/**
+ * @author Saul
+ * @version 1
+ * Endpoint for api requests over long-lived TCP connections, using the framing of the socket clients of the test
+ * suites: every line is a JSON-RPC request or batch and every response is written as a single line. A connection can
+ * have many requests in flight, responses are written as soon as they are available, so they can arrive in another
+ * order than the requests and are matched to their request by id. All connections are served by a single selector
+ * thread. A connection with {@link #MAX_IN_FLIGHT} requests in flight or {@link #MAX_PENDING_BYTES} of unwritten
+ * responses is not read until it catches up, which pushes back on the client through TCP flow control. A failure
+ * while serving a connection only closes that connection, and when new connections can not be accepted, for example
+ * because the process is out of file descriptors, accepting is paused for {@link #ACCEPT_BACKOFF_MILLIS}.
+ */
+class ApiSocketServer {
+    /** Maximum amount of requests of a single connection that are handled at the same time. */
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("gni.api.socketMaxInFlight", 64);
+    /** Maximum amount of bytes of responses waiting to be written to a single connection. */
+    private static final int MAX_PENDING_BYTES = Integer.getInteger("gni.api.socketMaxPendingBytes", 1 << 20);
+    /** Maximum length of a request in bytes, connections that send longer lines are closed. */
+    private static final int MAX_LINE_LENGTH = Integer.getInteger("gni.api.socketMaxLineLength", 1 << 20);
+    /** Size of the read buffer of a connection. */
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    /** Maximum amount of responses written with a single system call. */
+    private static final int MAX_WRITE_BATCH = 64;
+    /** Time accepting new connections is paused after accepting a connection failed. */
+    private static final long ACCEPT_BACKOFF_MILLIS = 100L;
+    /** Port the endpoint listens on. */
+    private final int port;
+    /** Service the requests are handled by. */
+    private final ApiService api;
+    /** Connections that received responses or can be read again, handled by the selector thread. */
+    private final Queue<Connection> changedConnections;
+    /** Selector of the connections. */
+    private Selector selector;
+    /** Selection key of the listening channel. */
+    private SelectionKey serverKey;
+    /** Time in epoch milliseconds until which accepting is paused, 0 when accepting is not paused. */
+    private long acceptPausedUntil;
+
+    /**
+     * Creates an endpoint that is not listening yet.
+     * @param newPort Port to listen on.
+     * @param newApi Service the requests are handled by.
+     */
+    ApiSocketServer(final int newPort, final ApiService newApi) {
+        this.port = newPort;
+        this.api = newApi;
+        this.changedConnections = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Starts listening and starts the selector thread.
+     * @throws IOException When the port can not be opened.
+     */
+    void start() throws IOException {
+        selector = Selector.open();
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverKey = serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        Thread selectorThread = new Thread(this::run, "gni-api-socket");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        Log.info(PREFIX, "Socket endpoint started on port %d.", port);
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                if (acceptPausedUntil == 0) {
+                    selector.select();
+                } else {
+                    selector.select(Math.max(1L, acceptPausedUntil - System.currentTimeMillis()));
+                    resumeAccepting();
+                }
+            } catch (ClosedSelectorException e) {
+                Log.error(PREFIX, "Socket endpoint stopped, the selector was closed.");
+                return;
+            } catch (IOException e) {
+                Log.error(PREFIX, "Selecting socket connections failed: %s", e.getMessage());
+                continue;
+            }
+            Connection changed;
+            while ((changed = changedConnections.poll()) != null) {
+                Connection connection = changed;
+                serve(connection, connection::update);
+            }
+            Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+            while (selectedKeys.hasNext()) {
+                SelectionKey key = selectedKeys.next();
+                selectedKeys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept((ServerSocketChannel) key.channel());
+                } else {
+                    Connection connection = (Connection) key.attachment();
+                    serve(connection, () -> {
+                        if (key.isWritable()) {
+                            connection.update();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an action on a connection, the connection is closed when the action fails so the other connections are
+     * still served.
+     */
+    private static void serve(final Connection connection, final Runnable action) {
+        try {
+            action.run();
+        } catch (CancelledKeyException e) {
+            connection.close();
+        } catch (RuntimeException e) {
+            Log.warn(PREFIX, "Closing socket connection after an unexpected error: %s", e);
+            connection.close();
+        }
+    }
+
+    private void accept(final ServerSocketChannel serverChannel) {
+        SocketChannel channel = null;
+        try {
+            channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            Log.debug(PREFIX, "Accepted socket connection from %s.", channel.getRemoteAddress());
+        } catch (IOException | RuntimeException e) {
+            Log.warn(PREFIX, "Could not accept a socket connection, pausing for %d ms: %s", ACCEPT_BACKOFF_MILLIS,
+                    e.getMessage());
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closeFailure) {
+                    // the connection is gone either way
+                }
+            }
+            serverKey.interestOps(0);
+            acceptPausedUntil = System.currentTimeMillis() + ACCEPT_BACKOFF_MILLIS;
+        }
+    }
+
+    private void resumeAccepting() {
+        if (System.currentTimeMillis() >= acceptPausedUntil) {
+            acceptPausedUntil = 0;
+            serverKey.interestOps(SelectionKey.OP_ACCEPT);
+        }
+    }
+
+    /**
+     * A single client connection, only read and written by the selector thread. Responses are queued by the threads
+     * that answer the requests.
+     */
+    private final class Connection {
+        /** Channel of the connection. */
+        private final SocketChannel channel;
+        /** Received bytes that have not been handled yet, in write mode between reads. */
+        private final ByteBuffer readBuffer;
+        /** Start of a request that did not fit in the read buffer. */
+        private final ByteArrayOutputStream partialLine;
+        /** Responses waiting to be written. */
+        private final Queue<ByteBuffer> responses;
+        /** Amount of bytes of the responses waiting to be written. */
+        private final AtomicInteger pendingBytes;
+        /** Amount of requests that have not been answered yet. */
+        private final AtomicInteger inFlight;
+        /** Whether the connection is already queued for the selector thread. */
+        private final AtomicBoolean changeQueued;
+        /** Selection key of the connection. */
+        private SelectionKey key;
+        /** Whether the client has stopped sending, the connection is closed once all responses are written. */
+        private boolean inputClosed;
+        /** Whether the connection is closed, responses for a closed connection are dropped. */
+        private volatile boolean closed;
+
+        private Connection(final SocketChannel newChannel) {
+            this.channel = newChannel;
+            this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            this.partialLine = new ByteArrayOutputStream();
+            this.responses = new ConcurrentLinkedQueue<>();
+            this.pendingBytes = new AtomicInteger();
+            this.inFlight = new AtomicInteger();
+            this.changeQueued = new AtomicBoolean();
+        }
+
+        private boolean canAcceptRequests() {
+            return inFlight.get() < MAX_IN_FLIGHT && pendingBytes.get() < MAX_PENDING_BYTES;
+        }
+
+        private void read() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    inputClosed = true;
+                }
+                handleRequests();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        /**
+         * Handles the complete requests in the read buffer for as long as the connection can accept requests, then
+         * writes what can be written and decides whether the connection should be read.
+         */
+        private void update() {
+            changeQueued.set(false);
+            if (!closed) {
+                handleRequests();
+            }
+        }
+
+        private void handleRequests() {
+            readBuffer.flip();
+            while (readBuffer.hasRemaining() && canAcceptRequests() && !closed) {
+                int lineEnd = -1;
+                for (int i = readBuffer.position(); i < readBuffer.limit(); i++) {
+                    if (readBuffer.get(i) == '\n') {
+                        lineEnd = i;
+                        break;
+                    }
+                }
+                int length = (lineEnd < 0 ? readBuffer.limit() : lineEnd) - readBuffer.position();
+                if (partialLine.size() + length > MAX_LINE_LENGTH) {
+                    Log.debug(PREFIX, "Closing socket connection that sent a request over %d bytes.",
+                            MAX_LINE_LENGTH);
+                    close();
+                    return;
+                }
+                partialLine.write(readBuffer.array(), readBuffer.arrayOffset() + readBuffer.position(), length);
+                readBuffer.position(readBuffer.position() + length);
+                if (lineEnd < 0) {
+                    break;
+                }
+                readBuffer.get();
+                handleLine();
+            }
+            if (inputClosed && !readBuffer.hasRemaining() && partialLine.size() > 0 && canAcceptRequests()
+                    && !closed) {
+                // the last request of a client that closed its side without a trailing newline
+                handleLine();
+            }
+            readBuffer.compact();
+            if (!closed) {
+                updateInterest();
+            }
+        }
+
+        private void handleLine() {
+            String line = new String(partialLine.toByteArray(), StandardCharsets.UTF_8).trim();
+            partialLine.reset();
+            if (line.isEmpty()) {
+                return;
+            }
+            inFlight.incrementAndGet();
+            ResponseCallback callback = new ResponseCallback(this, line);
+            try {
+                api.handleApiRequest(callback, line);
+            } catch (RuntimeException e) {
+                Log.warn(PREFIX, "Handling a socket request failed: %s", e);
+                callback.onError(e);
+            }
+        }
+
+        private void updateInterest() {
+            try {
+                write();
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            if (inputClosed && inFlight.get() == 0 && responses.isEmpty()) {
+                close();
+                return;
+            }
+            int interestOps = 0;
+            if (!responses.isEmpty()) {
+                interestOps |= SelectionKey.OP_WRITE;
+            }
+            if (!inputClosed && canAcceptRequests()) {
+                interestOps |= SelectionKey.OP_READ;
+            }
+            key.interestOps(interestOps);
+        }
+
+        /**
+         * Writes the queued responses until the socket buffer is full, combining multiple responses per write.
+         * @throws IOException When the connection is broken.
+         */
+        private void write() throws IOException {
+            ByteBuffer[] batch = new ByteBuffer[MAX_WRITE_BATCH];
+            while (!responses.isEmpty()) {
+                int size = 0;
+                for (Iterator<ByteBuffer> pending = responses.iterator(); pending.hasNext() && size < batch.length;) {
+                    batch[size++] = pending.next();
+                }
+                channel.write(batch, 0, size);
+                for (int i = 0; i < size && !batch[i].hasRemaining(); i++) {
+                    responses.poll();
+                    pendingBytes.addAndGet(-batch[i].capacity());
+                }
+                if (batch[size - 1].hasRemaining()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Queues a response and wakes up the selector thread, called by the thread that answered the request.
+         * @param response Json representation of the response.
+         */
+        private void send(final String response) {
+            if (closed) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            // a batch of only notifications is answered with an empty response, nothing is written for it
+            if (!response.isEmpty()) {
+                byte[] bytes = (response + "\n").getBytes(StandardCharsets.UTF_8);
+                pendingBytes.addAndGet(bytes.length);
+                responses.add(ByteBuffer.wrap(bytes));
+            }
+            // decremented after queueing, so a half closed connection is not closed before the response is written
+            inFlight.decrementAndGet();
+            if (changeQueued.compareAndSet(false, true)) {
+                changedConnections.add(this);
+                selector.wakeup();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the connection is gone either way
+            }
+        }
+    }
+
+    /**
+     * Sends the response to a request back over the connection it was received on, only the first response is used.
+     */
+    private static final class ResponseCallback implements Callback<String> {
+        /** Connection the request was received on. */
+        private final Connection connection;
+        /** The request, used to find its id when it fails without a response. */
+        private final String requestJson;
+        /** Whether the request has been answered. */
+        private final AtomicBoolean answered;
+
+        private ResponseCallback(final Connection newConnection, final String newRequestJson) {
+            this.connection = newConnection;
+            this.requestJson = newRequestJson;
+            this.answered = new AtomicBoolean(false);
+        }
+
+        @Override
+        public void accept(final String response) {
+            if (answered.compareAndSet(false, true)) {
+                connection.send(response);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            Object id = null;
+            try {
+                id = JSONRPC2Request.parse(requestJson).getID();
+            } catch (JSONRPC2ParseException e) {
+                // a batch or a malformed request, the error is sent without id
+            }
+            accept(new JSONRPC2Response(new JSONRPC2Error(500, "An unknown error occurred.",
+                    String.valueOf(error.getMessage())), id).toJSONString());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package api;
+
+import com.thetransactioncompany.jsonrpc2.JSONRPC2ParseException;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Request;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
+import net.minidev.json.JSONValue;
+import util.Log;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static api.ApiService.PREFIX;
+
+/**
+ * @author Saul
+ * @version 1
+ * Records every api call with its full parameters to a file, for replaying production traffic against a test system
+ * with the replay tool of the test suite. Every line is a json object with the start time of the call in epoch
+ * milliseconds, its latency in microseconds, its error code (0 for success), the request and, when it is short, the
+ * result, which the replay tool uses to map tokens and account numbers of the capture to the ones of the replay.
+ * Capturing is enabled by setting gni.api.captureFile, calls are written on a background thread and dropped when the
+ * writer falls behind.
+ */
+final class TrafficCapture {
+    /** File the calls are appended to, capturing is disabled when it is not set. */
+    private static final String CAPTURE_FILE = System.getProperty("gni.api.captureFile");
+    /** Maximum amount of calls waiting to be written. */
+    private static final int QUEUE_SIZE = 65536;
+    /** Maximum length of a result that is written, longer results are left out. */
+    private static final int MAX_RESULT_LENGTH = 4096;
+    /** Calls waiting to be written. */
+    private final BlockingQueue<CapturedCall> queue;
+    /** Output of the capture file, only used by the writer thread. */
+    private final Writer out;
+    /** Amount of calls that were dropped because the queue was full. */
+    private final AtomicLong dropped;
+
+    private TrafficCapture(final Writer newOut) {
+        this.queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        this.out = newOut;
+        this.dropped = new AtomicLong();
+        Thread writer = new Thread(this::writeCalls, "gni-api-capture");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "gni-api-capture-flush"));
+    }
+
+    /**
+     * Opens the capture file if capturing is enabled.
+     * @return The capture, or null if capturing is disabled or the file can not be opened.
+     */
+    static TrafficCapture open() {
+        if (CAPTURE_FILE == null || CAPTURE_FILE.isEmpty()) {
+            return null;
+        }
+        try {
+            TrafficCapture capture = new TrafficCapture(new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(CAPTURE_FILE, true), StandardCharsets.UTF_8), 1 << 16));
+            Log.info(PREFIX, "Capturing api calls to %s.", CAPTURE_FILE);
+            return capture;
+        } catch (IOException e) {
+            Log.error(PREFIX, "Could not open the capture file %s: %s", CAPTURE_FILE, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Queues a call to be written.
+     * @param request The request of the call.
+     * @param response Json representation of the response.
+     * @param error Error code of the response, 0 when the call succeeded.
+     * @param startMillis Time the call started, in epoch milliseconds.
+     * @param latencyNanos Time it took to answer the call.
+     */
+    void record(final JSONRPC2Request request, final String response, final int error, final long startMillis,
+                final long latencyNanos) {
+        if (!queue.offer(new CapturedCall(request, response, error, startMillis, latencyNanos))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void writeCalls() {
+        while (true) {
+            try {
+                CapturedCall call = queue.take();
+                synchronized (out) {
+                    write(call);
+                    if (queue.isEmpty()) {
+                        flush();
+                    }
+                }
+            } catch (InterruptedException e) {
+                flush();
+                return;
+            }
+        }
+    }
+
+    private void flush() {
+        synchronized (out) {
+            CapturedCall call;
+            while ((call = queue.poll()) != null) {
+                write(call);
+            }
+            long droppedCalls = dropped.getAndSet(0);
+            if (droppedCalls > 0) {
+                Log.warn(PREFIX, "Dropped %d captured calls because the capture file could not keep up.",
+                        droppedCalls);
+            }
+            try {
+                out.flush();
+            } catch (IOException e) {
+                Log.warn(PREFIX, "Could not write to the capture file: %s", e.getMessage());
+            }
+        }
+    }
+
+    private void write(final CapturedCall call) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("start", call.startMillis);
+        line.put("latencyMicros", call.latencyNanos / 1000);
+        line.put("error", call.error);
+        line.put("request", call.request.toJSONObject());
+        if (call.response != null && call.response.length() <= MAX_RESULT_LENGTH) {
+            try {
+                JSONRPC2Response response = JSONRPC2Response.parse(call.response);
+                if (response.indicatesSuccess()) {
+                    line.put("result", response.getResult());
+                }
+            } catch (JSONRPC2ParseException e) {
+                // the call is captured without result
+            }
+        }
+        try {
+            out.write(JSONValue.toJSONString(line));
+            out.write('\n');
+        } catch (IOException e) {
+            Log.warn(PREFIX, "Could not write to the capture file: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * A call waiting to be written.
+     */
+    private static final class CapturedCall {
+        /** The request of the call. */
+        private final JSONRPC2Request request;
+        /** Json representation of the response. */
+        private final String response;
+        /** Error code of the response. */
+        private final int error;
+        /** Time the call started, in epoch milliseconds. */
+        private final long startMillis;
+        /** Time it took to answer the call. */
+        private final long latencyNanos;
+
+        private CapturedCall(final JSONRPC2Request newRequest, final String newResponse, final int newError,
+                             final long newStartMillis, final long newLatencyNanos) {
+            this.request = newRequest;
+            this.response = newResponse;
+            this.error = newError;
+            this.startMillis = newStartMillis;
+            this.latencyNanos = newLatencyNanos;
+        }
+    }
+}
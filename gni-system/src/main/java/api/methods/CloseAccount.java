@@ -7,6 +7,7 @@ import databeans.AccountLink;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +28,7 @@ public abstract class CloseAccount {
      * @param api DataBean containing everything in the ApiService
      */
     public static void closeAccount(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Sending close account request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending close account request.");
         handleAccountRemovalExceptions((String) params.get("iBAN"), (String) params.get("authToken"), api);
     }
 
@@ -78,7 +79,7 @@ public abstract class CloseAccount {
         data.setMethodType(MethodType.CLOSE_ACCOUNT);
         data.setData(accountNumber);
 
-        System.out.printf("%s Forwarding account removal request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding account removal request.");
         api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/account/remove",
                 "data", api.getJsonConverter().toJson(data),
                 (httpStatusCode, httpContentType, replyJson) -> {
@@ -103,7 +104,7 @@ public abstract class CloseAccount {
      * @param api DataBean containing everything in the ApiService
      */
     private static void sendCloseAccountCallback(final ApiBean api) {
-        System.out.printf("%s Successfully closed account\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "Successfully closed account");
         Map<String, Object> result = new HashMap<>();
         api.getCallbackBuilder().build().reply(new JSONRPC2Response(result, api.getId()).toJSONString());
     }
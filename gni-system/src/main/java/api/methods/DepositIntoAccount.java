@@ -7,6 +7,7 @@ import databeans.MessageWrapper;
 import databeans.PinTransaction;
 import databeans.Transaction;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +28,7 @@ public abstract class DepositIntoAccount {
      * @param api DataBean containing everything in the ApiService
      */
     public static void depositIntoAccount(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Sending deposit transaction.\n", PREFIX);
+        Log.debug(PREFIX, "Sending deposit transaction.");
         String accountNumber = (String) params.get("iBAN");
         String pinCode = (String) params.get("pinCode");
         String pinCard = (String) params.get("pinCard");
@@ -42,12 +43,12 @@ public abstract class DepositIntoAccount {
                         if (!messageWrapper.isError()) {
                             Transaction reply = (Transaction) messageWrapper.getData();
                             if (reply.isSuccessful() && reply.isProcessed()) {
-                                System.out.printf("%s ATM transaction successful.\n\n\n", PREFIX);
+                                Log.debug(PREFIX, "ATM transaction successful.");
                                 Map<String, Object> result = new HashMap<>();
                                 JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
                                 api.getCallbackBuilder().build().reply(response.toJSONString());
                             } else {
-                                System.out.printf("%s ATM transaction was not successful.\n\n\n", PREFIX);
+                                Log.debug(PREFIX, "ATM transaction was not successful.");
                                 sendErrorReply(JSONParser.createMessageWrapper(true, 500,
                                         "Unknown error occurred."), api);
                             }
@@ -55,7 +56,7 @@ public abstract class DepositIntoAccount {
                             sendErrorReply(messageWrapper, api);
                         }
                     } else {
-                        System.out.printf("%s ATM transaction request failed, body: %s\n\n\n\n", PREFIX, body);
+                        Log.warn(PREFIX, "ATM transaction request failed, body: %s", body);
                         JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
                                 "An unknown error occurred.",
                                 "There was a problem with one of the HTTP requests"), api.getId());
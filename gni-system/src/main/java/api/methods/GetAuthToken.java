@@ -9,6 +9,7 @@ import databeans.AuthenticationType;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,7 +31,7 @@ public abstract class GetAuthToken {
      * @param api DataBean containing everything in the ApiService
      */
     public static void getAuthToken(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Logging in.\n", PREFIX);
+        Log.debug(PREFIX, "Logging in.");
         handleLoginExceptions(new Authentication((String) params.get("username"),
                 (String) params.get("password")), null, api);
     }
@@ -44,7 +45,7 @@ public abstract class GetAuthToken {
      */
     public static void getAuthTokenForPinCard(final Authentication authentication,
             final String accountNumber, final ApiBean api) {
-        System.out.printf("%s Logging in.\n", PREFIX);
+        Log.debug(PREFIX, "Logging in.");
         handleLoginExceptions(authentication, accountNumber, api);
     }
 
@@ -61,11 +62,11 @@ public abstract class GetAuthToken {
             verifyLoginInput(authData);
             doLoginRequest(authData, createPin, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value."), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value."), api);
         }
@@ -127,8 +128,8 @@ public abstract class GetAuthToken {
      */
     private static void sendLoginRequestCallback(
             final Authentication loginReply, final String createPin, final ApiBean api) {
-        System.out.printf("%s Successful login, set the following cookie: %s\n\n\n\n",
-                PREFIX, loginReply.getCookie());
+        Log.debug(PREFIX, "Successful login, set the following cookie: %s",
+                loginReply.getCookie());
         if (createPin != null) {
             doNewPinCardRequest(MethodType.GET_AUTH_TOKEN, createPin, loginReply.getUsername(), loginReply.getCookie(), api, true);
         } else {
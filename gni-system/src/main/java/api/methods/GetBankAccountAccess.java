@@ -6,6 +6,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.RequestType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.Map;
 
@@ -27,7 +28,7 @@ public abstract class GetBankAccountAccess {
                 RequestType.ACCOUNTACCESSLIST, 0L);
         MessageWrapper messageWrapper = JSONParser.createMessageWrapper(false, 0, "Request", request);
         messageWrapper.setMethodType(MethodType.GET_BANK_ACCOUNT_ACCESS);
-        System.out.printf("%s Sending BankAccountAccess request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending BankAccountAccess request.");
         handleDataRequestExceptions(messageWrapper, (String) params.get("authToken"), 0L, api);
     }
 }
@@ -0,0 +1,55 @@
+package api.methods;
+
+import api.ApiBean;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Error;
+import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
+import databeans.MessageWrapper;
+import databeans.MethodType;
+import util.JSONParser;
+import util.Log;
+
+import java.util.Map;
+
+import static api.ApiService.PREFIX;
+import static api.methods.SharedUtilityMethods.sendErrorReply;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * @author Saul
+ */
+public abstract class GetBankStatistics {
+
+    /**
+     * Requests the bank wide totals of the ledger and the credit cards.
+     * @param params Parameters of the request(authToken).
+     * @param api DataBean containing everything in the ApiService
+     */
+    public static void getBankStatistics(final Map<String, Object> params, final ApiBean api) {
+        Log.debug(PREFIX, "Sending bank statistics request.");
+        MessageWrapper request = JSONParser.createMessageWrapper(false, 0, "Admin Request");
+        request.setMethodType(MethodType.GET_BANK_STATISTICS);
+        request.setCookie((String) params.get("authToken"));
+        api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/systemInformation",
+                "data", api.getJsonConverter().toJson(request), (code, contentType, body) -> {
+            if (code == HTTP_OK) {
+                MessageWrapper messageWrapper = api.getJsonConverter().fromJson(
+                        JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
+                if (!messageWrapper.isError()) {
+                    Map<String, Object> statistics = (Map<String, Object>) messageWrapper.getData();
+                    Log.debug(PREFIX, "Bank statistics successfully queried: %s", statistics);
+                    JSONRPC2Response response = new JSONRPC2Response(statistics, api.getId());
+                    api.getCallbackBuilder().build().reply(response.toJSONString());
+                } else {
+                    Log.warn(PREFIX, "Bank statistics request unsuccessful.");
+                    sendErrorReply(messageWrapper, api);
+                }
+            } else {
+                Log.warn(PREFIX, "Bank statistics request failed, body: %s", body);
+                JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
+                        "An unknown error occurred.",
+                        "There was a problem with one of the HTTP requests"), api.getId());
+                api.getCallbackBuilder().build().reply(response.toJSONString());
+            }
+        });
+    }
+}
@@ -7,6 +7,7 @@ import databeans.MessageWrapper;
 import databeans.MetaMethodData;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -27,7 +28,7 @@ public abstract class GetDate {
      * @param api DataBean containing everything in the ApiService
      */
     public static void getDate(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Sending current date request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending current date request.");
         MessageWrapper request = JSONParser.createMessageWrapper(false, 0, "Admin Request");
         request.setMethodType(MethodType.GET_DATE);
         request.setCookie((String) params.get("authToken"));
@@ -38,18 +39,18 @@ public abstract class GetDate {
                         JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
                     LocalDate date = (LocalDate) messageWrapper.getData();
-                    System.out.printf("%s Current date successfully queried, the current date is: %s\n\n\n\n",
-                            PREFIX, date.toString());
+                    Log.debug(PREFIX, "Current date successfully queried, the current date is: %s",
+                            date.toString());
                     Map<String, Object> result = new HashMap<>();
                     result.put("date", date.toString());
                     JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
                     api.getCallbackBuilder().build().reply(response.toJSONString());
                 } else {
-                    System.out.printf("%s Date request unsuccessful.\n\n\n\n", PREFIX);
+                    Log.warn(PREFIX, "Date request unsuccessful.");
                     sendErrorReply(messageWrapper, api);
                 }
             } else {
-                System.out.printf("%s Date request unblocking failed, body: %s\n\n\n\n", PREFIX, body);
+                Log.warn(PREFIX, "Date request unblocking failed, body: %s", body);
                 JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
                         "An unknown error occurred.",
                         "There was a problem with one of the HTTP requests"), api.getId());
@@ -7,6 +7,7 @@ import databeans.MessageWrapper;
 import databeans.MetaMethodData;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -28,7 +29,7 @@ public abstract class GetEventLogs {
      * @param api DataBean containing everything in the ApiService
      */
     public static void getEventLogs(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Sending event log request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending event log request.");
         LocalDate beginDate = LocalDate.parse((String) params.get("beginDate"));
         LocalDate endDate = LocalDate.parse((String) params.get("endDate"));
         MessageWrapper request = JSONParser.createMessageWrapper(
@@ -42,18 +43,20 @@ public abstract class GetEventLogs {
                                                         JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
                     List<Map<String, Object>> logs = (List<Map<String, Object>>) messageWrapper.getData();
-                    for(Map<String, Object> log : logs) {
-                        System.out.println(log.toString());
+                    if (Log.isDebugEnabled()) {
+                        for (Map<String, Object> log : logs) {
+                            Log.debug(PREFIX, "Event log entry: %s", log);
+                        }
                     }
-                    System.out.printf("%s Retrieved event log, sending callback.\n\n\n\n", PREFIX);
+                    Log.debug(PREFIX, "Retrieved event log, sending callback.");
                     JSONRPC2Response response = new JSONRPC2Response(logs, api.getId());
                     api.getCallbackBuilder().build().reply(response.toJSONString());
                 } else {
-                    System.out.printf("%s Event log request unsuccessful.\n\n\n\n", PREFIX);
+                    Log.warn(PREFIX, "Event log request unsuccessful.");
                     sendErrorReply(messageWrapper, api);
                 }
             } else {
-                System.out.printf("%s Event log request failed, body: %s\n\n\n\n", PREFIX, body);
+                Log.warn(PREFIX, "Event log request failed, body: %s", body);
                 JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
                         "An unknown error occurred.",
                         "There was a problem with one of the HTTP requests"), api.getId());
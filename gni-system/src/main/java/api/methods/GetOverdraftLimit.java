@@ -7,6 +7,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.RequestType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -31,7 +32,7 @@ public abstract class GetOverdraftLimit {
                 RequestType.OVERDRAFTLIMIT, 0L);
         MessageWrapper messageWrapper = JSONParser.createMessageWrapper(false, 0, "Request", request);
         messageWrapper.setMethodType(MethodType.GET_OVERDRAFT_LIMIT);
-        System.out.printf("%s Sending close account request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending close account request.");
         handleDataRequestExceptions(messageWrapper, (String) params.get("authToken"), 0L, api);
     }
 }
@@ -6,6 +6,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.RequestType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.Map;
 
@@ -24,12 +25,14 @@ public abstract class GetTransactionsOverview {
      * @param api DataBean containing everything in the ApiService
      */
     public static void getTransactionsOverview(final Map<String, Object> params, final ApiBean api) {
+        long nrOfTransactions = ((Number) params.get("nrOfTransactions")).longValue();
         DataRequest request = JSONParser.createJsonDataRequest((String) params.get("iBAN"),
                 RequestType.TRANSACTIONHISTORY, 0L);
+        request.setTransactionLimit(nrOfTransactions);
         MessageWrapper messageWrapper = JSONParser.createMessageWrapper(false, 0, "Request", request);
         messageWrapper.setMethodType(MethodType.GET_TRANSACTION_OVERVIEW);
-        System.out.printf("%s Sending transactionOverview request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending transactionOverview request.");
         handleDataRequestExceptions(
-                messageWrapper, (String) params.get("authToken"), (Long) params.get("nrOfTransactions"), api);
+                messageWrapper, (String) params.get("authToken"), nrOfTransactions, api);
     }
 }
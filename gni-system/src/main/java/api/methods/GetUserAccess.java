@@ -6,6 +6,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.RequestType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.Map;
 
@@ -26,7 +27,7 @@ public abstract class GetUserAccess {
         DataRequest request = JSONParser.createJsonDataRequest(null, RequestType.CUSTOMERACCESSLIST, 0L);
         MessageWrapper messageWrapper = JSONParser.createMessageWrapper(false, 0, "Request", request);
         messageWrapper.setMethodType(MethodType.GET_USER_ACCESS);
-        System.out.printf("%s Sending UserAccess request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending UserAccess request.");
         handleDataRequestExceptions(messageWrapper, (String) params.get("authToken"), 0L, api);
     }
 }
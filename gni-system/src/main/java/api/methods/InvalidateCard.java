@@ -9,6 +9,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.PinCard;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -29,7 +30,7 @@ public abstract class InvalidateCard {
      * @param api DataBean containing everything in the ApiService
      */
     public static void invalidateCard(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Pin card replacement request received, processing...\n", PREFIX);
+        Log.debug(PREFIX, "Pin card replacement request received, processing...");
         try {
             String iBAN = (String) params.get("iBAN");
             String cardNumber = (String) params.get("pinCard");
@@ -40,13 +41,13 @@ public abstract class InvalidateCard {
             verifyPinCardRemovalInput(iBAN, cardNumber);
             doPinCardReplacementRequest(params, newPin, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s\n", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             api.getCallbackBuilder().build().reply(api.getJsonConverter().toJson(JSONParser.createMessageWrapper(
                     true, 422,
                     "The user could not be authenticated, a wrong combination of credentials was provided.",
                     e.getMessage())));
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             api.getCallbackBuilder().build().reply(api.getJsonConverter().toJson(JSONParser.createMessageWrapper(
                     true, 500, "Unknown error occurred.", "Syntax error when parsing json.")));
         }
@@ -112,7 +113,7 @@ public abstract class InvalidateCard {
      * @param api DataBean containing everything in the ApiService
      */
     private static void sendPinCardReplacementCallback(final PinCard pinCard, final boolean newPin, final ApiBean api) {
-        System.out.printf("%s Pin card replacement successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Pin card replacement successful, sending callback.");
         Map<String, Object> result = new HashMap<>();
         result.put("pinCard", "" + pinCard.getCardNumber());
         if (newPin) {
@@ -130,7 +131,7 @@ public abstract class InvalidateCard {
      */
     private static void sendCreditCardReplacementCallback(final CreditCard creditCard, final boolean newPin,
                                                           final ApiBean api) {
-        System.out.printf("%s Pin card replacement successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Pin card replacement successful, sending callback.");
         Map<String, Object> result = new HashMap<>();
         result.put("pinCard", "" + creditCard.getCreditCardNumber());
         if (newPin) {
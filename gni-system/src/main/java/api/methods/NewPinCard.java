@@ -9,6 +9,7 @@ import databeans.MethodType;
 import databeans.PinCard;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import util.JSONParser;
+import util.Log;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -56,7 +57,7 @@ public abstract class NewPinCard {
             verifyNewPinCardInput(accountNumber);
             doNewPinCardRequest(methodType, accountNumber, cookie, username, accountNrInResult, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value."), api);
         }
@@ -122,7 +123,7 @@ public abstract class NewPinCard {
      */
     private static void sendNewPinCardCallback(final PinCard newPinCard, final String accountNumber,
             final boolean accountNrInResult, final ApiBean api) {
-        System.out.printf("%s New pin card request successful.\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "New pin card request successful.");
         if (accountNrInResult) {
             sendOpenAccountCallback(api.getCallbackBuilder(), accountNumber, newPinCard.getCardNumber(),
                     newPinCard.getPinCode(), newPinCard.getExpirationDate(), api.getId());
@@ -9,6 +9,7 @@ import databeans.Customer;
 import databeans.MessageWrapper;
 import net.minidev.json.JSONArray;
 import util.JSONParser;
+import util.Log;
 
 import java.time.LocalDate;
 import java.util.Map;
@@ -64,14 +65,14 @@ public abstract class OpenAccount {
             verifyNewCustomerInput(newCustomer);
             verifyAgeInput(api, newCustomer);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s One of the parameters has an invalid value, sending error.\n", PREFIX);
+            Log.debug(PREFIX, "One of the parameters has an invalid value, sending error.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418, "Syntax error when parsing json."), api);
         } catch (NumberFormatException e) {
-            System.out.printf("%s The ssn, overdraft limit or balance was incorrectly specified.\n", PREFIX);
+            Log.debug(PREFIX, "The ssn, overdraft limit or balance was incorrectly specified.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the following variables was incorrectly specified: ssn, overdraft limit, balance."), api);
         }
@@ -142,7 +143,7 @@ public abstract class OpenAccount {
                     if ((newCustomer.isChild() && !is18) || (!newCustomer.isChild() && is18)) {
                         doNewCustomerRequest(newCustomer, api);
                     } else {
-                        System.out.printf("%s One of the parameters has an invalid value, sending error.\n", PREFIX);
+                        Log.debug(PREFIX, "One of the parameters has an invalid value, sending error.");
                         sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                                 "One of the parameters has an invalid value.",
                                 "Primary account holder needs to be 18 for a child account, and over 18 for a normal account."), api);
@@ -165,7 +166,7 @@ public abstract class OpenAccount {
      * @param api DataBean containing everything in the ApiService
      */
     private static void doNewCustomerRequest(final Customer customer, final ApiBean api) {
-        System.out.printf("%s Forwarding customer creation request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding customer creation request.");
         api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/customer",
                 "customer", api.getJsonConverter().toJson(customer),
                 (httpStatusCode, httpContentType, newCustomerReplyJson) -> {
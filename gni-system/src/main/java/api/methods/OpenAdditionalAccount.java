@@ -5,6 +5,7 @@ import databeans.Customer;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.Map;
 
@@ -66,8 +67,8 @@ public abstract class OpenAdditionalAccount {
     private static void sendNewAccountRequestCallback(
             final Customer newAccountReply, final String cookie, final ApiBean api) {
         String accountNumber = newAccountReply.getAccount().getAccountNumber();
-        System.out.printf("%s New Account creation successful, Account Holder: %s,"
-                + " AccountNumber: %s\n\n\n\n", PREFIX, newAccountReply.getCustomerId(), accountNumber);
+        Log.debug(PREFIX, "New Account creation successful, Account Holder: %s,"
+                + " AccountNumber: %s", newAccountReply.getCustomerId(), accountNumber);
         doNewPinCardRequest(MethodType.OPEN_ADDITIONAL_ACCOUNT, accountNumber, null, cookie, api, true);
     }
 }
@@ -5,6 +5,7 @@ import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -73,7 +74,7 @@ public abstract class OpenSavingsAccount {
      * @param api DataBean containing everything in the ApiService
      */
     private static void sendOpenSavingsAccountCallback(final ApiBean api) {
-        System.out.printf("%s Successfully opened savings account.\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "Successfully opened savings account.");
         Map<String, Object> result = new HashMap<>();
         api.getCallbackBuilder().build().reply(new JSONRPC2Response(result, api.getId()).toJSONString());
     }
@@ -7,6 +7,7 @@ import databeans.MessageWrapper;
 import databeans.PinTransaction;
 import databeans.Transaction;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -30,7 +31,7 @@ public abstract class PayFromAccount {
         PinTransaction pin = JSONParser.createJsonPinTransaction((String) params.get("sourceIBAN"),
                 (String) params.get("targetIBAN"), "", (String) params.get("pinCode"),
                 Long.parseLong((String) params.get("pinCard")), (Double) params.get("amount"), false);
-        System.out.printf("%s Sending pin transaction.\n", PREFIX);
+        Log.debug(PREFIX, "Sending pin transaction.");
         api.getPinClient().putFormAsyncWith1Param("/services/pin/transaction",
                 "request", api.getJsonConverter().toJson(pin), (code, contentType, body) -> {
                     if (code == HTTP_OK) {
@@ -39,12 +40,12 @@ public abstract class PayFromAccount {
                         if (!messageWrapper.isError()) {
                             Transaction reply = (Transaction) messageWrapper.getData();
                             if (reply.isSuccessful() && reply.isProcessed()) {
-                                System.out.printf("%s Pin transaction successful.\n\n\n", PREFIX);
+                                Log.debug(PREFIX, "Pin transaction successful.");
                                 Map<String, Object> result = new HashMap<>();
                                 JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
                                 api.getCallbackBuilder().build().reply(response.toJSONString());
                             } else {
-                                System.out.printf("%s Pin transaction was not successful.\n\n\n", PREFIX);
+                                Log.debug(PREFIX, "Pin transaction was not successful.");
                                 sendErrorReply(JSONParser.createMessageWrapper(true, 500,
                                         "Unknown error occurred."), api);
                             }
@@ -52,7 +53,7 @@ public abstract class PayFromAccount {
                             sendErrorReply(messageWrapper, api);
                         }
                     } else {
-                        System.out.printf("%s Pin transaction request failed, body: %s\n\n\n\n", PREFIX, body);
+                        Log.warn(PREFIX, "Pin transaction request failed, body: %s", body);
                         JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
                                 "An unknown error occurred.",
                                 "There was a problem with one of the HTTP requests"), api.getId());
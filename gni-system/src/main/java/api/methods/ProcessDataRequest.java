@@ -10,6 +10,7 @@ import databeans.MessageWrapper;
 import databeans.RequestType;
 import databeans.Transaction;
 import util.JSONParser;
+import util.Log;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -42,11 +43,11 @@ public abstract class ProcessDataRequest {
             verifyDataRequestInput((DataRequest) dataRequest.getData());
             doDataRequest(dataRequest, cookie, nrOfTransactions, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s, sending rejection.\n", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s, sending rejection.", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(
                     true, 418, "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s Incorrect json syntax detected, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "Incorrect json syntax detected, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(
                     true, 500, "Unknown error occurred.", "Incorrect json syntax used."), api);
         }
@@ -83,7 +84,7 @@ public abstract class ProcessDataRequest {
      */
     private static void doDataRequest(
             final MessageWrapper dataRequest, final String cookie, final long nrOfTransactions, final ApiBean api) {
-        System.out.printf("%s Forwarding data request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding data request.");
         api.getAuthenticationClient().getAsyncWith2Params("/services/authentication/data",
                 "request", api.getJsonConverter().toJson(dataRequest), "cookie", cookie,
                 (httpStatusCode, httpContentType, dataReplyJson) -> {
@@ -119,7 +120,7 @@ public abstract class ProcessDataRequest {
                 DecimalFormat numberFormat = new DecimalFormat("#.00");
                 Double balance = Double.valueOf(numberFormat.format(dataReply.getAccountData().getBalance()));
                 Double savingBalance = dataReply.getAccountData().getSavingsBalance();
-                System.out.printf("%s Balance request successful, sending callback.\n\n\n\n", PREFIX);
+                Log.debug(PREFIX, "Balance request successful, sending callback.");
                 Map<String, Object> balanceResult = new HashMap<>();
                 balanceResult.put("balance", balance);
                 if (dataReply.getAccountData().isSavingsActive()) {
@@ -132,7 +133,7 @@ public abstract class ProcessDataRequest {
                 sendDataRequestResponse(balanceResult, api);
                 break;
             case TRANSACTIONHISTORY:
-                System.out.printf("%s TransactionOverview request successful.\n\n\n\n", PREFIX);
+                Log.debug(PREFIX, "TransactionOverview request successful.");
                 List<Map<String, Object>> transactionList = new ArrayList<>();
                 int amountOfTransactions = Math.toIntExact(nrOfTransactions);
                 List<Transaction> transactions = dataReply.getTransactions();
@@ -152,7 +153,7 @@ public abstract class ProcessDataRequest {
                 sendDataRequestResponse(transactionList, api);
                 break;
             case CUSTOMERACCESSLIST:
-                System.out.printf("%s Accounts request successful.\n\n\n\n", PREFIX);
+                Log.debug(PREFIX, "Accounts request successful.");
                 List<Map<String, Object>> accounts = new ArrayList<>();
                 dataReply.getAccounts().forEach(k -> {
                     Map<String, Object> account = new HashMap<>();
@@ -163,7 +164,7 @@ public abstract class ProcessDataRequest {
                 sendDataRequestResponse(accounts, api);
                 break;
             case ACCOUNTACCESSLIST:
-                System.out.printf("%s BankAccountAccess request successful.\n\n\n\n", PREFIX);
+                Log.debug(PREFIX, "BankAccountAccess request successful.");
                 List<Map<String, Object>> accountList = new ArrayList<>();
                 dataReply.getAccounts().forEach(k -> {
                     Map<String, Object> account = new HashMap<>();
@@ -174,8 +175,8 @@ public abstract class ProcessDataRequest {
                 break;
             case OVERDRAFTLIMIT:
                 Double overdraftLimit = dataReply.getAccountData().getOverdraftLimit();
-                System.out.printf(
-                        "%s Successfully queried the current overdraft limit: %f.\n\n\n\n", PREFIX, overdraftLimit);
+                Log.debug(PREFIX,
+                        "Successfully queried the current overdraft limit: %f.", overdraftLimit);
                 Map<String, Object> result = new HashMap<>();
                 result.put("overdraftLimit", overdraftLimit);
                 sendDataRequestResponse(result, api);
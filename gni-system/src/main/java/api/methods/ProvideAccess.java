@@ -7,6 +7,7 @@ import databeans.AccountLink;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.Map;
 
@@ -34,7 +35,7 @@ public abstract class ProvideAccess {
         String username = (String) params.get("username");
         String cookie = (String) params.get("authToken");
         AccountLink accountLink = JSONParser.createJsonAccountLink(accountNumber, username, false);
-        System.out.printf("%s Sending account link request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending account link request.");
         handleAccountLinkExceptions(accountLink, cookie, api);
     }
 
@@ -51,11 +52,11 @@ public abstract class ProvideAccess {
             verifyAccountLinkInput(accountLink.getAccountNumber());
             doAccountLinkRequest(accountLink, cookie, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 500, "Unknown error occurred."), api);
         }
     }
@@ -100,9 +101,9 @@ public abstract class ProvideAccess {
      */
     private static void sendAccountLinkRequestCallback(
             final AccountLink accountLink, final String cookie, final ApiBean api) {
-        System.out.printf("%s Successful account link, sending callback.\n", PREFIX);
-        System.out.printf("%s Account link successful for Account Holder: %s, AccountNumber: %s\n\n\n\n",
-                PREFIX, accountLink.getCustomerId(), accountLink.getAccountNumber());
+        Log.debug(PREFIX, "Successful account link, sending callback.");
+        Log.debug(PREFIX, "Account link successful for Account Holder: %s, AccountNumber: %s",
+                accountLink.getCustomerId(), accountLink.getAccountNumber());
         doNewPinCardRequest(MethodType.PROVIDE_ACCESS, accountLink.getAccountNumber(), accountLink.getUsername(), cookie, api, false);
     }
 }
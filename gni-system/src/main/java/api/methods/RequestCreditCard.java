@@ -8,6 +8,7 @@ import databeans.CreditCard;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,7 +33,7 @@ public abstract class RequestCreditCard {
             verifyNewCreditCardInput(cookie, accountNumber);
             doNewCreditCardRequest(cookie, accountNumber, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s One of the parameters has an invalid value, sending error.\n", PREFIX);
+            Log.debug(PREFIX, "One of the parameters has an invalid value, sending error.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value."), api);
         }
@@ -52,7 +53,7 @@ public abstract class RequestCreditCard {
         data.setMethodType(MethodType.REQUEST_CREDIT_CARD);
         data.setData(accountNumber);
 
-        System.out.printf("%s Forwarding new credit card request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding new credit card request.");
         api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/creditCard",
                 "data", api.getJsonConverter().toJson(data), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode == HTTP_OK) {
@@ -73,7 +74,7 @@ public abstract class RequestCreditCard {
     }
 
     private static void sendRequestCreditCardCallback(final CreditCard creditCard, final ApiBean api) {
-        System.out.printf("%s Successfully created credit card, creating pin card for this credit card.\n", PREFIX);
+        Log.debug(PREFIX, "Successfully created credit card, creating pin card for this credit card.");
         Map<String, Object> result = new HashMap<>();
         result.put("pinCard", Long.toString(creditCard.getCreditCardNumber()));
         result.put("pinCode", creditCard.getPinCode());
@@ -6,6 +6,7 @@ import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -26,7 +27,7 @@ public abstract class Reset {
      * @param api DataBean containing everything in the ApiService
      */
     public static void reset(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Sending Reset request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending Reset request.");
         MessageWrapper request = JSONParser.createMessageWrapper(false, 0, "Admin Request");
         request.setMethodType(MethodType.RESET);
         request.setCookie((String) params.get("authToken"));
@@ -37,16 +38,16 @@ public abstract class Reset {
                         JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
                     LocalDate date = (LocalDate) messageWrapper.getData();
-                    System.out.printf("%s Reset successful, the current date is: %s\n\n\n\n", PREFIX, date.toString());
+                    Log.debug(PREFIX, "Reset successful, the current date is: %s", date.toString());
                     Map<String, Object> result = new HashMap<>();
                     JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
                     api.getCallbackBuilder().build().reply(response.toJSONString());
                 } else {
-                    System.out.printf("%s Reset unsuccessful.\n\n\n\n", PREFIX);
+                    Log.warn(PREFIX, "Reset unsuccessful.");
                     sendErrorReply(messageWrapper, api);
                 }
             } else {
-                System.out.printf("%s Reset request failed, body: %s\n\n\n\n", PREFIX, body);
+                Log.warn(PREFIX, "Reset request failed, body: %s", body);
                 JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
                         "An unknown error occurred.",
                         "There was a problem with one of the HTTP requests"), api.getId());
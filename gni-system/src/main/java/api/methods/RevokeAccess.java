@@ -8,6 +8,7 @@ import databeans.AccountLink;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,7 +33,7 @@ public abstract class RevokeAccess {
         // look at documentation for more specifics.
         String accountNumber = (String) params.get("iBAN");
         String cookie = (String) params.get("authToken");
-        System.out.printf("%s Sending account link removal request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending account link removal request.");
         handleAccountLinkRemovalExceptions(accountNumber, cookie, api);
     }
 
@@ -49,11 +50,11 @@ public abstract class RevokeAccess {
             verifyAccountLinkInput(accountNumber);
             doAccountLinkRemoval(accountNumber, cookie, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 500, "Unknown error occurred."), api);
         }
     }
@@ -97,7 +98,7 @@ public abstract class RevokeAccess {
      * @param api DataBean containing everything in the ApiService
      */
     private static void sendAccountLinkRemovalCallback(final String customerId, final ApiBean api) {
-        System.out.printf("%s Account link removal successful for CustomerId: %s\n\n\n\n", PREFIX, customerId);
+        Log.debug(PREFIX, "Account link removal successful for CustomerId: %s", customerId);
         sendRevokeAccessCallback(api);
     }
 
@@ -6,6 +6,7 @@ import databeans.FreezeAccount;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +28,7 @@ public abstract class SetFreezeUserAccount {
         data.setCookie(cookie);
         data.setMethodType(MethodType.SET_FREEZE_USER_ACCOUNT);
         data.setData(new FreezeAccount(freeze, username));
-        System.out.printf("%s Sending setFreezeUserAccount request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending setFreezeUserAccount request.");
         doSetFreezeUserAccountRequest(data, api);
     }
 
@@ -52,7 +53,7 @@ public abstract class SetFreezeUserAccount {
     }
 
     private static void sendSetFreezeUserAccountCallback(final ApiBean api) {
-        System.out.printf("%s SetFreezeUserAccount request successful.\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "SetFreezeUserAccount request successful.");
         Map<String, Object> result = new HashMap<>();
         JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
         api.getCallbackBuilder().build().reply(response.toJSONString());
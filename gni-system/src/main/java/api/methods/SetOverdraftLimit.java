@@ -6,6 +6,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.Transaction;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -25,7 +26,7 @@ public abstract class SetOverdraftLimit {
      * @param api DataBean containing everything in the ApiService
      */
     public static void setOverdraftLimit(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s Sending set overdraft limit request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending set overdraft limit request.");
         doSetOverdraftRequest((String) params.get("iBAN"),
                 (String) params.get("authToken"),
                 (Double) params.get("overdraftLimit"), api);
@@ -46,7 +47,7 @@ public abstract class SetOverdraftLimit {
         data.setMethodType(MethodType.SET_OVERDRAFT_LIMIT);
         data.setData(new Transaction(overdraftLimit, accountNumber));
 
-        System.out.printf("%s Forwarding setOverdraft request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding setOverdraft request.");
         api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/overdraft/set",
                 "data", api.getJsonConverter().toJson(data), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode == HTTP_OK) {
@@ -70,7 +71,7 @@ public abstract class SetOverdraftLimit {
      * @param api DataBean containing everything in the ApiService
      */
     private static void sendSetOverdraftLimitCallback(final ApiBean api) {
-        System.out.printf("%s Successfully set the new overdraft limit.\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "Successfully set the new overdraft limit.");
         Map<String, Object> result = new HashMap<>();
         api.getCallbackBuilder().build().reply(new JSONRPC2Response(result, api.getId()).toJSONString());
     }
@@ -6,6 +6,7 @@ import api.IncorrectInputException;
 import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
 import databeans.MessageWrapper;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,7 +21,7 @@ import static java.net.HttpURLConnection.HTTP_OK;
  */
 public abstract class SetTransferLimit {
     public static void setTransferLimit(final Map<String, Object> params, final ApiBean api) {
-        System.out.printf("%s sending set transfer limit request.\n", ApiService.PREFIX);
+        Log.debug(ApiService.PREFIX, "sending set transfer limit request.");
         handleTransferLimitExceptions(params, api);
     }
 
@@ -72,7 +73,7 @@ public abstract class SetTransferLimit {
     }
 
     private static void sendSetTransferLimitCallback(final ApiBean api) {
-        System.out.printf("%s Successfully set transfer limit.\n", PREFIX);
+        Log.debug(PREFIX, "Successfully set transfer limit.");
         Map<String, Object> result = new HashMap<>();
         api.getCallbackBuilder().build().reply(new JSONRPC2Response(result, api.getId()).toJSONString());
     }
@@ -6,6 +6,7 @@ import com.google.gson.JsonSyntaxException;
 import com.thetransactioncompany.jsonrpc2.JSONRPC2Response;
 import databeans.*;
 import util.JSONParser;
+import util.Log;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -30,7 +31,7 @@ public abstract class SetValue {
         double value = valueParam.doubleValue();
         String date = (String) params.get("date");
 
-        System.out.printf("%s Checking parameters...\n", PREFIX);
+        Log.debug(PREFIX, "Checking parameters...");
         handleSetValueExceptions(key, value, date, cookie, api);
     }
 
@@ -42,16 +43,16 @@ public abstract class SetValue {
             checkNumberFormat(value, setValueKey);
             doSetValueRequest(new SetValueRequest(setValueKey, value, localDate), cookie, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s, sending rejection.\n", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s, sending rejection.", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (DateTimeParseException e) {
-            System.out.printf("%s The provided date does not meet the correct format, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The provided date does not meet the correct format, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.",
                     "The provided date does not meet the correct format."), api);
         } catch (NumberFormatException e) {
-            System.out.printf("%s The transaction amount was incorrectly specified, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The transaction amount was incorrectly specified, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         }
@@ -110,7 +111,7 @@ public abstract class SetValue {
         data.setMethodType(MethodType.SET_VALUE);
         data.setData(request);
 
-        System.out.printf("%s Forwarding setValue request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding setValue request.");
         api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/setValue",
                 "data", api.getJsonConverter().toJson(data),
                 (httpStatusCode, httpContentType, transactionReplyJson) -> {
@@ -131,7 +132,7 @@ public abstract class SetValue {
     }
 
     private static void sendSetValueCallback(final ApiBean api) {
-        System.out.printf("%s SetValue request successful.\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "SetValue request successful.");
         Map<String, Object> result = new HashMap<>();
         JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
         api.getCallbackBuilder().build().reply(response.toJSONString());
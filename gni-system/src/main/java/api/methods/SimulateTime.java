@@ -7,6 +7,7 @@ import databeans.MessageWrapper;
 import databeans.MetaMethodData;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +28,7 @@ public abstract class SimulateTime {
      */
     public static void simulateTime(final Map<String, Object> params, final ApiBean api) {
         long nrOfDays = (Long) params.get("nrOfDays");
-        System.out.printf("%s Sending simulate time request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending simulate time request.");
         MessageWrapper request = JSONParser.createMessageWrapper(
                 false, 0, "Admin Request", new MetaMethodData(nrOfDays));
         request.setMethodType(MethodType.SIMULATE_TIME);
@@ -38,8 +39,8 @@ public abstract class SimulateTime {
                 MessageWrapper messageWrapper = api.getJsonConverter().fromJson(
                         JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
-                    System.out.printf("%s %s days have now passed on the system.\n\n\n\n",
-                            PREFIX, "" + nrOfDays);
+                    Log.debug(PREFIX, "%s days have now passed on the system.",
+                            "" + nrOfDays);
                     Map<String, Object> result = new HashMap<>();
                     JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
                     api.getCallbackBuilder().build().reply(response.toJSONString());
@@ -47,7 +48,7 @@ public abstract class SimulateTime {
                     sendErrorReply(messageWrapper, api);
                 }
             } else {
-                System.out.printf("%s Simulate time request unsuccessful.\n\n\n\n", PREFIX);
+                Log.warn(PREFIX, "Simulate time request unsuccessful.");
                 JSONRPC2Response response = new JSONRPC2Response(new JSONRPC2Error(500,
                         "An unknown error occurred.",
                         "There was a problem with one of the HTTP requests"), api.getId());
@@ -8,6 +8,7 @@ import databeans.AccountLink;
 import databeans.MessageWrapper;
 import databeans.MethodType;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +28,7 @@ public abstract class TransferBankAccount {
         String username = (String) params.get("username");
         String cookie = (String) params.get("authToken");
         AccountLink accountLink = JSONParser.createJsonAccountLink(accountNumber, username, false);
-        System.out.printf("%s Sending TransferBankAccount request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending TransferBankAccount request.");
         handleTransferBankAccountExceptions(accountLink, cookie, api);
     }
 
@@ -37,11 +38,11 @@ public abstract class TransferBankAccount {
             verifyAccountLinkInput(accountLink.getAccountNumber());
             doTransferBankAccountRequest(accountLink, cookie, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 500, "Unknown error occurred."), api);
         }
     }
@@ -73,7 +74,7 @@ public abstract class TransferBankAccount {
     }
 
     private static void sendTransferBankAccountCallback(final ApiBean api) {
-        System.out.printf("%s Bank Account Transfer successful.\n\n\n\n", PREFIX);
+        Log.debug(PREFIX, "Bank Account Transfer successful.");
         Map<String, Object> result = new HashMap<>();
         JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
         api.getCallbackBuilder().build().reply(response.toJSONString());
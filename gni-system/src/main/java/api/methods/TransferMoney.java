@@ -8,6 +8,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.Transaction;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,7 +36,7 @@ public abstract class TransferMoney {
         Transaction transaction = JSONParser.createJsonTransaction(-1, (String) params.get("sourceIBAN"),
                 (String) params.get("targetIBAN"), (String) params.get("targetName"),
                 (String) params.get("description"), (Double) params.get("amount"), false, false);
-        System.out.printf("%s Sending internal transaction.\n", PREFIX);
+        Log.debug(PREFIX, "Sending internal transaction.");
         handleTransactionExceptions(transaction, cookie, api);
     }
 
@@ -52,15 +53,15 @@ public abstract class TransferMoney {
             verifyTransactionInput(transaction);
             doTransactionRequest(transaction, cookie, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s, sending rejection.\n", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s, sending rejection.", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value."), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 500,
                     "Unknown error occurred.", "Syntax error when parsing json."), api);
         } catch (NumberFormatException e) {
-            System.out.printf("%s The transaction amount was incorrectly specified, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The transaction amount was incorrectly specified, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.",
                     "The following variable was incorrectly specified: transactionAmount."), api);
@@ -114,7 +115,7 @@ public abstract class TransferMoney {
         data.setMethodType(MethodType.TRANSFER_MONEY);
         data.setData(transaction);
 
-        System.out.printf("%s Forwarding transaction request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding transaction request.");
         api.getAuthenticationClient().putFormAsyncWith1Param("/services/authentication/transaction",
                 "data", api.getJsonConverter().toJson(data),
                 (httpStatusCode, httpContentType, transactionReplyJson) -> {
@@ -142,12 +143,12 @@ public abstract class TransferMoney {
     private static void sendTransactionCallback(final Transaction reply, final ApiBean api) {
         if (reply.isSuccessful() && reply.isProcessed()) {
             long transactionId = reply.getTransactionID();
-            System.out.printf("%s Internal transaction %d successful.\n\n\n\n", PREFIX, transactionId);
+            Log.debug(PREFIX, "Internal transaction %d successful.", transactionId);
             Map<String, Object> result = new HashMap<>();
             JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
             api.getCallbackBuilder().build().reply(response.toJSONString());
         } else {
-            System.out.printf("%s Internal transaction was not successful\n\n\n\n", PREFIX);
+            Log.debug(PREFIX, "Internal transaction was not successful");
             sendErrorReply(JSONParser.createMessageWrapper(true, 500, "Unknown error occurred."), api);
         }
     }
@@ -8,6 +8,7 @@ import databeans.MessageWrapper;
 import databeans.MethodType;
 import databeans.PinCard;
 import util.JSONParser;
+import util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -32,7 +33,7 @@ public abstract class UnblockCard {
         String pinCard = (String) params.get("pinCard");
         String cookie = (String) params.get("authToken");
         PinCard request = new PinCard(accountNumber, Long.parseLong(pinCard));
-        System.out.printf("%s Sending pinCard unblock request.\n", PREFIX);
+        Log.debug(PREFIX, "Sending pinCard unblock request.");
         handlePinCardUnblockExceptions(request, cookie, api);
     }
 
@@ -48,11 +49,11 @@ public abstract class UnblockCard {
             verifyPinCardInput(pinCard);
             doPinCardUnblockRequest(pinCard, cookie, api);
         } catch (IncorrectInputException e) {
-            System.out.printf("%s %s", PREFIX, e.getMessage());
+            Log.debug(PREFIX, "%s", e.getMessage());
             sendErrorReply(JSONParser.createMessageWrapper(true, 418,
                     "One of the parameters has an invalid value.", e.getMessage()), api);
         } catch (JsonSyntaxException e) {
-            System.out.printf("%s The json received contained incorrect syntax, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "The json received contained incorrect syntax, sending rejection.");
             sendErrorReply(JSONParser.createMessageWrapper(true, 500, "Unknown error occurred."), api);
         }
     }
@@ -108,8 +109,8 @@ public abstract class UnblockCard {
      * @param api DataBean containing everything in the ApiService
      */
     private static void sendPinCardUnblockRequestCallback(final PinCard pinCard, final ApiBean api) {
-        System.out.printf("%s PinCard unblocked successfully for AccountNumber: %s, CardNumber: %s\n\n\n\n",
-                PREFIX, pinCard.getAccountNumber(), pinCard.getCardNumber());
+        Log.debug(PREFIX, "PinCard unblocked successfully for AccountNumber: %s, CardNumber: %s",
+                pinCard.getAccountNumber(), pinCard.getCardNumber());
         Map<String, Object> result = new HashMap<>();
         JSONRPC2Response response = new JSONRPC2Response(result, api.getId());
         api.getCallbackBuilder().build().reply(response.toJSONString());
@@ -2,18 +2,20 @@ package authentication;
 
 import com.google.gson.Gson;
 import database.ConnectionPool;
+import database.DatabaseExecutor;
 import database.SQLConnection;
 import database.SQLStatements;
 import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.http.request.HttpTextReceiver;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import users.CustomerDoesNotExistException;
 import util.JSONParser;
+import util.Log;
+import util.ServiceTransport;
 
 import java.net.HttpURLConnection;
 import java.security.SecureRandom;
@@ -25,7 +27,6 @@ import java.util.List;
 import java.util.Map;
 
 import static database.SQLStatements.*;
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -35,15 +36,17 @@ import static java.net.HttpURLConnection.HTTP_OK;
 @RequestMapping("/authentication")
 class AuthenticationService {
     /** Connection to the users service. */
-    private HttpClient usersClient;
+    private ServiceTransport usersClient;
     /** Connection to the pin service. */
-    private HttpClient pinClient;
+    private ServiceTransport pinClient;
     /** Connection to the ledger service. */
-    private HttpClient ledgerClient;
+    private ServiceTransport ledgerClient;
     /** Connection to the SystemInformation service. */
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
     /** Database connection pool containing persistent database connections. */
     private ConnectionPool databaseConnectionPool;
+    /** Executes the database work of the requests, login and customer creation are executed serially. */
+    private DatabaseExecutor databaseExecutor;
     /** Secure Random Number Generator. */
     private SecureRandom secureRandomNumberGenerator;
     /** Used for Json conversions. */
@@ -62,9 +65,10 @@ class AuthenticationService {
      */
     AuthenticationService(final int servicePort, final String serviceHost,
                           final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.databaseConnectionPool = new ConnectionPool();
+        this.databaseExecutor = new DatabaseExecutor("Authentication");
         this.secureRandomNumberGenerator = new SecureRandom();
         this.jsonConverter = new Gson();
         sendServiceInformation(servicePort, serviceHost);
@@ -78,7 +82,7 @@ class AuthenticationService {
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(
                 servicePort, serviceHost, ServiceType.AUTHENTICATION_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
             if (httpStatusCode != HTTP_OK) {
@@ -104,14 +108,11 @@ class AuthenticationService {
         ServiceInformation pin = sysInfo.getPinServiceInformation();
         ServiceInformation ledger = sysInfo.getLedgerServiceInformation();
 
-        this.usersClient = httpClientBuilder().setHost(users.getServiceHost())
-                .setPort(users.getServicePort()).buildAndStart();
-        this.pinClient = httpClientBuilder().setHost(pin.getServiceHost())
-                .setPort(pin.getServicePort()).buildAndStart();
-        this.ledgerClient = httpClientBuilder().setHost(ledger.getServiceHost())
-                .setPort(ledger.getServicePort()).buildAndStart();
+        this.usersClient = ServiceTransport.connect(users.getServiceHost(), users.getServicePort());
+        this.pinClient = ServiceTransport.connect(pin.getServiceHost(), pin.getServicePort());
+        this.ledgerClient = ServiceTransport.connect(ledger.getServiceHost(), ledger.getServicePort());
 
-        System.out.printf("%s Initialization of Authentication service connections complete.\n", PREFIX);
+        Log.info(PREFIX, "Initialization of Authentication service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -146,7 +147,8 @@ class AuthenticationService {
                                    @RequestParam("request") final String dataRequestJson,
                                    @RequestParam("cookie") final String cookie) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleDataRequestExceptions(dataRequestJson, cookie, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleDataRequestExceptions(dataRequestJson, cookie, callbackBuilder));
     }
 
     /**
@@ -234,7 +236,7 @@ class AuthenticationService {
      * @param cookie Cookie String to convert to its data.
      * @return Long[] containing in index 0 the customerId of the customer and in index 1 the token of the customer.
      */
-    Long[] decodeCookie(final String cookie) {
+    static Long[] decodeCookie(final String cookie) {
         String[] cookieParts = cookie.split(":");
         Long[] cookieData = new Long[2];
         cookieData[0] = Long.parseLong(cookieParts[0]); //customerId
@@ -279,7 +281,7 @@ class AuthenticationService {
      * @param callbackBuilder Used to send the received reply back to the source of the request.
      */
     private void doDataRequest(final MessageWrapper dataRequest, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Forwarding data request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding data request.");
         if (dataRequest.getMethodType() == MethodType.GET_OVERDRAFT_LIMIT) {
             ledgerClient.putFormAsyncWith1Param("/services/ledger/overdraft/get",
                     "data", jsonConverter.toJson(dataRequest),
@@ -325,7 +327,7 @@ class AuthenticationService {
      * @param callbackBuilder Used to forward the result of the request to the request source.
      */
     private void sendGetOverdraftLimitCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Get overdraft limit request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Get overdraft limit request successful, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
@@ -369,7 +371,7 @@ class AuthenticationService {
      * @param callbackBuilder Used to send back the reply to the service that requested it.
      */
     private void sendDataRequestCallback(final DataReply dataReply, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Data request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Data request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", dataReply)));
     }
@@ -386,7 +388,8 @@ class AuthenticationService {
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        handleTransactionRequestExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleTransactionRequestExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -416,7 +419,7 @@ class AuthenticationService {
      */
     private void doTransactionRequest(final MessageWrapper messageWrapper, final Long customerId,
                                       final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Forwarding transaction request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding transaction request.");
         usersClient.putFormAsyncWith2Params("/services/users/transaction", "request",
                 jsonConverter.toJson(messageWrapper), "customerId", customerId.toString(),
                 (httpStatusCode, httpContentType, transactionReplyJson) -> {
@@ -443,7 +446,7 @@ class AuthenticationService {
      */
     private void sendTransactionRequestCallback(final String transactionReplyJson,
                                                 final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Transaction successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Transaction successful, sending callback.");
         callbackBuilder.build().reply(transactionReplyJson);
     }
 
@@ -455,9 +458,10 @@ class AuthenticationService {
     @RequestMapping(value = "/customer", method = RequestMethod.PUT)
     public void processNewCustomerRequest(final Callback<String> callback,
                                           @RequestParam("customer") final String newCustomerRequestJson) {
-        System.out.printf("%s Registering new customer login information.\n", PREFIX);
+        Log.debug(PREFIX, "Registering new customer login information.");
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleUsernameValidationExceptions(newCustomerRequestJson, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleUsernameValidationExceptions(newCustomerRequestJson, callbackBuilder));
     }
 
     /**
@@ -525,14 +529,15 @@ class AuthenticationService {
      */
     private void doNewCustomerRequest(final String newCustomerRequestJson,
                                       final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Forwarding customer creation request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding customer creation request.");
         usersClient.putFormAsyncWith1Param("/services/users/customer", "customer", newCustomerRequestJson,
                 (httpStatusCode, httpContentType, newCustomerReplyJson) -> {
                     if (httpStatusCode == HTTP_OK) {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(
                                 JSONParser.removeEscapeCharacters(newCustomerReplyJson), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            handleLoginCreationExceptions((Customer) messageWrapper.getData(), callbackBuilder);
+                            databaseExecutor.executeSerially(callbackBuilder, () -> handleLoginCreationExceptions(
+                                    (Customer) messageWrapper.getData(), callbackBuilder));
                         } else {
                             callbackBuilder.build().reply(newCustomerReplyJson);
                         }
@@ -587,7 +592,7 @@ class AuthenticationService {
      * @param callbackBuilder Json String representing a {@link Customer} that should be created.
      */
     private void sendNewCustomerRequestCallback(final Customer newCustomer, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Customer creation successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Customer creation successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", newCustomer)));
     }
@@ -600,54 +605,57 @@ class AuthenticationService {
     @RequestMapping(value = "/login", method = RequestMethod.PUT)
     public void login(final Callback<String> callback, final @RequestParam("authData") String authDataJson) {
         Authentication authData = jsonConverter.fromJson(authDataJson, Authentication.class);
-        if (authData.getType() == AuthenticationType.LOGIN) {
-            try {
-                SQLConnection connection = databaseConnectionPool.getConnection();
-                PreparedStatement ps = connection.getConnection().prepareStatement(getAuthenticationData1);
-                ps.setString(1, authData.getUsername());    // username
-                ResultSet rs = ps.executeQuery();
-                if (rs.next()) {
-                    long userId = rs.getLong("user_id");
-                    String password = rs.getString("password");
-                    if (password.equals(authData.getPassword())) {
-                        // Legitimate info
-                        Long validity = rs.getLong("token_validity");
-                        Long token;
-                        if (validity > System.currentTimeMillis()) {
-                            //token still valid, return this token.
-                            token = rs.getLong("token");
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            if (authData.getType() == AuthenticationType.LOGIN) {
+                try {
+                    SQLConnection connection = databaseConnectionPool.getConnection();
+                    PreparedStatement ps = connection.getConnection().prepareStatement(getAuthenticationData1);
+                    ps.setString(1, authData.getUsername());    // username
+                    ResultSet rs = ps.executeQuery();
+                    if (rs.next()) {
+                        long userId = rs.getLong("user_id");
+                        String password = rs.getString("password");
+                        if (password.equals(authData.getPassword())) {
+                            // Legitimate info
+                            Long validity = rs.getLong("token_validity");
+                            Long token;
+                            if (validity > System.currentTimeMillis()) {
+                                //token still valid, return this token.
+                                token = rs.getLong("token");
+                            } else {
+                                token = secureRandomNumberGenerator.nextLong();
+                                setNewToken(userId, token);
+                            }
+                            Log.debug(PREFIX, "Successful login for user %s, sending callback.",
+                                              authData.getUsername());
+                            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                                    false, 200, "Normal Reply",
+                                    new Authentication(encodeCookie(userId, token), AuthenticationType.REPLY))));
                         } else {
-                            token = secureRandomNumberGenerator.nextLong();
-                            setNewToken(userId, token);
+                            // Illegitimate info
+                            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 422,
+                                    "The user could not be authenticated, a wrong combination of credentials was provided.")));
                         }
-                        System.out.printf("%s Successful login for user %s, sending callback.\n", PREFIX,
-                                          authData.getUsername());
-                        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                                false, 200, "Normal Reply",
-                                new Authentication(encodeCookie(userId, token), AuthenticationType.REPLY))));
                     } else {
-                        // Illegitimate info
-                        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 422,
-                                "The user could not be authenticated, a wrong combination of credentials was provided.")));
+                        // username not found
+                        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418,
+                                "One of the parameters has an invalid value.",
+                                "The username does not seem to exist.")));
                     }
-                } else {
-                    // username not found
-                    callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418,
-                            "One of the parameters has an invalid value.",
-                            "The username does not seem to exist.")));
+                    rs.close();
+                    ps.close();
+                    databaseConnectionPool.returnConnection(connection);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                            "Error connecting to the authentication database.")));
                 }
-                rs.close();
-                ps.close();
-                databaseConnectionPool.returnConnection(connection);
-            } catch (SQLException e) {
-                e.printStackTrace();
-                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                        "Error connecting to the authentication database.")));
+            } else {
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                        true, 500, "Unknown error occurred.")));
             }
-        } else {
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                    true, 500, "Unknown error occurred.")));
-        }
+        });
     }
 
     /**
@@ -689,11 +697,11 @@ class AuthenticationService {
      */
     @RequestMapping(value = "/accountLink", method = RequestMethod.PUT)
     public void processAccountLinkRequest(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Forwarding account link request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding account link request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleAccountLinkExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () -> handleAccountLinkExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -775,17 +783,18 @@ class AuthenticationService {
      */
     private void sendAccountLinkRequestCallback(
             final String accountLinkReplyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successful account link, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Successful account link, sending callback.");
         callbackBuilder.build().reply(accountLinkReplyJson);
     }
 
     @RequestMapping(value = "/accountLink/remove", method = RequestMethod.PUT)
     public void processAccountLinkRemoval(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Forwarding account link removal.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding account link removal.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleAccountLinkRemovalExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleAccountLinkRemovalExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -821,7 +830,7 @@ class AuthenticationService {
                 MessageWrapper messageWrapper = jsonConverter.fromJson(
                         JSONParser.removeEscapeCharacters(removalReplyJson), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
-                    System.out.printf("%s Forwarding accountLink removal reply.\n", PREFIX);
+                    Log.debug(PREFIX, "Forwarding accountLink removal reply.");
                 }
                 callbackBuilder.build().reply(removalReplyJson);
             } else {
@@ -841,10 +850,10 @@ class AuthenticationService {
                                          @RequestParam("data") final String data) {
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        System.out.printf("%s Forwarding account creation request for customer %d.\n",
-                PREFIX, getCustomerId(messageWrapper.getCookie()));
+        Log.debug(PREFIX, "Forwarding account creation request for customer %d.",
+                getCustomerId(messageWrapper.getCookie()));
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleNewAccountExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () -> handleNewAccountExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -898,7 +907,7 @@ class AuthenticationService {
      */
     private void sendNewAccountRequestCallback(final String newAccountReplyJson,
                                                final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Account creation request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Account creation request successful, sending callback.");
         callbackBuilder.build().reply(newAccountReplyJson);
     }
 
@@ -911,11 +920,12 @@ class AuthenticationService {
     @RequestMapping(value = "/account/remove", method = RequestMethod.PUT)
     public void processAccountRemovalRequest(final Callback<String> callback,
                                              @RequestParam("data") final String data) {
-        System.out.printf("%s Forwarding account removal request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding account removal request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleAccountRemovalExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleAccountRemovalExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -994,7 +1004,7 @@ class AuthenticationService {
             removeTokens.close();
             databaseConnectionPool.returnConnection(databaseConnection);
         } catch (SQLException e) {
-            System.out.printf("%s failed to remove tokens when deleting customer.", PREFIX);
+            Log.warn(PREFIX, "failed to remove tokens when deleting customer.");
         }
     }
 
@@ -1020,7 +1030,7 @@ class AuthenticationService {
     }
 
     private void sendCloseCreditCardCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Credit card removal successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Credit card removal successful, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
@@ -1049,7 +1059,7 @@ class AuthenticationService {
     }
 
     private void sendAccountRemovalCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Account removal successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Account removal successful, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
@@ -1061,11 +1071,11 @@ class AuthenticationService {
      */
     @RequestMapping(value = "/card", method = RequestMethod.PUT)
     public void processNewPinCardRequest(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Received new Pin card request, attempting to forward request.\n", PREFIX);
+        Log.debug(PREFIX, "Received new Pin card request, attempting to forward request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleNewPinCardExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () -> handleNewPinCardExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -1093,13 +1103,13 @@ class AuthenticationService {
             if (ownerId != null) {
                 doNewPinCardRequest(accountNumber, Long.toString(requesterId), Long.toString(ownerId), callbackBuilder);
             } else {
-                System.out.printf("%s Rejecting, OwnerId could not be found. Username does not exist.\n", PREFIX);
+                Log.debug(PREFIX, "Rejecting, OwnerId could not be found. Username does not exist.");
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                         true, 418, "One of the parameters has an invalid value.",
                         "The username does not seem to exist.")));
             }
         } catch (SQLException e) {
-            System.out.printf("%s Rejecting, Error connecting to authentication database.\n", PREFIX);
+            Log.warn(PREFIX, "Rejecting, Error connecting to authentication database.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                     true, 500, "Error connecting to authentication database.")));
         } catch (UserNotAuthorizedException | AccountFrozenException e) {
@@ -1162,7 +1172,7 @@ class AuthenticationService {
     }
 
     private void sendNewPinCardCallback(final String newPinCardReplyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s New pin card request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "New pin card request successful, sending callback.");
         callbackBuilder.build().reply(newPinCardReplyJson);
     }
 
@@ -1173,11 +1183,12 @@ class AuthenticationService {
      */
     @RequestMapping(value = "/unblockCard", method = RequestMethod.PUT)
     public void processPinCardUnblockRequest(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Forwarding pinCard unblock request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding pinCard unblock request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handlePinCardUnblockExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handlePinCardUnblockExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -1231,7 +1242,7 @@ class AuthenticationService {
      * @param callbackBuilder Used to send the result of the request back to the source of the request.
      */
     private void sendPinCardUnblockCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successful pinCard unblock, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Successful pinCard unblock, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
@@ -1243,11 +1254,12 @@ class AuthenticationService {
      */
     @RequestMapping(value = "/overdraft/set", method = RequestMethod.PUT)
     public void processSetOverdraftLimit(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Processing SetOverdraftLimit request.\n", PREFIX);
+        Log.debug(PREFIX, "Processing SetOverdraftLimit request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleSetOverdraftLimitExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleSetOverdraftLimitExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -1304,17 +1316,18 @@ class AuthenticationService {
      * @param callbackBuilder Used to forward the result of the request to the request source.
      */
     private void sendSetOverdraftLimitCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s New overdraft limit set successfully, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "New overdraft limit set successfully, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
     @RequestMapping(value = "/savingsAccount", method = RequestMethod.PUT)
     public void openSavingsAccount(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Received open savings account request.\n", PREFIX);
+        Log.debug(PREFIX, "Received open savings account request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleOpenSavingsAccountExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleOpenSavingsAccountExceptions(messageWrapper, callbackBuilder));
     }
 
     private void handleOpenSavingsAccountExceptions(
@@ -1351,7 +1364,7 @@ class AuthenticationService {
     }
 
     private void sendOpenSavingsAccountCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Open savings account request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Open savings account request successful, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
@@ -1374,7 +1387,7 @@ class AuthenticationService {
     }
 
     private void sendCloseSavingsAccountCallback(final String replyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Close savings account request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Close savings account request successful, sending callback.");
         callbackBuilder.build().reply(replyJson);
     }
 
@@ -1396,11 +1409,13 @@ class AuthenticationService {
 
         pinCard.setAccountNumber((String) params.get("iBAN"));
         pinCard.setCardNumber(Long.parseLong((String) params.get("pinCard")));
-        if ((params.get("newPin")).equals("true")) {
-            handlePinCardRemovalExceptions(methodType, pinCard, authToken, true, callbackBuilder);
-        } else {
-            handlePinCardRemovalExceptions(methodType, pinCard, authToken, false, callbackBuilder);
-        }
+        databaseExecutor.execute(callbackBuilder, () -> {
+            if ((params.get("newPin")).equals("true")) {
+                handlePinCardRemovalExceptions(methodType, pinCard, authToken, true, callbackBuilder);
+            } else {
+                handlePinCardRemovalExceptions(methodType, pinCard, authToken, false, callbackBuilder);
+            }
+        });
     }
 
     /**
@@ -1457,52 +1472,57 @@ class AuthenticationService {
      * @param callbackBuilder Used to send the result of the request back to the request source.
      */
     private void sendPinCardReplacementCallback(final String jsonReply, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Pin card replacement successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Pin card replacement successful, sending callback.");
         callbackBuilder.build().reply(jsonReply);
     }
 
     @RequestMapping(value = "/systemInformation", method = RequestMethod.PUT)
     public void processSysInfoRequest(final Callback<String> callback, @RequestParam("data") final String request) {
-        System.out.printf("%s Received sysInfo admin request.\n", PREFIX);
+        Log.debug(PREFIX, "Received sysInfo admin request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(request), MessageWrapper.class);
-        try {
-            authenticateRequest(messageWrapper.getCookie(), messageWrapper.getMethodType());
-            if (isAdmin(messageWrapper.getMethodType(), messageWrapper.getCookie())) {
-                switch (messageWrapper.getMethodType()) {
-                    case SIMULATE_TIME:
-                        doSimulateTimeRequest(callbackBuilder, messageWrapper);
-                        break;
-                    case RESET:
-                        doResetRequest(callbackBuilder);
-                        break;
-                    case GET_DATE:
-                        doGetDateRequest(callbackBuilder);
-                        break;
-                    case GET_EVENT_LOGS:
-                        doGetEventLogsRequest(callbackBuilder, request);
-                        break;
-                    default:
-                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                                true, 500, "Internal system error occurred.")));
-                        break;
+        databaseExecutor.execute(callbackBuilder, () -> {
+            try {
+                authenticateRequest(messageWrapper.getCookie(), messageWrapper.getMethodType());
+                if (isAdmin(messageWrapper.getMethodType(), messageWrapper.getCookie())) {
+                    switch (messageWrapper.getMethodType()) {
+                        case SIMULATE_TIME:
+                            doSimulateTimeRequest(callbackBuilder, messageWrapper);
+                            break;
+                        case RESET:
+                            doResetRequest(callbackBuilder);
+                            break;
+                        case GET_DATE:
+                            doGetDateRequest(callbackBuilder);
+                            break;
+                        case GET_EVENT_LOGS:
+                            doGetEventLogsRequest(callbackBuilder, request);
+                            break;
+                        case GET_BANK_STATISTICS:
+                            doGetBankStatisticsRequest(callbackBuilder);
+                            break;
+                        default:
+                            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                                    true, 500, "Internal system error occurred.")));
+                            break;
+                    }
+                } else {
+                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                            "The user is not authorized to perform this action.",
+                            "This user does not seem to have appropriate admin rights.")));
                 }
-            } else {
+            } catch (SQLException e) {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
+            } catch (UserNotAuthorizedException e) {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                        "The user is not authorized to perform this action.", "User does not appear to be logged in.")));
+            } catch (AccountFrozenException e) {
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                        "The user is not authorized to perform this action.",
-                        "This user does not seem to have appropriate admin rights.")));
+                        "The user is not authorized to perform this action.", e.getMessage())));
             }
-        } catch (SQLException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                    "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
-        } catch (UserNotAuthorizedException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                    "The user is not authorized to perform this action.", "User does not appear to be logged in.")));
-        } catch (AccountFrozenException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                    "The user is not authorized to perform this action.", e.getMessage())));
-        }
+        });
     }
 
     private void doSimulateTimeRequest(final CallbackBuilder callbackBuilder, final MessageWrapper request) {
@@ -1525,7 +1545,7 @@ class AuthenticationService {
     }
 
     private void sendSimulateTimeCallback(final CallbackBuilder callbackBuilder, final String body) {
-        System.out.printf("%s Simulate time request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Simulate time request successful, sending callback.");
         callbackBuilder.build().reply(body);
     }
 
@@ -1547,7 +1567,7 @@ class AuthenticationService {
     }
 
     private void sendResetCallback(final CallbackBuilder callbackBuilder, final String body) {
-        System.out.printf("%s Reset request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Reset request successful, sending callback.");
         callbackBuilder.build().reply(body);
     }
 
@@ -1569,7 +1589,7 @@ class AuthenticationService {
     }
 
     private void sendDateRequestCallback(final CallbackBuilder callbackBuilder, final String body) {
-        System.out.printf("%s Get Date request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Get Date request successful, sending callback.");
         callbackBuilder.build().reply(body);
     }
 
@@ -1592,17 +1612,65 @@ class AuthenticationService {
     }
 
     private void sendGetEventLogsCallback(final CallbackBuilder callbackBuilder, final String body) {
-        System.out.printf("%s Event log query request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Event log query request successful, sending callback.");
         callbackBuilder.build().reply(body);
     }
 
+    /**
+     * Fetches the bank wide totals of the ledger, and then adds the credit card totals of the pin service.
+     * @param callbackBuilder Used to send the result of the request back to the request source.
+     */
+    private void doGetBankStatisticsRequest(final CallbackBuilder callbackBuilder) {
+        ledgerClient.getAsync("/services/ledger/statistics", (code, contentType, body) -> {
+            if (code == HTTP_OK) {
+                MessageWrapper messageWrapper = jsonConverter.fromJson(
+                        JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
+                if (!messageWrapper.isError()) {
+                    doGetCreditCardStatisticsRequest((Map<String, Object>) messageWrapper.getData(),
+                            callbackBuilder);
+                } else {
+                    callbackBuilder.build().reply(body);
+                }
+            } else {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
+            }
+        });
+    }
+
+    private void doGetCreditCardStatisticsRequest(final Map<String, Object> statistics,
+                                                  final CallbackBuilder callbackBuilder) {
+        pinClient.getAsync("/services/pin/statistics", (code, contentType, body) -> {
+            if (code == HTTP_OK) {
+                MessageWrapper messageWrapper = jsonConverter.fromJson(
+                        JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
+                if (!messageWrapper.isError()) {
+                    statistics.putAll((Map<String, Object>) messageWrapper.getData());
+                    sendGetBankStatisticsCallback(statistics, callbackBuilder);
+                } else {
+                    callbackBuilder.build().reply(body);
+                }
+            } else {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
+            }
+        });
+    }
+
+    private void sendGetBankStatisticsCallback(final Map<String, Object> statistics,
+                                               final CallbackBuilder callbackBuilder) {
+        Log.debug(PREFIX, "Bank statistics request successful, sending callback.");
+        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
+                "Normal Reply", statistics)));
+    }
+
     @RequestMapping(value = "/creditCard", method = RequestMethod.PUT)
     public void processNewCreditCardRequest(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Received new credit card request.\n", PREFIX);
+        Log.debug(PREFIX, "Received new credit card request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleNewCreditCardExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () -> handleNewCreditCardExceptions(messageWrapper, callbackBuilder));
     }
 
     private void handleNewCreditCardExceptions(
@@ -1612,7 +1680,7 @@ class AuthenticationService {
             Long customerId = getCustomerId(messageWrapper.getCookie());
             doNewCreditCardRequest(customerId, (String) messageWrapper.getData(), callbackBuilder);
         } catch (SQLException e) {
-            System.out.printf("%s Sql exception, Sending callback.\n", PREFIX);
+            Log.warn(PREFIX, "Sql exception, Sending callback.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                     "Error connecting to authentication database.")));
         } catch (UserNotAuthorizedException | AccountFrozenException e) {
@@ -1623,7 +1691,7 @@ class AuthenticationService {
 
     private void doNewCreditCardRequest(final Long customerId, final String accountNumber,
                                         final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Forwarding new credit card request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding new credit card request.");
         usersClient.putFormAsyncWith2Params("/services/users/creditCard", "accountNumber",
                 accountNumber, "customerId", customerId.toString(), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode == HTTP_OK) {
@@ -1652,11 +1720,12 @@ class AuthenticationService {
 
     @RequestMapping(value = "/savingsAccount/close", method = RequestMethod.PUT)
      public void closeSavingsAccount(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Received close savings account request.\n", PREFIX);
+        Log.debug(PREFIX, "Received close savings account request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        handleCloseSavingsAccountExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleCloseSavingsAccountExceptions(messageWrapper, callbackBuilder));
      }
 
     private void handleCloseSavingsAccountExceptions(
@@ -1675,7 +1744,7 @@ class AuthenticationService {
     }
 
     private void sendNewCreditCardCallback(final CreditCard creditCard, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s New credit card request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "New credit card request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", creditCard)));
     }
@@ -1683,11 +1752,12 @@ class AuthenticationService {
     @RequestMapping(value = "/setFreezeUserAccount", method = RequestMethod.PUT)
     public void processSetFreezeUserAccountRequest(
             final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Forwarding account link removal.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding account link removal.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleSetFreezeUserAccountExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleSetFreezeUserAccountExceptions(messageWrapper, callbackBuilder));
     }
 
     private void handleSetFreezeUserAccountExceptions(
@@ -1756,7 +1826,7 @@ class AuthenticationService {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(
                                 JSONParser.removeEscapeCharacters(removalReplyJson), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            System.out.printf("%s Forwarding setFreezeUserAccount reply.\n", PREFIX);
+                            Log.debug(PREFIX, "Forwarding setFreezeUserAccount reply.");
                         }
                         callbackBuilder.build().reply(removalReplyJson);
                     } else {
@@ -1770,11 +1840,12 @@ class AuthenticationService {
     @RequestMapping(value = "/transferBankAccount", method = RequestMethod.PUT)
     public void processTransferBankAccountRequest(
             final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Forwarding TransferBankAccount request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding TransferBankAccount request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleTransferBankAccountExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleTransferBankAccountExceptions(messageWrapper, callbackBuilder));
     }
 
     private void handleTransferBankAccountExceptions(
@@ -1808,7 +1879,7 @@ class AuthenticationService {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(
                                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            System.out.printf("%s Forwarding TransferBankAccount reply.\n", PREFIX);
+                            Log.debug(PREFIX, "Forwarding TransferBankAccount reply.");
                         }
                         callbackBuilder.build().reply(data);
                     } else {
@@ -1823,9 +1894,10 @@ class AuthenticationService {
     public void setTransferLimit(final Callback<String> callback, @RequestParam("cookie") final String cookie,
                                  @RequestParam("iBAN") final String iBAN,
                                  @RequestParam("transferLimit") final Double transferLimit) {
-        System.out.printf("%s Forwarding setTransferLimit request.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding setTransferLimit request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleSetTransferLimitExceptions(cookie, iBAN, transferLimit, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleSetTransferLimitExceptions(cookie, iBAN, transferLimit, callbackBuilder));
     }
 
     private void handleSetTransferLimitExceptions(final String cookie, final String iBAN, final Double transferLimit,
@@ -1851,7 +1923,7 @@ class AuthenticationService {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(
                                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            System.out.printf("%s Forwarding setTransferLimit reply.\n", PREFIX);
+                            Log.debug(PREFIX, "Forwarding setTransferLimit reply.");
                         }
                         callbackBuilder.build().reply(data);
                     } else {
@@ -1864,29 +1936,31 @@ class AuthenticationService {
 
     @RequestMapping(value = "/setValue", method = RequestMethod.PUT)
     public void processSetValueRequest(final Callback<String> callback, @RequestParam("data") final String data) {
-        System.out.printf("%s Received setValue request.\n", PREFIX);
+        Log.debug(PREFIX, "Received setValue request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        try {
-            authenticateRequest(messageWrapper.getCookie(), messageWrapper.getMethodType());
-            if (isAdmin(messageWrapper.getMethodType(), messageWrapper.getCookie())) {
-                doSetValueRequest((SetValueRequest) messageWrapper.getData(), callbackBuilder);
-            } else {
+        databaseExecutor.execute(callbackBuilder, () -> {
+            try {
+                authenticateRequest(messageWrapper.getCookie(), messageWrapper.getMethodType());
+                if (isAdmin(messageWrapper.getMethodType(), messageWrapper.getCookie())) {
+                    doSetValueRequest((SetValueRequest) messageWrapper.getData(), callbackBuilder);
+                } else {
+                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                            "The user is not authorized to perform this action.",
+                            "This user does not seem to have appropriate admin rights.")));
+                }
+            } catch (SQLException e) {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
+            } catch (UserNotAuthorizedException e) {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                        "The user is not authorized to perform this action.", "User does not appear to be logged in.")));
+            } catch (AccountFrozenException e) {
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                        "The user is not authorized to perform this action.",
-                        "This user does not seem to have appropriate admin rights.")));
+                        "The user is not authorized to perform this action.", e.getMessage())));
             }
-        } catch (SQLException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                    "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
-        } catch (UserNotAuthorizedException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                    "The user is not authorized to perform this action.", "User does not appear to be logged in.")));
-        } catch (AccountFrozenException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                    "The user is not authorized to perform this action.", e.getMessage())));
-        }
+        });
     }
 
     private void doSetValueRequest(final SetValueRequest request, final CallbackBuilder callbackBuilder) {
@@ -1908,17 +1982,18 @@ class AuthenticationService {
     }
 
     private void sendSetValueCallback(final CallbackBuilder callbackBuilder, final String body) {
-        System.out.printf("%s SetValue request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "SetValue request successful, sending callback.");
         callbackBuilder.build().reply(body);
     }
 
     @RequestMapping(value = "/childBirthdays", method = RequestMethod.POST)
     public void incomingChildBirthdaysListener(final Callback<String> callback,
                                           @RequestParam("data") final String data) {
-        System.out.printf("%s Updating all applicable child accounts.\n", PREFIX);
+        Log.debug(PREFIX, "Updating all applicable child accounts.");
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        handleChildStatusUpdateExceptions(messageWrapper, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleChildStatusUpdateExceptions(messageWrapper, callbackBuilder));
     }
 
     private void handleChildStatusUpdateExceptions(final MessageWrapper data, final CallbackBuilder callbackBuilder) {
@@ -1944,7 +2019,7 @@ class AuthenticationService {
     }
 
     private void sendChildBirthdaysCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Updated child accounts successfully, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Updated child accounts successfully, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1,6 +1,8 @@
 package authentication;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.MetricsServer;
 import util.PortScanner;
 
 /**
@@ -33,10 +35,12 @@ public final class AuthenticationServiceMain {
                             .setRootURI("/services")
                             .setPort(servicePort);
 
-            managedServiceBuilder.addEndpointService(new AuthenticationService(
-                    servicePort, "localhost",
-                    Integer.parseInt(args[0]), args[1]))
+            final AuthenticationService authenticationService = new AuthenticationService(servicePort, "localhost",
+                    Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register("localhost", servicePort, "/services", authenticationService);
+            managedServiceBuilder.addEndpointService(authenticationService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
         }
     }
 }
@@ -35,17 +35,17 @@ public class ConnectionPool {
      * @return The SQLConnection
      */
     public SQLConnection getConnection() {
-        if (pool.isEmpty()) {
+        SQLConnection connection = pool.poll();
+        if (connection == null) {
             return new SQLConnection();
         } else {
             try {
-                SQLConnection connection = pool.take();
                 if (!connection.getConnection().isClosed()) {
                     return connection;
                 } else {
                     return new SQLConnection();
                 }
-            } catch (InterruptedException | SQLException e) {
+            } catch (SQLException e) {
                 e.printStackTrace();
             }
         }
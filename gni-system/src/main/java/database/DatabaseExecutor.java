@@ -0,0 +1,191 @@
+package database;
+
+import com.google.gson.Gson;
+import io.advantageous.qbit.reactive.CallbackBuilder;
+import util.JSONParser;
+import util.Log;
+import util.RequestDeadline;
+import util.RequestTrace;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static database.Variables.DAILY_MAINTENANCE_TIME;
+import static database.Variables.DATABASE_CONCURRENCY;
+import static database.Variables.DATABASE_QUEUE_SIZE;
+import static database.Variables.DATABASE_VIRTUAL_THREADS;
+
+/**
+ * @author Saul
+ * @version 1
+ * Executes the blocking database work of a service, so the QBit queue of the service can keep accepting requests
+ * while queries are in flight. Tasks either run concurrently, or serially on a single lane for requests that read
+ * and then write the same rows (e.g. balances and ids generated with getNextID), the lane keeps these requests in
+ * the order the service received them. A task is responsible for replying to its callback, the executor only
+ * replies when the task cannot be queued or fails with an unexpected exception. Tasks run with the
+ * {@link RequestDeadline} and {@link RequestTrace} of the thread that queued them. Daily maintenance tasks are
+ * queued on the serial lane at {@link Variables#DAILY_MAINTENANCE_TIME}.
+ */
+public class DatabaseExecutor {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Database]            :";
+    /** Time after which idle threads are stopped. */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    /** Queues the daily maintenance tasks of all executors in this JVM. */
+    private static final ScheduledExecutorService DAILY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            createPlatformThreadFactory("db-daily-"));
+    /** Name of the service, used in thread names and error messages. */
+    private final String serviceName;
+    /** Executes tasks that can run concurrently with other tasks. */
+    private final ThreadPoolExecutor concurrentExecutor;
+    /** Executes tasks one at a time in the order they were submitted. */
+    private final ThreadPoolExecutor serialExecutor;
+    /** Used for json conversions of error replies. */
+    private final Gson jsonConverter;
+
+    /**
+     * Creates an executor with the limits configured in {@link Variables}.
+     * @param newServiceName Name of the service the executor belongs to.
+     */
+    public DatabaseExecutor(final String newServiceName) {
+        this(newServiceName, DATABASE_CONCURRENCY, DATABASE_QUEUE_SIZE, DATABASE_VIRTUAL_THREADS);
+    }
+
+    /**
+     * Creates an executor.
+     * @param newServiceName Name of the service the executor belongs to.
+     * @param concurrency Amount of tasks that are executed concurrently.
+     * @param queueSize Amount of tasks that can wait for execution before new tasks are rejected.
+     * @param virtualThreads Whether virtual threads should be used if the JVM supports them.
+     */
+    public DatabaseExecutor(final String newServiceName, final int concurrency, final int queueSize,
+                            final boolean virtualThreads) {
+        this.serviceName = newServiceName;
+        this.jsonConverter = new Gson();
+        ThreadFactory threadFactory = null;
+        if (virtualThreads) {
+            threadFactory = createVirtualThreadFactory("db-" + newServiceName + "-");
+        }
+        if (threadFactory == null) {
+            threadFactory = createPlatformThreadFactory("db-" + newServiceName + "-");
+        }
+        this.concurrentExecutor = createExecutor(concurrency, queueSize, threadFactory);
+        this.serialExecutor = createExecutor(1, queueSize, createPlatformThreadFactory(
+                "db-" + newServiceName + "-serial-"));
+    }
+
+    /**
+     * Queues a task that can run concurrently with other tasks of the service.
+     * @param callbackBuilder Callback of the request the task belongs to.
+     * @param task Task that executes the request and replies to the callback.
+     */
+    public void execute(final CallbackBuilder callbackBuilder, final Runnable task) {
+        submit(concurrentExecutor, callbackBuilder, task);
+    }
+
+    /**
+     * Queues a task that is executed after all serial tasks that were queued before it have finished.
+     * @param callbackBuilder Callback of the request the task belongs to.
+     * @param task Task that executes the request and replies to the callback.
+     */
+    public void executeSerially(final CallbackBuilder callbackBuilder, final Runnable task) {
+        submit(serialExecutor, callbackBuilder, task);
+    }
+
+    /**
+     * Queues a maintenance task on the concurrent lane, so it does not hold up the serial tasks. The task has no
+     * request to reply to, it should log its own errors.
+     * @param task Task that should run in the background.
+     */
+    public void executeMaintenance(final Runnable task) {
+        submit(concurrentExecutor, CallbackBuilder.newCallbackBuilder().withStringCallback(reply -> { }), task);
+    }
+
+    /**
+     * Queues a task on the serial lane every day at the daily maintenance time. The task has no request to reply to,
+     * it should log its own errors.
+     * @param task Task that should run every day.
+     */
+    public void executeDaily(final Runnable task) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime firstRun = now.toLocalDate().atTime(DAILY_MAINTENANCE_TIME);
+        if (!firstRun.isAfter(now)) {
+            firstRun = firstRun.plusDays(1);
+        }
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(reply -> { });
+        DAILY_SCHEDULER.scheduleAtFixedRate(() -> executeSerially(callbackBuilder, task),
+                Duration.between(now, firstRun).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops accepting new tasks, tasks that are already queued are still executed.
+     */
+    public void shutdown() {
+        concurrentExecutor.shutdown();
+        serialExecutor.shutdown();
+    }
+
+    private void submit(final ThreadPoolExecutor executor, final CallbackBuilder callbackBuilder,
+                        final Runnable task) {
+        long deadline = RequestDeadline.current();
+        RequestTrace.Context trace = RequestTrace.current();
+        try {
+            executor.execute(() -> RequestDeadline.runWithin(deadline, () -> RequestTrace.runWithin(trace, () -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                            "Unknown error occurred.")));
+                }
+            })));
+        } catch (RejectedExecutionException e) {
+            Log.warn(PREFIX, "The %s database queue is full, rejecting request.", serviceName);
+            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                    "Unknown error occurred.", "The " + serviceName + " service is too busy to handle the request.")));
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(final int threads, final int queueSize,
+                                                     final ThreadFactory threadFactory) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory createPlatformThreadFactory(final String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates a factory for virtual threads, looked up reflectively because the system is compiled for Java 8.
+     * @return The factory, or null if the JVM does not support virtual threads.
+     */
+    private static ThreadFactory createVirtualThreadFactory(final String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            Log.info(PREFIX, "Virtual threads are not supported by this JVM, using platform threads instead.");
+            return null;
+        }
+    }
+}
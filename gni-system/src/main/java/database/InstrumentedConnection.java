@@ -0,0 +1,168 @@
+package database;
+
+import util.RequestTrace;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Saul
+ * @version 1
+ * Wraps a database connection so every execution of its statements is timed in the {@link QueryStatistics} of the
+ * statement, together with the rows the statement returned or changed, and recorded as a span named after its query
+ * when it is executed for a recorded {@link RequestTrace}. Statements and result sets are wrapped when they are
+ * created, all other calls are passed on unchanged, so the services keep using the plain JDBC interfaces.
+ */
+final class InstrumentedConnection {
+    /** Name of the service in the spans of queries. */
+    private static final String TRACE_SERVICE = "database";
+
+    /**
+     * Private constructor for utility class.
+     */
+    private InstrumentedConnection() {
+        //Not called
+    }
+
+    /**
+     * Wraps a connection.
+     * @param connection Connection to wrap, can be null.
+     * @return The wrapped connection, or null if the connection is null.
+     */
+    static Connection wrap(final Connection connection) {
+        if (connection == null) {
+            return null;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement && "prepareStatement".equals(method.getName())) {
+                        return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                new Class<?>[] {PreparedStatement.class},
+                                new StatementHandler((Statement) result, (String) args[0]));
+                    } else if (result instanceof Statement && "createStatement".equals(method.getName())) {
+                        return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                                new Class<?>[] {Statement.class}, new StatementHandler((Statement) result, null));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times the executions of a single statement, a statement is only used by one thread at a time.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        /** The wrapped statement. */
+        private final Statement statement;
+        /** Statistics of a prepared statement, null for a plain statement that receives its query when executed. */
+        private final QueryStatistics.Statistics preparedStatistics;
+        /** Query of a prepared statement. */
+        private final String preparedSql;
+        /** Types of the values bound to the parameters of a prepared statement, by parameter index minus one. The
+         * values themselves are never kept, they can contain customer data. */
+        private final List<String> bindTypes;
+        /** Statistics of the last execution, used for the result set that is fetched after executing. */
+        private QueryStatistics.Statistics lastStatistics;
+
+        private StatementHandler(final Statement newStatement, final String sql) {
+            this.statement = newStatement;
+            this.preparedSql = sql;
+            this.preparedStatistics = sql == null ? null : QueryStatistics.of(sql);
+            this.bindTypes = new ArrayList<>();
+            this.lastStatistics = preparedStatistics;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                bindTypes.clear();
+            } else if (name.equals("getResultSet")) {
+                return countRows((ResultSet) InstrumentedConnection.invoke(statement, method, args), lastStatistics);
+            }
+            return InstrumentedConnection.invoke(statement, method, args);
+        }
+
+        private void bind(final int index, final Object value) {
+            while (bindTypes.size() < index) {
+                bindTypes.add(null);
+            }
+            if (index > 0) {
+                bindTypes.set(index - 1, value == null ? "null" : value.getClass().getSimpleName());
+            }
+        }
+
+        private Object execute(final Method method, final Object[] args) throws Throwable {
+            String sql = preparedSql;
+            QueryStatistics.Statistics statistics = preparedStatistics;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+                statistics = QueryStatistics.of(sql);
+            }
+            if (statistics == null) {
+                // executeBatch of a plain statement, its queries are not known
+                return InstrumentedConnection.invoke(statement, method, args);
+            }
+            lastStatistics = statistics;
+            RequestTrace.Span span = RequestTrace.startSpan(TRACE_SERVICE, sql);
+            long startNanos = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = InstrumentedConnection.invoke(statement, method, args);
+                failed = false;
+                return countRows(result, statistics);
+            } finally {
+                statistics.recordExecution(System.nanoTime() - startNanos, failed, bindTypes);
+                span.finish(failed ? 500 : 0);
+            }
+        }
+
+        /**
+         * Adds the rows changed by an update to the statistics, or wraps a result set so the rows are counted while
+         * they are read.
+         */
+        private static Object countRows(final Object result, final QueryStatistics.Statistics statistics) {
+            if (statistics == null) {
+                return result;
+            }
+            if (result instanceof ResultSet) {
+                ResultSet resultSet = (ResultSet) result;
+                return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                        (proxy, method, args) -> {
+                            Object value = InstrumentedConnection.invoke(resultSet, method, args);
+                            if (Boolean.TRUE.equals(value) && "next".equals(method.getName())) {
+                                statistics.addRows(1);
+                            }
+                            return value;
+                        });
+            } else if (result instanceof Integer || result instanceof Long) {
+                statistics.addRows(((Number) result).longValue());
+            } else if (result instanceof int[]) {
+                for (int rows : (int[]) result) {
+                    statistics.addRows(Math.max(0, rows));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package database;
+
+import util.Log;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @author Saul
+ * @version 1
+ * Execution statistics of the database statements of this JVM, keyed by the name of the statement in
+ * {@link SQLStatements}: the amount of executions, their total and maximum duration, the amount of failed executions
+ * and the amount of rows they returned or changed. Executions that take longer than gni.database.slowQueryMillis are
+ * logged together with the types of their parameters, the bound values are not logged because they can contain
+ * customer data. The statistics are served by the metrics endpoint of the JVM.
+ */
+public final class QueryStatistics {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Database]            :";
+    /** Duration after which an execution is logged as slow query. */
+    private static final long SLOW_QUERY_NANOS = Long.getLong("gni.database.slowQueryMillis", 100L) * 1000000L;
+    /** Maximum amount of statements that are tracked separately, other queries share one entry. */
+    private static final int MAX_STATEMENTS = 512;
+    /** Length of the part of an unnamed query that is used as its name. */
+    private static final int UNNAMED_QUERY_LENGTH = 80;
+    /** Name of the entry that is shared by queries over {@link #MAX_STATEMENTS}. */
+    private static final String OTHER = "other";
+    /** Names of the statements in {@link SQLStatements}, indexed by their query. */
+    private static final Map<String, String> STATEMENT_NAMES = findStatementNames();
+    /** Statistics of every executed statement, indexed by query. */
+    private static final ConcurrentHashMap<String, Statistics> STATISTICS = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private QueryStatistics() {
+        //Not called
+    }
+
+    /**
+     * Fetches the statistics of a query, callers that execute the query often should keep the statistics.
+     * @param sql The query.
+     * @return Statistics of the query.
+     */
+    static Statistics of(final String sql) {
+        Statistics statistics = STATISTICS.get(sql);
+        if (statistics != null) {
+            return statistics;
+        }
+        String key = STATISTICS.size() >= MAX_STATEMENTS ? OTHER : sql;
+        return STATISTICS.computeIfAbsent(key, QueryStatistics::createStatistics);
+    }
+
+    private static Statistics createStatistics(final String sql) {
+        String name = STATEMENT_NAMES.get(sql);
+        if (name == null) {
+            String normalized = sql.replaceAll("\\s+", " ").trim();
+            name = normalized.length() <= UNNAMED_QUERY_LENGTH ? normalized
+                    : normalized.substring(0, UNNAMED_QUERY_LENGTH) + "...";
+        }
+        return new Statistics(name);
+    }
+
+    /**
+     * Finds the names of the queries in {@link SQLStatements}, when two constants hold the same query the first
+     * constant is used.
+     */
+    private static Map<String, String> findStatementNames() {
+        Map<String, String> names = new HashMap<>();
+        for (Field field : SQLStatements.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                try {
+                    names.putIfAbsent((String) field.get(null), field.getName());
+                } catch (IllegalAccessException e) {
+                    // only public constants are queries
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Creates a summary of the statements that took the most time in total.
+     * @param limit Maximum amount of statements to return.
+     * @return Per statement its name, executions, failures, rows and total, mean and maximum duration, ordered by
+     * decreasing total duration.
+     */
+    public static List<Map<String, Object>> top(final int limit) {
+        List<Statistics> statements = new ArrayList<>(STATISTICS.values());
+        statements.sort(Comparator.comparingLong((Statistics statistics) -> statistics.totalNanos.sum()).reversed());
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Statistics statistics : statements.subList(0, Math.min(limit, statements.size()))) {
+            long count = statistics.count.sum();
+            long totalNanos = statistics.totalNanos.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("statement", statistics.name);
+            values.put("count", count);
+            values.put("errors", statistics.errors.sum());
+            values.put("rows", statistics.rows.sum());
+            values.put("totalMillis", totalNanos / 1e6);
+            values.put("meanMillis", count == 0 ? 0.0 : totalNanos / 1e6 / count);
+            values.put("maxMillis", statistics.maxNanos.get() / 1e6);
+            result.add(values);
+        }
+        return result;
+    }
+
+    /**
+     * Counters of a single statement, updated without locks by all threads that execute it.
+     */
+    static final class Statistics {
+        /** Name of the statement. */
+        private final String name;
+        /** Amount of executions. */
+        private final LongAdder count;
+        /** Amount of executions that failed. */
+        private final LongAdder errors;
+        /** Total duration of the executions. */
+        private final LongAdder totalNanos;
+        /** Longest duration of an execution. */
+        private final LongAccumulator maxNanos;
+        /** Amount of rows returned by queries or changed by updates. */
+        private final LongAdder rows;
+
+        private Statistics(final String newName) {
+            this.name = newName;
+            this.count = new LongAdder();
+            this.errors = new LongAdder();
+            this.totalNanos = new LongAdder();
+            this.maxNanos = new LongAccumulator(Math::max, 0L);
+            this.rows = new LongAdder();
+        }
+
+        /**
+         * Records an execution of the statement and logs it when it was slow.
+         * @param durationNanos Duration of the execution.
+         * @param failed Whether the execution failed.
+         * @param bindTypes Types of the values bound to the parameters of the statement, only used when the
+         *                  execution was slow.
+         */
+        void recordExecution(final long durationNanos, final boolean failed, final List<String> bindTypes) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulate(durationNanos);
+            if (failed) {
+                errors.increment();
+            }
+            if (durationNanos >= SLOW_QUERY_NANOS) {
+                Log.warn(PREFIX, "Slow query %s took %.1f ms with parameter types %s.", name, durationNanos / 1e6,
+                        String.valueOf(bindTypes));
+            }
+        }
+
+        /**
+         * Adds to the amount of rows the statement returned or changed.
+         * @param amount Amount of rows.
+         */
+        void addRows(final long amount) {
+            rows.add(amount);
+        }
+    }
+}
@@ -13,16 +13,33 @@ public final class SQLStatements {
     public static final String getAccountInformation = "SELECT * FROM ledger WHERE account_number = ?";
     public static final String updateBalance = "UPDATE ledger SET balance = ? WHERE account_number = ?";
     public static final String updateSavingsBalance = "UPDATE ledger SET savings_balance = ? WHERE account_number = ?";
+    public static final String updateBalancesById = "UPDATE ledger SET balance = ?, savings_balance = ? WHERE id = ?";
     public static final String updateOverdraftLimit = "UPDATE ledger SET overdraft_limit = ? WHERE account_number = ?";
+    public static final String getBankStatistics = "SELECT COUNT(*), COALESCE(SUM(CASE WHEN balance > 0 THEN ROUND(balance * 100) ELSE 0 END), 0), COALESCE(SUM(ROUND(savings_balance * 100)), 0), COALESCE(SUM(CASE WHEN balance < 0 THEN ROUND(-balance * 100) ELSE 0 END), 0), COALESCE(SUM(balance < 0), 0) FROM ledger";
     public static final String getIncomingTransactionHistory = "SELECT * FROM transactions_in WHERE account_to = ?";
     public static final String getOutgoingTransactionHistory = "SELECT * FROM transactions_out WHERE account_from = ?";
+    public static final String getArchivedIncomingTransactionHistory = "SELECT * FROM transactions_in_archive WHERE account_to = ?";
+    public static final String getArchivedOutgoingTransactionHistory = "SELECT * FROM transactions_out_archive WHERE account_from = ?";
+    public static final String getOldestIncomingTransactionDate = "SELECT MIN(date) FROM transactions_in";
+    public static final String getOldestOutgoingTransactionDate = "SELECT MIN(date) FROM transactions_out";
+    public static final String getNewestIncomingTransactionDate = "SELECT MAX(date) FROM transactions_in";
+    public static final String getNewestOutgoingTransactionDate = "SELECT MAX(date) FROM transactions_out";
+    public static final String getNewestArchivedTransactionDate = "SELECT MAX(date) FROM (SELECT MAX(date) AS date FROM transactions_in_archive UNION ALL SELECT MAX(date) AS date FROM transactions_out_archive) AS archived";
+    public static final String getIncomingArchiveChunkEnd = "SELECT MAX(id) FROM (SELECT id FROM transactions_in WHERE date < ? ORDER BY id LIMIT ?) AS chunk";
+    public static final String getOutgoingArchiveChunkEnd = "SELECT MAX(id) FROM (SELECT id FROM transactions_out WHERE date < ? ORDER BY id LIMIT ?) AS chunk";
+    public static final String archiveIncomingTransactions = "INSERT INTO transactions_in_archive SELECT * FROM transactions_in WHERE date < ? AND id <= ?";
+    public static final String archiveOutgoingTransactions = "INSERT INTO transactions_out_archive SELECT * FROM transactions_out WHERE date < ? AND id <= ?";
+    public static final String removeArchivedIncomingTransactions = "DELETE FROM transactions_in WHERE date < ? AND id <= ?";
+    public static final String removeArchivedOutgoingTransactions = "DELETE FROM transactions_out WHERE date < ? AND id <= ?";
     public static final String addIncomingTransaction = "INSERT INTO transactions_in (id, date, account_to, account_to_name, account_from, amount, new_balance, new_savings_balance, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
     public static final String addOutgoingTransaction = "INSERT INTO transactions_out (id, date, account_to, account_to_name, account_from, amount, new_balance, new_savings_balance, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public static final String projectIncomingTransaction = "INSERT IGNORE INTO transactions_in (id, date, account_to, account_to_name, account_from, amount, new_balance, new_savings_balance, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public static final String projectOutgoingTransaction = "INSERT IGNORE INTO transactions_out (id, date, account_to, account_to_name, account_from, amount, new_balance, new_savings_balance, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
     public static final String getNextUserID = "SELECT MAX(id) FROM users";
     public static final String getHighestIncomingTransactionID = "SELECT MAX(id) FROM transactions_in";
     public static final String getHighestOutgoingTransactionID = "SELECT MAX(id) FROM transactions_out";
     public static final String getNextAccountID = "SELECT MAX(id) FROM ledger";
-    public static final String createNewUser = "INSERT INTO users (id, initials, firstname, lastname, email, telephone_number, address, date_of_birth, social_security_number, child) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public static final String createNewUser = "INSERT INTO users (id, initials, firstname, lastname, email, telephone_number, address, date_of_birth, social_security_number, child, adult_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     public static final String addAccountToUser = "INSERT INTO accounts (user_id, account_number, primary_owner, frozen) VALUES (?, ?, ?, ?)";
     public static final String getUserInformation = "SELECT * FROM users WHERE id = ?";
     public static final String isChildUsers = "SELECT child FROM users WHERE id = ?";
@@ -31,7 +48,7 @@ public final class SQLStatements {
     public static final String getPrimaryAccountNumbersCount = "SELECT count(*) FROM accounts WHERE user_id = ? AND primary_owner = true";
     public static final String checkIfFrozen = "SELECT count(*) FROM accounts WHERE account_number = ? AND frozen = 1";
     public static final String getFreezeStatus = "SELECT frozen FROM accounts WHERE user_id = ? AND primary_owner = 1";
-    public static final String getAccountNumberCount = "SELECT count(*) FROM ledger WHERE account_number = ?";
+    public static final String getLedgerAccountNumbers = "SELECT id, account_number FROM ledger";
     public static final String getUserCount = "SELECT count(*) FROM users WHERE id = ?";
     public static final String getAuthenticationData1 = "SELECT * FROM authentication WHERE username = ?";
     public static final String getAuthenticationData2 = "SELECT * FROM authentication WHERE user_id = ?";
@@ -46,15 +63,19 @@ public final class SQLStatements {
     public static final String getCustomerIdFromCardNumber = "SELECT user_id FROM pin WHERE card_number = ?";
     public static final String getPinCard = "SELECT * FROM pin WHERE card_number = ?";
     public static final String getFrozenPinAccounts = "SELECT * FROM pin WHERE account_number = ? AND frozen = 1";
+    public static final String getPinCards = "SELECT * FROM pin";
     public static final String deactivatePinCard = "UPDATE pin SET active = false WHERE account_number = ? AND user_id = ? AND card_number = ?";
     public static final String unblockPinCard = "UPDATE pin SET incorrect_attempts = 0 WHERE card_number = ?";
     public static final String setFreezeStatusPin = "UPDATE pin SET frozen = ? WHERE user_id = ?";
     public static final String setFreezeStatusAuth = "UPDATE authentication SET frozen = ? WHERE user_id = ?";
     public static final String setFreezeStatusUsers = "UPDATE accounts SET frozen = ? WHERE user_id = ? AND primary_owner = 1";
-    public static final String setAdultStatusUsers = "UPDATE users SET child = 0 WHERE id = ?";
+    public static final String setAdultStatusUsers = "UPDATE users SET child = 0, adult_date = NULL WHERE id = ?";
     public static final String setAdultStatusAuth = "UPDATE authentication SET child = 0 WHERE user_id = ?";
     public static final String setAdultStatusLedger = "UPDATE ledger SET child = 0 WHERE account_number = ?";
-    public static final String getAllChildrenUsers = "SELECT * FROM users WHERE child = 1";
+    public static final String getChildAdultDates = "SELECT id, date_of_birth, adult_date FROM users WHERE child = 1";
+    public static final String getChildrenTurnedAdult = "SELECT u.id, u.date_of_birth, u.adult_date, a.account_number FROM users u LEFT JOIN accounts a ON a.user_id = u.id WHERE u.child = 1 AND u.adult_date < ? ORDER BY u.id";
+    public static final String addAdultDateColumnUsers = "ALTER TABLE users ADD COLUMN adult_date DATE, ADD KEY (adult_date)";
+    public static final String backfillAdultDatesUsers = "UPDATE users SET adult_date = DATE_ADD(date_of_birth, INTERVAL 18 YEAR) WHERE child = 1 AND adult_date IS NULL";
     public static final String incrementIncorrectPinCardAttempts = "UPDATE pin SET incorrect_attempts = incorrect_attempts + 1 WHERE card_number = ?";
     public static final String incrementIncorrectCreditCardAttempts = "UPDATE credit_cards SET incorrect_attempts = incorrect_attempts + 1 WHERE card_number = ?";
     public static final String removeAccountCards = "DELETE FROM pin WHERE account_number = ?";
@@ -77,14 +98,21 @@ public final class SQLStatements {
     public static final String addRequestLog = "INSERT INTO request_logs (request_id, method, params, date, time) VALUES (?, ?, ?, ?, ?)";
     public static final String addErrorLog = "INSERT INTO error_logs (request_id, error_code, date, time, message, data) VALUES (?, ?, ?, ?, ?, ?)";
     public static final String getRequestLogs = "SELECT * FROM request_logs WHERE date BETWEEN ? AND ?";
+    public static final String getOrderedRequestLogs = "SELECT * FROM request_logs WHERE date BETWEEN ? AND ? ORDER BY date, time";
     public static final String getErrorLogs = "SELECT * FROM error_logs WHERE date BETWEEN ? AND ?";
-    public static final String addCreditCard = "INSERT INTO credit_cards (card_number, account_number, pin_code, incorrect_attempts, credit_limit, balance, card_fee, active_from, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public static final String addCreditCard = "INSERT INTO credit_cards (card_number, account_number, pin_code, incorrect_attempts, credit_limit, balance, card_fee, active_from, active, last_transaction_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
     public static final String getHighestCreditCardID = "SELECT MAX(card_number) FROM credit_cards";
     public static final String getCreditCardInfo = "SELECT * FROM credit_cards WHERE card_number = ?";
     public static final String updateCreditCardBalance = "UPDATE credit_cards SET balance = ? WHERE card_number = ?";
     public static final String deactivateExpiredCreditCards = "UPDATE credit_cards SET active = false WHERE active_from < ?";
     public static final String addCreditCardTransaction = "INSERT INTO credit_card_transactions (id, date, card_number, account_to, amount, new_balance) VALUES (?, ?, ?, ?, ?, ?)";
     public static final String getHighestCreditCardTransactionId = "SELECT MAX(id) FROM credit_card_transactions;";
+    public static final String getCreditCards = "SELECT * FROM credit_cards";
+    public static final String getCreditCardBalances = "SELECT card_number, balance, credit_limit, last_transaction_id FROM credit_cards";
+    public static final String getCreditCardLimits = "SELECT COUNT(*), COALESCE(SUM(credit_limit), 0) FROM credit_cards";
+    public static final String addLastTransactionIdColumnCreditCards = "ALTER TABLE credit_cards ADD COLUMN last_transaction_id BIGINT(20) NOT NULL DEFAULT 0";
+    public static final String backfillLastTransactionIdsCreditCards = "UPDATE credit_cards c INNER JOIN (SELECT card_number, MAX(id) AS id FROM credit_card_transactions GROUP BY card_number) l ON l.card_number = c.card_number SET c.last_transaction_id = l.id";
+    public static final String recoverCreditCardBalances = "UPDATE credit_cards c INNER JOIN credit_card_transactions t ON t.card_number = c.card_number INNER JOIN (SELECT card_number, MAX(id) AS id FROM credit_card_transactions GROUP BY card_number) l ON t.id = l.id SET c.balance = t.new_balance, c.last_transaction_id = t.id WHERE t.id > c.last_transaction_id";
     public static final String getCreditCardsFromAccountNumber = "SELECT * from credit_cards WHERE account_number = ?";
     public static final String deactivateCreditCard = "UPDATE credit_cards SET active = false WHERE card_number = ?";
     public static final String unblockCreditCard = "UPDATE credit_cards SET incorrect_attempts = 0 WHERE card_number = ?";
@@ -98,25 +126,32 @@ public final class SQLStatements {
     public static final String getOutgoingDebitTransactions = "SELECT * FROM transactions_out WHERE date BETWEEN ? AND ? AND ( description LIKE ? OR description LIKE ? );";
     public static final String updateTransferLimit = "UPDATE ledger SET transfer_limit = ? WHERE account_number = ?";
     public static final String getPrimaryOwnerStatus = "SELECT primary_owner FROM accounts WHERE user_id = ? and account_number = ?";
+    public static final String addScheduledRequest = "INSERT INTO scheduled_requests (id, execution_date, type, account_number, value_key, value) VALUES (?, ?, ?, ?, ?, ?)";
+    public static final String getScheduledRequests = "SELECT * FROM scheduled_requests ORDER BY execution_date, id";
+    public static final String removeScheduledRequest = "DELETE FROM scheduled_requests WHERE id = ?";
 
     // Create statements used for setting up the database
     public final static String createAccountsTable = "CREATE TABLE IF NOT EXISTS `accounts` ( `user_id` BIGINT(20) NOT NULL, `account_number` TEXT NOT NULL, `primary_owner` BOOLEAN NOT NULL, `frozen` BOOLEAN NOT NULL);";
     public final static String dropAccountsTable = "DROP TABLE IF EXISTS `accounts`;";
     public final static String createLedgerTable = "CREATE TABLE IF NOT EXISTS `ledger` ( `id` BIGINT(20) NOT NULL, `account_number` TEXT NOT NULL, `name` TEXT NOT NULL, `overdraft_limit` DOUBLE NOT NULL, `balance` DOUBLE NOT NULL, `savings_active` BOOLEAN NOT NULL, `savings_balance` DOUBLE NOT NULL, `transfer_limit` DOUBLE NOT NULL, `child` BOOLEAN NOT NULL, PRIMARY KEY (id));";
     public final static String dropLedgerTable = "DROP TABLE IF EXISTS `ledger`;";
-    public final static String createCreditCardsTable = "CREATE TABLE IF NOT EXISTS `credit_cards` (`card_number` BIGINT(20) NOT NULL, `account_number` TEXT NOT NULL, `pin_code` TEXT NOT NULL, `incorrect_attempts` BIGINT(20) NOT NULL, `credit_limit` DOUBLE NOT NULL, `balance` DOUBLE NOT NULL, `card_fee` DOUBLE NOT NULL, `active_from` DATE NOT NULL, `active` BOOLEAN NOT NULL, PRIMARY KEY (card_number));";
+    public final static String createCreditCardsTable = "CREATE TABLE IF NOT EXISTS `credit_cards` (`card_number` BIGINT(20) NOT NULL, `account_number` TEXT NOT NULL, `pin_code` TEXT NOT NULL, `incorrect_attempts` BIGINT(20) NOT NULL, `credit_limit` DOUBLE NOT NULL, `balance` DOUBLE NOT NULL, `card_fee` DOUBLE NOT NULL, `active_from` DATE NOT NULL, `active` BOOLEAN NOT NULL, `last_transaction_id` BIGINT(20) NOT NULL, PRIMARY KEY (card_number));";
     public final static String dropCreditCardsTable = "DROP TABLE IF EXISTS `credit_cards`;";
     public final static String createCreditCardTransactionsTable = "CREATE TABLE IF NOT EXISTS `credit_card_transactions` (`id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `card_number` BIGINT(20) NOT NULL, `account_to` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, PRIMARY KEY (id));";
     public final static String getDropCreditCardTransactionsTable = "DROP TABLE IF EXISTS `credit_card_transactions`;";
     public final static String createPinTable = "CREATE TABLE IF NOT EXISTS `pin`( `account_number` TEXT NOT NULL, `user_id` BIGINT(20) NOT NULL, `card_number` BIGINT(20) NOT NULL, `pin_code` TEXT NOT NULL, `expiration_date` DATE NOT NULL, `incorrect_attempts` BIGINT(20) NOT NULL, `active` BOOLEAN NOT NULL, `frozen` BOOLEAN NOT NULL, PRIMARY KEY (card_number));";
     public final static String dropPinTable = "DROP TABLE IF EXISTS `pin`;";
-    public final static String createTransactionsInTable = "CREATE TABLE IF NOT EXISTS `transactions_in`( `id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `account_to` TEXT NOT NULL, `account_to_name` TEXT NOT NULL, `account_from` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, `new_savings_balance` DOUBLE NOT NULL, `description` TEXT NOT NULL, PRIMARY KEY (id));";
+    public final static String createTransactionsInTable = "CREATE TABLE IF NOT EXISTS `transactions_in`( `id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `account_to` TEXT NOT NULL, `account_to_name` TEXT NOT NULL, `account_from` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, `new_savings_balance` DOUBLE NOT NULL, `description` TEXT NOT NULL, PRIMARY KEY (id), KEY (date));";
     public final static String dropTransactionsInTable = "DROP TABLE IF EXISTS `transactions_in`;";
-    public final static String createTransactionsOutTable = "CREATE TABLE IF NOT EXISTS `transactions_out`( `id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `account_to` TEXT NOT NULL, `account_to_name` TEXT NOT NULL, `account_from` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, `new_savings_balance` DOUBLE NOT NULL, `description` TEXT NOT NULL, PRIMARY KEY (id));";
+    public final static String createTransactionsOutTable = "CREATE TABLE IF NOT EXISTS `transactions_out`( `id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `account_to` TEXT NOT NULL, `account_to_name` TEXT NOT NULL, `account_from` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, `new_savings_balance` DOUBLE NOT NULL, `description` TEXT NOT NULL, PRIMARY KEY (id), KEY (date));";
     public final static String dropTransactionsOutTable = "DROP TABLE IF EXISTS `transactions_out`;";
+    public final static String createTransactionsInArchiveTable = "CREATE TABLE IF NOT EXISTS `transactions_in_archive`( `id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `account_to` TEXT NOT NULL, `account_to_name` TEXT NOT NULL, `account_from` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, `new_savings_balance` DOUBLE NOT NULL, `description` TEXT NOT NULL, PRIMARY KEY (id), KEY (account_to(18))) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;";
+    public final static String dropTransactionsInArchiveTable = "DROP TABLE IF EXISTS `transactions_in_archive`;";
+    public final static String createTransactionsOutArchiveTable = "CREATE TABLE IF NOT EXISTS `transactions_out_archive`( `id` BIGINT(20) NOT NULL, `date` DATE NOT NULL, `account_to` TEXT NOT NULL, `account_to_name` TEXT NOT NULL, `account_from` TEXT NOT NULL, `amount` DOUBLE NOT NULL, `new_balance` DOUBLE NOT NULL, `new_savings_balance` DOUBLE NOT NULL, `description` TEXT NOT NULL, PRIMARY KEY (id), KEY (account_from(18))) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;";
+    public final static String dropTransactionsOutArchiveTable = "DROP TABLE IF EXISTS `transactions_out_archive`;";
     public final static String createAuthTable = "CREATE TABLE IF NOT EXISTS `authentication`( `user_id` BIGINT(20) NOT NULL, `username` TEXT NOT NULL, `password` TEXT NOT NULL, `token` BIGINT(20), `token_validity` BIGINT(20), `frozen` BOOLEAN NOT NULL, `child` BOOLEAN NOT NULL, PRIMARY KEY (user_id));";
     public final static String dropAuthTable = "DROP TABLE IF EXISTS `authentication`;";
-    public final static String createUsersTable = "CREATE TABLE IF NOT EXISTS `users`( `id` BIGINT(20) NOT NULL, `initials` TEXT NOT NULL, `firstname` TEXT NOT NULL, `lastname` TEXT NOT NULL, `email` TEXT NOT NULL, `telephone_number` TEXT NOT NULL, `address` TEXT NOT NULL, `date_of_birth` DATE NOT NULL, `social_security_number` BIGINT(20) NOT NULL, `child` BOOLEAN NOT NULL, PRIMARY KEY (id));";
+    public final static String createUsersTable = "CREATE TABLE IF NOT EXISTS `users`( `id` BIGINT(20) NOT NULL, `initials` TEXT NOT NULL, `firstname` TEXT NOT NULL, `lastname` TEXT NOT NULL, `email` TEXT NOT NULL, `telephone_number` TEXT NOT NULL, `address` TEXT NOT NULL, `date_of_birth` DATE NOT NULL, `social_security_number` BIGINT(20) NOT NULL, `child` BOOLEAN NOT NULL, `adult_date` DATE, PRIMARY KEY (id), KEY (adult_date));";
     public final static String dropUsersTable = "DROP TABLE IF EXISTS `users`;";
     public final static String createRequestLogTable = "CREATE TABLE IF NOT EXISTS `request_logs`(`request_id` TEXT NOT NULL, `method` TEXT NOT NULL, `params` TEXT NOT NULL, `date` DATE NOT NULL, `time` TEXT NOT NULL);";
     public final static String dropRequestLogTable = "DROP TABLE IF EXISTS `request_logs`;";
@@ -124,6 +159,8 @@ public final class SQLStatements {
     public final static String dropErrorLogTable = "DROP TABLE IF EXISTS `error_logs`;";
     public final static String createAdminTable = "CREATE TABLE IF NOT EXISTS `admin`( `user_id` BIGINT(20) NOT NULL, `permission_id` BIGINT(20) NOT NULL);";
     public final static String dropAdminTable = "DROP TABLE IF EXISTS `admin`;";
+    public final static String createScheduledRequestsTable = "CREATE TABLE IF NOT EXISTS `scheduled_requests`( `id` BIGINT(20) NOT NULL, `execution_date` DATE NOT NULL, `type` VARCHAR(20) NOT NULL, `account_number` TEXT, `value_key` TEXT, `value` DOUBLE NOT NULL, PRIMARY KEY (id), KEY (execution_date));";
+    public final static String dropScheduledRequestsTable = "DROP TABLE IF EXISTS `scheduled_requests`;";
 
     // Truncate statements used for resetting the database
     public final static String truncateAccountsTable = "TRUNCATE TABLE `accounts`";
@@ -133,11 +170,14 @@ public final class SQLStatements {
     public final static String truncatePinTable = "TRUNCATE TABLE `pin`";
     public final static String truncateTransactionsInTable = "TRUNCATE TABLE `transactions_in`";
     public final static String truncateTransactionsOutTable = "TRUNCATE TABLE `transactions_out`";
+    public final static String truncateTransactionsInArchiveTable = "TRUNCATE TABLE `transactions_in_archive`";
+    public final static String truncateTransactionsOutArchiveTable = "TRUNCATE TABLE `transactions_out_archive`";
     public final static String truncateAuthTable = "TRUNCATE TABLE `authentication`";
     public final static String truncateUsersTable = "TRUNCATE TABLE `users`";
     public final static String truncateRequestLogTable = "TRUNCATE TABLE `request_logs`";
     public final static String truncateErrorLogTable = "TRUNCATE TABLE `error_logs`";
     public final static String truncateAdminTable = "TRUNCATE TABLE `admin`";
+    public final static String truncateScheduledRequestsTable = "TRUNCATE TABLE `scheduled_requests`";
 
     // Admin methods
     // Create default admin & add authentication data
@@ -173,6 +213,7 @@ public final class SQLStatements {
     public final static String grantTransferBankAccount = "INSERT INTO admin (user_id, permission_id) VALUES (-1, " + MethodType.TRANSFER_BANK_ACCOUNT.getId() + ");";
     public final static String grantSetTransferLimit = "INSERT INTO admin (user_id, permission_id) VALUES (-1, " + MethodType.SET_TRANSFER_LIMIT.getId() + ");";
     public final static String grantSetValue = "INSERT INTO admin (user_id, permission_id) VALUES (-1, " + MethodType.SET_VALUE.getId() + ");";
+    public final static String grantGetBankStatistics = "INSERT INTO admin (user_id, permission_id) VALUES (-1, " + MethodType.GET_BANK_STATISTICS.getId() + ");";
 
     // Query method
     public static final String getAdminPermissions = "SELECT permission_id FROM admin WHERE user_id = ?";
@@ -1,14 +1,40 @@
 package database;
 
+import java.time.LocalTime;
+
 /**
  * @author Saul
  */
 public final class Variables {
 
+    /**
+     * Amount of database tasks a service executes concurrently, overridable with -Dgni.database.concurrency.
+     */
+    public static final int DATABASE_CONCURRENCY = Integer.getInteger("gni.database.concurrency", 8);
+
+    /**
+     * Amount of database tasks a service queues before it rejects requests, overridable with
+     * -Dgni.database.queueSize.
+     */
+    public static final int DATABASE_QUEUE_SIZE = Integer.getInteger("gni.database.queueSize", 10000);
+
+    /**
+     * Whether database tasks should run on virtual threads when the JVM supports them, enabled with
+     * -Dgni.database.virtualThreads=true.
+     */
+    public static final boolean DATABASE_VIRTUAL_THREADS = Boolean.getBoolean("gni.database.virtualThreads");
+
+    /**
+     * Time of day at which the daily maintenance of the services runs, overridable with
+     * -Dgni.database.maintenanceTime=HH:mm.
+     */
+    public static final LocalTime DAILY_MAINTENANCE_TIME = LocalTime.parse(
+            System.getProperty("gni.database.maintenanceTime", "03:00"));
+
     /**
      * Amount of connections the connection pool should keep active concurrently.
      */
-    public static final int AMOUNT_OF_CONNECTIONS = 1;
+    public static final int AMOUNT_OF_CONNECTIONS = DATABASE_CONCURRENCY + 1;
 
     /**
      * URL of the MySQL Database.
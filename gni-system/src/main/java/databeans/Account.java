@@ -1,5 +1,7 @@
 package databeans;
 
+import util.Iban;
+
 import java.io.Serializable;
 
 /**
@@ -15,6 +17,10 @@ public class Account implements Serializable {
     private double savingsBalance;
     private Double creditCardBalance;
     private Double transferLimit;
+    /** Balance as it was last read from or written to the ledger, used to update the bank statistics. */
+    private transient double storedBalance;
+    /** Savings balance as it was last read from or written to the ledger, used to update the bank statistics. */
+    private transient double storedSavingsBalance;
 
     public Account(final String newAccountHolderName, final double newOverdraftLimit, final double newBalance,
                    final boolean savingsActive, final double savingsBalance) {
@@ -45,9 +51,9 @@ public class Account implements Serializable {
     }
 
     public boolean withdrawTransactionIsAllowed(final Transaction transaction) {
-        if (transaction.getDestinationAccountNumber().equals(transaction.getSourceAccountNumber() + "S")) {
+        if (Iban.isSavingsAccountOf(transaction.getDestinationAccountNumber(), transaction.getSourceAccountNumber())) {
             return savingsActive && transaction.getTransactionAmount() <= (balance + overdraftLimit);
-        } else if (transaction.getSourceAccountNumber().equals(transaction.getDestinationAccountNumber() + "S")) {
+        } else if (Iban.isSavingsAccountOf(transaction.getSourceAccountNumber(), transaction.getDestinationAccountNumber())) {
             return savingsActive && transaction.getTransactionAmount() <= savingsBalance;
         } else {
             return transaction.getTransactionAmount() <= (balance + overdraftLimit);
@@ -55,11 +61,11 @@ public class Account implements Serializable {
     }
 
     public void processWithdraw(final Transaction transaction) {
-        if ((transaction.getSourceAccountNumber().equals(transaction.getDestinationAccountNumber() + "S"))) {
+        if (Iban.isSavingsAccountOf(transaction.getSourceAccountNumber(), transaction.getDestinationAccountNumber())) {
             // transfer from savings to normal account
             this.balance += transaction.getTransactionAmount();
             this.savingsBalance -= transaction.getTransactionAmount();
-        } else if ((transaction.getDestinationAccountNumber()).equals(transaction.getSourceAccountNumber() + "S")) {
+        } else if (Iban.isSavingsAccountOf(transaction.getDestinationAccountNumber(), transaction.getSourceAccountNumber())) {
             // deposit comes from savings account, update savings balance
             this.savingsBalance += transaction.getTransactionAmount();
             this.balance -= transaction.getTransactionAmount();
@@ -72,7 +78,7 @@ public class Account implements Serializable {
 
     public void processDeposit(final Transaction transaction) {
         this.balance += transaction.getTransactionAmount();
-        if ((transaction.getSourceAccountNumber()).equals(transaction.getDestinationAccountNumber() + "S")) {
+        if (Iban.isSavingsAccountOf(transaction.getSourceAccountNumber(), transaction.getDestinationAccountNumber())) {
             // deposit comes from savings account, update savings balance
             this.savingsBalance -= transaction.getTransactionAmount();
         }
@@ -160,6 +166,22 @@ public class Account implements Serializable {
         transferLimit = newTransferLimit;
     }
 
+    public double getStoredBalance() {
+        return storedBalance;
+    }
+
+    public void setStoredBalance(final double newStoredBalance) {
+        storedBalance = newStoredBalance;
+    }
+
+    public double getStoredSavingsBalance() {
+        return storedSavingsBalance;
+    }
+
+    public void setStoredSavingsBalance(final double newStoredSavingsBalance) {
+        storedSavingsBalance = newStoredSavingsBalance;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
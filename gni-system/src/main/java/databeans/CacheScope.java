@@ -0,0 +1,20 @@
+package databeans;
+
+import java.io.Serializable;
+
+/**
+ * @author Saul
+ * @version 1
+ * Enum used to specify which responses in the response cache of the api are outdated after a write.
+ */
+public enum CacheScope implements Serializable {
+
+    /** The balance or limits of an account changed. */
+    ACCOUNT,
+
+    /** The customers that have access to an account changed. */
+    ACCESS,
+
+    /** A change that can affect every response, e.g. a change of the system date. */
+    ALL
+}
@@ -17,6 +17,8 @@ public class DataRequest implements Serializable {
     private RequestType type;
     /** User id of the customer the request is for. */
     private long customerId;
+    /** Amount of transactions a transaction history request needs, 0 for all transactions. */
+    private long transactionLimit;
 
     /** Creates a DataRequest objects which is used to send a request to the Ledger service.
      * @param newAccountNumber Account number relating to the request.
@@ -70,6 +72,14 @@ public class DataRequest implements Serializable {
         customerId = newCustomerId;
     }
 
+    public long getTransactionLimit() {
+        return transactionLimit;
+    }
+
+    public void setTransactionLimit(final long newTransactionLimit) {
+        transactionLimit = newTransactionLimit;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
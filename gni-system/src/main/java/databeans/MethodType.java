@@ -34,7 +34,8 @@ public enum MethodType implements Serializable {
     SET_FREEZE_USER_ACCOUNT,
     TRANSFER_BANK_ACCOUNT,
     SET_TRANSFER_LIMIT,
-    SET_VALUE;
+    SET_VALUE,
+    GET_BANK_STATISTICS;
 
     public int getId() {
         switch (this) {
@@ -66,6 +67,7 @@ public enum MethodType implements Serializable {
             case TRANSFER_BANK_ACCOUNT:     return 26;
             case SET_TRANSFER_LIMIT:        return 27;
             case SET_VALUE:                 return 28;
+            case GET_BANK_STATISTICS:       return 29;
             default:                        return -1;
         }
     }
@@ -100,6 +102,7 @@ public enum MethodType implements Serializable {
             case TRANSFER_BANK_ACCOUNT:     return false;
             case SET_TRANSFER_LIMIT:        return false;
             case SET_VALUE:                 return false;
+            case GET_BANK_STATISTICS:       return true;
             default:                        return false;
         }
     }
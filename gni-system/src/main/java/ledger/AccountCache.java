@@ -0,0 +1,86 @@
+package ledger;
+
+import databeans.Account;
+import util.Iban;
+import util.LongObjectMap;
+
+/**
+ * @author Saul
+ * @version 1
+ * Ledger rows that were read from the ledger table, kept in memory when the journal holds the balances so a posting
+ * does not have to select the row of its account. The cached balances are only used for accounts that are not in the
+ * journal, whose balances are still the ones in the table. Every write of the other columns of a row should be followed
+ * by {@link #invalidate(String)}, a row that was read while it was invalidated is not cached, so a concurrent read
+ * can never put an outdated row back. Lookups are lock free, changes are synchronized on the cache.
+ */
+final class AccountCache {
+    /** Cached rows, never handed out, indexed by packed account number. */
+    private final LongObjectMap<Account> accounts;
+    /** Amount of invalidations, used to detect rows that were invalidated while they were read. */
+    private long invalidations;
+
+    AccountCache() {
+        this.accounts = new LongObjectMap<>();
+    }
+
+    /**
+     * Fetches a copy of a cached row.
+     * @param accountNumber Account number of the row.
+     * @return A copy of the row, or null if it is not cached.
+     */
+    Account get(final String accountNumber) {
+        long packed = Iban.pack(accountNumber);
+        Account cached = packed == Iban.INVALID ? null : accounts.get(packed);
+        if (cached == null) {
+            return null;
+        }
+        Account account = new Account(cached.getAccountHolderName(), cached.getOverdraftLimit(), cached.getBalance(),
+                cached.isSavingsActive(), cached.getSavingsBalance());
+        account.setAccountNumber(accountNumber);
+        account.setTransferLimit(cached.getTransferLimit());
+        return account;
+    }
+
+    /**
+     * Should be called before a row is read from the ledger table.
+     * @return The version to pass to {@link #put(Account, long)}.
+     */
+    synchronized long version() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a row that was read from the ledger table, unless a row was invalidated since it was read.
+     * @param account The row, it is copied.
+     * @param version Version returned by {@link #version()} before the row was read.
+     */
+    synchronized void put(final Account account, final long version) {
+        long packed = Iban.pack(account.getAccountNumber());
+        if (version == invalidations && packed != Iban.INVALID && !Iban.isSavings(packed)) {
+            Account cached = new Account(account.getAccountHolderName(), account.getOverdraftLimit(),
+                    account.getBalance(), account.isSavingsActive(), account.getSavingsBalance());
+            cached.setTransferLimit(account.getTransferLimit());
+            accounts.put(packed, cached);
+        }
+    }
+
+    /**
+     * Forgets a row after it was written or removed.
+     * @param accountNumber Account number of the row.
+     */
+    synchronized void invalidate(final String accountNumber) {
+        long packed = Iban.pack(accountNumber);
+        if (packed != Iban.INVALID) {
+            accounts.remove(packed);
+        }
+        invalidations++;
+    }
+
+    /**
+     * Forgets all rows, used when the database has been truncated.
+     */
+    synchronized void clear() {
+        accounts.clear();
+        invalidations++;
+    }
+}
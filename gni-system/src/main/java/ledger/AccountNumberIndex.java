@@ -0,0 +1,182 @@
+package ledger;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import util.Iban;
+import util.Log;
+import util.LongLongMap;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Saul
+ * @version 1
+ * In memory index of the account numbers in the ledger, used to check if an account exists and to find a free account
+ * number without querying the ledger table. GNI account numbers are packed with {@link Iban} and map to the id of
+ * their row in the ledger, other account numbers are kept as strings. The index is loaded when the service starts and
+ * after a reset, and is updated by the serial lane of the ledger whenever an account is created or removed. Lookups of
+ * GNI account numbers are lock free. Optionally a Bloom filter of gni.ledger.accountBloomFilterBits bits sits in front
+ * of the table, it answers most lookups of account numbers that do not exist without probing the table.
+ */
+final class AccountNumberIndex {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Ledger]              :";
+    /** Size of the Bloom filter in bits, 0 disables the filter. */
+    private static final int BLOOM_FILTER_BITS = Integer.getInteger("gni.ledger.accountBloomFilterBits", 0);
+    /** Amount of bits that are set in the Bloom filter for every account number. */
+    private static final int BLOOM_FILTER_HASHES = 3;
+    /** Database connection pool of the ledger. */
+    private final ConnectionPool db;
+    /** Ledger ids of the accounts, indexed by packed account number. */
+    private volatile LongLongMap ids;
+    /** Account numbers that can not be packed. */
+    private final Set<String> otherAccountNumbers;
+    /** Bloom filter of the packed account numbers, null if the filter is disabled. */
+    private volatile AtomicLongArray bloomFilter;
+
+    /**
+     * Creates an empty index, {@link #load()} should be called to fill it with the account numbers of the ledger.
+     * @param newDb Database connection pool of the ledger.
+     */
+    AccountNumberIndex(final ConnectionPool newDb) {
+        this.db = newDb;
+        this.ids = new LongLongMap();
+        this.otherAccountNumbers = new HashSet<>();
+        this.bloomFilter = newBloomFilter();
+    }
+
+    /**
+     * Replaces the contents of the index with the account numbers in the ledger table, lookups keep using the
+     * previous contents until the new contents are complete.
+     * @throws SQLException Thrown when the account numbers could not be read from the database.
+     */
+    synchronized void load() throws SQLException {
+        LongLongMap loadedIds = new LongLongMap();
+        Set<String> loadedOtherAccountNumbers = new HashSet<>();
+        AtomicLongArray filter = newBloomFilter();
+        SQLConnection connection = db.getConnection();
+        try (PreparedStatement getAccountNumbers = connection.getConnection()
+                .prepareStatement(SQLStatements.getLedgerAccountNumbers);
+             ResultSet accountNumbers = getAccountNumbers.executeQuery()) {
+            while (accountNumbers.next()) {
+                String accountNumber = accountNumbers.getString("account_number");
+                long packed = Iban.pack(accountNumber);
+                if (packed == Iban.INVALID) {
+                    loadedOtherAccountNumbers.add(accountNumber);
+                } else {
+                    loadedIds.put(packed, accountNumbers.getLong("id"));
+                    if (filter != null) {
+                        addToBloomFilter(filter, packed);
+                    }
+                }
+            }
+        } finally {
+            db.returnConnection(connection);
+        }
+        // the filter is published first, so a lookup never checks the new ids against the filter of the old ones
+        bloomFilter = filter;
+        ids = loadedIds;
+        otherAccountNumbers.clear();
+        otherAccountNumbers.addAll(loadedOtherAccountNumbers);
+        Log.info(PREFIX, "Loaded %d account numbers.", loadedIds.size() + loadedOtherAccountNumbers.size());
+    }
+
+    /**
+     * Checks if an account number is in the ledger.
+     * @param accountNumber The account number to check.
+     * @return True if the account exists.
+     */
+    boolean contains(final String accountNumber) {
+        long packed = Iban.pack(accountNumber);
+        if (packed == Iban.INVALID) {
+            synchronized (this) {
+                return otherAccountNumbers.contains(accountNumber);
+            }
+        }
+        if (Iban.isSavings(packed)) {
+            return false;
+        }
+        AtomicLongArray filter = bloomFilter;
+        return (filter == null || mightContain(filter, packed)) && ids.containsKey(packed);
+    }
+
+    /**
+     * Looks up the ledger id of an account.
+     * @param packed The packed account number of the account.
+     * @return The id of the row of the account in the ledger table, or -1 if the account is not in the ledger.
+     */
+    long id(final long packed) {
+        return ids.get(packed, -1L);
+    }
+
+    /**
+     * Adds the account number of a new account.
+     * @param accountNumber The account number that was added to the ledger.
+     * @param id Id of the row of the account in the ledger table.
+     */
+    synchronized void add(final String accountNumber, final long id) {
+        long packed = Iban.pack(accountNumber);
+        if (packed == Iban.INVALID) {
+            otherAccountNumbers.add(accountNumber);
+            return;
+        }
+        AtomicLongArray filter = bloomFilter;
+        if (filter != null) {
+            addToBloomFilter(filter, packed);
+        }
+        ids.put(packed, id);
+    }
+
+    /**
+     * Removes the account number of a removed account, the Bloom filter keeps its bits until the next load.
+     * @param accountNumber The account number that was removed from the ledger.
+     */
+    synchronized void remove(final String accountNumber) {
+        long packed = Iban.pack(accountNumber);
+        if (packed == Iban.INVALID) {
+            otherAccountNumbers.remove(accountNumber);
+        } else {
+            ids.remove(packed);
+        }
+    }
+
+    private static AtomicLongArray newBloomFilter() {
+        if (BLOOM_FILTER_BITS <= 0) {
+            return null;
+        }
+        return new AtomicLongArray((BLOOM_FILTER_BITS + 63) >>> 6);
+    }
+
+    private static void addToBloomFilter(final AtomicLongArray filter, final long packed) {
+        for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            int bit = bloomBit(filter, packed, i);
+            filter.getAndAccumulate(bit >>> 6, 1L << bit, (word, mask) -> word | mask);
+        }
+    }
+
+    private static boolean mightContain(final AtomicLongArray filter, final long packed) {
+        for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            int bit = bloomBit(filter, packed, i);
+            if ((filter.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the i-th bit of a packed account number in the Bloom filter, using double hashing.
+     */
+    private static int bloomBit(final AtomicLongArray filter, final long packed, final int i) {
+        long mixed = packed * 0xC2B2AE3D27D4EB4FL;
+        int first = (int) (mixed >>> 32);
+        int second = (int) mixed | 1;
+        return (int) (((first + (long) i * second) & 0xFFFFFFFFL) % ((long) filter.length() << 6));
+    }
+}
@@ -0,0 +1,151 @@
+package ledger;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import databeans.Account;
+import util.Log;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Saul
+ * @version 1
+ * Bank wide totals of the ledger for admin reporting, kept up to date with a delta for every balance that is written
+ * so they can be read without scanning the ledger table. The ledger stores absolute balances, so the delta of a write
+ * is taken from the balance the {@link Account} had when it was read, amounts are counted in whole cents so the
+ * deltas of an account add up exactly to its current balance. Writes that bypass the service (or that are based on an
+ * outdated read of the account) make the totals drift, the totals are therefore reconciled against the ledger table
+ * when the service starts and every night.
+ */
+final class BankStatistics {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Ledger]              :";
+    /** Database connection pool of the ledger. */
+    private final ConnectionPool db;
+    /** Amount of accounts in the ledger. */
+    private final AtomicLong accounts;
+    /** Sum of all positive balances, in cents. */
+    private final AtomicLong depositCents;
+    /** Sum of all savings balances, in cents. */
+    private final AtomicLong savingsCents;
+    /** Sum of all negative balances as a positive amount, in cents. */
+    private final AtomicLong overdraftCents;
+    /** Amount of accounts with a negative balance. */
+    private final AtomicLong overdrawnAccounts;
+
+    /**
+     * Creates empty statistics, {@link #reconcile()} should be called to fill them with the totals of the ledger.
+     * @param newDb Database connection pool of the ledger.
+     */
+    BankStatistics(final ConnectionPool newDb) {
+        this.db = newDb;
+        this.accounts = new AtomicLong();
+        this.depositCents = new AtomicLong();
+        this.savingsCents = new AtomicLong();
+        this.overdraftCents = new AtomicLong();
+        this.overdrawnAccounts = new AtomicLong();
+    }
+
+    /**
+     * Counts a new account and its starting balance.
+     * @param account The account that was added to the ledger.
+     */
+    void accountCreated(final Account account) {
+        accounts.incrementAndGet();
+        balanceChanged(0, account.getBalance());
+        account.setStoredBalance(account.getBalance());
+    }
+
+    /**
+     * Removes an account and its balances from the totals.
+     * @param account The account as it was read before it was removed from the ledger.
+     */
+    void accountRemoved(final Account account) {
+        accounts.decrementAndGet();
+        balanceChanged(account.getStoredBalance(), 0);
+        savingsCents.addAndGet(-toCents(account.getStoredSavingsBalance()));
+    }
+
+    /**
+     * Applies the change of the balance of an account that was just written to the ledger.
+     * @param account The account containing the written balance.
+     */
+    void balanceWritten(final Account account) {
+        balanceChanged(account.getStoredBalance(), account.getBalance());
+        account.setStoredBalance(account.getBalance());
+    }
+
+    /**
+     * Applies the change of the savings balance of an account that was just written to the ledger.
+     * @param account The account containing the written savings balance.
+     */
+    void savingsBalanceWritten(final Account account) {
+        savingsCents.addAndGet(toCents(account.getSavingsBalance()) - toCents(account.getStoredSavingsBalance()));
+        account.setStoredSavingsBalance(account.getSavingsBalance());
+    }
+
+    private void balanceChanged(final double oldBalance, final double newBalance) {
+        depositCents.addAndGet(toCents(Math.max(newBalance, 0)) - toCents(Math.max(oldBalance, 0)));
+        overdraftCents.addAndGet(toCents(Math.max(-newBalance, 0)) - toCents(Math.max(-oldBalance, 0)));
+        if (oldBalance < 0 != newBalance < 0) {
+            overdrawnAccounts.addAndGet(newBalance < 0 ? 1 : -1);
+        }
+    }
+
+    private static long toCents(final double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Replaces the totals with the totals of the ledger table, which rounds every balance to cents, should run on the
+     * serial lane of the ledger so no balance is written while the table is read. Drift of the totals is logged.
+     */
+    void reconcile() {
+        SQLConnection connection = db.getConnection();
+        try (PreparedStatement getTotals = connection.getConnection()
+                .prepareStatement(SQLStatements.getBankStatistics);
+             ResultSet totals = getTotals.executeQuery()) {
+            if (totals.next()) {
+                long accountDrift = reset(accounts, totals.getLong(1)) + reset(overdrawnAccounts, totals.getLong(5));
+                long centDrift = reset(depositCents, totals.getLong(2)) + reset(savingsCents, totals.getLong(3))
+                        + reset(overdraftCents, totals.getLong(4));
+                if (accountDrift + centDrift > 0) {
+                    Log.warn(PREFIX, "Reconciled the bank statistics with the ledger, the account counts were off by "
+                            + "%d and the totals by %d cents.", accountDrift, centDrift);
+                }
+            }
+        } catch (SQLException e) {
+            Log.error(PREFIX, "Reconciling the bank statistics failed: %s", e.getMessage());
+        } finally {
+            db.returnConnection(connection);
+        }
+    }
+
+    /**
+     * Sets a counter to its reconciled value.
+     * @return Difference between the counter and the reconciled value.
+     */
+    private static long reset(final AtomicLong counter, final long value) {
+        return Math.abs(counter.getAndSet(value) - value);
+    }
+
+    /**
+     * Returns the current totals.
+     * @return The totals by name, amounts in euros.
+     */
+    Map<String, Object> snapshot() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("accounts", accounts.get());
+        statistics.put("totalDeposits", depositCents.get() / 100.0);
+        statistics.put("totalSavings", savingsCents.get() / 100.0);
+        statistics.put("overdraftExposure", overdraftCents.get() / 100.0);
+        statistics.put("overdrawnAccounts", overdrawnAccounts.get());
+        return statistics;
+    }
+}
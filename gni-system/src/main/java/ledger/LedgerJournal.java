@@ -0,0 +1,758 @@
+package ledger;
+
+import databeans.Account;
+import util.Iban;
+import util.Log;
+import util.LongObjectMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * @author Saul
+ * @version 1
+ * Append only journal of the balances and transactions of the ledger, used as the commit point of postings instead of
+ * the ledger and transaction tables when -Dgni.ledger.journalDirectory is set. A posting appends checksummed records
+ * with the new balances of its accounts, followed by records holding its encoded transaction rows, to a memory mapped
+ * segment file, and the balances of all journaled accounts are kept in memory. A single flusher thread forces the
+ * segment to disk, one force makes all postings that were appended before it durable, and actions registered with
+ * {@link #whenDurable(Runnable)} run once the postings before them are durable, so the thread that posts never waits
+ * for the disk. Records hold the resulting balances instead of the posted amounts, so the newest record of an account
+ * is its balance, the balances and rows of a batch are only recovered if its last record is. On startup the balances
+ * are rebuilt from the newest snapshot and the records that were appended after it, records after the first damaged
+ * record of a segment were never durable and are dropped. A snapshot is written daily and whenever a segment is full,
+ * after which the segments it covers are deleted once the {@link LedgerProjection} has written their rows.
+ */
+final class LedgerJournal {
+    /** Directory of the journal, the journal is disabled when it is not set. */
+    static final String DIRECTORY = System.getProperty("gni.ledger.journalDirectory");
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Ledger]              :";
+    /** Size of a record: checksum, type, sequence number, account and both balances. */
+    private static final int RECORD_SIZE = 40;
+    /** Bytes of encoded transaction rows a record holds, in place of the account and both balances. */
+    private static final int PAYLOAD_SIZE = 24;
+    /** Size of a segment file in bytes. */
+    private static final int SEGMENT_SIZE = Integer.getInteger("gni.ledger.journalSegmentSize", 64 << 20);
+    /** Time in milliseconds the flusher waits for more postings before forcing a segment, 0 forces right away. */
+    private static final long FLUSH_DELAY = Long.getLong("gni.ledger.journalFlushDelay", 0L);
+    /** Type of a record with the new balances of an account. */
+    private static final int BALANCES = 1;
+    /** Type of a record of an account that was removed. */
+    private static final int REMOVED = 2;
+    /** Type of a record with the new balances of an account that is followed by more records of the same batch. */
+    private static final int BATCHED = 3;
+    /** Type of a record with encoded transaction rows that is followed by more records of the same batch. */
+    private static final int TRANSACTION = 4;
+    /** Type of the record with the last encoded transaction rows of a batch. */
+    private static final int TRANSACTION_END = 5;
+    /** First bytes of a snapshot file. */
+    private static final long SNAPSHOT_MAGIC = 0x474E494C45444752L;
+    /** Size of the header of a snapshot: magic, sequence number and amount of accounts. */
+    private static final int SNAPSHOT_HEADER_SIZE = 20;
+    /** Size of an account in a snapshot: account and both balances. */
+    private static final int SNAPSHOT_ENTRY_SIZE = 24;
+    /** Prefix of the names of segment files, followed by the sequence number of their first record. */
+    private static final String SEGMENT_PREFIX = "journal-";
+    /** Prefix of the names of snapshot files, followed by the sequence number of their last record. */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    /** Directory the segments and snapshots are stored in. */
+    private final Path directory;
+    /** Size of the segment files in bytes, a whole amount of records. */
+    private final int segmentSize;
+    /** Balances of the journaled accounts, indexed by packed account number. */
+    private final LongObjectMap<Balances> balances;
+    /** Segment files that are not covered by a snapshot, indexed by the sequence number of their first record. */
+    private final TreeMap<Long, Path> segments;
+    /** Actions waiting for their postings to become durable, in order of sequence number. */
+    private final ArrayDeque<PendingAction> pendingActions;
+    /** Sequence numbers of the postings whose transaction rows are not written to their tables yet, in order. */
+    private final ArrayDeque<Long> unprojected;
+    /** Postings with transaction rows that were recovered and not yet handed to the projection. */
+    private List<Posting> recovered;
+    /** Channel of the segment that is appended to. */
+    private FileChannel segmentChannel;
+    /** Mapping of the segment that is appended to, positioned after its last record. */
+    private MappedByteBuffer segment;
+    /** Sequence number of the last appended record. */
+    private long appendedSequence;
+    /** Sequence number of the last record that is forced to disk. */
+    private long durableSequence;
+    /** Whether the journal has been closed. */
+    private boolean closed;
+
+    /**
+     * Opens the journal in a directory, rebuilds the balances from the snapshot and segments in it and starts the
+     * flusher thread.
+     * @param newDirectory Directory of the journal, created if it does not exist.
+     * @throws IOException Thrown when the journal could not be read, or when a segment is missing.
+     */
+    LedgerJournal(final Path newDirectory) throws IOException {
+        this(newDirectory, SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the journal in a directory with segments of a given size.
+     * @param newDirectory Directory of the journal, created if it does not exist.
+     * @param newSegmentSize Size of a segment file in bytes, rounded down to a whole amount of records.
+     * @throws IOException Thrown when the journal could not be read, or when a segment is missing.
+     */
+    LedgerJournal(final Path newDirectory, final int newSegmentSize) throws IOException {
+        if (newSegmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("A journal segment must hold at least one record.");
+        }
+        this.directory = newDirectory;
+        this.segmentSize = newSegmentSize / RECORD_SIZE * RECORD_SIZE;
+        this.balances = new LongObjectMap<>();
+        this.segments = new TreeMap<>();
+        this.pendingActions = new ArrayDeque<>();
+        this.unprojected = new ArrayDeque<>();
+        this.recovered = new ArrayList<>();
+        Files.createDirectories(directory);
+        recover();
+        openSegment(appendedSequence + 1);
+        Thread flusher = new Thread(this::flushSegments, "ledger-journal");
+        flusher.setDaemon(true);
+        flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    /**
+     * Appends the balances of an account, the record is only appended if the balances changed.
+     * @param account The account, containing the new balances.
+     * @return The balances of the account, or null if the account number can not be journaled.
+     */
+    Balances post(final Account account) {
+        long packed = Iban.pack(account.getAccountNumber());
+        if (packed == Iban.INVALID || Iban.isSavings(packed)) {
+            return null;
+        }
+        Balances posted = new Balances(packed, account.getBalance(), account.getSavingsBalance());
+        synchronized (this) {
+            if (!posted.sameAs(balances.get(packed))) {
+                append(BALANCES, posted);
+                balances.put(packed, posted);
+            }
+        }
+        return posted;
+    }
+
+    /**
+     * Appends the balances of several accounts as one batch, after a crash the changed balances are either all
+     * recovered or none of them are.
+     * @param accounts The accounts, containing the new balances.
+     * @return The balances of the accounts that can be journaled.
+     */
+    List<Balances> post(final Collection<Account> accounts) {
+        return post(accounts, Collections.emptyList()).getBalances();
+    }
+
+    /**
+     * Appends the balances of several accounts and the transaction rows of the postings that changed them as one
+     * batch, after a crash the changed balances and the rows are either all recovered or none of them are. A batch is
+     * started in a new segment if it does not fit in the current one.
+     * @param accounts The accounts, containing the new balances.
+     * @param rows Transaction rows of the postings, to be written to their tables by the projection.
+     * @return The posting, containing the balances of the accounts that can be journaled.
+     */
+    Posting post(final Collection<Account> accounts, final List<TransactionRow> rows) {
+        byte[] encodedRows = encode(rows);
+        int rowRecords = (encodedRows.length + PAYLOAD_SIZE - 1) / PAYLOAD_SIZE;
+        List<Balances> posted = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            long packed = Iban.pack(account.getAccountNumber());
+            if (packed != Iban.INVALID && !Iban.isSavings(packed)) {
+                posted.add(new Balances(packed, account.getBalance(), account.getSavingsBalance()));
+            }
+        }
+        synchronized (this) {
+            List<Balances> changed = new ArrayList<>(posted.size());
+            for (Balances accountBalances : posted) {
+                if (!accountBalances.sameAs(balances.get(accountBalances.getAccount()))) {
+                    changed.add(accountBalances);
+                }
+            }
+            int records = changed.size() + rowRecords;
+            if (records * RECORD_SIZE > segmentSize) {
+                throw new IllegalArgumentException("A batch of " + records
+                        + " records does not fit in a journal segment.");
+            }
+            if (segment.remaining() < records * RECORD_SIZE) {
+                rollSegment();
+            }
+            for (int i = 0; i < changed.size(); i++) {
+                append(i + 1 < records ? BATCHED : BALANCES, changed.get(i));
+                balances.put(changed.get(i).getAccount(), changed.get(i));
+            }
+            for (int i = 0; i < rowRecords; i++) {
+                appendRows(i + 1 < rowRecords ? TRANSACTION : TRANSACTION_END, encodedRows, i * PAYLOAD_SIZE);
+            }
+            if (rowRecords > 0) {
+                unprojected.add(appendedSequence);
+            }
+            return new Posting(appendedSequence, posted, rows);
+        }
+    }
+
+    /**
+     * Forgets the balances of a removed account, so an account that later gets the same account number starts from
+     * the balances in the ledger table.
+     * @param accountNumber Account number of the removed account.
+     */
+    synchronized void remove(final String accountNumber) {
+        long packed = Iban.pack(accountNumber);
+        Balances removed = packed == Iban.INVALID ? null : balances.remove(packed);
+        if (removed != null) {
+            append(REMOVED, new Balances(packed, 0.0, 0.0));
+        }
+    }
+
+    /**
+     * Replaces the balances of an account that was read from the ledger table with its journaled balances.
+     * @param account The account.
+     */
+    void readBalances(final Account account) {
+        Balances journaled = balances.get(Iban.pack(account.getAccountNumber()));
+        if (journaled != null) {
+            account.setBalance(journaled.getBalance());
+            account.setSavingsBalance(journaled.getSavingsBalance());
+        }
+    }
+
+    /**
+     * Runs an action once all postings that were appended before it are durable, right away if they already are.
+     * Actions run on the flusher thread in the order they were registered.
+     * @param action The action, usually the reply to a request.
+     */
+    void whenDurable(final Runnable action) {
+        synchronized (this) {
+            if (!pendingActions.isEmpty() || durableSequence < appendedSequence) {
+                pendingActions.add(new PendingAction(appendedSequence, action));
+                notifyAll();
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Waits until all postings that were appended before the call are durable.
+     * @throws IOException Thrown when the thread was interrupted while waiting.
+     */
+    synchronized void awaitDurable() throws IOException {
+        long target = appendedSequence;
+        while (durableSequence < target) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the journal to be forced.");
+            }
+        }
+    }
+
+    /**
+     * Marks the transaction rows of the postings up to a sequence number as written to their tables, the segments
+     * holding them may then be deleted by the next snapshot.
+     * @param sequence Sequence number of the last posting whose rows were written.
+     */
+    synchronized void projected(final long sequence) {
+        while (!unprojected.isEmpty() && unprojected.peek() <= sequence) {
+            unprojected.poll();
+        }
+    }
+
+    /**
+     * Hands over the postings with transaction rows that were recovered from the segments, the rows of a posting may
+     * already be in their tables if they were written before the journal was closed.
+     * @return The recovered postings in order of sequence number, they are only returned once.
+     */
+    synchronized List<Posting> takeRecoveredPostings() {
+        List<Posting> taken = recovered;
+        recovered = new ArrayList<>();
+        return taken;
+    }
+
+    /**
+     * Passes the balances of all journaled accounts to an action.
+     * @param action Action to perform for the balances of every account.
+     */
+    void forEachBalance(final Consumer<Balances> action) {
+        balances.forEachValue(action);
+    }
+
+    /**
+     * Writes a snapshot of the balances and deletes the snapshots it covers, and the segments it covers whose
+     * transaction rows are written to their tables.
+     * @throws IOException Thrown when the snapshot could not be written.
+     */
+    synchronized void snapshot() throws IOException {
+        // the rows of the covered records are only in the segments, so they have to be durable before the balances
+        segment.force();
+        durableSequence = appendedSequence;
+        notifyAll();
+        ByteBuffer contents = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE + balances.size() * SNAPSHOT_ENTRY_SIZE + 8);
+        contents.putLong(SNAPSHOT_MAGIC).putLong(appendedSequence).putInt(balances.size());
+        balances.forEachValue(accountBalances -> contents.putLong(accountBalances.getAccount())
+                .putDouble(accountBalances.getBalance()).putDouble(accountBalances.getSavingsBalance()));
+        CRC32 snapshotChecksum = new CRC32();
+        snapshotChecksum.update(contents.array(), 0, contents.position());
+        contents.putLong(snapshotChecksum.getValue());
+        contents.flip();
+        Path snapshot = directory.resolve(fileName(SNAPSHOT_PREFIX, appendedSequence));
+        Path temporary = directory.resolve(snapshot.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (contents.hasRemaining()) {
+                channel.write(contents);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path file : list(SNAPSHOT_PREFIX).values()) {
+            if (!file.equals(snapshot)) {
+                Files.deleteIfExists(file);
+            }
+        }
+        long covered = unprojected.isEmpty() ? appendedSequence : unprojected.peek() - 1;
+        // a segment is covered once the segment after it starts at or before the first record that is not covered
+        List<Long> firstSequences = new ArrayList<>(segments.keySet());
+        for (int i = 0; i + 1 < firstSequences.size() && firstSequences.get(i + 1) <= covered + 1; i++) {
+            Files.deleteIfExists(segments.remove(firstSequences.get(i)));
+        }
+        Log.info(PREFIX, "Wrote a journal snapshot of %d accounts at record %d.", balances.size(),
+                appendedSequence);
+    }
+
+    /**
+     * Forgets all balances, should be called after the ledger table has been truncated.
+     * @throws IOException Thrown when the empty snapshot could not be written.
+     */
+    synchronized void reset() throws IOException {
+        balances.clear();
+        unprojected.clear();
+        recovered.clear();
+        snapshot();
+    }
+
+    /**
+     * Forces the segment to disk and stops the flusher, actions that are still waiting are dropped.
+     */
+    synchronized void close() {
+        if (!closed) {
+            closed = true;
+            segment.force();
+            durableSequence = appendedSequence;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Rebuilds the balances from the newest valid snapshot and the records appended after it, and collects the
+     * transaction rows of all records in the segments.
+     */
+    private void recover() throws IOException {
+        long snapshotSequence = loadSnapshot();
+        segments.putAll(list(SEGMENT_PREFIX));
+        // segments before the snapshot are kept while they hold rows that were not written to their tables
+        appendedSequence = segments.isEmpty() ? snapshotSequence : Math.min(snapshotSequence, segments.firstKey() - 1);
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            long firstMissing = Math.max(appendedSequence, snapshotSequence) + 1;
+            if (entry.getKey() > firstMissing) {
+                throw new IOException("Journal segment " + entry.getValue() + " starts after missing record "
+                        + firstMissing + ".");
+            }
+            appendedSequence = Math.max(appendedSequence, entry.getKey() - 1);
+            replay(entry.getValue(), snapshotSequence);
+        }
+        appendedSequence = Math.max(appendedSequence, snapshotSequence);
+        // segments that start after the last record only hold records that were never durable
+        for (Path empty : segments.tailMap(appendedSequence, false).values()) {
+            Files.delete(empty);
+        }
+        segments.tailMap(appendedSequence, false).clear();
+        durableSequence = appendedSequence;
+        Log.info(PREFIX, "Recovered the balances of %d accounts from the journal, replayed %d records.",
+                balances.size(), appendedSequence - snapshotSequence);
+        if (!recovered.isEmpty()) {
+            Log.info(PREFIX, "Recovered %d postings with transaction rows from the journal.", recovered.size());
+        }
+    }
+
+    /**
+     * Loads the newest snapshot that is not damaged.
+     * @return The sequence number of the last record in the snapshot, 0 if there is no snapshot.
+     */
+    private long loadSnapshot() throws IOException {
+        for (Map.Entry<Long, Path> entry : list(SNAPSHOT_PREFIX).descendingMap().entrySet()) {
+            ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(entry.getValue()));
+            if (contents.limit() >= SNAPSHOT_HEADER_SIZE + 8 && contents.getLong() == SNAPSHOT_MAGIC) {
+                long sequence = contents.getLong();
+                int count = contents.getInt();
+                int checksumPosition = SNAPSHOT_HEADER_SIZE + count * SNAPSHOT_ENTRY_SIZE;
+                CRC32 snapshotChecksum = new CRC32();
+                if (count >= 0 && contents.limit() == checksumPosition + 8) {
+                    snapshotChecksum.update(contents.array(), 0, checksumPosition);
+                    if (snapshotChecksum.getValue() == contents.getLong(checksumPosition)) {
+                        for (int i = 0; i < count; i++) {
+                            Balances accountBalances = new Balances(contents.getLong(), contents.getDouble(),
+                                    contents.getDouble());
+                            balances.put(accountBalances.getAccount(), accountBalances);
+                        }
+                        return sequence;
+                    }
+                }
+            }
+            Log.warn(PREFIX, "Skipping damaged journal snapshot %s.", entry.getValue());
+        }
+        return 0L;
+    }
+
+    /**
+     * Applies the records of a segment that follow the last applied record, up to the first damaged record. Balances
+     * are only applied from records after the snapshot, the transaction rows of every complete batch are recovered. A
+     * batch that is not complete was never durable, its first record is cleared so later recoveries stop before it as
+     * well.
+     */
+    private void replay(final Path segmentFile, final long snapshotSequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            List<Balances> batch = new ArrayList<>();
+            ByteArrayOutputStream batchRows = new ByteArrayOutputStream();
+            int batchRecords = 0;
+            int batchPosition = 0;
+            for (int position = 0; position + RECORD_SIZE <= records.limit(); position += RECORD_SIZE) {
+                if (records.getInt(position) != (int) checksum(records, position)) {
+                    break;
+                }
+                long sequence = records.getLong(position + 8);
+                if (sequence > appendedSequence + 1) {
+                    break;
+                } else if (sequence == appendedSequence + 1) {
+                    long packed = records.getLong(position + 16);
+                    int type = records.getInt(position + 4);
+                    if (type == REMOVED) {
+                        if (sequence > snapshotSequence) {
+                            balances.remove(packed);
+                        }
+                    } else {
+                        if (batchRecords++ == 0) {
+                            batchPosition = position;
+                        }
+                        if (type == TRANSACTION || type == TRANSACTION_END) {
+                            byte[] payload = new byte[PAYLOAD_SIZE];
+                            ByteBuffer record = records.duplicate();
+                            record.position(position + 16);
+                            record.get(payload);
+                            batchRows.write(payload, 0, PAYLOAD_SIZE);
+                        } else {
+                            batch.add(new Balances(packed, records.getDouble(position + 24),
+                                    records.getDouble(position + 32)));
+                        }
+                        if (type != BATCHED && type != TRANSACTION) {
+                            // the snapshot holds newer balances than the records it covers
+                            if (sequence > snapshotSequence) {
+                                for (Balances accountBalances : batch) {
+                                    balances.put(accountBalances.getAccount(), accountBalances);
+                                }
+                            }
+                            if (batchRows.size() > 0) {
+                                recovered.add(new Posting(sequence, Collections.emptyList(),
+                                        decode(batchRows.toByteArray())));
+                                unprojected.add(sequence);
+                            }
+                            batch.clear();
+                            batchRows.reset();
+                            batchRecords = 0;
+                        }
+                    }
+                    appendedSequence = sequence;
+                }
+            }
+            if (batchRecords > 0) {
+                channel.write(ByteBuffer.allocate(RECORD_SIZE), batchPosition);
+                channel.force(false);
+                appendedSequence -= batchRecords;
+                Log.warn(PREFIX, "Dropped an incomplete batch of %d records from journal segment %s.", batchRecords,
+                        segmentFile);
+            }
+        }
+    }
+
+    private void append(final int type, final Balances accountBalances) {
+        if (segment.remaining() < RECORD_SIZE) {
+            rollSegment();
+        }
+        int position = segment.position();
+        segment.putLong(position + 16, accountBalances.getAccount());
+        segment.putDouble(position + 24, accountBalances.getBalance());
+        segment.putDouble(position + 32, accountBalances.getSavingsBalance());
+        seal(type, position);
+    }
+
+    /**
+     * Appends a record with the next bytes of encoded transaction rows, the bytes after the last row are left zero.
+     */
+    private void appendRows(final int type, final byte[] encodedRows, final int offset) {
+        if (segment.remaining() < RECORD_SIZE) {
+            rollSegment();
+        }
+        int position = segment.position();
+        ByteBuffer record = segment.duplicate();
+        record.position(position + 16);
+        record.put(encodedRows, offset, Math.min(PAYLOAD_SIZE, encodedRows.length - offset));
+        record.put(new byte[position + RECORD_SIZE - record.position()]);
+        seal(type, position);
+    }
+
+    /**
+     * Writes the type, sequence number and checksum of the record at a position and appends it.
+     */
+    private void seal(final int type, final int position) {
+        segment.putInt(position + 4, type);
+        segment.putLong(position + 8, appendedSequence + 1);
+        segment.putInt(position, (int) checksum(segment, position));
+        segment.position(position + RECORD_SIZE);
+        appendedSequence++;
+        notifyAll();
+    }
+
+    /**
+     * Forces the full segment to disk, continues in a new segment and writes a snapshot so the full segment can be
+     * deleted.
+     */
+    private void rollSegment() {
+        try {
+            segment.force();
+            durableSequence = appendedSequence;
+            segmentChannel.close();
+            openSegment(appendedSequence + 1);
+            snapshot();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a new journal segment.", e);
+        }
+    }
+
+    private void openSegment(final long firstSequence) throws IOException {
+        Path segmentFile = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence));
+        segmentChannel = FileChannel.open(segmentFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.put(firstSequence, segmentFile);
+    }
+
+    /**
+     * Forces appended records to disk and runs the actions that were waiting for them, a force covers all records
+     * that were appended while the previous force was running.
+     */
+    private void flushSegments() {
+        while (true) {
+            long target;
+            MappedByteBuffer unforced;
+            try {
+                synchronized (this) {
+                    while (!closed && durableSequence == appendedSequence && pendingActions.isEmpty()) {
+                        wait();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                }
+                if (FLUSH_DELAY > 0) {
+                    Thread.sleep(FLUSH_DELAY);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                target = appendedSequence;
+                unforced = durableSequence < target ? segment : null;
+            }
+            if (unforced != null) {
+                unforced.force();
+            }
+            List<Runnable> durableActions = new ArrayList<>();
+            synchronized (this) {
+                durableSequence = Math.max(durableSequence, target);
+                notifyAll();
+                while (!pendingActions.isEmpty() && pendingActions.peek().sequence <= durableSequence) {
+                    durableActions.add(pendingActions.poll().action);
+                }
+            }
+            for (Runnable action : durableActions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes transaction rows as a count followed by the rows.
+     */
+    private static byte[] encode(final List<TransactionRow> rows) {
+        if (rows.isEmpty()) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(rows.size());
+            for (TransactionRow row : rows) {
+                row.encode(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode the transaction rows.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes transaction rows that were encoded with {@link #encode(List)}, the zero bytes after them are ignored.
+     */
+    private static List<TransactionRow> decode(final byte[] encodedRows) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedRows));
+        int count = in.readInt();
+        List<TransactionRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(TransactionRow.decode(in));
+        }
+        return rows;
+    }
+
+    /**
+     * Computes the checksum of the record at a position, over everything but the checksum itself.
+     */
+    private static long checksum(final ByteBuffer records, final int position) {
+        ByteBuffer record = records.duplicate();
+        record.limit(position + RECORD_SIZE).position(position + 4);
+        CRC32 recordChecksum = new CRC32();
+        recordChecksum.update(record);
+        return recordChecksum.getValue();
+    }
+
+    /**
+     * Lists the files of the journal with a prefix, indexed by the sequence number in their name.
+     */
+    private TreeMap<Long, Path> list(final String prefix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                int end = name.indexOf('.');
+                if (end > prefix.length() && !name.endsWith(".tmp")) {
+                    files.put(Long.parseLong(name.substring(prefix.length(), end)), file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String fileName(final String prefix, final long sequence) {
+        return String.format("%s%020d.%s", prefix, sequence, SEGMENT_PREFIX.equals(prefix) ? "log" : "dat");
+    }
+
+    /**
+     * Balances of a journaled account.
+     */
+    static final class Balances {
+        /** Packed account number of the account. */
+        private final long account;
+        /** Balance of the main account. */
+        private final double balance;
+        /** Balance of the savings account. */
+        private final double savingsBalance;
+
+        private Balances(final long newAccount, final double newBalance, final double newSavingsBalance) {
+            this.account = newAccount;
+            this.balance = newBalance;
+            this.savingsBalance = newSavingsBalance;
+        }
+
+        long getAccount() {
+            return account;
+        }
+
+        double getBalance() {
+            return balance;
+        }
+
+        double getSavingsBalance() {
+            return savingsBalance;
+        }
+
+        private boolean sameAs(final Balances other) {
+            return other != null && Double.doubleToLongBits(balance) == Double.doubleToLongBits(other.balance)
+                    && Double.doubleToLongBits(savingsBalance) == Double.doubleToLongBits(other.savingsBalance);
+        }
+    }
+
+    /**
+     * Balances and transaction rows that were appended as one batch.
+     */
+    static final class Posting {
+        /** Sequence number of the last record of the batch. */
+        private final long sequence;
+        /** Balances of the accounts of the posting that can be journaled. */
+        private final List<Balances> balances;
+        /** Transaction rows of the posting. */
+        private final List<TransactionRow> rows;
+
+        private Posting(final long newSequence, final List<Balances> newBalances,
+                        final List<TransactionRow> newRows) {
+            this.sequence = newSequence;
+            this.balances = newBalances;
+            this.rows = newRows;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        List<Balances> getBalances() {
+            return balances;
+        }
+
+        List<TransactionRow> getRows() {
+            return rows;
+        }
+    }
+
+    /**
+     * Action waiting for the records up to a sequence number to become durable.
+     */
+    private static final class PendingAction {
+        /** Sequence number of the last record appended before the action was registered. */
+        private final long sequence;
+        /** The action. */
+        private final Runnable action;
+
+        private PendingAction(final long newSequence, final Runnable newAction) {
+            this.sequence = newSequence;
+            this.action = newAction;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package ledger;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import util.Log;
+import util.LongObjectMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * @author Saul
+ * @version 1
+ * Copies the balances and transaction rows of the {@link LedgerJournal} to the ledger and transaction tables in the
+ * background, so the tables can still be used for reporting and for the queries that select accounts by balance. Only
+ * the newest balances of an account are kept until they are written, transaction rows are written in the order they
+ * were posted and stay readable through {@link #pendingRows(Predicate)} until their database transaction is committed.
+ * A single thread writes them in batches of about BATCH_SIZE rows, each batch in one database transaction, batches
+ * that fail are retried until they are written. Rows are inserted with INSERT IGNORE, so rows that were recovered from
+ * the journal after they were already written are skipped.
+ */
+final class LedgerProjection {
+    /** Maximum amount of accounts, or of transaction rows unless a single posting has more, that are written in a
+     * single database transaction. */
+    private static final int BATCH_SIZE = 500;
+    /** Time in milliseconds the writer waits between checking for new balances and rows. */
+    private static final long POLL_INTERVAL = 100L;
+    /** Time in milliseconds the writer waits before retrying balances and rows that could not be written. */
+    private static final long RETRY_INTERVAL = 1000L;
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Ledger]              :";
+    /** Database connection pool of the ledger. */
+    private final ConnectionPool db;
+    /** Used to find the ledger ids of the accounts. */
+    private final AccountNumberIndex accountNumbers;
+    /** Journal the balances and rows come from, told which rows are written. */
+    private final LedgerJournal journal;
+    /** Held while balances and rows are written, so a flush also waits for those the writer is busy with. */
+    private final Object writeLock;
+    /** Newest balances that have not been written yet, indexed by packed account number. */
+    private LongObjectMap<LedgerJournal.Balances> pending;
+    /** Postings with transaction rows that have not been written yet, in order of sequence number. */
+    private ArrayDeque<LedgerJournal.Posting> pendingPostings;
+
+    /**
+     * Creates the projection and starts the thread that writes balances and transaction rows to their tables.
+     * @param newDb Database connection pool of the ledger.
+     * @param newAccountNumbers Index of the accounts in the ledger.
+     * @param newJournal Journal the balances and rows come from.
+     */
+    LedgerProjection(final ConnectionPool newDb, final AccountNumberIndex newAccountNumbers,
+                     final LedgerJournal newJournal) {
+        this.db = newDb;
+        this.accountNumbers = newAccountNumbers;
+        this.journal = newJournal;
+        this.writeLock = new Object();
+        this.pending = new LongObjectMap<>();
+        this.pendingPostings = new ArrayDeque<>();
+        Thread writer = new Thread(this::writeBalances, "ledger-projection");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the new balances of an account, replacing balances of the account that were not written yet.
+     * @param balances The balances.
+     */
+    synchronized void update(final LedgerJournal.Balances balances) {
+        pending.put(balances.getAccount(), balances);
+    }
+
+    /**
+     * Queues the balances and transaction rows of a posting.
+     * @param posting The posting, as it was appended to the journal.
+     */
+    synchronized void update(final LedgerJournal.Posting posting) {
+        for (LedgerJournal.Balances balances : posting.getBalances()) {
+            pending.put(balances.getAccount(), balances);
+        }
+        if (!posting.getRows().isEmpty()) {
+            pendingPostings.add(posting);
+        }
+    }
+
+    /**
+     * Finds the transaction rows that have not been written yet. A row is removed only after it is committed, so a
+     * caller that reads the tables after this call sees every row at least once and should skip rows by id.
+     * @param filter Selects the rows that are returned.
+     * @return The selected rows, in the order they were posted.
+     */
+    synchronized List<TransactionRow> pendingRows(final Predicate<TransactionRow> filter) {
+        List<TransactionRow> rows = new ArrayList<>();
+        for (LedgerJournal.Posting posting : pendingPostings) {
+            for (TransactionRow row : posting.getRows()) {
+                if (filter.test(row)) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Drops all balances and rows that have not been written yet, used when the database has been truncated.
+     */
+    void clear() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                pending = new LongObjectMap<>();
+                pendingPostings = new ArrayDeque<>();
+            }
+        }
+    }
+
+    /**
+     * Writes all queued balances and transaction rows to their tables on the calling thread.
+     * @throws SQLException Thrown when the balances or rows could not be written, those that were not written stay
+     * queued.
+     */
+    void flush() throws SQLException {
+        synchronized (writeLock) {
+            List<LedgerJournal.Balances> batch = takePending();
+            try {
+                writeBatch(batch);
+            } catch (SQLException e) {
+                requeue(batch);
+                throw e;
+            }
+            writeRows(peekPostings());
+        }
+    }
+
+    private void writeBalances() {
+        while (true) {
+            try {
+                Thread.sleep(POLL_INTERVAL);
+                flush();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                Log.warn(PREFIX, "Could not write balances or transactions to their tables, retrying.");
+                try {
+                    Thread.sleep(RETRY_INTERVAL);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private synchronized List<LedgerJournal.Balances> takePending() {
+        List<LedgerJournal.Balances> batch = new ArrayList<>(pending.size());
+        pending.forEachValue(batch::add);
+        if (!batch.isEmpty()) {
+            pending = new LongObjectMap<>();
+        }
+        return batch;
+    }
+
+    /**
+     * Queues balances that could not be written again, unless newer balances of the account were queued meanwhile.
+     */
+    private synchronized void requeue(final List<LedgerJournal.Balances> batch) {
+        for (LedgerJournal.Balances balances : batch) {
+            if (!pending.containsKey(balances.getAccount())) {
+                pending.put(balances.getAccount(), balances);
+            }
+        }
+    }
+
+    private synchronized List<LedgerJournal.Posting> peekPostings() {
+        return new ArrayList<>(pendingPostings);
+    }
+
+    /**
+     * Drops the first postings from the queue once their rows are committed and tells the journal.
+     */
+    private void written(final List<LedgerJournal.Posting> postings) {
+        synchronized (this) {
+            for (int i = 0; i < postings.size(); i++) {
+                pendingPostings.poll();
+            }
+        }
+        journal.projected(postings.get(postings.size() - 1).getSequence());
+    }
+
+    /**
+     * Inserts the rows of postings, the rows of a posting are always committed together.
+     */
+    private void writeRows(final List<LedgerJournal.Posting> postings) throws SQLException {
+        if (postings.isEmpty()) {
+            return;
+        }
+        SQLConnection connection = db.getConnection();
+        Connection con = connection.getConnection();
+        PreparedStatement incoming = con.prepareStatement(SQLStatements.projectIncomingTransaction);
+        PreparedStatement outgoing = con.prepareStatement(SQLStatements.projectOutgoingTransaction);
+        try {
+            con.setAutoCommit(false);
+            List<LedgerJournal.Posting> uncommitted = new ArrayList<>();
+            int batchSize = 0;
+            for (LedgerJournal.Posting posting : postings) {
+                for (TransactionRow row : posting.getRows()) {
+                    PreparedStatement ps = row.isIncoming() ? incoming : outgoing;
+                    row.bind(ps);
+                    ps.addBatch();
+                }
+                uncommitted.add(posting);
+                batchSize += posting.getRows().size();
+                if (batchSize >= BATCH_SIZE) {
+                    commitRows(con, incoming, outgoing, uncommitted);
+                    uncommitted = new ArrayList<>();
+                    batchSize = 0;
+                }
+            }
+            if (!uncommitted.isEmpty()) {
+                commitRows(con, incoming, outgoing, uncommitted);
+            }
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+            incoming.close();
+            outgoing.close();
+            db.returnConnection(connection);
+        }
+    }
+
+    private void commitRows(final Connection con, final PreparedStatement incoming, final PreparedStatement outgoing,
+                            final List<LedgerJournal.Posting> postings) throws SQLException {
+        incoming.executeBatch();
+        outgoing.executeBatch();
+        con.commit();
+        written(postings);
+    }
+
+    private void writeBatch(final List<LedgerJournal.Balances> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        SQLConnection connection = db.getConnection();
+        Connection con = connection.getConnection();
+        PreparedStatement ps = con.prepareStatement(SQLStatements.updateBalancesById);
+        try {
+            con.setAutoCommit(false);
+            int batchSize = 0;
+            for (LedgerJournal.Balances balances : batch) {
+                long id = accountNumbers.id(balances.getAccount());
+                // accounts that were removed meanwhile no longer have a row
+                if (id >= 0) {
+                    ps.setDouble(1, balances.getBalance());
+                    ps.setDouble(2, balances.getSavingsBalance());
+                    ps.setLong(3, id);
+                    ps.addBatch();
+                    if (++batchSize == BATCH_SIZE) {
+                        ps.executeBatch();
+                        con.commit();
+                        batchSize = 0;
+                    }
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+            ps.close();
+            db.returnConnection(connection);
+        }
+    }
+}
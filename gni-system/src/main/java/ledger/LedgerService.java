@@ -2,30 +2,38 @@ package ledger;
 
 import com.google.gson.Gson;
 import database.ConnectionPool;
+import database.DatabaseExecutor;
 import database.SQLConnection;
 import database.SQLStatements;
 import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.Callback;
 import databeans.DataReply;
 import databeans.DataRequest;
 import databeans.RequestType;
 import io.advantageous.qbit.reactive.CallbackBuilder;
+import util.ApiCacheInvalidator;
+import util.Iban;
 import util.JSONParser;
+import util.Log;
+import util.ServiceTransport;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import static database.SQLStatements.*;
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -37,10 +45,28 @@ class LedgerService {
 
     /** Database connection pool containing persistent database connections. */
     private ConnectionPool db;
+    /** Executes the database work of the requests, balance updates are executed serially. */
+    private DatabaseExecutor databaseExecutor;
     /** Connection to the System Information Service.*/
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
      /** Connection to the pin service. */
-     private HttpClient pinClient;
+     private ServiceTransport pinClient;
+    /** Notifies the api when balances, limits or account access change. */
+    private ApiCacheInvalidator apiCacheInvalidator;
+    /** Moves old transactions to the archive tables. */
+    private TransactionArchive transactionArchive;
+    /** Bank wide totals of the balances, updated with every balance that is written. */
+    private BankStatistics bankStatistics;
+    /** Account numbers of all accounts in the ledger. */
+    private AccountNumberIndex accountNumbers;
+    /** Journal that holds the balances instead of the ledger table, null if the journal is disabled. */
+    private LedgerJournal journal;
+    /** Copies the journaled balances and transactions to their tables, null if the journal is disabled. */
+    private LedgerProjection projection;
+    /** Ledger rows of the accounts, null if the journal is disabled. */
+    private AccountCache accountCache;
+    /** Id of the next transaction, transactions are only added by the ledger so the ids are assigned in memory. */
+    private AtomicLong transactionIDs;
     /** Used for json conversions. */
     private Gson jsonConverter;
     /** Prefix used when printing to indicate the message is coming from the Ledger Service. */
@@ -79,13 +105,152 @@ class LedgerService {
      */
     LedgerService(final int servicePort, final String serviceHost,
                       final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.db = new ConnectionPool();
+        this.databaseExecutor = new DatabaseExecutor("Ledger");
+        this.apiCacheInvalidator = new ApiCacheInvalidator(PREFIX);
+        this.transactionArchive = new TransactionArchive(db);
+        this.bankStatistics = new BankStatistics(db);
+        this.accountNumbers = new AccountNumberIndex(db);
         this.jsonConverter = new Gson();
+        try {
+            accountNumbers.load();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.err.println("Could not load the account numbers from the ledger database.");
+            System.err.println("Shutting down the Ledger service.");
+            System.exit(1);
+        }
+        if (LedgerJournal.DIRECTORY != null) {
+            openJournal();
+        }
+        // the recovered transactions are written by now, so they are included
+        this.transactionIDs = new AtomicLong(getHighestTransactionID());
+        reconcileStatistics();
+        databaseExecutor.executeDaily(this::reconcileStatistics);
         sendServiceInformation(servicePort, serviceHost);
     }
 
+    /**
+     * Opens the ledger journal, the balances and transactions it recovered are written to their tables before the
+     * service starts.
+     */
+    private void openJournal() {
+        try {
+            journal = new LedgerJournal(Paths.get(LedgerJournal.DIRECTORY));
+            projection = new LedgerProjection(db, accountNumbers, journal);
+            accountCache = new AccountCache();
+            journal.forEachBalance(projection::update);
+            journal.takeRecoveredPostings().forEach(projection::update);
+            projection.flush();
+        } catch (IOException | SQLException e) {
+            e.printStackTrace();
+            System.err.println("Could not recover the ledger journal.");
+            System.err.println("Shutting down the Ledger service.");
+            System.exit(1);
+        }
+        databaseExecutor.executeDaily(() -> {
+            try {
+                journal.snapshot();
+            } catch (IOException e) {
+                e.printStackTrace();
+                Log.warn(PREFIX, "Could not write the daily journal snapshot.");
+            }
+        });
+    }
+
+    /**
+     * Reconciles the bank wide totals with the ledger table, journaled balances are written to the table first.
+     */
+    private void reconcileStatistics() {
+        if (projection != null) {
+            try {
+                projection.flush();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                Log.warn(PREFIX, "Could not write the journaled balances, skipping the reconciliation.");
+                return;
+            }
+        }
+        bankStatistics.reconcile();
+    }
+
+    /**
+     * Sends a reply once the balances it reports are durable, right away if the journal is disabled.
+     * @param reply Sends the reply.
+     */
+    private void replyWhenDurable(final Runnable reply) {
+        if (journal == null) {
+            reply.run();
+        } else {
+            journal.whenDurable(reply);
+        }
+    }
+
+    /**
+     * Writes the balances of an account to the journal.
+     * @param account The account, containing the new balances.
+     * @return False if the balances should be written to the ledger table instead.
+     */
+    private boolean journalBalances(final Account account) {
+        LedgerJournal.Balances balances = journal == null ? null : journal.post(account);
+        if (balances == null) {
+            return false;
+        }
+        projection.update(balances);
+        return true;
+    }
+
+    /**
+     * Writes the new balances of an account together with the transaction that changed them. With the journal
+     * enabled both are appended to the journal as one batch and written to their tables by the projection, so the
+     * posting does not wait for the database or the disk and its reply should be sent with
+     * {@link #replyWhenDurable(Runnable)}.
+     * @param account The account, containing the new balances.
+     * @param transaction The transaction, its id, date and new balances should be set.
+     * @param incoming Incoming flag (true for incoming, false for outgoing)
+     */
+    private void postTransaction(final Account account, final Transaction transaction, final boolean incoming) {
+        if (!isJournaled(account.getAccountNumber())) {
+            updateBalance(account);
+            updateSavingsBalance(account);
+            addTransaction(transaction, incoming);
+            return;
+        }
+        projection.update(journal.post(Collections.singletonList(account),
+                Collections.singletonList(new TransactionRow(transaction, incoming))));
+        bankStatistics.balanceWritten(account);
+        bankStatistics.savingsBalanceWritten(account);
+        apiCacheInvalidator.accountChanged(account.getAccountNumber());
+    }
+
+    /**
+     * @param accountNumber Account number of an account.
+     * @return True if the balances of the account are kept in the journal.
+     */
+    private boolean isJournaled(final String accountNumber) {
+        long packed = Iban.pack(accountNumber);
+        return journal != null && packed != Iban.INVALID && !Iban.isSavings(packed);
+    }
+
+    /**
+     * @return The id for a new transaction.
+     */
+    private long nextTransactionID() {
+        return transactionIDs.getAndIncrement();
+    }
+
+    /**
+     * Should be called after a column of a ledger row other than the balances was written.
+     * @param accountNumber Account number of the row.
+     */
+    private void accountRowChanged(final String accountNumber) {
+        if (accountCache != null) {
+            accountCache.invalidate(accountNumber);
+        }
+    }
+
     /**
      * Method that sends the service information of this service to the SystemInformationService.
      * @param servicePort Port that this service is running on.
@@ -93,7 +258,7 @@ class LedgerService {
      */
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(servicePort, serviceHost, ServiceType.LEDGER_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -116,8 +281,9 @@ class LedgerService {
 
         SystemInformation sysInfo = (SystemInformation) messageWrapper.getData();
         ServiceInformation pin = sysInfo.getPinServiceInformation();
-        pinClient = httpClientBuilder().setHost(pin.getServiceHost()).setPort(pin.getServicePort()).buildAndStart();
-        System.out.printf("%s Initialization of Ledger service connections complete.\n", PREFIX);
+        pinClient = ServiceTransport.connect(pin.getServiceHost(), pin.getServicePort());
+        apiCacheInvalidator.connect(sysInfo.getApiServiceInformation());
+        Log.info(PREFIX, "Initialization of Ledger service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -131,20 +297,22 @@ class LedgerService {
     public void newAccountListener(final Callback<String> callback, final @RequestParam("body") String body) {
         Gson gson = new Gson();
         Customer newAccount = gson.fromJson(body, Customer.class);
-        System.out.printf("%s Received account creation request for customer with name: %s\n", PREFIX,
+        Log.debug(PREFIX, "Received account creation request for customer with name: %s",
                 newAccount.getAccount().getAccountHolderName());
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            // Method call
+            Account createdAccount = createNewAccount(newAccount);
 
-        // Method call
-        Account createdAccount = createNewAccount(newAccount);
-
-        newAccount.setAccount(createdAccount);
-        if (createdAccount != null) {
-            System.out.printf("%s Added user %s with accountNumber %s to ledger, sending callback.\n", PREFIX,
-                    createdAccount.getAccountHolderName(), createdAccount.getAccountNumber());
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", newAccount)));
-        } else {
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to ledger database.")));
-        }
+            newAccount.setAccount(createdAccount);
+            if (createdAccount != null) {
+                Log.debug(PREFIX, "Added user %s with accountNumber %s to ledger, sending callback.",
+                        createdAccount.getAccountHolderName(), createdAccount.getAccountNumber());
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", newAccount)));
+            } else {
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to ledger database.")));
+            }
+        });
     }
 
     /**
@@ -173,6 +341,10 @@ class LedgerService {
             ps.executeUpdate();
             ps.close();
             db.returnConnection(connection);
+            accountNumbers.add(newAccount.getAccountNumber(), newID);
+            // replaces balances that are still journaled for a removed account with the same account number
+            journalBalances(newAccount);
+            bankStatistics.accountCreated(newAccount);
 
             return newAccount;
         } catch (SQLException e) {
@@ -190,7 +362,7 @@ class LedgerService {
     String generateNewAccountNumber(final Account newAccount) {
         int modifier = 0;
         String accountNumber = attemptAccountNumberGeneration(newAccount.getAccountHolderName(), modifier);
-        while (modifier < 100 && getAccountInfo(accountNumber) != null) {
+        while (modifier < 100 && accountNumbers.contains(accountNumber)) {
             modifier++;
             accountNumber = attemptAccountNumberGeneration(newAccount.getAccountHolderName(), modifier);
         }
@@ -204,7 +376,7 @@ class LedgerService {
      * @param modifier Modifier to be used
      * @return The generated account number
      */
-    String attemptAccountNumberGeneration(final String name, final int modifier) {
+    static String attemptAccountNumberGeneration(final String name, final int modifier) {
         String accountNumber = "NL";
         if (modifier < 10) {
             accountNumber += "0";
@@ -231,17 +403,25 @@ class LedgerService {
      * @param inputString String to be sanitized
      * @return Sanitized String
      */
-    private String sanitizeName(final String inputString) {
+    private static String sanitizeName(final String inputString) {
         return inputString.replaceAll("[^a-zA-Z]", "").toLowerCase();
     }
 
     /**
-     * Gets all data for a specific account number from the database.
+     * Gets all data for a specific account number from the database, or from memory when the journal is enabled.
      * @param accountNumber The account number to retrieve the information for
      * @return The account information
      */
     Account getAccountInfo(final String accountNumber) {
+        Account cached = accountCache == null ? null : accountCache.get(accountNumber);
+        if (cached != null) {
+            journal.readBalances(cached);
+            cached.setStoredBalance(cached.getBalance());
+            cached.setStoredSavingsBalance(cached.getSavingsBalance());
+            return cached;
+        }
         try {
+            long version = accountCache == null ? 0L : accountCache.version();
             SQLConnection connection = db.getConnection();
             PreparedStatement ps = connection.getConnection().prepareStatement(getAccountInformation);
             ps.setString(1, accountNumber);     // account_number
@@ -257,6 +437,12 @@ class LedgerService {
                 Account account = new Account(name, overdraftLimit, balance, savingsActive, savingsBalance);
                 account.setAccountNumber(accountNumber);
                 account.setTransferLimit(transferLimit);
+                if (journal != null) {
+                    accountCache.put(account, version);
+                    journal.readBalances(account);
+                }
+                account.setStoredBalance(account.getBalance());
+                account.setStoredSavingsBalance(account.getSavingsBalance());
 
                 rs.close();
                 ps.close();
@@ -285,9 +471,10 @@ class LedgerService {
     public void processRemoveAccountRequest(final Callback<String> callback,
                                             final @RequestParam("accountNumber") String accountNumber,
                                             final @RequestParam("customerId") String customerId) {
-        System.out.printf("%s Received account removal request for accountNumber %s\n", PREFIX, accountNumber);
+        Log.debug(PREFIX, "Received account removal request for accountNumber %s", accountNumber);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleAccountRemovalExceptions(accountNumber, customerId, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleAccountRemovalExceptions(accountNumber, customerId, callbackBuilder));
     }
 
     /**
@@ -308,7 +495,7 @@ class LedgerService {
             } else {
                 throw new SQLException();
             }
-            doAccountRemoval(accountNumber, customerId);
+            doAccountRemoval(account, customerId);
             sendAccountRemovalCallback(accountNumber, callbackBuilder);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -322,23 +509,31 @@ class LedgerService {
 
     /**
      * Removes an account from the system.
-     * @param accountNumber AccountNumber of the account to remove.
+     * @param account The account to remove, as it was read from the ledger.
      * @param customerId CustomerId of the owner of the account.
      * @throws SQLException Thrown when connection to the database fails, will cause a rejection of the request.
      */
-    private void doAccountRemoval(final String accountNumber, final String customerId) throws SQLException {
+    private void doAccountRemoval(final Account account, final String customerId) throws SQLException {
         SQLConnection databaseConnection = db.getConnection();
         PreparedStatement removeAccount = databaseConnection.getConnection()
                 .prepareStatement(SQLStatements.removeAccount);
         removeAccount.setLong(1, Long.parseLong(customerId));
-        removeAccount.setString(2, accountNumber);
-        removeAccount.execute();
+        removeAccount.setString(2, account.getAccountNumber());
+        if (removeAccount.executeUpdate() > 0) {
+            accountNumbers.remove(account.getAccountNumber());
+            accountRowChanged(account.getAccountNumber());
+            if (journal != null) {
+                journal.remove(account.getAccountNumber());
+            }
+            bankStatistics.accountRemoved(account);
+        }
         removeAccount.close();
         db.returnConnection(databaseConnection);
+        apiCacheInvalidator.accessChanged(account.getAccountNumber());
     }
 
     private void sendAccountRemovalCallback(final String accountNumber, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successfully removed account %s, sending callback.\n", PREFIX, accountNumber);
+        Log.debug(PREFIX, "Successfully removed account %s, sending callback.", accountNumber);
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", accountNumber)));
     }
 
@@ -348,15 +543,22 @@ class LedgerService {
      * @param account The account to overwrite, containing the new data
      */
     void updateBalance(final Account account) {
+        if (journalBalances(account)) {
+            bankStatistics.balanceWritten(account);
+            apiCacheInvalidator.accountChanged(account.getAccountNumber());
+            return;
+        }
         try {
             SQLConnection connection = db.getConnection();
             PreparedStatement ps = connection.getConnection().prepareStatement(updateBalance);
             ps.setDouble(1, account.getBalance());
             ps.setString(2, account.getAccountNumber());
             ps.executeUpdate();
+            bankStatistics.balanceWritten(account);
 
             ps.close();
             db.returnConnection(connection);
+            apiCacheInvalidator.accountChanged(account.getAccountNumber());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -376,12 +578,14 @@ class LedgerService {
 
         ps.close();
         db.returnConnection(connection);
+        accountRowChanged(account.getAccountNumber());
+        apiCacheInvalidator.accountChanged(account.getAccountNumber());
     }
 
     // TODO THIS SERVICE IS NOT ALLOWED TO USE OTHER SERVICE'S THEIR DATABASES
     /**
      * Adds a transaction to either the incoming transaction log, or the outgoing transaction log,
-     * depending on the incoming flag.
+     * depending on the incoming flag. Only used for postings whose balances are not journaled.
      * @param transaction Transaction to add
      * @param incoming Incoming flag (true for incoming, false for outgoing)
      */
@@ -414,7 +618,8 @@ class LedgerService {
     }
 
     /**
-     * Collects the current highest ids from both transaction tables and returns the highest.
+     * Collects the current highest ids from both transaction tables and returns the highest, only used to initialize
+     * the transaction ids in memory.
      * @return The highest current transaction id
      */
     long getHighestTransactionID() {
@@ -438,7 +643,7 @@ class LedgerService {
                 MessageWrapper.class);
         Transaction transaction = (Transaction) messageWrapper.getData();
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        System.out.printf("%s Received an incoming transaction request.\n", PREFIX);
+        Log.debug(PREFIX, "Received an incoming transaction request.");
         processIncomingTransaction(transaction, callbackBuilder);
     }
 
@@ -453,35 +658,34 @@ class LedgerService {
                 MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
 
-                    LocalDate date = (LocalDate) messageWrapper.getData();
-                    Account account = getAccountInfo(transaction.getDestinationAccountNumber());
-                    if (account != null) {
-                        // Update the object
-                        account.processDeposit(transaction);
-
-                        // Update the database
-                        updateBalance(account);
-                        transaction.setNewBalance(account.getBalance());
-                        updateSavingsBalance(account);
-                        transaction.setNewSavingsBalance(account.getSavingsBalance());
-
-                        // Update Transaction log
-                        transaction.setTransactionID(getHighestTransactionID());
-                        transaction.setDate(date);
-                        addTransaction(transaction, true);
-
-                        transaction.setProcessed(true);
-                        transaction.setSuccessful(true);
-                    } else {
-                        transaction.setProcessed(true);
-                        transaction.setSuccessful(false);
-                    }
-                    sendIncomingTransactionCallback(transaction, callbackBuilder);
+                    databaseExecutor.executeSerially(callbackBuilder, () -> {
+                        LocalDate date = (LocalDate) messageWrapper.getData();
+                        String accountNumber = transaction.getDestinationAccountNumber();
+                        Account account = accountNumbers.contains(accountNumber) ? getAccountInfo(accountNumber) : null;
+                        if (account != null) {
+                            // Update the object
+                            account.processDeposit(transaction);
+                            transaction.setNewBalance(account.getBalance());
+                            transaction.setNewSavingsBalance(account.getSavingsBalance());
+                            transaction.setTransactionID(nextTransactionID());
+                            transaction.setDate(date);
+
+                            // Update the balances and the transaction log
+                            postTransaction(account, transaction, true);
+
+                            transaction.setProcessed(true);
+                            transaction.setSuccessful(true);
+                        } else {
+                            transaction.setProcessed(true);
+                            transaction.setSuccessful(false);
+                        }
+                        replyWhenDurable(() -> sendIncomingTransactionCallback(transaction, callbackBuilder));
+                    });
                 } else {
                     callbackBuilder.build().reply(body);
                 }
             } else {
-                System.out.printf("%s Processing Incoming transaction failed, body: %s\n\n\n\n", PREFIX, body);
+                Log.warn(PREFIX, "Processing Incoming transaction failed, body: %s", body);
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                         500, "An unknown error occurred.",
                         "There was a problem with one of the HTTP requests")));
@@ -491,10 +695,10 @@ class LedgerService {
 
     private void sendIncomingTransactionCallback(final Transaction transaction, final CallbackBuilder callbackBuilder) {
         if (transaction.isSuccessful()) {
-            System.out.printf("%s Successfully processed incoming transaction, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Successfully processed incoming transaction, sending callback.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", transaction)));
         } else {
-            System.out.printf("%s Incoming transaction was not successful, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Incoming transaction was not successful, sending callback.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418, "One of the parameters has an invalid value.")));
         }
     }
@@ -514,9 +718,11 @@ class LedgerService {
                 MessageWrapper.class);
         Transaction transaction = (Transaction) messageWrapper.getData();
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        System.out.printf("%s Received outgoing transaction request for customer %s.\n", PREFIX, customerId);
-        boolean customerIsAuthorized = getCustomerAuthorization(transaction.getSourceAccountNumber(), customerId);
-        processOutgoingTransaction(messageWrapper, customerIsAuthorized, override, callbackBuilder);
+        Log.debug(PREFIX, "Received outgoing transaction request for customer %s.", customerId);
+        databaseExecutor.execute(callbackBuilder, () -> {
+            boolean customerIsAuthorized = getCustomerAuthorization(transaction.getSourceAccountNumber(), customerId);
+            processOutgoingTransaction(messageWrapper, customerIsAuthorized, override, callbackBuilder);
+        });
     }
 
     /**
@@ -533,44 +739,43 @@ class LedgerService {
                 MessageWrapper responseWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                 if (!responseWrapper.isError()) {
 
-                    LocalDate date = (LocalDate) responseWrapper.getData();
-                    Account account;
-                    String sourceAccountNumber = transaction.getSourceAccountNumber();
-                    if (sourceAccountNumber.endsWith("S")) {
-                        account = getAccountInfo(sourceAccountNumber.substring(0, sourceAccountNumber.length() - 1));
-                    } else {
-                        account = getAccountInfo(sourceAccountNumber);
-                    }
-                    if (account != null
-                            && (account.withdrawTransactionIsAllowed(transaction) || override)
-                            && (customerIsAuthorized || override)
-                            && (spendingLimitNotExceeded(messageWrapper, account.getTransferLimit(), date) || override)) {
-                        // Update the object
-                        account.processWithdraw(transaction);
-
-                        // Update the database
-                        updateBalance(account);
-                        transaction.setNewBalance(account.getBalance());
-                        updateSavingsBalance(account);
-                        transaction.setNewSavingsBalance(account.getSavingsBalance());
-
-                        /// Update Transaction log
-                        transaction.setTransactionID(getHighestTransactionID());
-                        transaction.setDate(date);
-                        addTransaction(transaction, false);
-
-                        transaction.setProcessed(true);
-                        transaction.setSuccessful(true);
-                    } else {
-                        transaction.setProcessed(true);
-                        transaction.setSuccessful(false);
-                    }
-                    sendOutgoingTransactionCallback(transaction, customerIsAuthorized, callbackBuilder);
+                    databaseExecutor.executeSerially(callbackBuilder, () -> {
+                        LocalDate date = (LocalDate) responseWrapper.getData();
+                        Account account;
+                        String sourceAccountNumber = transaction.getSourceAccountNumber();
+                        if (sourceAccountNumber.endsWith("S")) {
+                            account = getAccountInfo(sourceAccountNumber.substring(0, sourceAccountNumber.length() - 1));
+                        } else {
+                            account = getAccountInfo(sourceAccountNumber);
+                        }
+                        if (account != null
+                                && (account.withdrawTransactionIsAllowed(transaction) || override)
+                                && (customerIsAuthorized || override)
+                                && (spendingLimitNotExceeded(messageWrapper, account.getTransferLimit(), date) || override)) {
+                            // Update the object
+                            account.processWithdraw(transaction);
+                            transaction.setNewBalance(account.getBalance());
+                            transaction.setNewSavingsBalance(account.getSavingsBalance());
+                            transaction.setTransactionID(nextTransactionID());
+                            transaction.setDate(date);
+
+                            // Update the balances and the transaction log
+                            postTransaction(account, transaction, false);
+
+                            transaction.setProcessed(true);
+                            transaction.setSuccessful(true);
+                        } else {
+                            transaction.setProcessed(true);
+                            transaction.setSuccessful(false);
+                        }
+                        replyWhenDurable(() -> sendOutgoingTransactionCallback(transaction, customerIsAuthorized,
+                                callbackBuilder));
+                    });
                 } else {
                     callbackBuilder.build().reply(body);
                 }
             } else {
-                System.out.printf("%s Processing Outgoing transaction failed, body: %s\n\n\n\n", PREFIX, body);
+                Log.warn(PREFIX, "Processing Outgoing transaction failed, body: %s", body);
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                         500, "An unknown error occurred.",
                         "There was a problem with one of the HTTP requests")));
@@ -578,10 +783,176 @@ class LedgerService {
         });
     }
 
+    /**
+     * Receives a request to process a batch of outgoing transactions that are initiated by the bank itself, such as
+     * credit card refills and card fees. These transactions are always executed, just like transactions with the
+     * override flag set.
+     * @param callback Used to send a reply to the request source.
+     * @param requestWrapper JSON String representing a messageWrapper containing a list of transactions.
+     */
+    @RequestMapping(value = "/transaction/batch", method = RequestMethod.PUT)
+    public void transactionBatchListener(final Callback<String> callback,
+                                         @RequestParam("request") final String requestWrapper) {
+        MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(requestWrapper),
+                MessageWrapper.class);
+        LinkedList<Transaction> transactions = (LinkedList<Transaction>) messageWrapper.getData();
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        Log.debug(PREFIX, "Received transaction batch request containing %d transactions.",
+                transactions.size());
+        processTransactionBatch(transactions, callbackBuilder);
+    }
+
+    /**
+     * Fetches the system date and then processes a batch of outgoing transactions.
+     * @param transactions Transactions that should be executed.
+     * @param callbackBuilder Used to send a reply to the request source.
+     */
+    private void processTransactionBatch(final LinkedList<Transaction> transactions,
+                                         final CallbackBuilder callbackBuilder) {
+        systemInformationClient.getAsync("/services/systemInfo/date", (code, contentType, body) -> {
+            if (code == HTTP_OK) {
+                MessageWrapper responseWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(body),
+                        MessageWrapper.class);
+                if (!responseWrapper.isError()) {
+                    databaseExecutor.executeSerially(callbackBuilder, () -> handleTransactionBatchExceptions(
+                            transactions, (LocalDate) responseWrapper.getData(), callbackBuilder));
+                } else {
+                    callbackBuilder.build().reply(body);
+                }
+            } else {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
+                        500, "An unknown error occurred.",
+                        "There was a problem with one of the HTTP requests")));
+            }
+        });
+    }
+
+    private void handleTransactionBatchExceptions(final LinkedList<Transaction> transactions, final LocalDate date,
+                                                  final CallbackBuilder callbackBuilder) {
+        try {
+            postTransactionBatch(transactions, date);
+            replyWhenDurable(() -> sendTransactionBatchCallback(transactions, callbackBuilder));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                    true, 500, "Error connecting to the Ledger database.")));
+        }
+    }
+
+    /**
+     * Executes a list of outgoing transactions. All accounts are read first, after which the new balances and the
+     * transaction log entries are written at once. The processed and successful flags of every transaction in the
+     * list are set to reflect the result for that transaction, a transaction is only unsuccessful if its source
+     * account does not exist. With the journal enabled the batch is appended to the journal as one batch, otherwise
+     * it is written using a single database transaction.
+     * @param transactions Transactions that should be executed.
+     * @param date Date of the transactions.
+     * @throws SQLException Thrown when writing the batch fails, in this case none of the transactions are executed.
+     */
+    private void postTransactionBatch(final List<Transaction> transactions, final LocalDate date)
+            throws SQLException {
+        Map<String, Account> accounts = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            String accountNumber = transaction.getSourceAccountNumber();
+            if (accountNumber.endsWith("S")) {
+                accountNumber = accountNumber.substring(0, accountNumber.length() - 1);
+            }
+            if (!accounts.containsKey(accountNumber)) {
+                accounts.put(accountNumber, getAccountInfo(accountNumber));
+            }
+            Account account = accounts.get(accountNumber);
+            transaction.setProcessed(true);
+            transaction.setSuccessful(account != null);
+            if (account != null) {
+                account.processWithdraw(transaction);
+                transaction.setNewBalance(account.getBalance());
+                transaction.setNewSavingsBalance(account.getSavingsBalance());
+                transaction.setTransactionID(nextTransactionID());
+                transaction.setDate(date);
+            }
+        }
+
+        accounts.values().removeIf(account -> account == null);
+        if (journal != null && accounts.keySet().stream().allMatch(this::isJournaled)) {
+            List<TransactionRow> rows = new ArrayList<>();
+            for (Transaction transaction : transactions) {
+                if (transaction.isSuccessful()) {
+                    rows.add(new TransactionRow(transaction, false));
+                }
+            }
+            projection.update(journal.post(accounts.values(), rows));
+        } else {
+            writeTransactionBatch(accounts.values(), transactions);
+            if (journal != null) {
+                projection.update(journal.post(accounts.values(), Collections.emptyList()));
+            }
+        }
+        for (Account account : accounts.values()) {
+            bankStatistics.balanceWritten(account);
+            bankStatistics.savingsBalanceWritten(account);
+            apiCacheInvalidator.accountChanged(account.getAccountNumber());
+        }
+    }
+
+    /**
+     * Writes the balances and transactions of a batch using a single database transaction, the balances of journaled
+     * accounts are left to the journal.
+     * @param accounts Accounts of the batch, containing the new balances.
+     * @param transactions Transactions of the batch, only the successful ones are written.
+     * @throws SQLException Thrown when writing the batch fails, in this case nothing is written.
+     */
+    private void writeTransactionBatch(final Collection<Account> accounts, final List<Transaction> transactions)
+            throws SQLException {
+        SQLConnection connection = db.getConnection();
+        Connection con = connection.getConnection();
+        PreparedStatement balanceStatement = con.prepareStatement(updateBalance);
+        PreparedStatement savingsStatement = con.prepareStatement(updateSavingsBalance);
+        PreparedStatement transactionStatement = con.prepareStatement(addOutgoingTransaction);
+        try {
+            con.setAutoCommit(false);
+            for (Account account : accounts) {
+                if (!isJournaled(account.getAccountNumber())) {
+                    balanceStatement.setDouble(1, account.getBalance());
+                    balanceStatement.setString(2, account.getAccountNumber());
+                    balanceStatement.addBatch();
+                    savingsStatement.setDouble(1, account.getSavingsBalance());
+                    savingsStatement.setString(2, account.getAccountNumber());
+                    savingsStatement.addBatch();
+                }
+            }
+            for (Transaction transaction : transactions) {
+                if (transaction.isSuccessful()) {
+                    new TransactionRow(transaction, false).bind(transactionStatement);
+                    transactionStatement.addBatch();
+                }
+            }
+            balanceStatement.executeBatch();
+            savingsStatement.executeBatch();
+            transactionStatement.executeBatch();
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+            balanceStatement.close();
+            savingsStatement.close();
+            transactionStatement.close();
+            db.returnConnection(connection);
+        }
+    }
+
+    private void sendTransactionBatchCallback(final LinkedList<Transaction> transactions,
+                                              final CallbackBuilder callbackBuilder) {
+        Log.debug(PREFIX, "Processed transaction batch, sending callback.");
+        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                false, 200, "Normal Reply", transactions)));
+    }
+
     private boolean spendingLimitNotExceeded(final MessageWrapper messageWrapper, final Double transferLimit,
                                              final LocalDate currentDate) {
         Transaction transaction = (Transaction) messageWrapper.getData();
-        if (transaction.getDestinationAccountNumber().toLowerCase().equals(transaction.getSourceAccountNumber().toLowerCase() + "s")) {
+        if (Iban.isSavingsAccountOf(transaction.getDestinationAccountNumber(), transaction.getSourceAccountNumber())) {
             return true;
         } else {
             Double weeklyAmountSpent = getAmountSpent(currentDate, 6L, transaction.getSourceAccountNumber());
@@ -594,7 +965,7 @@ class LedgerService {
                             && (debitAmountSpent + transaction.getTransactionAmount()) <= DAILY_WITHDRAW_LIMIT;
                     return weeklyAllowed && debitAllowed;
                 } else {
-                    System.out.printf("%s CardNumber could not be retrieved from description.", PREFIX);
+                    Log.warn(PREFIX, "CardNumber could not be retrieved from description.");
                     return false;
                 }
             } else {
@@ -603,10 +974,29 @@ class LedgerService {
         }
     }
 
+    /**
+     * Finds the transactions that are journaled but not written to their table yet.
+     * @param filter Selects the transactions.
+     * @return The selected transactions, empty if the journal is disabled.
+     */
+    private List<TransactionRow> pendingTransactions(final Predicate<TransactionRow> filter) {
+        return projection == null ? Collections.emptyList() : projection.pendingRows(filter);
+    }
+
     private Double getAmountSpent(final LocalDate currentDay, final Long limitDays, final String accountNumber) {
         LocalDate startDay = currentDay.minusDays(limitDays);
         try {
             Double moneySpent = 0.0;
+            // pending transactions are read before the table, a transaction that is written meanwhile is in both
+            Set<Long> pendingIDs = new HashSet<>();
+            for (TransactionRow row : pendingTransactions(row -> !row.isIncoming()
+                    && row.getAccountFrom().equals(accountNumber)
+                    && !row.getDate().isBefore(startDay) && !row.getDate().isAfter(currentDay))) {
+                pendingIDs.add(row.getId());
+                if (!Iban.isSavingsAccountOf(row.getAccountTo(), accountNumber)) {
+                    moneySpent += row.getAmount();
+                }
+            }
             SQLConnection connection = db.getConnection();
             PreparedStatement findOutgoingTransactions = connection.getConnection().prepareStatement(getOutgoingTransactions);
             findOutgoingTransactions.setString(1, accountNumber);
@@ -614,7 +1004,8 @@ class LedgerService {
             findOutgoingTransactions.setDate(3, java.sql.Date.valueOf(currentDay));
             ResultSet transactionsDuringPeriod = findOutgoingTransactions.executeQuery();
             while (transactionsDuringPeriod.next()) {
-                if (!transactionsDuringPeriod.getString("account_to").toLowerCase().equals(accountNumber + "s")) {
+                if (!pendingIDs.contains(transactionsDuringPeriod.getLong("id"))
+                        && !Iban.isSavingsAccountOf(transactionsDuringPeriod.getString("account_to"), accountNumber)) {
                     moneySpent += transactionsDuringPeriod.getDouble("amount");
                 }
             }
@@ -629,18 +1020,30 @@ class LedgerService {
 
     private Double getDebitAmountSpent(final LocalDate currentDay, final Long limitDays, final String cardNumber) {
         LocalDate startDay = currentDay.minusDays(limitDays);
+        String pinDescription = "PIN Transaction card #" + cardNumber;
+        String atmDescription = "ATM withdrawal card #" + cardNumber;
         try {
             Double moneySpent = 0.0;
+            Set<Long> pendingIDs = new HashSet<>();
+            for (TransactionRow row : pendingTransactions(row -> !row.isIncoming()
+                    && (row.getDescription().equalsIgnoreCase(pinDescription)
+                    || row.getDescription().equalsIgnoreCase(atmDescription))
+                    && !row.getDate().isBefore(startDay) && !row.getDate().isAfter(currentDay))) {
+                pendingIDs.add(row.getId());
+                moneySpent += row.getAmount();
+            }
             SQLConnection connection = db.getConnection();
             PreparedStatement findOutgoingTransactions = connection.getConnection()
                                                                     .prepareStatement(getOutgoingDebitTransactions);
             findOutgoingTransactions.setDate(1, java.sql.Date.valueOf(startDay));
             findOutgoingTransactions.setDate(2, java.sql.Date.valueOf(currentDay));
-            findOutgoingTransactions.setString(3, "PIN Transaction card #" + cardNumber);
-            findOutgoingTransactions.setString(4, "ATM withdrawal card #" + cardNumber);
+            findOutgoingTransactions.setString(3, pinDescription);
+            findOutgoingTransactions.setString(4, atmDescription);
             ResultSet transactionsDuringPeriod = findOutgoingTransactions.executeQuery();
             while (transactionsDuringPeriod.next()) {
-                moneySpent += transactionsDuringPeriod.getDouble("amount");
+                if (!pendingIDs.contains(transactionsDuringPeriod.getLong("id"))) {
+                    moneySpent += transactionsDuringPeriod.getDouble("amount");
+                }
             }
             findOutgoingTransactions.close();
             db.returnConnection(connection);
@@ -662,14 +1065,14 @@ class LedgerService {
 
     private void sendOutgoingTransactionCallback(final Transaction transaction, final boolean customerIsAuthorized, final CallbackBuilder callbackBuilder) {
         if (transaction.isSuccessful()) {
-            System.out.printf("%s Successfully processed outgoing transaction, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Successfully processed outgoing transaction, sending callback.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", transaction)));
         } else {
             if (!customerIsAuthorized) {
-                System.out.printf("%s Customer is not authorized to make transactions from this account.\n", PREFIX);
+                Log.debug(PREFIX, "Customer is not authorized to make transactions from this account.");
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419, "The user is not authorized to perform this action.", "Customer is not authorized to make transactions from this account")));
             } else {
-                System.out.printf("%s Outgoing transaction was not successful, sending callback.\n", PREFIX);
+                Log.debug(PREFIX, "Outgoing transaction was not successful, sending callback.");
                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418, "One of the parameters has an invalid value.", "There is probably not enough balance in the account.")));
             }
         }
@@ -723,30 +1126,33 @@ class LedgerService {
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
         DataRequest dataRequest = (DataRequest) messageWrapper.getData();
         RequestType requestType = dataRequest.getType();
-        System.out.printf("%s Received data request of type %s.\n", PREFIX, dataRequest.getType().toString());
-        if (requestType != RequestType.ACCOUNTEXISTS
-                && !messageWrapper.isAdmin()
-                && !getCustomerAuthorization(dataRequest.getAccountNumber(), "" + dataRequest.getCustomerId())) {
-            System.out.printf("%s rejecting because not authorized\n", PREFIX);
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                    "The user is not authorized to perform this action.",
-                    "Customer not authorized to request data for this accountNumber.")));
-        } else if (requestType == RequestType.BALANCE) {
-            fetchCreditCardBalance(dataRequest, CallbackBuilder.newCallbackBuilder().withStringCallback(callback));
-        } else {
-            // Method call
-            DataReply dataReply = processDataRequest(dataRequest);
-
-            if (dataReply != null) {
-                System.out.printf("%s Data request successful, sending callback.\n", PREFIX);
-                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                        false, 200, "Normal Reply", dataReply)));
+        Log.debug(PREFIX, "Received data request of type %s.", dataRequest.getType().toString());
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.execute(callbackBuilder, () -> {
+            if (requestType != RequestType.ACCOUNTEXISTS
+                    && !messageWrapper.isAdmin()
+                    && !getCustomerAuthorization(dataRequest.getAccountNumber(), "" + dataRequest.getCustomerId())) {
+                Log.debug(PREFIX, "rejecting because not authorized");
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                        "The user is not authorized to perform this action.",
+                        "Customer not authorized to request data for this accountNumber.")));
+            } else if (requestType == RequestType.BALANCE) {
+                fetchCreditCardBalance(dataRequest, callbackBuilder);
             } else {
-                System.out.printf("%s Data request failed, sending rejection.\n", PREFIX);
-                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                        true, 500, "Error connecting to the Ledger database.")));
+                // Method call
+                DataReply dataReply = processDataRequest(dataRequest);
+
+                if (dataReply != null) {
+                    Log.debug(PREFIX, "Data request successful, sending callback.");
+                    callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                            false, 200, "Normal Reply", dataReply)));
+                } else {
+                    Log.warn(PREFIX, "Data request failed, sending rejection.");
+                    callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                            true, 500, "Error connecting to the Ledger database.")));
+                }
             }
-        }
+        });
     }
 
     /**
@@ -777,23 +1183,31 @@ class LedgerService {
                     if (httpStatusCode == HTTP_OK) {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(replyJson),
                                 MessageWrapper.class);
-                        try {
-                            if (messageWrapper.isError()) {
-                                if (messageWrapper.getCode() == 418) {
-                                    // no credit card for this account Number
-                                    sendBalanceRequestCallback(processBalanceRequest(dataRequest,
-                                            null), callbackBuilder);
+                        databaseExecutor.execute(callbackBuilder, () -> {
+                            try {
+                                if (messageWrapper.isError()) {
+                                    if (messageWrapper.getCode() == 418) {
+                                        // no credit card for this account Number
+                                        sendBalanceRequestCallback(processBalanceRequest(dataRequest,
+                                                null), callbackBuilder);
+                                    } else {
+                                        callbackBuilder.build().reply(replyJson);
+                                    }
                                 } else {
-                                    callbackBuilder.build().reply(replyJson);
+                                    Double creditCardBalance = (Double) messageWrapper.getData();
+                                    sendBalanceRequestCallback(processBalanceRequest(dataRequest,
+                                            creditCardBalance), callbackBuilder);
                                 }
-                            } else {
-                                Double creditCardBalance = (Double) messageWrapper.getData();
-                                sendBalanceRequestCallback(processBalanceRequest(dataRequest,
-                                        creditCardBalance), callbackBuilder);
+                            } catch (SQLException e) {
+                                e.printStackTrace();
+                                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                                        true, 500, "Error connecting to the Ledger database.")));
                             }
-                        } catch (SQLException e) {
-                            e.printStackTrace();
-                        }
+                        });
+                    } else {
+                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
+                                500, "An unknown error occurred.",
+                                "There was a problem with one of the HTTP requests")));
                     }
                 });
     }
@@ -826,6 +1240,9 @@ class LedgerService {
                 account = new Account(name, overdraftLimit, balance, savingsActive, savingsBalance);
             }
             account.setAccountNumber(accountNumber);
+            if (journal != null) {
+                journal.readBalances(account);
+            }
             dataReply = JSONParser.createJsonDataReply(dataRequest.getAccountNumber(), dataRequest.getType(), account);
         }
 
@@ -838,23 +1255,33 @@ class LedgerService {
 
     private void sendBalanceRequestCallback(final DataReply dataReply, final CallbackBuilder callbackBuilder) {
         if (dataReply != null) {
-            System.out.printf("%s Data request successful, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Data request successful, sending callback.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                     false, 200, "Normal Reply", dataReply)));
         } else {
-            System.out.printf("%s Data request failed, sending rejection.\n", PREFIX);
+            Log.warn(PREFIX, "Data request failed, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                     true, 500, "Error connecting to the Ledger database.")));
         }
     }
 
     /**
-     * Process a data request for the transaction history of an account.
+     * Process a data request for the transaction history of an account. The archived transactions are added after
+     * the recent transactions when the request needs more transactions than there are recent transactions, and
+     * journaled transactions that are not written to their table yet are added to the recent transactions.
      * @param dataRequest Object representing a DataRequest containing the request information
      * @return the dataReply
      * @throws SQLException sql Exception
      */
     private DataReply processTransactionHistoryRequest(final DataRequest dataRequest) throws SQLException {
+        String accountNumber = dataRequest.getAccountNumber();
+        LinkedList<Transaction> pending = new LinkedList<>();
+        Set<Long> pendingIDs = new HashSet<>();
+        for (TransactionRow row : pendingTransactions(row -> (row.isIncoming() ? row.getAccountTo()
+                : row.getAccountFrom()).equals(accountNumber))) {
+            pending.add(row.toTransaction());
+            pendingIDs.add(row.getId());
+        }
         SQLConnection connection = db.getConnection();
         PreparedStatement ps1 = connection.getConnection().prepareStatement(getIncomingTransactionHistory);
         PreparedStatement ps2 = connection.getConnection().prepareStatement(getOutgoingTransactionHistory);
@@ -864,42 +1291,41 @@ class LedgerService {
         ResultSet rs2 = ps2.executeQuery();
 
         LinkedList<Transaction> transactions = new LinkedList<>();
-        fillTransactionList(transactions, rs1);
-        fillTransactionList(transactions, rs2);
+        fillTransactionList(transactions, rs1, pendingIDs);
+        fillTransactionList(transactions, rs2, pendingIDs);
+        transactions.addAll(pending);
 
         rs1.close();
         rs2.close();
         ps1.close();
         ps2.close();
+        long limit = dataRequest.getTransactionLimit();
+        if ((limit <= 0 || transactions.size() < limit) && transactionArchive.hasArchivedTransactions()) {
+            PreparedStatement ps3 = connection.getConnection().prepareStatement(getArchivedIncomingTransactionHistory);
+            PreparedStatement ps4 = connection.getConnection().prepareStatement(getArchivedOutgoingTransactionHistory);
+            ps3.setString(1, dataRequest.getAccountNumber());     // account_number
+            ps4.setString(1, dataRequest.getAccountNumber());     // account_number
+            ResultSet rs3 = ps3.executeQuery();
+            fillTransactionList(transactions, rs3, pendingIDs);
+            rs3.close();
+            ResultSet rs4 = ps4.executeQuery();
+            fillTransactionList(transactions, rs4, pendingIDs);
+            rs4.close();
+            ps3.close();
+            ps4.close();
+        }
         db.returnConnection(connection);
 
         return JSONParser.createJsonDataReply(dataRequest.getAccountNumber(), dataRequest.getType(), transactions);
     }
 
     /**
-     * Process a data request for the existence of an account.
+     * Process a data request for the existence of an account, using the account numbers in memory.
      * @param dataRequest Object representing a DataRequest containing the request information
      * @return the dataReply
-     * @throws SQLException sql Exception
      */
-    private DataReply processAccountExistsRequest(final DataRequest dataRequest) throws SQLException {
-        SQLConnection connection = db.getConnection();
-        boolean accountExists = false;
-        PreparedStatement getAccountNumberCount = connection.getConnection()
-                .prepareStatement(SQLStatements.getAccountNumberCount);
-        getAccountNumberCount.setString(1, dataRequest.getAccountNumber());
-        ResultSet accountNumberCount = getAccountNumberCount.executeQuery();
-
-        if (accountNumberCount.next()) {
-            int accountCount = accountNumberCount.getInt(1);
-            if (accountCount > 0) {
-                accountExists = true;
-            }
-        }
-
-        accountNumberCount.close();
-        db.returnConnection(connection);
-
+    private DataReply processAccountExistsRequest(final DataRequest dataRequest) {
+        boolean accountExists = accountNumbers.contains(dataRequest.getAccountNumber());
         return JSONParser.createJsonDataReply(dataRequest.getAccountNumber(), dataRequest.getType(), accountExists);
     }
 
@@ -907,11 +1333,16 @@ class LedgerService {
      * Fills a provided list with transactions from a given database query.
      * @param list The list to add the transactions to.
      * @param rs The ResultSet to get the transactions from.
+     * @param skippedIDs Ids of the transactions that are already in the list.
      * @throws SQLException SQLException
      */
-    private void fillTransactionList(final List<Transaction> list, final ResultSet rs) throws SQLException {
+    private void fillTransactionList(final List<Transaction> list, final ResultSet rs, final Set<Long> skippedIDs)
+            throws SQLException {
         while (rs.next()) {
             long id = rs.getLong("id");
+            if (skippedIDs.contains(id)) {
+                continue;
+            }
             LocalDate date = rs.getDate("date").toLocalDate();
             String sourceAccount = rs.getString("account_from");
             String destinationAccount = rs.getString("account_to");
@@ -935,8 +1366,8 @@ class LedgerService {
             final @RequestParam("request") String body) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         LocalDate localDate = jsonConverter.fromJson(body, LocalDate.class);
-        System.out.printf("%s Received an interest processing request for date: %s\n", PREFIX, localDate.toString());
-        processInterestRequest(localDate, callbackBuilder);
+        Log.debug(PREFIX, "Received an interest processing request for date: %s", localDate.toString());
+        databaseExecutor.executeSerially(callbackBuilder, () -> processInterestRequest(localDate, callbackBuilder));
     }
 
     /**
@@ -946,6 +1377,10 @@ class LedgerService {
      */
     private void processInterestRequest(final LocalDate localDate, final CallbackBuilder callbackBuilder) {
         try {
+            if (projection != null) {
+                // the accounts are selected by their balance in the ledger table
+                projection.flush();
+            }
             //date is the first day of the new month, so process the previous month.
             LocalDate firstProcessDay = localDate.minusMonths(1);
             LocalDate lastProcessDay = localDate.minusDays(1);
@@ -969,7 +1404,9 @@ class LedgerService {
                         lastProcessDay, true);
                 depositSavingsInterest(childInterestMap, localDate, true);
             }
-            sendInterestCallback(localDate, callbackBuilder);
+            replyWhenDurable(() -> sendInterestCallback(localDate, callbackBuilder));
+            // archive once a month in the background, after the interest over the archived period has been processed
+            databaseExecutor.executeMaintenance(() -> transactionArchive.archive(localDate));
         } catch (SQLException e) {
             e.printStackTrace();
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
@@ -1132,10 +1569,10 @@ class LedgerService {
      * @param dailyInterestRate Interest rate for a single day.
      * @return The interest this account owes for the given time period.
      */
-    private Double doDailyOverdraftInterestCalculation(final String accountNumber,
-                                                       final List<Transaction> overdraftTransactions,
-                                                       final LocalDate firstProcessDay, final LocalDate lastProcessDay,
-                                                       final Double dailyInterestRate) {
+    static Double doDailyOverdraftInterestCalculation(final String accountNumber,
+                                                      final List<Transaction> overdraftTransactions,
+                                                      final LocalDate firstProcessDay, final LocalDate lastProcessDay,
+                                                      final Double dailyInterestRate) {
         Double interest = 0.0;
         LocalDate currentProcessDay = firstProcessDay;
         Double currentBalance;
@@ -1189,7 +1626,7 @@ class LedgerService {
                         - firstTransaction.getTransactionAmount();
             }
         } else {
-            if (firstTransaction.getSourceAccountNumber().equals(accountNumber + "S")) {
+            if (Iban.isSavingsAccountOf(firstTransaction.getSourceAccountNumber(), accountNumber)) {
                 currentBalance = firstTransaction.getNewSavingsBalance()
                         + firstTransaction.getTransactionAmount();
             } else {
@@ -1325,15 +1762,12 @@ class LedgerService {
             Account account = getAccountInfo(accountNumber);
             // Update the object
             account.processWithdraw(transaction);
-
-            // Update the database
-            updateBalance(account);
             transaction.setNewBalance(account.getBalance());
-
-            /// Update Transaction log
-            transaction.setTransactionID(getHighestTransactionID());
+            transaction.setTransactionID(nextTransactionID());
             transaction.setDate(currentDate);
-            addTransaction(transaction, false);
+
+            // Update the balances and the transaction log
+            postTransaction(account, transaction, false);
         }
     }
 
@@ -1351,26 +1785,19 @@ class LedgerService {
                     lastDayOfInterest));
             Account account = getAccountInfo(accountNumber);
 
+            // Update the object
             if (child) {
-                // Update the object
                 account.processDeposit(transaction);
-
-                // Update the database
-                updateBalance(account);
                 transaction.setNewBalance(account.getBalance());
             } else {
-                // Update the object
                 account.processSavingsInterest(transaction);
-
-                // Update the database
-                updateSavingsBalance(account);
                 transaction.setNewSavingsBalance(account.getSavingsBalance());
             }
-
-            /// Update Transaction log
-            transaction.setTransactionID(getHighestTransactionID());
+            transaction.setTransactionID(nextTransactionID());
             transaction.setDate(currentDate);
-            addTransaction(transaction, true);
+
+            // Update the balances and the transaction log
+            postTransaction(account, transaction, true);
         }
     }
 
@@ -1380,8 +1807,8 @@ class LedgerService {
      * @param callbackBuilder Used to send a reply to the request source.
      */
     private void sendInterestCallback(final LocalDate localDate, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successfully processed interest for date: %s, sending callback.\n",
-                PREFIX, localDate.toString());
+        Log.debug(PREFIX, "Successfully processed interest for date: %s, sending callback.",
+                localDate.toString());
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1397,8 +1824,9 @@ class LedgerService {
                                                 final @RequestParam("accountNumber") String accountNumber,
                                                 final @RequestParam("overdraftLimit") Double overdraftLimit) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        System.out.printf("%s Received a setOverdraftLimit request for accountNumber: %s\n", PREFIX, accountNumber);
-        handleSetOverdraftLimitExceptions(accountNumber, overdraftLimit, callbackBuilder);
+        Log.debug(PREFIX, "Received a setOverdraftLimit request for accountNumber: %s", accountNumber);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleSetOverdraftLimitExceptions(accountNumber, overdraftLimit, callbackBuilder));
     }
 
     /**
@@ -1437,7 +1865,7 @@ class LedgerService {
      * @param callbackBuilder Used to send a reply to the request source.
      */
     private void sendSetOverdraftLimitCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successfully processed setOverdraftLimit request, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Successfully processed setOverdraftLimit request, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1453,9 +1881,10 @@ class LedgerService {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        System.out.printf("%s Received a getOverdraftLimit request for accountNumber: %s\n",
-                PREFIX, ((DataRequest) messageWrapper.getData()).getAccountNumber());
-        handleGetOverdraftLimitExceptions(messageWrapper, callbackBuilder);
+        Log.debug(PREFIX, "Received a getOverdraftLimit request for accountNumber: %s",
+                ((DataRequest) messageWrapper.getData()).getAccountNumber());
+        databaseExecutor.execute(callbackBuilder, () ->
+                handleGetOverdraftLimitExceptions(messageWrapper, callbackBuilder));
     }
 
     /**
@@ -1489,7 +1918,7 @@ class LedgerService {
      * @param callbackBuilder Used to send a reply to the request source.
      */
     private void sendGetOverdraftLimitCallback(final Integer overdraftLimit, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successfully processed getOverdraftLimit request, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Successfully processed getOverdraftLimit request, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", overdraftLimit)));
     }
@@ -1501,10 +1930,12 @@ class LedgerService {
      */
     @RequestMapping(value = "/savingsAccount", method = RequestMethod.PUT)
     public void openSavingsAccount(final Callback<String> callback, @RequestParam("iBAN") final String iBAN) {
-        System.out.printf("%s Received open savings account request.\n", PREFIX);
+        Log.debug(PREFIX, "Received open savings account request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        updateSavingsStatus(true, iBAN);
-        sendOpenSavingsAccountCallback(callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            updateSavingsStatus(true, iBAN);
+            sendOpenSavingsAccountCallback(callbackBuilder);
+        });
     }
 
     /**
@@ -1522,6 +1953,8 @@ class LedgerService {
             addSavingsAccountToDb.execute();
             addSavingsAccountToDb.close();
             db.returnConnection(connection);
+            accountRowChanged(iBAN);
+            apiCacheInvalidator.accountChanged(iBAN);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1532,7 +1965,7 @@ class LedgerService {
      * @param callbackBuilder Used to send the response to the request source.
      */
     private void sendOpenSavingsAccountCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Open savings account request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Open savings account request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1545,9 +1978,10 @@ class LedgerService {
      */
     @RequestMapping(value = "/savingsAccount/close", method = RequestMethod.PUT)
     public void closeSavingsAccount(final Callback<String> callback, @RequestParam("iBAN") final String iBAN) {
-        System.out.printf("%s Received close savings account request.\n", PREFIX);
+        Log.debug(PREFIX, "Received close savings account request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleCloseSavingsAccountExceptions(iBAN, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleCloseSavingsAccountExceptions(iBAN, callbackBuilder));
     }
 
     /**
@@ -1586,27 +2020,27 @@ class LedgerService {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(body),
                                 MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            LocalDate date = (LocalDate) messageWrapper.getData();
-                            // Update the database
-                            updateBalance(account);
-                            updateSavingsBalance(account);
-                            updateSavingsStatus(false, account.getAccountNumber());
-                            // Create transaction for transaction history
-                            Transaction transaction = new Transaction(getHighestTransactionID(),
-                                    account.getAccountNumber() + "S", account.getAccountNumber(),
-                                    account.getAccountHolderName(),
-                                    "Transfer of savings account to main account.", savingsBalance);
-                            transaction.setNewBalance(account.getBalance());
-                            transaction.setNewSavingsBalance(account.getSavingsBalance());
-                            transaction.setDate(date);
-                            addTransaction(transaction, true);
-                            sendCloseSavingsAccountCallback(callbackBuilder);
+                            databaseExecutor.executeSerially(callbackBuilder, () -> {
+                                LocalDate date = (LocalDate) messageWrapper.getData();
+                                // Create transaction for transaction history
+                                Transaction transaction = new Transaction(nextTransactionID(),
+                                        account.getAccountNumber() + "S", account.getAccountNumber(),
+                                        account.getAccountHolderName(),
+                                        "Transfer of savings account to main account.", savingsBalance);
+                                transaction.setNewBalance(account.getBalance());
+                                transaction.setNewSavingsBalance(account.getSavingsBalance());
+                                transaction.setDate(date);
+                                // Update the balances, the transaction log and the savings status
+                                postTransaction(account, transaction, true);
+                                updateSavingsStatus(false, account.getAccountNumber());
+                                replyWhenDurable(() -> sendCloseSavingsAccountCallback(callbackBuilder));
+                            });
                         } else {
                             callbackBuilder.build().reply(body);
                         }
                     } else {
-                        System.out.printf("%s Processing removal of savings account failed, body: %s\n\n\n\n",
-                                PREFIX, body);
+                        Log.warn(PREFIX, "Processing removal of savings account failed, body: %s",
+                                body);
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                                 500, "An unknown error occurred.",
                                 "There was a problem with one of the HTTP requests")));
@@ -1629,15 +2063,22 @@ class LedgerService {
      * @param account The account to overwrite, containing the new data
      */
     void updateSavingsBalance(final Account account) {
+        if (journalBalances(account)) {
+            bankStatistics.savingsBalanceWritten(account);
+            apiCacheInvalidator.accountChanged(account.getAccountNumber());
+            return;
+        }
         try {
             SQLConnection connection = db.getConnection();
             PreparedStatement ps = connection.getConnection().prepareStatement(updateSavingsBalance);
             ps.setDouble(1, account.getSavingsBalance());
             ps.setString(2, account.getAccountNumber());
             ps.executeUpdate();
+            bankStatistics.savingsBalanceWritten(account);
 
             ps.close();
             db.returnConnection(connection);
+            apiCacheInvalidator.accountChanged(account.getAccountNumber());
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -1648,7 +2089,7 @@ class LedgerService {
      * @param callbackBuilder Used to send a reply to the request source.
      */
     private void sendCloseSavingsAccountCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Close savings account request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Close savings account request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1656,10 +2097,10 @@ class LedgerService {
     @RequestMapping(value = "/transferBankAccount", method = RequestMethod.PUT)
     public void processTransferBankAccountRequest(final Callback<String> callback,
                                                   final @RequestParam("customer") String data) {
-        System.out.printf("%s Received bank account transfer request.\n", PREFIX);
+        Log.debug(PREFIX, "Received bank account transfer request.");
         Customer customer = jsonConverter.fromJson(data, Customer.class);
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        transferBankAccount(customer, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () -> transferBankAccount(customer, callbackBuilder));
     }
 
     private void transferBankAccount(final Customer customer, final CallbackBuilder callbackBuilder) {
@@ -1671,6 +2112,7 @@ class LedgerService {
             ps.executeUpdate();
             ps.close();
             db.returnConnection(connection);
+            accountRowChanged(customer.getAccount().getAccountNumber());
             sendTransferBankAccountCallback(callbackBuilder);
         } catch (SQLException e) {
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
@@ -1679,7 +2121,7 @@ class LedgerService {
     }
 
     private void sendTransferBankAccountCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Bank Account transfer successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Bank Account transfer successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1692,12 +2134,13 @@ class LedgerService {
     @RequestMapping(value = "/transferLimit", method = RequestMethod.PUT)
     public void processSetTransferLimitsRequest(final Callback<String> callback,
                                                final @RequestParam("data") String transferLimitListJson) {
-        System.out.printf("%s Received process transferLimit request.\n", PREFIX);
+        Log.debug(PREFIX, "Received process transferLimit request.");
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                                     JSONParser.removeEscapeCharacters(transferLimitListJson), MessageWrapper.class);
         LinkedList<TransferLimit> transferLimitList = (LinkedList<TransferLimit>) messageWrapper.getData();
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleSetTransferLimitsExceptions(transferLimitList, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleSetTransferLimitsExceptions(transferLimitList, callbackBuilder));
     }
 
     private void handleSetTransferLimitsExceptions(final LinkedList<TransferLimit> transferLimitList,
@@ -1718,29 +2161,53 @@ class LedgerService {
             updateLimit.setDouble(1, transferLimit.getTransferLimit());
             updateLimit.setString(2, transferLimit.getIBAN());
             updateLimit.execute();
+            accountRowChanged(transferLimit.getIBAN());
         }
         updateLimit.close();
         db.returnConnection(connection);
     }
 
     private void sendSetTransferLimitsCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Set transfer limits request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Set transfer limits request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
 
+    /**
+     * Processes a list of setValue requests that need to be executed today.
+     * @param callback Used to send the result of the request back to the request source.
+     * @param data MessageWrapper containing the list of setValue requests that should be processed.
+     */
     @RequestMapping(value = "/setValue", method = RequestMethod.PUT)
     public void processSetValueRequest(final Callback<String> callback,
                                                 final @RequestParam("data") String data) {
-        System.out.printf("%s Received setValue request.\n", PREFIX);
-        SetValueRequest setValueRequest = jsonConverter.fromJson(
-                JSONParser.removeEscapeCharacters(data), SetValueRequest.class);
+        Log.debug(PREFIX, "Received setValue request.");
+        MessageWrapper messageWrapper = jsonConverter.fromJson(
+                JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
+        LinkedList<SetValueRequest> setValueRequests = (LinkedList<SetValueRequest>) messageWrapper.getData();
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleSetValueExceptions(setValueRequest, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleSetValueExceptions(setValueRequests, callbackBuilder));
     }
 
     private void handleSetValueExceptions(
-            final SetValueRequest setValueRequest, final CallbackBuilder callbackBuilder) {
+            final LinkedList<SetValueRequest> setValueRequests, final CallbackBuilder callbackBuilder) {
+        for (SetValueRequest setValueRequest : setValueRequests) {
+            if (!setValue(setValueRequest)) {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                        true, 500, "Internal System Error.")));
+                return;
+            }
+        }
+        sendSetValueCallback(callbackBuilder);
+    }
+
+    /**
+     * Applies a single setValue request to the ledger.
+     * @param setValueRequest Request containing the key and the new value.
+     * @return True if the key belongs to the ledger, false otherwise.
+     */
+    private boolean setValue(final SetValueRequest setValueRequest) {
         switch (setValueRequest.getKey()) {
             case MAX_OVERDRAFT_LIMIT:       MAX_OVERDRAFT_LIMIT = setValueRequest.getValue();
                 break;
@@ -1757,34 +2224,72 @@ class LedgerService {
             case WEEKLY_TRANSFER_LIMIT:     WEEKLY_TRANSFER_LIMIT = setValueRequest.getValue();
                 break;
             default:
-                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                        true, 500, "Internal System Error.")));
-                break;
+                return false;
         }
-        sendSetValueCallback(callbackBuilder);
+        return true;
     }
 
     private void sendSetValueCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s SetValue request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "SetValue request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
 
+    /**
+     * Sends the bank wide totals of the ledger, these are kept in memory so no database work is needed.
+     * @param callback Used to send the totals back to the request source.
+     */
+    @RequestMapping(value = "/statistics", method = RequestMethod.GET)
+    public void processStatisticsRequest(final Callback<String> callback) {
+        Log.debug(PREFIX, "Received statistics request, sending callback.");
+        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply",
+                bankStatistics.snapshot())));
+    }
+
+    /**
+     * Reloads the account numbers and reconciles the bank wide totals with the ledger table, should be called after
+     * the database has been reset.
+     * @param callback Used to send the result of the request back to the request source.
+     */
+    @RequestMapping(value = "/reset", method = RequestMethod.POST)
+    public void processResetRequest(final Callback<String> callback) {
+        Log.debug(PREFIX, "Received reset request, reloading account numbers.");
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            try {
+                if (journal != null) {
+                    projection.clear();
+                    journal.reset();
+                    accountCache.clear();
+                }
+                transactionIDs.set(getHighestTransactionID());
+                accountNumbers.load();
+                reconcileStatistics();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
+            } catch (SQLException | IOException e) {
+                e.printStackTrace();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "Error connecting to the Ledger database.")));
+            }
+        });
+    }
+
     @RequestMapping(value = "/childBirthdays", method = RequestMethod.POST)
     public void incomingChildBirthdaysListener(final Callback<String> callback,
                                                final @RequestParam("data") String data) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         MessageWrapper messageWrapper = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
-        System.out.printf("%s Received a request for processing child 18th birthdays interest payments.\n", PREFIX);
-        handleChildBirthdayExceptions(messageWrapper, callbackBuilder);
+        Log.debug(PREFIX, "Received a request for processing child 18th birthdays interest payments.");
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleChildBirthdayExceptions(messageWrapper, callbackBuilder));
     }
 
     private void handleChildBirthdayExceptions(final MessageWrapper list, final CallbackBuilder callbackBuilder) {
         try {
             processBirthdayInterestPayments(list);
             setLedgerChildAccountStatus((List<BirthdayInterestPayment>) list.getData());
-            sendChildBirthdaysCallback(callbackBuilder);
+            replyWhenDurable(() -> sendChildBirthdaysCallback(callbackBuilder));
         } catch (SQLException e) {
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                     true, 500, "Error connecting to Users database.")));
@@ -1818,15 +2323,12 @@ class LedgerService {
             Account accountInfo = getAccountInfo(account.getAccountNumber());
             // Update the object
             accountInfo.processDeposit(transaction);
-
-            // Update the database
-            updateBalance(accountInfo);
             transaction.setNewBalance(accountInfo.getBalance());
-
-            /// Update Transaction log
-            transaction.setTransactionID(getHighestTransactionID());
+            transaction.setTransactionID(nextTransactionID());
             transaction.setDate(lastProcessDay);
-            addTransaction(transaction, true);
+
+            // Update the balances and the transaction log
+            postTransaction(accountInfo, transaction, true);
         }
     }
 
@@ -1842,7 +2344,7 @@ class LedgerService {
     }
 
     private void sendChildBirthdaysCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Children's birthday interest processing complete, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Children's birthday interest processing complete, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1851,6 +2353,7 @@ class LedgerService {
      * Safely shuts down the LedgerService.
      */
     void shutdown() {
+        if (journal != null) journal.close();
         if (db != null) db.close();
     }
 }
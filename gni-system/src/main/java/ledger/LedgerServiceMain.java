@@ -1,6 +1,8 @@
 package ledger;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.MetricsServer;
 import util.PortScanner;
 
 /**
@@ -33,10 +35,12 @@ public final class LedgerServiceMain {
                             .setRootURI("/services")
                             .setPort(servicePort);
 
-            managedServiceBuilder.addEndpointService(new LedgerService(
-                    servicePort, "localhost",
-                    Integer.parseInt(args[0]), args[1]))
+            final LedgerService ledgerService = new LedgerService(servicePort, "localhost",
+                    Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register("localhost", servicePort, "/services", ledgerService);
+            managedServiceBuilder.addEndpointService(ledgerService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
         }
     }
 }
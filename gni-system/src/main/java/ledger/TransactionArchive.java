@@ -0,0 +1,198 @@
+package ledger;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import util.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Saul
+ * @version 1
+ * Moves transactions older than gni.ledger.archiveAfterDays from transactions_in and transactions_out into compressed
+ * archive tables, so the tables that are read and written for every payment only hold recent transactions. The new
+ * balances stored with the transactions move along unchanged, the balances in the ledger are not touched. Archiving
+ * runs in the background in chunks of at most {@link #CHUNK_ROWS} transactions, every chunk in its own database
+ * transaction, only one run at a time, and never archives the most recent day of a table, so the highest transaction
+ * id stays in the table the id generators read. The minimum age is longer than the
+ * year of savings interest processing, so the interest, overdraft and spending limit queries only need the recent
+ * tables. Transaction history reads add the archived transactions when the recent transactions do not suffice.
+ */
+final class TransactionArchive {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Ledger]              :";
+    /** Minimum age of an archived transaction, longer than the period of the yearly savings interest. */
+    private static final int MIN_ARCHIVE_AFTER_DAYS = 400;
+    /** Configured age in days after which transactions are archived. */
+    private static final int CONFIGURED_ARCHIVE_AFTER_DAYS = Integer.getInteger("gni.ledger.archiveAfterDays", 730);
+    /** Age in days after which transactions are archived. */
+    private static final int ARCHIVE_AFTER_DAYS = Math.max(MIN_ARCHIVE_AFTER_DAYS, CONFIGURED_ARCHIVE_AFTER_DAYS);
+    /** Maximum amount of transactions that are moved in a single database transaction. */
+    private static final int CHUNK_ROWS = Integer.getInteger("gni.ledger.archiveChunkRows", 10000);
+    /** Database connection pool of the ledger. */
+    private final ConnectionPool db;
+    /** Whether an archiving run is in progress. */
+    private final AtomicBoolean running;
+    /** Whether the archive tables contain transactions, null until it is known. */
+    private volatile Boolean hasArchivedTransactions;
+
+    /**
+     * Creates the archive of the ledger.
+     * @param newDb Database connection pool of the ledger.
+     */
+    TransactionArchive(final ConnectionPool newDb) {
+        this.db = newDb;
+        this.running = new AtomicBoolean(false);
+        if (CONFIGURED_ARCHIVE_AFTER_DAYS < MIN_ARCHIVE_AFTER_DAYS) {
+            Log.warn(PREFIX, "Transactions are archived after the minimum of %d days instead of %d days.",
+                    MIN_ARCHIVE_AFTER_DAYS, CONFIGURED_ARCHIVE_AFTER_DAYS);
+        }
+    }
+
+    /**
+     * Archives the transactions that are older than the archive age, errors are logged and the remaining
+     * transactions are archived the next time. Returns right away when another run is still in progress.
+     * @param currentDate Current date of the system.
+     */
+    void archive(final LocalDate currentDate) {
+        if (!running.compareAndSet(false, true)) {
+            Log.info(PREFIX, "Skipping archiving, the previous run is still in progress.");
+            return;
+        }
+        LocalDate cutoff = currentDate.minusDays(ARCHIVE_AFTER_DAYS);
+        SQLConnection connection = db.getConnection();
+        try {
+            createTables(connection.getConnection());
+            long incoming = archiveTable(connection.getConnection(), cutoff,
+                    SQLStatements.getOldestIncomingTransactionDate, SQLStatements.getNewestIncomingTransactionDate,
+                    SQLStatements.getIncomingArchiveChunkEnd, SQLStatements.archiveIncomingTransactions,
+                    SQLStatements.removeArchivedIncomingTransactions);
+            long outgoing = archiveTable(connection.getConnection(), cutoff,
+                    SQLStatements.getOldestOutgoingTransactionDate, SQLStatements.getNewestOutgoingTransactionDate,
+                    SQLStatements.getOutgoingArchiveChunkEnd, SQLStatements.archiveOutgoingTransactions,
+                    SQLStatements.removeArchivedOutgoingTransactions);
+            if (incoming + outgoing > 0) {
+                hasArchivedTransactions = true;
+                Log.info(PREFIX, "Archived %d incoming and %d outgoing transactions from before %s.", incoming,
+                        outgoing, cutoff);
+            }
+        } catch (SQLException e) {
+            Log.error(PREFIX, "Archiving the transactions from before %s failed: %s", cutoff, e.getMessage());
+        } finally {
+            db.returnConnection(connection);
+            running.set(false);
+        }
+    }
+
+    private static void createTables(final Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(SQLStatements.createTransactionsInArchiveTable);
+            statement.execute(SQLStatements.createTransactionsOutArchiveTable);
+        }
+    }
+
+    /**
+     * Moves the transactions of a table from before the cutoff to its archive table, in chunks of at most
+     * {@link #CHUNK_ROWS} transactions in id order.
+     * @return Amount of archived transactions.
+     */
+    private static long archiveTable(final Connection connection, final LocalDate cutoff, final String getOldestDate,
+                                     final String getNewestDate, final String getChunkEnd,
+                                     final String archiveTransactions, final String removeArchivedTransactions)
+            throws SQLException {
+        LocalDate oldestDate = queryDate(connection, getOldestDate);
+        LocalDate newestDate = queryDate(connection, getNewestDate);
+        if (oldestDate == null || !oldestDate.isBefore(cutoff)) {
+            return 0;
+        }
+        LocalDate end = cutoff.isAfter(newestDate) ? newestDate : cutoff;
+        long archived = 0;
+        long chunkEnd;
+        while ((chunkEnd = queryChunkEnd(connection, getChunkEnd, end)) >= 0) {
+            archived += moveChunk(connection, end, chunkEnd, archiveTransactions, removeArchivedTransactions);
+        }
+        return archived;
+    }
+
+    /**
+     * Finds the id of the last transaction of the next chunk, or -1 if there is nothing left to archive.
+     */
+    private static long queryChunkEnd(final Connection connection, final String getChunkEnd, final LocalDate before)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(getChunkEnd)) {
+            statement.setDate(1, java.sql.Date.valueOf(before));
+            statement.setInt(2, CHUNK_ROWS);
+            try (ResultSet result = statement.executeQuery()) {
+                if (result.next()) {
+                    long id = result.getLong(1);
+                    return result.wasNull() ? -1 : id;
+                }
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Moves the transactions from before a date up to an id to the archive table in a single database transaction.
+     */
+    private static int moveChunk(final Connection connection, final LocalDate before, final long lastId,
+                                 final String archiveTransactions, final String removeArchivedTransactions)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement archive = connection.prepareStatement(archiveTransactions);
+             PreparedStatement remove = connection.prepareStatement(removeArchivedTransactions)) {
+            archive.setDate(1, java.sql.Date.valueOf(before));
+            archive.setLong(2, lastId);
+            archive.executeUpdate();
+            remove.setDate(1, java.sql.Date.valueOf(before));
+            remove.setLong(2, lastId);
+            int moved = remove.executeUpdate();
+            connection.commit();
+            return moved;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static LocalDate queryDate(final Connection connection, final String query) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query);
+             ResultSet result = statement.executeQuery()) {
+            if (result.next() && result.getDate(1) != null) {
+                return result.getDate(1).toLocalDate();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the archive may contain transactions, the first call checks the archive tables.
+     * @return Whether transaction history reads should include the archive.
+     */
+    boolean hasArchivedTransactions() {
+        Boolean hasArchived = hasArchivedTransactions;
+        if (hasArchived == null) {
+            SQLConnection connection = db.getConnection();
+            try {
+                hasArchived = queryDate(connection.getConnection(), SQLStatements.getNewestArchivedTransactionDate)
+                        != null;
+            } catch (SQLException e) {
+                // the archive tables are created by the first archiving run
+                hasArchived = false;
+            } finally {
+                db.returnConnection(connection);
+            }
+            hasArchivedTransactions = hasArchived;
+        }
+        return hasArchived;
+    }
+}
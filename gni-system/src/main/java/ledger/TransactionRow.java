@@ -0,0 +1,166 @@
+package ledger;
+
+import databeans.Transaction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * @author Saul
+ * @version 1
+ * Row of the incoming or outgoing transaction table, journaled together with the balances of its posting and written
+ * to the table by the {@link LedgerProjection}. Text columns that are not set are stored as empty strings, since the
+ * table does not allow null values and a row that can never be written would block the projection.
+ */
+final class TransactionRow {
+    /** Whether the row belongs in the incoming or in the outgoing transaction table. */
+    private final boolean incoming;
+    /** Transaction id, unique over both tables. */
+    private final long id;
+    /** Date of the transaction. */
+    private final LocalDate date;
+    /** Account number the amount was transferred to. */
+    private final String accountTo;
+    /** Name of the holder of the destination account. */
+    private final String accountToName;
+    /** Account number the amount was transferred from. */
+    private final String accountFrom;
+    /** Amount that was transferred. */
+    private final double amount;
+    /** Balance of the account of the row after the transaction. */
+    private final double newBalance;
+    /** Savings balance of the account of the row after the transaction. */
+    private final double newSavingsBalance;
+    /** Description of the transaction. */
+    private final String description;
+
+    /**
+     * Creates the row of a processed transaction.
+     * @param transaction The transaction, its id, date and new balances should be set.
+     * @param newIncoming True for the incoming transaction table, false for the outgoing transaction table.
+     */
+    TransactionRow(final Transaction transaction, final boolean newIncoming) {
+        this(newIncoming, transaction.getTransactionID(), transaction.getDate(),
+                transaction.getDestinationAccountNumber(), transaction.getDestinationAccountHolderName(),
+                transaction.getSourceAccountNumber(), transaction.getTransactionAmount(), transaction.getNewBalance(),
+                transaction.getNewSavingsBalance(), transaction.getDescription());
+    }
+
+    private TransactionRow(final boolean newIncoming, final long newId, final LocalDate newDate,
+                           final String newAccountTo, final String newAccountToName, final String newAccountFrom,
+                           final double newAmount, final double newNewBalance, final double newNewSavingsBalance,
+                           final String newDescription) {
+        this.incoming = newIncoming;
+        this.id = newId;
+        this.date = newDate;
+        this.accountTo = nonNull(newAccountTo);
+        this.accountToName = nonNull(newAccountToName);
+        this.accountFrom = nonNull(newAccountFrom);
+        this.amount = newAmount;
+        this.newBalance = newNewBalance;
+        this.newSavingsBalance = newNewSavingsBalance;
+        this.description = nonNull(newDescription);
+    }
+
+    /**
+     * Reads a row that was written with {@link #encode(DataOutput)}.
+     * @param in Input positioned at the row.
+     * @return The row.
+     * @throws IOException Thrown when the input ends before the row does.
+     */
+    static TransactionRow decode(final DataInput in) throws IOException {
+        return new TransactionRow(in.readBoolean(), in.readLong(), LocalDate.ofEpochDay(in.readLong()), readString(in),
+                readString(in), readString(in), in.readDouble(), in.readDouble(), in.readDouble(), readString(in));
+    }
+
+    /**
+     * Writes the row, so it can be journaled.
+     * @param out Output to write the row to.
+     * @throws IOException Thrown when the output could not be written.
+     */
+    void encode(final DataOutput out) throws IOException {
+        out.writeBoolean(incoming);
+        out.writeLong(id);
+        out.writeLong(date.toEpochDay());
+        writeString(out, accountTo);
+        writeString(out, accountToName);
+        writeString(out, accountFrom);
+        out.writeDouble(amount);
+        out.writeDouble(newBalance);
+        out.writeDouble(newSavingsBalance);
+        writeString(out, description);
+    }
+
+    /**
+     * Sets the parameters of an addIncomingTransaction or addOutgoingTransaction statement to the row.
+     * @param ps The statement.
+     * @throws SQLException Thrown when a parameter could not be set.
+     */
+    void bind(final PreparedStatement ps) throws SQLException {
+        ps.setLong(1, id);
+        ps.setDate(2, java.sql.Date.valueOf(date));
+        ps.setString(3, accountTo);
+        ps.setString(4, accountToName);
+        ps.setString(5, accountFrom);
+        ps.setDouble(6, amount);
+        ps.setDouble(7, newBalance);
+        ps.setDouble(8, newSavingsBalance);
+        ps.setString(9, description);
+    }
+
+    /**
+     * @return The row as it is listed in a transaction history.
+     */
+    Transaction toTransaction() {
+        return new Transaction(id, date, accountFrom, accountTo, accountToName, description, amount, newBalance);
+    }
+
+    boolean isIncoming() {
+        return incoming;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    LocalDate getDate() {
+        return date;
+    }
+
+    String getAccountTo() {
+        return accountTo;
+    }
+
+    String getAccountFrom() {
+        return accountFrom;
+    }
+
+    double getAmount() {
+        return amount;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    private static String nonNull(final String value) {
+        return value == null ? "" : value;
+    }
+
+    private static void writeString(final DataOutput out, final String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package pin;
+
+import databeans.CreditCard;
+import databeans.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Saul
+ * @version 1
+ * Pairs the credit cards of a batch with the transactions the ledger replied with. The ledger replies with the
+ * batch in the order it was sent, a reply is only matched to a card when the reply list has the size of the batch
+ * and the reply has the source account and description of the transaction that was sent for the card. Cards
+ * without a matching reply are treated as failed, so an incomplete reply never refills the wrong card.
+ */
+final class CardBatchReplies {
+    /** Cards of the batch, in the order they were sent. */
+    private final List<CreditCard> cards;
+    /** Matching reply of every card, null when the card has no matching reply. */
+    private final List<Transaction> replies;
+    /** Number of cards without a matching reply. */
+    private final int unmatched;
+
+    private CardBatchReplies(final List<CreditCard> cards, final List<Transaction> replies, final int unmatched) {
+        this.cards = cards;
+        this.replies = replies;
+        this.unmatched = unmatched;
+    }
+
+    /**
+     * Matches the replies of the ledger to the cards of a batch.
+     * @param batch Cards of the batch, in the order they were sent.
+     * @param sent Transactions that were sent for the cards, in the same order.
+     * @param received Transactions the ledger replied with, may be null if the reply contained no list.
+     * @return The cards with their matching replies.
+     */
+    static CardBatchReplies match(final List<CreditCard> batch, final List<Transaction> sent,
+                                  final List<Transaction> received) {
+        List<CreditCard> cards = new ArrayList<>(batch);
+        List<Transaction> replies = new ArrayList<>(cards.size());
+        boolean sameSize = received != null && received.size() == cards.size();
+        int unmatched = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            Transaction reply = sameSize ? received.get(i) : null;
+            if (reply == null || !matches(sent.get(i), reply)) {
+                reply = null;
+                unmatched++;
+            }
+            replies.add(reply);
+        }
+        return new CardBatchReplies(cards, replies, unmatched);
+    }
+
+    private static boolean matches(final Transaction sent, final Transaction reply) {
+        return sent.getSourceAccountNumber().equals(reply.getSourceAccountNumber())
+                && sent.getDescription().equals(reply.getDescription());
+    }
+
+    int size() {
+        return cards.size();
+    }
+
+    CreditCard card(final int index) {
+        return cards.get(index);
+    }
+
+    /**
+     * @param index Position of the card in the batch.
+     * @return The matching reply of the card, or null if the ledger did not reply for it.
+     */
+    Transaction reply(final int index) {
+        return replies.get(index);
+    }
+
+    /**
+     * @param index Position of the card in the batch.
+     * @return True if the ledger replied for the card and executed its transaction.
+     */
+    boolean succeeded(final int index) {
+        Transaction reply = replies.get(index);
+        return reply != null && reply.isSuccessful();
+    }
+
+    int unmatched() {
+        return unmatched;
+    }
+
+    /**
+     * @return Number of cards that have no matching reply or whose transaction was not executed.
+     */
+    int failures() {
+        int failures = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            if (!succeeded(i)) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,157 @@
+package pin;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Noel
+ * @version 1
+ * In memory state of a single pin card, contains everything that is needed to authorize a transaction made with the
+ * card. The pin code is only kept as a hash, and the amount of incorrect attempts is counted without locking so
+ * concurrent transactions with the same card always see a consistent count. A transaction reserves an attempt before
+ * its pin code is compared, so concurrent guesses can never use more attempts than allowed.
+ */
+class CardState {
+    /** Card number of the card. */
+    private final long cardNumber;
+    /** Account number the card is linked to. */
+    private final String accountNumber;
+    /** CustomerId of the owner of the card. */
+    private final long customerId;
+    /** SHA-256 hash of the pin code of the card. */
+    private final byte[] pinHash;
+    /** Date on which the card expires. */
+    private final LocalDate expirationDate;
+    /** Indicates if the card has not been deactivated. */
+    private volatile boolean active;
+    /** Indicates if the owner of the card has been frozen. */
+    private volatile boolean frozen;
+    /** Amount of incorrect pin attempts since the last correct attempt. */
+    private final AtomicInteger incorrectAttempts;
+
+    CardState(final long cardNumber, final String accountNumber, final long customerId, final String pinCode,
+              final LocalDate expirationDate, final boolean active, final boolean frozen,
+              final int incorrectAttempts) {
+        this.cardNumber = cardNumber;
+        this.accountNumber = accountNumber;
+        this.customerId = customerId;
+        this.pinHash = hashPinCode(pinCode);
+        this.expirationDate = expirationDate;
+        this.active = active;
+        this.frozen = frozen;
+        this.incorrectAttempts = new AtomicInteger(incorrectAttempts);
+    }
+
+    /**
+     * Checks if the given pin code is the pin code of this card.
+     * @param pinCode Pin code used in a transaction, can be null.
+     * @return True if the pin code matches.
+     */
+    boolean pinMatches(final String pinCode) {
+        return pinCode != null && MessageDigest.isEqual(pinHash, hashPinCode(pinCode));
+    }
+
+    /**
+     * Checks if the card is blocked due to too many incorrect pin attempts.
+     * @param allowedAttempts Amount of incorrect attempts after which a card is blocked.
+     * @return True if the card is blocked.
+     */
+    boolean isBlocked(final int allowedAttempts) {
+        return incorrectAttempts.get() >= allowedAttempts;
+    }
+
+    /**
+     * Reserves an attempt before the pin code is compared, the reservation counts as an incorrect attempt until it
+     * is released.
+     * @param allowedAttempts Amount of incorrect attempts after which a card is blocked.
+     * @return True if the attempt was reserved, false if the card is blocked.
+     */
+    boolean reserveAttempt(final int allowedAttempts) {
+        int attempts;
+        do {
+            attempts = incorrectAttempts.get();
+            if (attempts >= allowedAttempts) {
+                return false;
+            }
+        } while (!incorrectAttempts.compareAndSet(attempts, attempts + 1));
+        return true;
+    }
+
+    /**
+     * Releases an attempt reserved with {@link #reserveAttempt(int)} that did not turn out to be incorrect, the
+     * count never drops below 0 in case it was reset meanwhile.
+     */
+    void releaseAttempt() {
+        int attempts;
+        do {
+            attempts = incorrectAttempts.get();
+            if (attempts == 0) {
+                return;
+            }
+        } while (!incorrectAttempts.compareAndSet(attempts, attempts - 1));
+    }
+
+    /**
+     * Counts an incorrect pin attempt that was not reserved.
+     * @return The amount of incorrect attempts including this one.
+     */
+    int registerIncorrectAttempt() {
+        return incorrectAttempts.incrementAndGet();
+    }
+
+    /**
+     * Resets the amount of incorrect attempts to 0.
+     * @return The amount of incorrect attempts before the reset.
+     */
+    int resetIncorrectAttempts() {
+        return incorrectAttempts.getAndSet(0);
+    }
+
+    private static byte[] hashPinCode(final String pinCode) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(pinCode.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    long getCardNumber() {
+        return cardNumber;
+    }
+
+    String getAccountNumber() {
+        return accountNumber;
+    }
+
+    long getCustomerId() {
+        return customerId;
+    }
+
+    LocalDate getExpirationDate() {
+        return expirationDate;
+    }
+
+    int getIncorrectAttempts() {
+        return incorrectAttempts.get();
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void setActive(final boolean newActive) {
+        active = newActive;
+    }
+
+    boolean isFrozen() {
+        return frozen;
+    }
+
+    void setFrozen(final boolean newFrozen) {
+        frozen = newFrozen;
+    }
+}
@@ -0,0 +1,255 @@
+package pin;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import databeans.PinCard;
+import util.Iban;
+import util.LongObjectMap;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * @author Noel
+ * @version 1
+ * Authoritative in memory copy of the pin table, used to authorize pin and ATM transactions without querying the
+ * database. Every change to a card is first written to the database and then applied to the cached
+ * {@link CardState}, so the cache and the database never disagree about a card that was successfully updated.
+ * Lookups are lock free, changes to the set of cards are synchronized on the cache.
+ */
+class CardStateCache {
+    /** Database connection pool containing persistent database connections. */
+    private final ConnectionPool databaseConnectionPool;
+    /** All pin cards in the system, indexed by card number. */
+    private final LongObjectMap<CardState> cards;
+    /** Card numbers of the pin cards linked to each account, indexed by packed account number and replaced instead of
+     * modified, used to check if an account is frozen. */
+    private final LongObjectMap<long[]> cardsByAccount;
+
+    /**
+     * Creates an empty cache, {@link #load()} should be called to fill it with the cards in the database.
+     * @param newDatabaseConnectionPool Pool used to write card changes to the database.
+     */
+    CardStateCache(final ConnectionPool newDatabaseConnectionPool) {
+        this.databaseConnectionPool = newDatabaseConnectionPool;
+        this.cards = new LongObjectMap<>();
+        this.cardsByAccount = new LongObjectMap<>();
+    }
+
+    /**
+     * Replaces the contents of the cache with all pin cards that are stored in the pin table.
+     * @throws SQLException Thrown when the pin cards could not be fetched from the database.
+     */
+    synchronized void load() throws SQLException {
+        cards.clear();
+        cardsByAccount.clear();
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.getPinCards);
+        ResultSet rs = ps.executeQuery();
+        while (rs.next()) {
+            addToIndex(new CardState(rs.getLong("card_number"), rs.getString("account_number"),
+                    rs.getLong("user_id"), rs.getString("pin_code"), rs.getDate("expiration_date").toLocalDate(),
+                    rs.getBoolean("active"), rs.getBoolean("frozen"), rs.getInt("incorrect_attempts")));
+        }
+        rs.close();
+        ps.close();
+        databaseConnectionPool.returnConnection(connection);
+    }
+
+    /**
+     * Fetches the state of a pin card.
+     * @param cardNumber Card number of the card.
+     * @return State of the card, or null if the card does not exist.
+     */
+    CardState get(final long cardNumber) {
+        return cards.get(cardNumber);
+    }
+
+    /**
+     * Checks if an account has a frozen pin card linked to it.
+     * @param accountNumber Account number to check.
+     * @return True if one of the cards linked to the account is frozen.
+     */
+    boolean isAccountFrozen(final String accountNumber) {
+        long[] cardNumbers = cardsByAccount.get(Iban.pack(accountNumber));
+        if (cardNumbers == null) {
+            return false;
+        }
+        for (long cardNumber : cardNumbers) {
+            CardState card = cards.get(cardNumber);
+            if (card != null && card.isFrozen()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Inserts a new pin card into the database and the cache.
+     * @param pinCard Pin card that should be added.
+     * @throws SQLException Thrown when the insertion fails, in this case the card is not added to the cache.
+     */
+    void addCard(final PinCard pinCard) throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.addPinCard);
+        ps.setString(1, pinCard.getAccountNumber());
+        ps.setLong(2, pinCard.getCustomerId());
+        ps.setLong(3, pinCard.getCardNumber());
+        ps.setString(4, pinCard.getPinCode());
+        ps.setDate(5, java.sql.Date.valueOf(pinCard.getExpirationDate()));
+        ps.setLong(6, 0L);
+        ps.setBoolean(7, true);
+        ps.setBoolean(8, false);
+        ps.executeUpdate();
+        ps.close();
+        databaseConnectionPool.returnConnection(connection);
+        addToIndex(new CardState(pinCard.getCardNumber(), pinCard.getAccountNumber(), pinCard.getCustomerId(),
+                pinCard.getPinCode(), pinCard.getExpirationDate(), true, false, 0));
+    }
+
+    /**
+     * Counts an incorrect pin attempt for a card, the attempt is counted in the cache before it is written so a
+     * concurrent transaction can not use it.
+     * @param card Card the incorrect pin code was used for.
+     * @throws SQLException Thrown when the attempt could not be written to the database.
+     */
+    void registerIncorrectAttempt(final CardState card) throws SQLException {
+        card.registerIncorrectAttempt();
+        persistIncorrectAttempt(card);
+    }
+
+    /**
+     * Writes an incorrect pin attempt that was already reserved with {@link CardState#reserveAttempt(int)} to the
+     * database, the reservation is kept if the write fails.
+     * @param card Card the incorrect pin code was used for.
+     * @throws SQLException Thrown when the attempt could not be written to the database.
+     */
+    void persistIncorrectAttempt(final CardState card) throws SQLException {
+        executeCardUpdate(SQLStatements.incrementIncorrectPinCardAttempts, card.getCardNumber());
+    }
+
+    /**
+     * Resets the amount of incorrect pin attempts of a card, the database is only written to if the card actually
+     * had incorrect attempts.
+     * @param card Card to reset the amount of incorrect attempts for.
+     * @return The amount of incorrect attempts the card had before the reset.
+     * @throws SQLException Thrown when the reset could not be written to the database.
+     */
+    int resetIncorrectAttempts(final CardState card) throws SQLException {
+        int attempts = card.getIncorrectAttempts();
+        if (attempts != 0) {
+            executeCardUpdate(SQLStatements.unblockPinCard, card.getCardNumber());
+            attempts = card.resetIncorrectAttempts();
+        }
+        return attempts;
+    }
+
+    /**
+     * Permanently deactivates a pin card.
+     * @param pinCard Card that should be deactivated, the account number and customerId should match the card.
+     * @return True if the card was found and deactivated.
+     * @throws SQLException Thrown when the deactivation could not be written to the database.
+     */
+    boolean deactivateCard(final PinCard pinCard) throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.deactivatePinCard);
+        ps.setString(1, pinCard.getAccountNumber());
+        ps.setLong(2, pinCard.getCustomerId());
+        ps.setLong(3, pinCard.getCardNumber());
+        boolean deactivated = ps.executeUpdate() > 0;
+        ps.close();
+        databaseConnectionPool.returnConnection(connection);
+        CardState card = cards.get(pinCard.getCardNumber());
+        if (deactivated && card != null) {
+            card.setActive(false);
+        }
+        return deactivated;
+    }
+
+    /**
+     * Sets the frozen status of all pin cards owned by a customer.
+     * @param customerId CustomerId of the owner of the cards.
+     * @param frozen New frozen status of the cards.
+     * @throws SQLException Thrown when the status could not be written to the database.
+     */
+    void setFrozen(final long customerId, final boolean frozen) throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.setFreezeStatusPin);
+        ps.setBoolean(1, frozen);
+        ps.setLong(2, customerId);
+        ps.executeUpdate();
+        ps.close();
+        databaseConnectionPool.returnConnection(connection);
+        cards.forEachValue(card -> {
+            if (card.getCustomerId() == customerId) {
+                card.setFrozen(frozen);
+            }
+        });
+    }
+
+    /**
+     * Removes all pin cards linked to an account from the database and the cache.
+     * @param accountNumber Account number of the account that is removed.
+     * @throws SQLException Thrown when the cards could not be removed from the database.
+     */
+    void removeAccountCards(final String accountNumber) throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.removeAccountCards);
+        ps.setString(1, accountNumber);
+        ps.execute();
+        ps.close();
+        databaseConnectionPool.returnConnection(connection);
+        synchronized (this) {
+            long[] cardNumbers = cardsByAccount.remove(Iban.pack(accountNumber));
+            if (cardNumbers != null) {
+                for (long cardNumber : cardNumbers) {
+                    cards.remove(cardNumber);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a card to the cache, pin cards are always linked to GNI account numbers so only those are indexed by
+     * account.
+     */
+    private synchronized void addToIndex(final CardState card) {
+        CardState previous = cards.put(card.getCardNumber(), card);
+        if (previous != null) {
+            long previousAccount = Iban.pack(previous.getAccountNumber());
+            long[] previousAccountCards = cardsByAccount.get(previousAccount);
+            if (previousAccountCards != null) {
+                long[] remaining = Arrays.stream(previousAccountCards)
+                        .filter(cardNumber -> cardNumber != card.getCardNumber()).toArray();
+                if (remaining.length == 0) {
+                    cardsByAccount.remove(previousAccount);
+                } else {
+                    cardsByAccount.put(previousAccount, remaining);
+                }
+            }
+        }
+        long account = Iban.pack(card.getAccountNumber());
+        if (account != Iban.INVALID) {
+            long[] accountCards = cardsByAccount.get(account);
+            if (accountCards == null) {
+                cardsByAccount.put(account, new long[] {card.getCardNumber()});
+            } else {
+                long[] extended = Arrays.copyOf(accountCards, accountCards.length + 1);
+                extended[accountCards.length] = card.getCardNumber();
+                cardsByAccount.put(account, extended);
+            }
+        }
+    }
+
+    private void executeCardUpdate(final String statement, final long cardNumber) throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        PreparedStatement ps = connection.getConnection().prepareStatement(statement);
+        ps.setLong(1, cardNumber);
+        ps.executeUpdate();
+        ps.close();
+        databaseConnectionPool.returnConnection(connection);
+    }
+}
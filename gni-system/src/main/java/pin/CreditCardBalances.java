@@ -0,0 +1,261 @@
+package pin;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import util.Log;
+import util.LongObjectMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * @author Noel
+ * @version 1
+ * Authoritative in memory balances of all credit cards. Every balance change is applied with a compare-and-set on the
+ * newest {@link CreditCardLogEntry} of the card and then appended to the {@link CreditCardTransactionLog}, so
+ * concurrent payments with the same card can never spend more than the available balance. The balance column of the
+ * credit_cards table is a checkpoint that is brought up to date from the transaction log when the balances are
+ * loaded. The total available credit of all cards is kept up to date in cents with the difference of every
+ * compare-and-set, which makes it exact by construction, the total credit limit is reconciled nightly against the
+ * credit_cards table. Databases created before the last_transaction_id column existed are migrated when the
+ * balances are loaded.
+ */
+class CreditCardBalances {
+    /** Prefix used when printing to indicate the message is coming from the PIN Service. */
+    private static final String PREFIX = "[PIN]                 :";
+    /** Database connection pool containing persistent database connections. */
+    private final ConnectionPool databaseConnectionPool;
+    /** Log the balance changes are appended to. */
+    private final CreditCardTransactionLog transactionLog;
+    /** Newest log entry of every credit card, indexed by card number. */
+    private final LongObjectMap<AtomicReference<CreditCardLogEntry>> balances;
+    /** Id that will be given to the next entry of the transaction log. */
+    private final AtomicLong nextId;
+    /** Sum of the balances of all credit cards, in cents. */
+    private final AtomicLong availableCreditCents;
+    /** Sum of the credit limits of all credit cards, in cents. */
+    private final AtomicLong creditLimitCents;
+
+    /**
+     * Creates an empty balance index, {@link #load()} should be called to fill it with the balances in the database.
+     * @param newDatabaseConnectionPool Pool used to read the balances from the database.
+     * @param newTransactionLog Log the balance changes are appended to.
+     */
+    CreditCardBalances(final ConnectionPool newDatabaseConnectionPool,
+                       final CreditCardTransactionLog newTransactionLog) {
+        this.databaseConnectionPool = newDatabaseConnectionPool;
+        this.transactionLog = newTransactionLog;
+        this.balances = new LongObjectMap<>();
+        this.nextId = new AtomicLong(1L);
+        this.availableCreditCents = new AtomicLong();
+        this.creditLimitCents = new AtomicLong();
+    }
+
+    /**
+     * Replays the newest entry of every card in the transaction log onto the credit_cards table, and then replaces
+     * the contents of the index with the balances of all credit cards. The last_transaction_id column is added first
+     * if the credit_cards table does not have it yet.
+     * @throws SQLException Thrown when the balances could not be recovered from the database.
+     */
+    void load() throws SQLException {
+        transactionLog.clear();
+        balances.clear();
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        migrate(connection.getConnection());
+        PreparedStatement recover = connection.getConnection()
+                .prepareStatement(SQLStatements.recoverCreditCardBalances);
+        int recoveredCards = recover.executeUpdate();
+        recover.close();
+        if (recoveredCards > 0) {
+            Log.info(PREFIX, "Recovered the balance of %d credit cards from the transaction log.",
+                    recoveredCards);
+        }
+        PreparedStatement getBalances = connection.getConnection()
+                .prepareStatement(SQLStatements.getCreditCardBalances);
+        ResultSet balanceResult = getBalances.executeQuery();
+        long availableCredit = 0;
+        long creditLimit = 0;
+        while (balanceResult.next()) {
+            availableCredit += toCents(balanceResult.getDouble("balance"));
+            creditLimit += toCents(balanceResult.getDouble("credit_limit"));
+            balances.put(balanceResult.getLong("card_number"), new AtomicReference<>(new CreditCardLogEntry(
+                    balanceResult.getLong("last_transaction_id"), null, balanceResult.getLong("card_number"), null,
+                    0, balanceResult.getDouble("balance"))));
+        }
+        balanceResult.close();
+        getBalances.close();
+        availableCreditCents.set(availableCredit);
+        creditLimitCents.set(creditLimit);
+        PreparedStatement getHighestId = connection.getConnection()
+                .prepareStatement(SQLStatements.getHighestCreditCardTransactionId);
+        ResultSet idResult = getHighestId.executeQuery();
+        if (idResult.next()) {
+            nextId.set(idResult.getLong(1) + 1);
+        } else {
+            nextId.set(1L);
+        }
+        idResult.close();
+        getHighestId.close();
+        databaseConnectionPool.returnConnection(connection);
+    }
+
+    /**
+     * Adds the last_transaction_id column to a credit_cards table that was created without it. The balance column
+     * of such a table was kept up to date directly, so the column is filled in with the newest transaction of every
+     * card without replaying the transactions, replaying them could undo balance changes that were never logged.
+     */
+    private static void migrate(final Connection connection) throws SQLException {
+        boolean hasColumn;
+        try (ResultSet columns = connection.getMetaData().getColumns(null, null, "credit_cards",
+                "last_transaction_id")) {
+            hasColumn = columns.next();
+        }
+        if (!hasColumn) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    SQLStatements.addLastTransactionIdColumnCreditCards)) {
+                ps.execute();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    SQLStatements.backfillLastTransactionIdsCreditCards)) {
+                int migratedCards = ps.executeUpdate();
+                Log.info(PREFIX, "Added the last transaction id of %d credit cards.", migratedCards);
+            }
+        }
+    }
+
+    /**
+     * Adds a new credit card to the index.
+     * @param cardNumber Card number of the new card.
+     * @param balance Starting balance of the card.
+     * @param creditLimit Credit limit of the card.
+     */
+    void register(final long cardNumber, final double balance, final double creditLimit) {
+        balances.put(cardNumber, new AtomicReference<>(new CreditCardLogEntry(0L, null, cardNumber, null,
+                0, balance)));
+        availableCreditCents.addAndGet(toCents(balance));
+        creditLimitCents.addAndGet(toCents(creditLimit));
+    }
+
+    /**
+     * Fetches the current balance of a credit card.
+     * @param cardNumber Card number of the card.
+     * @return Balance of the card, or null if the card does not exist.
+     */
+    Double getBalance(final long cardNumber) {
+        AtomicReference<CreditCardLogEntry> balance = balances.get(cardNumber);
+        if (balance == null) {
+            return null;
+        }
+        return balance.get().getNewBalance();
+    }
+
+    /**
+     * Takes an amount from the balance of a credit card if the balance is high enough.
+     * @param cardNumber Card number of the card.
+     * @param date Date of the transaction.
+     * @param accountTo Account the money is transferred to.
+     * @param amount Amount that should be taken from the card.
+     * @return The log entry of the payment, or null if the card does not exist or the balance is too low.
+     */
+    CreditCardLogEntry withdraw(final long cardNumber, final LocalDate date, final String accountTo,
+                                final double amount) {
+        AtomicReference<CreditCardLogEntry> balance = balances.get(cardNumber);
+        if (balance == null) {
+            return null;
+        }
+        while (true) {
+            CreditCardLogEntry current = balance.get();
+            // the id is taken after reading the current entry, so the newest entry of a card has the highest id
+            if (current.getNewBalance() < amount) {
+                return null;
+            }
+            CreditCardLogEntry next = new CreditCardLogEntry(nextId.getAndIncrement(), date, cardNumber, accountTo,
+                    amount, current.getNewBalance() - amount);
+            if (balance.compareAndSet(current, next)) {
+                balanceChanged(current, next);
+                transactionLog.append(next);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Adds an amount to the balance of a credit card.
+     * @param cardNumber Card number of the card.
+     * @param date Date of the refill.
+     * @param accountFrom Account the refill was paid from.
+     * @param amount Amount that should be added to the card.
+     * @return The log entry of the refill, or null if the card does not exist.
+     */
+    CreditCardLogEntry refill(final long cardNumber, final LocalDate date, final String accountFrom,
+                              final double amount) {
+        AtomicReference<CreditCardLogEntry> balance = balances.get(cardNumber);
+        if (balance == null) {
+            return null;
+        }
+        while (true) {
+            CreditCardLogEntry current = balance.get();
+            CreditCardLogEntry next = new CreditCardLogEntry(nextId.getAndIncrement(), date, cardNumber, accountFrom,
+                    -amount, current.getNewBalance() + amount);
+            if (balance.compareAndSet(current, next)) {
+                balanceChanged(current, next);
+                transactionLog.append(next);
+                return next;
+            }
+        }
+    }
+
+    private void balanceChanged(final CreditCardLogEntry previous, final CreditCardLogEntry next) {
+        availableCreditCents.addAndGet(toCents(next.getNewBalance()) - toCents(previous.getNewBalance()));
+    }
+
+    private static long toCents(final double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Replaces the total credit limit with the total of the credit_cards table, drift is logged.
+     * @throws SQLException Thrown when the credit limits could not be read from the database.
+     */
+    void reconcile() throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        try (PreparedStatement getLimits = connection.getConnection()
+                .prepareStatement(SQLStatements.getCreditCardLimits);
+             ResultSet limits = getLimits.executeQuery()) {
+            if (limits.next()) {
+                long creditLimit = toCents(limits.getDouble(2));
+                long drift = Math.abs(creditLimitCents.getAndSet(creditLimit) - creditLimit);
+                if (drift > 0 || limits.getLong(1) != balances.size()) {
+                    Log.warn(PREFIX, "Reconciled the credit card statistics, the credit limit was off by %d cents "
+                            + "and %d cards are known of the %d in the database.", drift, balances.size(),
+                            limits.getLong(1));
+                }
+            }
+        } finally {
+            databaseConnectionPool.returnConnection(connection);
+        }
+    }
+
+    /**
+     * Returns the totals of all credit cards.
+     * @return The totals by name, amounts in euros.
+     */
+    Map<String, Object> getStatistics() {
+        long creditLimit = creditLimitCents.get();
+        long usedCredit = creditLimit - availableCreditCents.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("creditCards", (long) balances.size());
+        statistics.put("totalCreditLimit", creditLimit / 100.0);
+        statistics.put("usedCredit", usedCredit / 100.0);
+        statistics.put("creditUtilisation", creditLimit == 0 ? 0.0 : (double) usedCredit / creditLimit);
+        return statistics;
+    }
+}
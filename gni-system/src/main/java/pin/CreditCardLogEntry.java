@@ -0,0 +1,59 @@
+package pin;
+
+import java.time.LocalDate;
+
+/**
+ * @author Noel
+ * @version 1
+ * Immutable row of the credit_card_transactions table. Payments are stored with a positive amount, refills of the
+ * credit card are stored with a negative amount and the account the refill was paid from as destination. The
+ * newest entry of a card always contains the current balance of the card.
+ */
+class CreditCardLogEntry {
+    /** Id of the entry in the credit_card_transactions table. */
+    private final long id;
+    /** Date on which the transaction was made. */
+    private final LocalDate date;
+    /** Card number of the credit card. */
+    private final long cardNumber;
+    /** Account the money was transferred to, or the account the refill was paid from. */
+    private final String accountTo;
+    /** Amount that was taken from the credit card, negative for refills. */
+    private final double amount;
+    /** Balance of the credit card after the transaction. */
+    private final double newBalance;
+
+    CreditCardLogEntry(final long id, final LocalDate date, final long cardNumber, final String accountTo,
+                       final double amount, final double newBalance) {
+        this.id = id;
+        this.date = date;
+        this.cardNumber = cardNumber;
+        this.accountTo = accountTo;
+        this.amount = amount;
+        this.newBalance = newBalance;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    LocalDate getDate() {
+        return date;
+    }
+
+    long getCardNumber() {
+        return cardNumber;
+    }
+
+    String getAccountTo() {
+        return accountTo;
+    }
+
+    double getAmount() {
+        return amount;
+    }
+
+    double getNewBalance() {
+        return newBalance;
+    }
+}
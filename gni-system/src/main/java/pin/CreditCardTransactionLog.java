@@ -0,0 +1,142 @@
+package pin;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import util.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Noel
+ * @version 1
+ * Appends credit card transactions to the credit_card_transactions table in the background. Entries are queued by
+ * the authorization path and written by a single thread in batches of at most BATCH_SIZE rows, each batch in one
+ * database transaction. Batches that fail are retried until they are written.
+ */
+class CreditCardTransactionLog {
+    /** Maximum amount of entries that are written in a single database transaction. */
+    static final int BATCH_SIZE = 500;
+    /** Time in milliseconds the writer waits for new entries before checking the queue again. */
+    private static final long POLL_INTERVAL = 100L;
+    /** Time in milliseconds the writer waits before retrying a batch that could not be written. */
+    private static final long RETRY_INTERVAL = 1000L;
+    /** Prefix used when printing to indicate the message is coming from the PIN Service. */
+    private static final String PREFIX = "[PIN]                 :";
+    /** Database connection pool containing persistent database connections. */
+    private final ConnectionPool databaseConnectionPool;
+    /** Entries that still need to be written to the database. */
+    private final LinkedBlockingQueue<CreditCardLogEntry> queue;
+
+    /**
+     * Creates the log and starts the thread that writes queued entries to the database.
+     * @param newDatabaseConnectionPool Pool used to write the entries to the database.
+     */
+    CreditCardTransactionLog(final ConnectionPool newDatabaseConnectionPool) {
+        this.databaseConnectionPool = newDatabaseConnectionPool;
+        this.queue = new LinkedBlockingQueue<>();
+        Thread writer = new Thread(this::writeEntries, "credit-card-transaction-log");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    /**
+     * Queues an entry to be written to the database.
+     * @param entry Entry that should be written.
+     */
+    void append(final CreditCardLogEntry entry) {
+        queue.add(entry);
+    }
+
+    /**
+     * Drops all entries that have not been written yet, used when the database has been truncated.
+     */
+    void clear() {
+        queue.clear();
+    }
+
+    /**
+     * Writes all queued entries to the database on the calling thread.
+     */
+    private void flush() {
+        List<CreditCardLogEntry> batch = new LinkedList<>();
+        queue.drainTo(batch);
+        try {
+            writeBatch(batch);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            Log.warn(PREFIX, "Could not write %d credit card transactions on shutdown.", batch.size());
+        }
+    }
+
+    private void writeEntries() {
+        List<CreditCardLogEntry> batch = new LinkedList<>();
+        while (true) {
+            try {
+                if (batch.isEmpty()) {
+                    CreditCardLogEntry first = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                }
+                writeBatch(batch);
+                batch.clear();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                Log.warn(PREFIX, "Could not write %d credit card transactions, retrying.",
+                        batch.size());
+                try {
+                    Thread.sleep(RETRY_INTERVAL);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of entries to the database in a single database transaction.
+     * @param batch Entries that should be written, in the order they were appended.
+     * @throws SQLException Thrown when the batch could not be written, in this case none of the entries are written.
+     */
+    void writeBatch(final List<CreditCardLogEntry> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        Connection con = connection.getConnection();
+        PreparedStatement ps = con.prepareStatement(SQLStatements.addCreditCardTransaction);
+        try {
+            con.setAutoCommit(false);
+            for (CreditCardLogEntry entry : batch) {
+                ps.setLong(1, entry.getId());
+                ps.setDate(2, java.sql.Date.valueOf(entry.getDate()));
+                ps.setLong(3, entry.getCardNumber());
+                ps.setString(4, entry.getAccountTo());
+                ps.setDouble(5, entry.getAmount());
+                ps.setDouble(6, entry.getNewBalance());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+            ps.close();
+            databaseConnectionPool.returnConnection(connection);
+        }
+    }
+}
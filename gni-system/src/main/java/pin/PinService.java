@@ -3,17 +3,21 @@ package pin;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import database.ConnectionPool;
+import database.DatabaseExecutor;
 import database.SQLConnection;
 import database.SQLStatements;
 import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
+import io.advantageous.qbit.http.request.HttpTextReceiver;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import api.IncorrectInputException;
+import util.ApiCacheInvalidator;
 import util.JSONParser;
+import util.Log;
+import util.ServiceTransport;
 
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
@@ -27,7 +31,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import static database.SQLStatements.*;
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -39,19 +42,27 @@ import static java.net.HttpURLConnection.HTTP_OK;
 @RequestMapping("/pin")
 class PinService {
     /** Connection to the Transaction Dispatch Service.*/
-    private HttpClient transactionDispatchClient;
+    private ServiceTransport transactionDispatchClient;
     /** Connection to the Transaction Receive Service.*/
-    private HttpClient transactionReceiveClient;
+    private ServiceTransport transactionReceiveClient;
     /** Connection to the System Information Service.*/
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
     /** Database connection pool containing persistent database connections. */
     private ConnectionPool databaseConnectionPool;
+    /** Executes the database work of the requests, card and credit card creation is executed serially. */
+    private DatabaseExecutor databaseExecutor;
+    /** In memory copy of all pin cards, used to authorize pin and ATM transactions without database reads. */
+    private CardStateCache cardStateCache;
+    /** In memory balances of all credit cards, changes are appended to the credit card transaction log. */
+    private CreditCardBalances creditCardBalances;
+    /** Notifies the api when credit card balances change. */
+    private ApiCacheInvalidator apiCacheInvalidator;
     /** Used for Json conversions. */
     private Gson jsonConverter;
     /** Prefix used when printing to indicate the message is coming from the PIN Service. */
     private static final String PREFIX = "[PIN]                 :";
     /** Used to set how long a pin card is valid. */
-    private int CARD_EXPIRATION_LENGTH = 5;
+    private volatile int CARD_EXPIRATION_LENGTH = 5;
     /** Used to check if a transaction without a pincode is authorized. */
     private static final int CONTACTLESS_TRANSACTION_LIMIT = 25;
     /** Used to check if accountNumber are of the correct length. */
@@ -59,13 +70,15 @@ class PinService {
     /** Account number where fees are transferred to. */
     private static final String GNI_ACCOUNT = "NL52GNIB3676451168";
     /** Credit card fee. */
-    private double CREDIT_CARD_MONTHLY_FEE = 5.00;
+    private volatile double CREDIT_CARD_MONTHLY_FEE = 5.00;
     /** Credit card limit. */
-    private double CREDIT_CARD_DEFAULT_CREDIT = 1000;
+    private volatile double CREDIT_CARD_DEFAULT_CREDIT = 1000;
     /** Fee for a new card. */
-    private double NEW_CARD_COST = 7.50;
+    private volatile double NEW_CARD_COST = 7.50;
     /** Amount of allowed failed attempts */
-    private int CARD_USAGE_ATTEMPTS = 3;
+    private volatile int CARD_USAGE_ATTEMPTS = 3;
+    /** Maximum amount of credit cards that are refilled or charged in a single ledger request. */
+    private static final int CARD_BATCH_SIZE = 500;
 
 
     /**
@@ -77,10 +90,25 @@ class PinService {
      */
     PinService(final int servicePort, final String serviceHost,
                       final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.databaseConnectionPool = new ConnectionPool();
+        this.databaseExecutor = new DatabaseExecutor("Pin");
+        this.apiCacheInvalidator = new ApiCacheInvalidator(PREFIX);
         this.jsonConverter = new Gson();
+        this.cardStateCache = new CardStateCache(databaseConnectionPool);
+        this.creditCardBalances = new CreditCardBalances(databaseConnectionPool,
+                new CreditCardTransactionLog(databaseConnectionPool));
+        try {
+            cardStateCache.load();
+            creditCardBalances.load();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.err.println("Could not load the cards from the pin database.");
+            System.err.println("Shutting down the Pin service.");
+            System.exit(1);
+        }
+        databaseExecutor.executeDaily(this::reconcileStatistics);
         sendServiceInformation(servicePort, serviceHost);
     }
 
@@ -91,7 +119,7 @@ class PinService {
      */
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(servicePort, serviceHost, ServiceType.PIN_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -116,12 +144,11 @@ class PinService {
         ServiceInformation transactionIn = sysInfo.getTransactionReceiveServiceInformation();
         ServiceInformation transactionOut = sysInfo.getTransactionDispatchServiceInformation();
 
-        this.transactionReceiveClient = httpClientBuilder().setHost(transactionIn.getServiceHost())
-                .setPort(transactionIn.getServicePort()).buildAndStart();
-        this.transactionDispatchClient = httpClientBuilder().setHost(transactionOut.getServiceHost())
-                .setPort(transactionOut.getServicePort()).buildAndStart();
+        this.transactionReceiveClient = ServiceTransport.connect(transactionIn.getServiceHost(), transactionIn.getServicePort());
+        this.transactionDispatchClient = ServiceTransport.connect(transactionOut.getServiceHost(), transactionOut.getServicePort());
+        apiCacheInvalidator.connect(sysInfo.getApiServiceInformation());
 
-        System.out.printf("%s Initialization of Pin service connections complete.\n", PREFIX);
+        Log.info(PREFIX, "Initialization of Pin service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -134,9 +161,10 @@ class PinService {
     @RequestMapping(value = "/transaction", method = RequestMethod.PUT)
     public void processPinTransaction(final Callback<String> callback,
                                       final @RequestParam("request") String pinTransactionRequestJson) {
-        System.out.printf("%s Received new Pin transaction from a customer.\n", PREFIX);
+        Log.debug(PREFIX, "Received new Pin transaction from a customer.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handlePinExceptions(pinTransactionRequestJson, callbackBuilder);
+        databaseExecutor.execute(callbackBuilder, () ->
+                handlePinExceptions(pinTransactionRequestJson, callbackBuilder));
 
     }
 
@@ -149,11 +177,11 @@ class PinService {
     private void handlePinExceptions(final String pinTransactionRequestJson, final CallbackBuilder callbackBuilder) {
         try {
             PinTransaction request = jsonConverter.fromJson(pinTransactionRequestJson, PinTransaction.class);
-            if (checkIfFrozen(request.getSourceAccountNumber())) {
+            if (cardStateCache.isAccountFrozen(request.getSourceAccountNumber())) {
                 throw new AccountFrozenException(
                         "User has no authorization to do this as long as the account is frozen.");
             }
-            if (checkIfFrozen(request.getDestinationAccountNumber())) {
+            if (cardStateCache.isAccountFrozen(request.getDestinationAccountNumber())) {
                 throw new AccountFrozenException(
                         "The provided destination account has been frozen and can't receive transactions.");
             }
@@ -191,10 +219,6 @@ class PinService {
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                     .createMessageWrapper(true, 500, "Unknown error occurred.",
                             "Invalid json specification.")));
-        } catch (CardDeactivatedException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
-                    .createMessageWrapper(true, 421, e.getMessage(),
-                            "The pin card used has been permanently deactivated.")));
         } catch (AccountFrozenException e) {
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.
                     createMessageWrapper(true, 419,
@@ -202,23 +226,6 @@ class PinService {
         }
     }
 
-    private boolean checkIfFrozen(final String accNr) throws SQLException {
-        SQLConnection con = databaseConnectionPool.getConnection();
-        PreparedStatement ps = con.getConnection().prepareStatement(SQLStatements.getFrozenPinAccounts);
-        ps.setString(1, accNr);
-        ResultSet rs = ps.executeQuery();
-
-        boolean res = false;
-        if (rs.next()) {
-            res = true;
-        }
-
-        ps.close();
-        databaseConnectionPool.returnConnection(con);
-        return res;
-    }
-
-
     private CreditCard getCreditCardData(final Long creditCardNumber) throws SQLException, IncorrectInputException {
         SQLConnection connection = databaseConnectionPool.getConnection();
         PreparedStatement getCreditCardInfo = connection.getConnection()
@@ -231,7 +238,7 @@ class PinService {
             creditCard.setAccountNumber(cardInfo.getString("account_number"));
             creditCard.setPinCode(cardInfo.getString("pin_code"));
             creditCard.setLimit(cardInfo.getDouble("credit_limit"));
-            creditCard.setBalance(cardInfo.getDouble("balance"));
+            creditCard.setBalance(creditCardBalances.getBalance(creditCardNumber));
             creditCard.setFee(cardInfo.getDouble("card_fee"));
             creditCard.setActivationDate(cardInfo.getDate("active_from").toLocalDate());
             creditCard.setActive(cardInfo.getBoolean("active"));
@@ -264,19 +271,17 @@ class PinService {
     }
 
     /**
-     * Fetches card information for the card used in the transaction from the database, then checks if there is money
-     * taken from or written to this account, if the pincode is correct, and if the card is still valid.
+     * Fetches the state of the card used in the transaction from the card cache, then checks if there is money
+     * taken from or written to the account of the card, if the pincode is correct, and if the card is still valid.
      * @param pinTransaction Pin transaction that needs to be authorized.
      * @param callbackBuilder Used to send the result of the request to the requester.
-     * @throws SQLException Thrown when the database cannot be reached, will cause a rejection of the transaction.
      * @throws CardBlockedException Thrown when the card used in the transaction is blocked.
-     * @throws IncorrectPinException Thrown when the pincode used in the transaction is incorrect.
-     * @throws CardExpiredException Thrown when the card used in the transaction is expired.
+     * @throws IncorrectPinException Thrown when the card used does not exist or does not belong to the accounts used.
      * @throws IncorrectInputException Thrown when a field is incorrectly specified.
      */
     void getATMTransactionAuthorization(final PinTransaction pinTransaction,
-                                        final CallbackBuilder callbackBuilder) throws SQLException,
-            CardBlockedException, IncorrectPinException, CardExpiredException, IncorrectInputException {
+                                        final CallbackBuilder callbackBuilder) throws CardBlockedException,
+                                        IncorrectPinException, IncorrectInputException {
         if (pinTransaction.getTransactionAmount() < 0
                 || pinTransaction.getSourceAccountNumber().equals(pinTransaction.getDestinationAccountNumber())
                 || pinTransaction.getSourceAccountNumber().length() != accountNumberLength
@@ -284,79 +289,47 @@ class PinService {
             throw new IncorrectInputException(
                     "The transaction amount or source/destination accountNumbers were incorrectly specified.");
         }
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement getCardInfo = databaseConnection.getConnection().prepareStatement(SQLStatements.getPinCard);
-        getCardInfo.setLong(1, pinTransaction.getCardNumber());
-        ResultSet cardInfo = getCardInfo.executeQuery();
-        if (cardInfo.next()) {
-            String accountNumberLinkedToCard = cardInfo.getString("account_number");
-            Long incorrectAttempts = cardInfo.getLong("incorrect_attempts");
-            PinCard pinCard = new PinCard(accountNumberLinkedToCard, pinTransaction.getCardNumber(),
-                    cardInfo.getString("pin_code"),
-                    getCustomerIdFromCardNumber(pinTransaction.getCardNumber()),
-                    cardInfo.getDate("expiration_date").toLocalDate(),
-                    cardInfo.getBoolean("active"));
-            if (accountNumberLinkedToCard.equals(pinTransaction.getDestinationAccountNumber())
-                    || accountNumberLinkedToCard.equals(pinTransaction.getSourceAccountNumber())) {
-                if (!pinTransaction.getSourceAccountNumber().equals(pinTransaction.getDestinationAccountNumber())) {
-                    if (incorrectAttempts < CARD_USAGE_ATTEMPTS) {
-                        checkPinValidity(pinCard, pinTransaction, true, callbackBuilder);
-                    }  else {
-                        throw new CardBlockedException("The card used is blocked.");
-                    }
-                } else {
-                    getCardInfo.close();
-                    databaseConnectionPool.returnConnection(databaseConnection);
-                    throw new IncorrectInputException(
-                            "The source and destination accountNumbers are not allowed to be equal.");
-                }
-            } else {
-                getCardInfo.close();
-                databaseConnectionPool.returnConnection(databaseConnection);
-                throw new IncorrectPinException(
-                        "The pin card used did not belong to one of the accountNumbers used in the transaction.");
-            }
-        } else {
-            getCardInfo.close();
-            databaseConnectionPool.returnConnection(databaseConnection);
-            incrementIncorrectAttempts(pinTransaction.getCardNumber(), false);
+        CardState card = cardStateCache.get(pinTransaction.getCardNumber());
+        if (card == null) {
             throw new IncorrectPinException("Pin card does not exist.");
         }
-        getCardInfo.close();
-        databaseConnectionPool.returnConnection(databaseConnection);
+        if (!card.getAccountNumber().equals(pinTransaction.getDestinationAccountNumber())
+                && !card.getAccountNumber().equals(pinTransaction.getSourceAccountNumber())) {
+            throw new IncorrectPinException(
+                    "The pin card used did not belong to one of the accountNumbers used in the transaction.");
+        }
+        if (card.isBlocked(CARD_USAGE_ATTEMPTS)) {
+            throw new CardBlockedException("The card used is blocked.");
+        }
+        checkPinValidity(card, pinTransaction, true, callbackBuilder);
     }
 
     /**
-     * Checks if the pin card used is not blocked or expired and if the pinCode used is correct.
-     * @param callbackBuilder Used to send rejections to the requester if the request fails.
+     * Checks if the pin card used is not expired and if the pinCode used is correct. The system date is fetched
+     * first, the checks run on the database executor because incorrect attempts are written to the database.
+     * @param card State of the card used in the transaction.
      * @param pinTransaction Transaction that this card is used for.
-     * @throws SQLException Thrown when a database error occurs.
-     * @throws IncorrectInputException Thrown when the card cannot be unblocked due to an incorrect input.
+     * @param isATM Indicates if the transaction is an ATM withdrawal/deposit.
+     * @param callbackBuilder Used to send rejections to the requester if the request fails.
      */
-    private void checkPinValidity(final PinCard pinCard, final PinTransaction pinTransaction, final boolean isATM,
-                                  final CallbackBuilder callbackBuilder) throws SQLException, IncorrectInputException {
+    private void checkPinValidity(final CardState card, final PinTransaction pinTransaction, final boolean isATM,
+                                  final CallbackBuilder callbackBuilder) {
         systemInformationClient.getAsync("/services/systemInfo/date",
-            (httpStatusCode, contentType, body) -> {
+            (httpStatusCode, contentType, body) -> databaseExecutor.execute(callbackBuilder, () -> {
                 if (httpStatusCode == HTTP_OK) {
                     MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser
                             .removeEscapeCharacters(body), MessageWrapper.class);
                     if (!messageWrapper.isError()) {
-                        if (pinCard.isActive()) {
+                        if (card.isActive()) {
                             LocalDate systemDate = (LocalDate) messageWrapper.getData();
-                            if (pinCard.getExpirationDate().isAfter(systemDate)) {
+                            if (card.getExpirationDate().isAfter(systemDate)) {
                                 try {
-                                    if (pinCard.getPinCode().equals(pinTransaction.getPinCode())) {
-                                        try {
-                                            // reset the count
-                                            unblockCard(pinCard.getCardNumber(), pinCard.getAccountNumber(), false);
-                                        } catch (NoEffectException e) {
-                                            // do nothing
-                                        }
-                                        if (pinCard.getAccountNumber().equals(pinTransaction.getSourceAccountNumber())) {
+                                    if (checkPinCode(card, pinTransaction.getPinCode())) {
+                                        if (card.getAccountNumber().equals(pinTransaction.getSourceAccountNumber())) {
                                             if (isATM) {
                                                 Transaction transaction = createATMTransaction(pinTransaction,
-                                                        pinCard.getAccountNumber());
-                                                doTransactionRequest(transaction, pinCard.getCustomerId(), callbackBuilder);
+                                                        card.getAccountNumber());
+                                                doTransactionRequest(transaction, card.getCustomerId(), callbackBuilder);
                                             } else {
                                                 Transaction transaction = JSONParser.createJsonTransaction(-1,
                                                         pinTransaction.getSourceAccountNumber(),
@@ -365,30 +338,29 @@ class PinService {
                                                         "PIN Transaction card #" + pinTransaction.getCardNumber(),
                                                         pinTransaction.getTransactionAmount(), false,
                                                         false);
-                                                doTransactionRequest(transaction, pinCard.getCustomerId(), callbackBuilder);
+                                                doTransactionRequest(transaction, card.getCustomerId(), callbackBuilder);
                                             }
                                         } else {
                                             Transaction transaction = createATMTransaction(pinTransaction,
-                                                    pinCard.getAccountNumber());
+                                                    card.getAccountNumber());
                                             doDepositTransactionRequest(transaction, callbackBuilder);
                                         }
                                     } else {
-                                        incrementIncorrectAttempts(pinTransaction.getCardNumber(), false);
                                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                                                 .createMessageWrapper(true, 421,
                                                         "The pin code used is incorrect.",
                                                         "An invalid PINcard, -code or -combination was used.")));
                                     }
+                                } catch (CardBlockedException e) {
+                                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
+                                            .createMessageWrapper(true, 419, e.getMessage(),
+                                                    "The pin card used does not have the authorization to perform "
+                                                            + "this request.")));
                                 } catch (SQLException e) {
                                     e.printStackTrace();
                                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                                             .createMessageWrapper(true, 500,
                                                     "Error connecting to the pin database.")));
-                                } catch (IncorrectInputException e) {
-                                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
-                                            .createMessageWrapper(true, 421, e.getMessage(),
-                                                    "A field was incorrectly specified,"
-                                                            + " or not specified at all, see message.")));
                                 }
                             } else {
                                 callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
@@ -411,72 +383,79 @@ class PinService {
                                     "An unknown error occurred.",
                                     "There was a problem with one of the HTTP requests")));
                 }
-            });
+            }));
     }
 
     /**
-     * Increments the amount of incorrect pin code attempts in the database.
+     * Compares the pin code used with the pin code of the card. An attempt is reserved for the comparison only, so
+     * concurrent incorrect guesses can not use more attempts than allowed while transactions with the correct pin
+     * code are not held up by each other.
+     * @param card State of the card used in the transaction.
+     * @param pinCode Pin code used in the transaction, can be null.
+     * @return True if the pin code is correct, the incorrect attempts of the card are reset then.
+     * @throws CardBlockedException Thrown when the card is blocked.
+     * @throws SQLException Thrown when the attempt could not be written to the database.
+     */
+    private boolean checkPinCode(final CardState card, final String pinCode)
+            throws CardBlockedException, SQLException {
+        if (!card.reserveAttempt(CARD_USAGE_ATTEMPTS)) {
+            throw new CardBlockedException("The card used is blocked.");
+        }
+        if (card.pinMatches(pinCode)) {
+            card.releaseAttempt();
+            cardStateCache.resetIncorrectAttempts(card);
+            return true;
+        }
+        cardStateCache.persistIncorrectAttempt(card);
+        return false;
+    }
+
+    /**
+     * Increments the amount of incorrect pin code attempts of a credit card in the database, incorrect attempts for
+     * pin cards are counted by the {@link CardStateCache}.
      * @param cardNumber Cardnumber to increment the amount of incorrect attempts for.
-     * @param isCreditCard boolean indicating if the increment statement is for a credit card or a pin card.
      * @throws SQLException Thrown when there is an error connecting to the database.
      */
-    private void incrementIncorrectAttempts(final Long cardNumber, boolean isCreditCard) throws SQLException {
+    private void incrementIncorrectCreditCardAttempts(final Long cardNumber) throws SQLException {
         SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement incrementStatement;
-        if (isCreditCard) {
-            incrementStatement = databaseConnection.getConnection()
-                    .prepareStatement(SQLStatements.incrementIncorrectCreditCardAttempts);
-        } else {
-            incrementStatement = databaseConnection.getConnection()
-                    .prepareStatement(SQLStatements.incrementIncorrectPinCardAttempts);
-        }
-
+        PreparedStatement incrementStatement = databaseConnection.getConnection()
+                .prepareStatement(SQLStatements.incrementIncorrectCreditCardAttempts);
         incrementStatement.setLong(1, cardNumber);
         incrementStatement.execute();
+        incrementStatement.close();
         databaseConnectionPool.returnConnection(databaseConnection);
     }
 
     /**
-     * Fetches the customerId of the customer the card belongs to if the card number and pin code are correct and
-     * belong to a customer, otherwise throws an IncorrectPinException.
+     * Fetches the customerId of the customer the card belongs to from the card cache, if the card does not exist
+     * throws an IncorrectInputException.
      * @param cardNumber Card number of the card used.
      * @return CustomerId of the owner of the card.
-     * @throws SQLException Thrown when a database issue occurs.
-     * @throws IncorrectInputException Thrown when the cardNumber does not return a pin card.
+     * @throws IncorrectInputException Thrown when the cardNumber does not belong to a pin card.
      */
-    Long getCustomerIdFromCardNumber(final Long cardNumber) throws SQLException, IncorrectInputException {
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement getCustomerId = databaseConnection.getConnection().prepareStatement(SQLStatements
-                                                                                .getCustomerIdFromCardNumber);
-        getCustomerId.setLong(1, cardNumber);
-        ResultSet fetchedCustomerId = getCustomerId.executeQuery();
-        if (fetchedCustomerId.next()) {
-            Long customerId = fetchedCustomerId.getLong(1);
-            getCustomerId.close();
-            databaseConnectionPool.returnConnection(databaseConnection);
-            return customerId;
-        } else {
-            getCustomerId.close();
-            databaseConnectionPool.returnConnection(databaseConnection);
+    Long getCustomerIdFromCardNumber(final Long cardNumber) throws IncorrectInputException {
+        CardState card = cardStateCache.get(cardNumber);
+        if (card == null) {
             throw new IncorrectInputException("There does not exist a customer with this cardnumber.");
         }
+        return card.getCustomerId();
     }
 
     /**
      * Checks if the source account number of the transaction matches the account number of the card that was used and
-     * if the pin code for the card was correct/the card is not expired.
+     * if the pin code for the card was correct/the card is not expired. The card is fetched from the card cache, so
+     * the database is only used to register incorrect attempts.
      * @param pinTransaction PinTransaction that should be authorized.
-     * @throws SQLException Thrown when the database cannot be reached, will cause a rejection of the transaction.
-     * @throws CardBlockedException Thrown when the card used in the transaction is blocked.
-     * @throws IncorrectPinException Thrown when the pin code used in the transaction is incorrect.
-     * @throws CardExpiredException Thrown when the card used in the transaction is expired.
+     * @param callbackBuilder Used to send the result of the request to the requester.
+     * @throws SQLException Thrown when an incorrect attempt could not be registered in the database.
      * @throws IncorrectInputException Thrown when a field is incorrectly specified.
-     * @throws CardDeactivatedException Thrown when the card has previously been permanently deactivated.
+     * @throws IncorrectPinException Thrown when the card does not belong to the source account, or when no pin code is
+     * used for an amount that requires one.
+     * @throws CardBlockedException Thrown when the card used in the transaction is blocked.
      */
     void getPinTransactionAuthorization(final PinTransaction pinTransaction,
                                         final CallbackBuilder callbackBuilder) throws SQLException,
-                                        CardExpiredException, IncorrectInputException, IncorrectPinException,
-                                        CardBlockedException, CardDeactivatedException {
+                                        IncorrectInputException, IncorrectPinException, CardBlockedException {
         if (pinTransaction.getTransactionAmount() < 0
                 || pinTransaction.getSourceAccountNumber().equals(pinTransaction.getDestinationAccountNumber())
                 || pinTransaction.getSourceAccountNumber().length() != accountNumberLength
@@ -484,87 +463,44 @@ class PinService {
             throw new IncorrectInputException(
                     "The transaction amount or source/destination accountNumbers were incorrectly specified.");
         }
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement getCardInfo = databaseConnection.getConnection()
-                                                    .prepareStatement(SQLStatements.getPinCard);
-        getCardInfo.setLong(1, pinTransaction.getCardNumber());
-        ResultSet cardInfo = getCardInfo.executeQuery();
-        if (cardInfo.next()) {
-            final String pinCodeUsed = pinTransaction.getPinCode();
-            String accountNumberLinkedToCard = cardInfo.getString("account_number");
-            Long incorrectAttempts = cardInfo.getLong("incorrect_attempts");
-            PinCard pinCard = new PinCard(accountNumberLinkedToCard, pinTransaction.getCardNumber(),
-                    cardInfo.getString("pin_code"),
-                    getCustomerIdFromCardNumber(pinTransaction.getCardNumber()),
-                    cardInfo.getDate("expiration_date").toLocalDate(),
-                    cardInfo.getBoolean("active"));
-            if (pinTransaction.getSourceAccountNumber().equals(accountNumberLinkedToCard)) {
-                if (incorrectAttempts < CARD_USAGE_ATTEMPTS) {
-                    if (pinCodeUsed == null) {
-                        if (pinTransaction.getTransactionAmount() < CONTACTLESS_TRANSACTION_LIMIT) {
-                            checkPinValidity(pinCard, pinTransaction, false, callbackBuilder);
-                        } else {
-                            getCardInfo.close();
-                            databaseConnectionPool.returnConnection(databaseConnection);
-                            throw new IncorrectPinException(
-                                    "The transfer amount is too high, please enter pin code.");
-                        }
-                    } else if (pinCodeUsed.equals(pinCard.getPinCode())) {
-                        checkPinValidity(pinCard, pinTransaction, false, callbackBuilder);
-                    } else {
-                        getCardInfo.close();
-                        databaseConnectionPool.returnConnection(databaseConnection);
-                        incrementIncorrectAttempts(pinCard.getCardNumber(), false);
-                        throw new IncorrectPinException("The pin code used was incorrect.");
-                    }
-                } else {
-                    getCardInfo.close();
-                    databaseConnectionPool.returnConnection(databaseConnection);
-                    throw new CardBlockedException("The card used is blocked.");
-                }
-            } else {
-                getCardInfo.close();
-                databaseConnectionPool.returnConnection(databaseConnection);
-                incrementIncorrectAttempts(pinTransaction.getCardNumber(), false);
-                throw new IncorrectPinException("Pin card does not belong to accountNumber used in the transaction.");
-            }
-        } else {
-            getCardInfo.close();
-            databaseConnectionPool.returnConnection(databaseConnection);
-            incrementIncorrectAttempts(pinTransaction.getCardNumber(), false);
+        CardState card = cardStateCache.get(pinTransaction.getCardNumber());
+        if (card == null) {
             throw new IncorrectPinException("Pin card does not exist.");
         }
-        getCardInfo.close();
-        databaseConnectionPool.returnConnection(databaseConnection);
+        if (!pinTransaction.getSourceAccountNumber().equals(card.getAccountNumber())) {
+            cardStateCache.registerIncorrectAttempt(card);
+            throw new IncorrectPinException("Pin card does not belong to accountNumber used in the transaction.");
+        }
+        if (card.isBlocked(CARD_USAGE_ATTEMPTS)) {
+            throw new CardBlockedException("The card used is blocked.");
+        }
+        if (pinTransaction.getPinCode() == null
+                && pinTransaction.getTransactionAmount() >= CONTACTLESS_TRANSACTION_LIMIT) {
+            throw new IncorrectPinException("The transfer amount is too high, please enter pin code.");
+        }
+        checkPinValidity(card, pinTransaction, false, callbackBuilder);
     }
 
     /**
-     * Fetches the accountNumber linked to a card from the pin database.
+     * Fetches the accountNumber linked to a card from the card cache.
      * @param cardNumber CardNumber to fetch the linked accountNumber for.
      * @return AccountNumber linked to the card with given cardNumber.
-     * @throws SQLException Thrown when the datbase cannot be reached, will cause a rejection of the transaction the
-     * request is for.
-     * @throws IncorrectPinException Thrown when there is no accountNumber for the given cardNumber in the database,
+     * @throws IncorrectPinException Thrown when there is no accountNumber for the given cardNumber,
      * will cause a rejection of the transaction the request is for.
      */
-    String getAccountNumberWithCardNumber(final Long cardNumber) throws SQLException, IncorrectPinException {
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement getAccountNumber = databaseConnection.getConnection()
-                                                    .prepareStatement(SQLStatements.getAccountNumberUsingCardNumber);
-        getAccountNumber.setLong(1, cardNumber);
-        ResultSet accountNumberResult = getAccountNumber.executeQuery();
-        if (accountNumberResult.next()) {
-            return accountNumberResult.getString("account_number");
-        } else {
+    String getAccountNumberWithCardNumber(final Long cardNumber) throws IncorrectPinException {
+        CardState card = cardStateCache.get(cardNumber);
+        if (card == null) {
             throw new IncorrectPinException("There does not exist an accountNumber for this pin card in the database.");
         }
+        return card.getAccountNumber();
     }
 
     private void getCreditCardTransactionAuthorization(final PinTransaction pinTransaction, final CreditCard creditCard,
                                                        final CallbackBuilder callbackBuilder)
             throws SQLException, IncorrectPinException, CardExpiredException, CardBlockedException {
         systemInformationClient.getAsync("/services/systemInfo/date",
-                (httpStatusCode, contentType, body) -> {
+                (httpStatusCode, contentType, body) -> databaseExecutor.execute(callbackBuilder, () -> {
             if (httpStatusCode == HTTP_OK) {
                 MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser
                         .removeEscapeCharacters(body), MessageWrapper.class);
@@ -576,20 +512,20 @@ class PinService {
                     }
                     if (systemDate.isBefore(creditCard.getActivationDate())
                             || !creditCard.isActive()) {
-                        System.out.printf("%s Card is inactive, sending callback.\n", PREFIX);
+                        Log.debug(PREFIX, "Card is inactive, sending callback.");
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                                 .createMessageWrapper(true, 421,
                                         "The card used is not active.",
                                         "The credit card used is not active yet or expired.")));
                     } else if (creditCard.getIncorrect_attempts() > 2) {
-                        System.out.printf("%s Card is blocked sending callback.\n", PREFIX);
+                        Log.debug(PREFIX, "Card is blocked sending callback.");
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                                 .createMessageWrapper(true, 419, "The card used is currently blocked.",
                                         "The pin card used does not have the authorization to perform this request.")));
                     } else if (!creditCard.getPinCode().equals(pinTransaction.getPinCode())) {
-                        System.out.printf("%s Pincode incorrect, sending callback.\n", PREFIX);
+                        Log.debug(PREFIX, "Pincode incorrect, sending callback.");
                         try {
-                            incrementIncorrectAttempts(creditCard.getCreditCardNumber(), true);
+                            incrementIncorrectCreditCardAttempts(creditCard.getCreditCardNumber());
                         } catch (SQLException e) {
                             e.printStackTrace();
                         }
@@ -598,26 +534,26 @@ class PinService {
                                         "The pin code used is incorrect.",
                                         "An invalid PINcard, -code or -combination was used.")));
                     } else if (!creditCard.getAccountNumber().equals(sourceAccountNumber)) {
-                        System.out.printf("%s Creditcard does not belong to that accountnumber, sending callback.\n", PREFIX);
+                        Log.debug(PREFIX, "Creditcard does not belong to that accountnumber, sending callback.");
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                                 .createMessageWrapper(true, 419,
                                         "Pin card does not belong to accountNumber used in the transaction.",
                                         "The pin card used does not have the authorization to perform this request.")));
-                    } else if (creditCard.getBalance() < pinTransaction.getTransactionAmount()) {
-                        System.out.printf("%s Credit card does not have enough balance to process transaction.\n", PREFIX);
-                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
-                                .createMessageWrapper(true, 418,
-                                        "There are not enough funds on the credit card to make the transaction.",
-                                        "The balance on the credit card used is not high enough.")));
                     } else if (pinTransaction.getDestinationAccountNumber().endsWith("C")) {
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
                                 .createMessageWrapper(true, 419,
                                         "Can't transfer to credit card.",
                                         "The pin card used does not have the authorization to perform this request.")));
+                    } else if (creditCardBalances.withdraw(creditCard.getCreditCardNumber(), systemDate,
+                            pinTransaction.getDestinationAccountNumber(),
+                            pinTransaction.getTransactionAmount()) == null) {
+                        Log.debug(PREFIX, "Credit card does not have enough balance to process transaction.");
+                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser
+                                .createMessageWrapper(true, 418,
+                                        "There are not enough funds on the credit card to make the transaction.",
+                                        "The balance on the credit card used is not high enough.")));
                     } else {
-                        creditCard.processTransaction(pinTransaction);
-                        updateCreditCardBalanceInDb(creditCard);
-                        addCreditCardTransactionToDb(pinTransaction, creditCard.getBalance(), systemDate);
+                        apiCacheInvalidator.accountChanged(creditCard.getAccountNumber());
                         if (pinTransaction.getDestinationAccountNumber().contains("GNI")) {
                             Transaction transactionToProcess = new Transaction();
                             transactionToProcess.setTransactionAmount(pinTransaction.getTransactionAmount());
@@ -639,64 +575,7 @@ class PinService {
                                 "An unknown error occurred.",
                                 "There was a problem with one of the HTTP requests")));
             }
-        });
-    }
-
-    private void updateCreditCardBalanceInDb(final CreditCard creditCard) {
-        try {
-            SQLConnection connection = databaseConnectionPool.getConnection();
-            PreparedStatement updateBalanceStatement = connection.getConnection()
-                    .prepareStatement(SQLStatements.updateCreditCardBalance);
-            updateBalanceStatement.setDouble(1, creditCard.getBalance());
-            updateBalanceStatement.setLong(2, creditCard.getCreditCardNumber());
-            updateBalanceStatement.execute();
-            updateBalanceStatement.close();
-            databaseConnectionPool.returnConnection(connection);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void addCreditCardTransactionToDb(final PinTransaction pinTransaction,
-                                              final Double newBalance,
-                                              final LocalDate currentDate) {
-        try {
-            SQLConnection connection = databaseConnectionPool.getConnection();
-            PreparedStatement addTransactionStatement = connection.getConnection()
-                    .prepareStatement(SQLStatements.addCreditCardTransaction);
-            addTransactionStatement.setLong(1, getCreditCardTransactionId());
-            addTransactionStatement.setDate(2, java.sql.Date.valueOf(currentDate));
-            addTransactionStatement.setLong(3, pinTransaction.getCardNumber());
-            addTransactionStatement.setString(4, pinTransaction.getDestinationAccountNumber());
-            addTransactionStatement.setDouble(5, pinTransaction.getTransactionAmount());
-            addTransactionStatement.setDouble(6, newBalance);
-            addTransactionStatement.execute();
-            addTransactionStatement.close();
-            databaseConnectionPool.returnConnection(connection);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private Long getCreditCardTransactionId() {
-        try {
-            SQLConnection connection = databaseConnectionPool.getConnection();
-            PreparedStatement highestIdStatement = connection.getConnection()
-                    .prepareStatement(SQLStatements.getHighestCreditCardTransactionId);
-            ResultSet idResult = highestIdStatement.executeQuery();
-            Long id;
-            if (idResult.next()) {
-                id = idResult.getLong(1) + 1;
-            } else {
-                id = 1L;
-            }
-            highestIdStatement.close();
-            databaseConnectionPool.returnConnection(connection);
-            return id;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return 1L;
-        }
+        }));
     }
 
     private void doTransactionReceiveRequest(final Transaction transaction,
@@ -712,7 +591,7 @@ class PinService {
     }
 
     private void sendCreditCardTransactionCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Credit card transaction was successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Credit card transaction was successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
                 "Normal Reply")));
     }
@@ -770,10 +649,10 @@ class PinService {
             if (!messageWrapper.isError()) {
                 Transaction reply = (Transaction) messageWrapper.getData();
                 if (reply.isSuccessful()) {
-                    System.out.printf("%s Pin transaction was successful, sending callback.\n", PREFIX);
+                    Log.debug(PREFIX, "Pin transaction was successful, sending callback.");
                     callbackBuilder.build().reply(replyBody);
                 } else {
-                    System.out.printf("%s Pin transaction was unsuccessful, sending rejection.\n", PREFIX);
+                    Log.debug(PREFIX, "Pin transaction was unsuccessful, sending rejection.");
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                             "Unknown error occurred.")));
                 }
@@ -781,7 +660,7 @@ class PinService {
                 callbackBuilder.build().reply(replyBody);
             }
         } else {
-            System.out.printf("%s Transaction request failed, sending rejection.\n", PREFIX);
+            Log.warn(PREFIX, "Transaction request failed, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                     500, "An unknown error occurred.",
                     "There was a problem with one of the HTTP requests")));
@@ -798,7 +677,7 @@ class PinService {
                 if (reply.isSuccessful()) {
                     doTransactionReceiveRequest(reply, callbackBuilder);
                 } else {
-                    System.out.printf("%s Pin transaction was unsuccessful, sending rejection.\n", PREFIX);
+                    Log.debug(PREFIX, "Pin transaction was unsuccessful, sending rejection.");
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                             "Unknown error occurred.")));
                 }
@@ -806,7 +685,7 @@ class PinService {
                 callbackBuilder.build().reply(replyBody);
             }
         } else {
-            System.out.printf("%s Transaction request failed, sending rejection.\n", PREFIX);
+            Log.warn(PREFIX, "Transaction request failed, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                     500, "An unknown error occurred.",
                     "There was a problem with one of the HTTP requests")));
@@ -825,7 +704,7 @@ class PinService {
     public void addNewPinCard(final Callback<String> callback, final @RequestParam("requesterId") String requesterId,
                               final @RequestParam("ownerId") String ownerId,
                               final @RequestParam("accountNumber") String accountNumber) {
-        System.out.printf("%s Received new pin card request.\n", PREFIX);
+        Log.debug(PREFIX, "Received new pin card request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         generateExpirationDate(requesterId, ownerId, accountNumber, null, callbackBuilder);
     }
@@ -847,8 +726,8 @@ class PinService {
                 if (!messageWrapper.isError()) {
                     LocalDate systemDate = (LocalDate) messageWrapper.getData();
                     LocalDate expirationDate = systemDate.plusYears(CARD_EXPIRATION_LENGTH);
-                    handleNewPinCardExceptions(expirationDate, requesterId,
-                            ownerId, accountNumber, newPinCode, callbackBuilder);
+                    databaseExecutor.executeSerially(callbackBuilder, () -> handleNewPinCardExceptions(
+                            expirationDate, requesterId, ownerId, accountNumber, newPinCode, callbackBuilder));
                 } else {
                     callbackBuilder.build().reply(body);
                 }
@@ -945,25 +824,12 @@ class PinService {
      * @throws SQLException Thrown when the insertion fails, will reject the new pin card request.
      */
     void addPinCardToDatabase(final PinCard pinCard) throws SQLException {
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement addPinCard = databaseConnection.getConnection()
-                                                         .prepareStatement(SQLStatements.addPinCard);
-        addPinCard.setString(1, pinCard.getAccountNumber());
-        addPinCard.setLong(2, pinCard.getCustomerId());
-        addPinCard.setLong(3, pinCard.getCardNumber());
-        addPinCard.setString(4, pinCard.getPinCode());
-        addPinCard.setDate(5, java.sql.Date.valueOf(pinCard.getExpirationDate()));
-        addPinCard.setLong(6, 0L);
-        addPinCard.setBoolean(7, true);
-        addPinCard.setBoolean(8, false);
-        addPinCard.executeUpdate();
-        addPinCard.close();
-        databaseConnectionPool.returnConnection(databaseConnection);
+        cardStateCache.addCard(pinCard);
     }
 
 
     private void sendNewPinCardCallback(final PinCard pinCard, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successfully created pin card, card #%s, accountno. %s  sending callback\n", PREFIX, pinCard.getCardNumber(), pinCard.getAccountNumber());
+        Log.debug(PREFIX, "Successfully created pin card, card #%s, accountno. %s  sending callback", pinCard.getCardNumber(), pinCard.getAccountNumber());
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", pinCard)));
     }
 
@@ -976,7 +842,8 @@ class PinService {
     public void removeAccountCards(final Callback<String> callback,
                                    final @RequestParam("accountNumber") String accountNumber) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleRemoveAccountCardsExceptions(accountNumber, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleRemoveAccountCardsExceptions(accountNumber, callbackBuilder));
     }
 
     private void handleRemoveAccountCardsExceptions(final String accountNumber, final CallbackBuilder callbackBuilder) {
@@ -989,17 +856,12 @@ class PinService {
     }
 
     private void deleteAccountCardsFromDatabase(final String accountNumber) throws SQLException {
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement removeAccountCards = databaseConnection.getConnection()
-                                                                .prepareStatement(SQLStatements.removeAccountCards);
-        removeAccountCards.setString(1, accountNumber);
-        removeAccountCards.execute();
-        databaseConnection.close();
+        cardStateCache.removeAccountCards(accountNumber);
     }
 
     private void sendRemoveAccountCardsCallback(final String accountNumber, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s All pin cards for account with accountNumber %s successfully deleted from the system,"
-                            + " sending callback.\n", PREFIX, accountNumber);
+        Log.debug(PREFIX, "All pin cards for account with accountNumber %s successfully deleted from the system,"
+                            + " sending callback.", accountNumber);
         AccountLink reply = new AccountLink(0L, accountNumber);
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", reply)));
     }
@@ -1014,7 +876,8 @@ class PinService {
     public void ProcessUnblockCardRequest(final Callback<String> callback,
                                           final @RequestParam("pinCard") String pinCardJson) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleCardUnblockExceptions(pinCardJson, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleCardUnblockExceptions(pinCardJson, callbackBuilder));
     }
 
     /**
@@ -1054,13 +917,12 @@ class PinService {
      */
     void unblockCard(final Long cardNumber, final String accountNumber, final boolean isCreditCard) throws SQLException,
             IncorrectInputException, NoEffectException {
-        SQLConnection con = databaseConnectionPool.getConnection();
-        PreparedStatement getCard;
-        if (isCreditCard) {
-            getCard = con.getConnection().prepareStatement(SQLStatements.getCreditCardInfo);
-        } else {
-            getCard = con.getConnection().prepareStatement(SQLStatements.getPinCard);
+        if (!isCreditCard) {
+            unblockPinCard(cardNumber, accountNumber);
+            return;
         }
+        SQLConnection con = databaseConnectionPool.getConnection();
+        PreparedStatement getCard = con.getConnection().prepareStatement(SQLStatements.getCreditCardInfo);
         getCard.setLong(1, cardNumber);
         ResultSet cardInfo = getCard.executeQuery();
         if (cardInfo.next()) {
@@ -1073,11 +935,7 @@ class PinService {
                         "The provided account number does not match the account number in the system.");
             } else {
                 // reset the count
-                if (isCreditCard) {
-                    getCard = con.getConnection().prepareCall(SQLStatements.unblockCreditCard);
-                } else {
-                    getCard = con.getConnection().prepareStatement(SQLStatements.unblockPinCard);
-                }
+                getCard = con.getConnection().prepareCall(SQLStatements.unblockCreditCard);
                 getCard.setLong(1, cardNumber);
                 getCard.executeUpdate();
 
@@ -1096,14 +954,38 @@ class PinService {
         databaseConnectionPool.returnConnection(con);
     }
 
+    /**
+     * Unblocks a PinCard by resetting its amount of incorrect attempts in the card cache and the pin database.
+     * @param cardNumber cardNumber of the Card that should be unblocked.
+     * @param accountNumber accountNumber linked to the card that should be unblocked.
+     * @throws SQLException Thrown when the reset could not be written to the database.
+     * @throws IncorrectInputException Thrown when the card does not exist or is not linked to the account.
+     * @throws NoEffectException Thrown when the pin card wasn't blocked in the first place.
+     */
+    private void unblockPinCard(final Long cardNumber, final String accountNumber) throws SQLException,
+            IncorrectInputException, NoEffectException {
+        CardState card = cardStateCache.get(cardNumber);
+        if (card == null) {
+            throw new IncorrectInputException("The provided pin card does not appear to exist.");
+        }
+        if (!card.getAccountNumber().equals(accountNumber)) {
+            throw new IncorrectInputException(
+                    "The provided account number does not match the account number in the system.");
+        }
+        if (cardStateCache.resetIncorrectAttempts(card) < CARD_USAGE_ATTEMPTS) {
+            throw new NoEffectException("The card was not blocked in the first place, "
+                    + "but the attempts count has been reset none the less");
+        }
+    }
+
     /**
      * Sends the correct callback back to the source.
      * @param pinCard The unlocked pinCard.
      * @param callbackBuilder Used to send the result of the request back to the request source.
      */
     private void sendPinCardUnblockCallback(final PinCard pinCard, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Card #%s successfully unblocked, sending callback.\n",
-                PREFIX, pinCard.getCardNumber());
+        Log.debug(PREFIX, "Card #%s successfully unblocked, sending callback.",
+                pinCard.getCardNumber());
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", pinCard)));
     }
@@ -1118,7 +1000,8 @@ class PinService {
     public void invalidateCard(final Callback<String> callback, final @RequestParam("pinCard") String pinCardJson,
                                final @RequestParam("newPin") boolean newPin) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleRemovePinCardExceptions(pinCardJson, newPin, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleRemovePinCardExceptions(pinCardJson, newPin, callbackBuilder));
     }
 
     /**
@@ -1188,16 +1071,7 @@ class PinService {
      */
     private void deactivatePinCard(final PinCard pinCard)
             throws SQLException, NumberFormatException, InvalidParameterException {
-        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement removePinCard = databaseConnection.getConnection()
-                .prepareStatement(SQLStatements.deactivatePinCard);
-        removePinCard.setString(1, pinCard.getAccountNumber());
-        removePinCard.setLong(2, pinCard.getCustomerId());
-        removePinCard.setLong(3, pinCard.getCardNumber());
-        int success = removePinCard.executeUpdate();
-        databaseConnection.close();
-        databaseConnectionPool.returnConnection(databaseConnection);
-        if (success == 0) {
+        if (!cardStateCache.deactivateCard(pinCard)) {
             throw new InvalidParameterException("Card not found.");
         }
     }
@@ -1258,7 +1132,7 @@ class PinService {
                             callbackBuilder.build().reply(replyBody);
                         }
                     } else {
-                        System.out.printf("%s Transaction request failed, sending rejection.\n", PREFIX);
+                        Log.warn(PREFIX, "Transaction request failed, sending rejection.");
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                                 "An unknown error occurred.",
                                 "There was a problem with one of the HTTP requests")));
@@ -1269,9 +1143,10 @@ class PinService {
     @RequestMapping(value = "/creditCard", method = RequestMethod.PUT)
     public void processNewCreditCard(final Callback<String> callback,
                                      @RequestParam("accountNumber") final String accountNumber) {
-        System.out.printf("%s Received new credit card request.\n", PREFIX);
+        Log.debug(PREFIX, "Received new credit card request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        getCurrentDateForCreditCard(accountNumber, null, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                getCurrentDateForCreditCard(accountNumber, null, callbackBuilder));
     }
 
     private void getCurrentDateForCreditCard(final String accountNumber, final String pinCode,
@@ -1279,7 +1154,7 @@ class PinService {
         try {
             findActiveCreditCard(getCreditCardsFromAccountNr(accountNumber));
             // If IncorrectInputException is not thrown this means the account already has an active creditCard.
-            System.out.printf("%s Account already has an active creditCard, rejecting request.\n", PREFIX);
+            Log.debug(PREFIX, "Account already has an active creditCard, rejecting request.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418,
                     "The accountNumber already has a creditCard",
                     "Cannot create new creditCard because there is already a card linked to this accountNumber..")));
@@ -1295,12 +1170,13 @@ class PinService {
                                                                                         MessageWrapper.class);
                     if (!messageWrapper.isError()) {
                         LocalDate currentDate = (LocalDate) messageWrapper.getData();
-                        handleNewCreditCardExceptions(accountNumber, pinCode, currentDate, callbackBuilder);
+                        databaseExecutor.executeSerially(callbackBuilder, () -> handleNewCreditCardExceptions(
+                                accountNumber, pinCode, currentDate, callbackBuilder));
                     } else {
                         callbackBuilder.build().reply(body);
                     }
                 } else {
-                    System.out.printf("%s Processing new credit card failed, body: %s\n\n\n\n", PREFIX, body);
+                    Log.warn(PREFIX, "Processing new credit card failed, body: %s", body);
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                             500, "An unknown error occurred.",
                             "There was a problem with one of the HTTP requests")));
@@ -1357,6 +1233,8 @@ class PinService {
         ps.executeUpdate();
         ps.close();
         databaseConnectionPool.returnConnection(connection);
+        creditCardBalances.register(creditCard.getCreditCardNumber(), creditCard.getBalance(), creditCard.getLimit());
+        apiCacheInvalidator.accountChanged(creditCard.getAccountNumber());
         return creditCard;
     }
 
@@ -1378,7 +1256,7 @@ class PinService {
     }
 
     private void sendNewCreditCardCallback(final CreditCard creditCard, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s New credit card request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "New credit card request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", creditCard)));
     }
@@ -1388,7 +1266,8 @@ class PinService {
                                         @RequestParam("accountNumber") final String accountNumber,
                                         @RequestParam("customerId") final Long customerId) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleCreditCardRemovalExceptions(accountNumber, customerId, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleCreditCardRemovalExceptions(accountNumber, customerId, callbackBuilder));
     }
 
     private void handleCreditCardRemovalExceptions(final String accountNumber, final Long customerId,
@@ -1421,7 +1300,7 @@ class PinService {
             card.setPinCode(cardResult.getString("pin_code"));
             card.setIncorrect_attempts(cardResult.getLong("incorrect_attempts"));
             card.setLimit(cardResult.getDouble("credit_limit"));
-            card.setBalance(cardResult.getDouble("balance"));
+            card.setBalance(creditCardBalances.getBalance(card.getCreditCardNumber()));
             card.setFee(cardResult.getDouble("card_fee"));
             card.setActivationDate(cardResult.getDate("active_from").toLocalDate());
             card.setActive(cardResult.getBoolean("active"));
@@ -1464,29 +1343,69 @@ class PinService {
         removeCard.execute();
         removeCard.close();
         databaseConnectionPool.returnConnection(connection);
+        apiCacheInvalidator.accountChanged(creditCard.getAccountNumber());
     }
 
+    /**
+     * Refills the given credit cards by withdrawing the used credit from the linked accounts. The cards are sent to
+     * the ledger in batches of at most CARD_BATCH_SIZE cards, the next batch is sent once the previous batch has
+     * been processed.
+     * @param creditCards Credit cards that should be refilled.
+     * @param customerId Id of the customer that requested the refill, 0 if the system requested the refill.
+     * @param closeCard Indicates if the credit card should be closed after the refill.
+     * @param callbackBuilder Used to send the result of the request back to the request source.
+     */
     private void refillCreditCards(final List<CreditCard> creditCards, final Long customerId, final boolean closeCard,
                                   final CallbackBuilder callbackBuilder) {
         if (creditCards.size() < 1) {
             deactivateExpiredCreditCards(customerId, callbackBuilder);
         } else {
-            CreditCard creditCard = creditCards.get(0);
-            Transaction transaction = new Transaction();
-            transaction.setSourceAccountNumber(creditCard.getAccountNumber());
-            transaction.setDestinationAccountNumber(GNI_ACCOUNT);
-            transaction.setDestinationAccountHolderName("GNI BANK");
-            transaction.setTransactionAmount(creditCard.getLimit() - creditCard.getBalance());
-            transaction.setDescription("Refill of credit card #" + creditCard.getCreditCardNumber());
-            MessageWrapper data = JSONParser.createMessageWrapper(false, 0, "Request");
-            data.setMethodType(MethodType.PAY_FROM_ACCOUNT);
-            data.setData(transaction);
-            transactionDispatchClient.putFormAsyncWith3Params("/services/transactionDispatch/transaction",
-                    "request", jsonConverter.toJson(data), "customerId", customerId,
-                    "override", true, //admin override
-                    (code, contentType, replyBody) -> handleDispatchRefillResponse(code, replyBody,
-                            creditCards, customerId, closeCard, callbackBuilder));
+            List<CreditCard> batch = takeCardBatch(creditCards);
+            LinkedList<Transaction> transactions = new LinkedList<>();
+            for (CreditCard creditCard : batch) {
+                transactions.add(createCardTransaction(creditCard, creditCard.getLimit() - creditCard.getBalance(),
+                        "Refill of credit card #" + creditCard.getCreditCardNumber()));
+            }
+            doTransactionBatchRequest(transactions, (code, contentType, replyBody) -> handleBatchRefillResponse(
+                    code, replyBody, batch, transactions, creditCards, customerId, closeCard, callbackBuilder));
+        }
+    }
+
+    /**
+     * Removes at most CARD_BATCH_SIZE cards from the head of a list of credit cards.
+     * @param creditCards List of cards that still need to be processed.
+     * @return Cards that should be processed in the next batch.
+     */
+    private List<CreditCard> takeCardBatch(final List<CreditCard> creditCards) {
+        List<CreditCard> batch = new LinkedList<>();
+        while (!creditCards.isEmpty() && batch.size() < CARD_BATCH_SIZE) {
+            batch.add(creditCards.remove(0));
         }
+        return batch;
+    }
+
+    private Transaction createCardTransaction(final CreditCard creditCard, final double amount,
+                                              final String description) {
+        Transaction transaction = new Transaction();
+        transaction.setSourceAccountNumber(creditCard.getAccountNumber());
+        transaction.setDestinationAccountNumber(GNI_ACCOUNT);
+        transaction.setDestinationAccountHolderName("GNI BANK");
+        transaction.setTransactionAmount(amount);
+        transaction.setDescription(description);
+        return transaction;
+    }
+
+    /**
+     * Sends a batch of bank initiated transactions to the ledger through the transaction dispatch service.
+     * @param transactions Transactions that should be executed.
+     * @param receiver Handles the reply, which contains the list of processed transactions in the same order.
+     */
+    private void doTransactionBatchRequest(final LinkedList<Transaction> transactions,
+                                           final HttpTextReceiver receiver) {
+        MessageWrapper data = JSONParser.createMessageWrapper(false, 0, "Request", transactions);
+        data.setMethodType(MethodType.PAY_FROM_ACCOUNT);
+        transactionDispatchClient.putFormAsyncWith1Param("/services/transactionDispatch/transaction/batch",
+                "request", jsonConverter.toJson(data), receiver);
     }
 
     private void deactivateExpiredCreditCards(final Long customerId, final CallbackBuilder callbackBuilder) {
@@ -1498,18 +1417,20 @@ class PinService {
                         if (!messageWrapper.isError()) {
                             LocalDate systemDate = (LocalDate) messageWrapper.getData();
                             LocalDate validFrom = systemDate.minusYears(CARD_EXPIRATION_LENGTH);
-                            try {
-                                SQLConnection connection = databaseConnectionPool.getConnection();
-                                PreparedStatement getCards = connection.getConnection().prepareStatement(deactivateExpiredCreditCards);
-                                getCards.setDate(1, Date.valueOf(validFrom));
-                                getCards.executeUpdate();
-                                connection.close();
-                                findCreditCardsToWithdrawFee(customerId, callbackBuilder);
-                            } catch (SQLException e) {
-                                e.printStackTrace();
-                                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                                        "Unknown error occurred.")));
-                            }
+                            databaseExecutor.executeSerially(callbackBuilder, () -> {
+                                try {
+                                    SQLConnection connection = databaseConnectionPool.getConnection();
+                                    PreparedStatement getCards = connection.getConnection().prepareStatement(deactivateExpiredCreditCards);
+                                    getCards.setDate(1, Date.valueOf(validFrom));
+                                    getCards.executeUpdate();
+                                    connection.close();
+                                    findCreditCardsToWithdrawFee(customerId, callbackBuilder);
+                                } catch (SQLException e) {
+                                    e.printStackTrace();
+                                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                                            "Unknown error occurred.")));
+                                }
+                            });
                         } else {
                             callbackBuilder.build().reply(body);
                         }
@@ -1521,45 +1442,65 @@ class PinService {
                 });
     }
 
-    private void handleDispatchRefillResponse(final int code, final String replyBody,
-                                              final List<CreditCard> creditCards, final Long customerId,
-                                              final boolean closeCard,
-                                              final CallbackBuilder callbackBuilder) {
+    /**
+     * Refills the cards of a batch whose transaction was executed by the ledger, and continues with the next batch
+     * if every card was refilled. Cards the ledger did not reply for count as failed refills.
+     * @param code Http status code of the reply.
+     * @param replyBody Reply of the ledger.
+     * @param batch Cards that were sent in the batch.
+     * @param transactions Transactions that were sent for the cards, in the same order.
+     * @param remainingCards Cards that still need to be refilled.
+     * @param customerId Id of the customer that requested the refill, 0 if the system requested the refill.
+     * @param closeCard Indicates if the credit card should be closed after the refill.
+     * @param callbackBuilder Used to send the result of the request back to the request source.
+     */
+    private void handleBatchRefillResponse(final int code, final String replyBody, final List<CreditCard> batch,
+                                           final List<Transaction> transactions,
+                                           final List<CreditCard> remainingCards, final Long customerId,
+                                           final boolean closeCard, final CallbackBuilder callbackBuilder) {
         if (code == HTTP_OK) {
             MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(replyBody),
                     MessageWrapper.class);
             if (!messageWrapper.isError()) {
-                Transaction reply = (Transaction) messageWrapper.getData();
-                if (reply.isSuccessful()) {
-                    if (closeCard) {
-                        try {
-                            deactivateCreditCard(creditCards.get(0));
-                            sendRefillCreditCardCallback(callbackBuilder, true);
-                        } catch (SQLException e) {
-                            e.printStackTrace();
-                            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                                    "Unknown error occurred.")));
+                CardBatchReplies replies = CardBatchReplies.match(batch, transactions,
+                        (List<Transaction>) messageWrapper.getData());
+                logUnmatchedReplies(replies);
+                for (int i = 0; i < replies.size(); i++) {
+                    if (replies.succeeded(i)) {
+                        CreditCard processedCard = replies.card(i);
+                        Transaction reply = replies.reply(i);
+                        creditCardBalances.refill(processedCard.getCreditCardNumber(), reply.getDate(),
+                                processedCard.getAccountNumber(), reply.getTransactionAmount());
+                        apiCacheInvalidator.accountChanged(processedCard.getAccountNumber());
+                    }
+                }
+                int failedRefills = replies.failures();
+                try {
+                    if (failedRefills > 0) {
+                        Log.debug(PREFIX, "%d credit card refills unsuccessful, sending rejection.",
+                                failedRefills);
+                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                                "Unknown error occurred, possibly not enough funds to refill the credit card.")));
+                    } else if (closeCard) {
+                        for (CreditCard creditCard : batch) {
+                            deactivateCreditCard(creditCard);
                         }
+                        sendRefillCreditCardCallback(callbackBuilder, true);
+                    } else if (remainingCards.size() > 0) {
+                        refillCreditCards(remainingCards, customerId, false, callbackBuilder);
                     } else {
-                        CreditCard processedCard = creditCards.remove(0); // remove card that has been processed
-                        processedCard.setBalance(processedCard.getLimit());
-                        updateCreditCardBalanceInDb(processedCard);
-                        if (creditCards.size() > 0) {
-                            refillCreditCards(creditCards, 0L, false, callbackBuilder);
-                        } else {
-                            findCreditCardsToWithdrawFee(customerId, callbackBuilder);
-                        }
+                        findCreditCardsToWithdrawFee(customerId, callbackBuilder);
                     }
-                } else {
-                    System.out.printf("%s Credit card refill unsuccessful, sending rejection.\n", PREFIX);
+                } catch (SQLException e) {
+                    e.printStackTrace();
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                            "Unknown error occurred, possibly not enough funds to refill the credit card.")));
+                            "Unknown error occurred.")));
                 }
             } else {
                 callbackBuilder.build().reply(replyBody);
             }
         } else {
-            System.out.printf("%s Credit card refill request failed, sending rejection.\n", PREFIX);
+            Log.warn(PREFIX, "Credit card refill request failed, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                     500, "An unknown error occurred.",
                     "There was a problem with one of the HTTP requests")));
@@ -1595,65 +1536,74 @@ class PinService {
         }
     }
 
+    /**
+     * Withdraws the monthly fee of the given credit cards from the linked accounts, in batches of at most
+     * CARD_BATCH_SIZE cards.
+     * @param activeCards Credit cards the fee should be withdrawn for.
+     * @param customerId Id of the customer that requested the refill, 0 if the system requested the refill.
+     * @param callbackBuilder Used to send the result of the request back to the request source.
+     */
     private void withdrawCreditCardFee(final List<CreditCard> activeCards, final Long customerId,
                                        final CallbackBuilder callbackBuilder) {
         if (activeCards.size() < 1) {
             sendRefillCreditCardCallback(callbackBuilder, false);
         } else {
-            CreditCard creditCard = activeCards.get(0);
-            Transaction transaction = new Transaction();
-            transaction.setSourceAccountNumber(creditCard.getAccountNumber());
-            transaction.setDestinationAccountNumber(GNI_ACCOUNT);
-            transaction.setDestinationAccountHolderName("GNI BANK");
-            transaction.setTransactionAmount(creditCard.getFee());
-            transaction.setDescription("Monthly card fee for credit card #" + creditCard.getCreditCardNumber());
-            MessageWrapper data = JSONParser.createMessageWrapper(false, 0, "Request");
-            data.setMethodType(MethodType.PAY_FROM_ACCOUNT);
-            data.setData(transaction);
-            transactionDispatchClient.putFormAsyncWith3Params("/services/transactionDispatch/transaction",
-                    "request", jsonConverter.toJson(data), "customerId", customerId,
-                    "override", true, //if the card should not be closed this method is being called by an admin.
-                    (code, contentType, replyBody) -> handleDispatchFeeResponse(code, replyBody, transaction,
-                            activeCards, customerId,  callbackBuilder));
+            List<CreditCard> batch = takeCardBatch(activeCards);
+            LinkedList<Transaction> transactions = new LinkedList<>();
+            for (CreditCard creditCard : batch) {
+                transactions.add(createCardTransaction(creditCard, creditCard.getFee(),
+                        "Monthly card fee for credit card #" + creditCard.getCreditCardNumber()));
+            }
+            doTransactionBatchRequest(transactions, (code, contentType, replyBody) -> handleBatchFeeResponse(
+                    code, replyBody, batch, transactions, activeCards, customerId, callbackBuilder));
         }
     }
 
-    private void handleDispatchFeeResponse(final int code, final String replyBody, final Transaction transaction,
-                                   final List<CreditCard> creditCards, final Long customerId,
-                                   final CallbackBuilder callbackBuilder) {
+    private void handleBatchFeeResponse(final int code, final String replyBody, final List<CreditCard> batch,
+                                        final List<Transaction> transactions,
+                                        final List<CreditCard> remainingCards, final Long customerId,
+                                        final CallbackBuilder callbackBuilder) {
         if (code == HTTP_OK) {
             MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(replyBody),
                     MessageWrapper.class);
             if (!messageWrapper.isError()) {
-                Transaction reply = (Transaction) messageWrapper.getData();
-                if (reply.isSuccessful()) {
-                    creditCards.remove(0); // remove card that has been processed
-                    if (creditCards.size() > 0) {
-                        withdrawCreditCardFee(creditCards, 0L, callbackBuilder);
-                    } else {
-                        sendRefillCreditCardCallback(callbackBuilder, false);
-                    }
-                } else {
-                    System.out.printf("%s Credit card refill unsuccessful, sending rejection.\n", PREFIX);
+                CardBatchReplies replies = CardBatchReplies.match(batch, transactions,
+                        (List<Transaction>) messageWrapper.getData());
+                logUnmatchedReplies(replies);
+                int failedWithdrawals = replies.failures();
+                if (failedWithdrawals > 0) {
+                    Log.debug(PREFIX, "%d credit card fee withdrawals unsuccessful, sending rejection.",
+                            failedWithdrawals);
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                             "Unknown error occurred, possibly not enough funds to refill the credit card.")));
+                } else if (remainingCards.size() > 0) {
+                    withdrawCreditCardFee(remainingCards, customerId, callbackBuilder);
+                } else {
+                    sendRefillCreditCardCallback(callbackBuilder, false);
                 }
             } else {
                 callbackBuilder.build().reply(replyBody);
             }
         } else {
-            System.out.printf("%s Credit card refill request failed, sending rejection.\n", PREFIX);
+            Log.warn(PREFIX, "Credit card refill request failed, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                     500, "An unknown error occurred.",
                     "There was a problem with one of the HTTP requests")));
         }
     }
 
+    private void logUnmatchedReplies(final CardBatchReplies replies) {
+        if (replies.unmatched() > 0) {
+            Log.warn(PREFIX, "The ledger did not reply for %d of the %d cards in the batch, treating them as failed.",
+                    replies.unmatched(), replies.size());
+        }
+    }
+
     private void sendRefillCreditCardCallback(final CallbackBuilder callbackBuilder, final boolean removed) {
         if (removed) {
-            System.out.printf("%s Credit card successfully removed, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Credit card successfully removed, sending callback.");
         } else {
-            System.out.printf("%s Credit cards successfully refilled, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Credit cards successfully refilled, sending callback.");
         }
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
@@ -1662,23 +1612,26 @@ class PinService {
     @RequestMapping(value = "/creditCard/balance", method = RequestMethod.GET)
     public void processCreditCardBalanceRequest(final Callback<String> callback,
                                                 @RequestParam("accountNumber") final String accountNumber) {
-        System.out.printf("%s received credit card balance request for accountNumber %s.\n", PREFIX, accountNumber);
+        Log.debug(PREFIX, "received credit card balance request for accountNumber %s.", accountNumber);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        try {
-            Double creditCardBalance = findActiveCreditCard(getCreditCardsFromAccountNr(accountNumber)).getBalance();
-            sendCreditCardBalanceCallback(creditCardBalance, callbackBuilder);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                    "Unknown error occurred.")));
-        } catch (IncorrectInputException e) {
-            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418,
-                    e.getMessage(), "The accountNumber used does not have a credit card.")));
-        }
+        databaseExecutor.execute(callbackBuilder, () -> {
+            try {
+                Double creditCardBalance = findActiveCreditCard(getCreditCardsFromAccountNr(accountNumber))
+                        .getBalance();
+                sendCreditCardBalanceCallback(creditCardBalance, callbackBuilder);
+            } catch (SQLException e) {
+                e.printStackTrace();
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "Unknown error occurred.")));
+            } catch (IncorrectInputException e) {
+                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 418,
+                        e.getMessage(), "The accountNumber used does not have a credit card.")));
+            }
+        });
     }
 
     private void sendCreditCardBalanceCallback(final Double creditCardBalance, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Credit card balance request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Credit card balance request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply", creditCardBalance)));
     }
@@ -1686,30 +1639,43 @@ class PinService {
     @RequestMapping(value = "/refillCards", method = RequestMethod.PUT)
     public void processRefillCardsRequest(final Callback<String> callback,
                                           @RequestParam("date") final String dateJson) {
-        System.out.printf("%s Received refill credit cards request, refilling..\n", PREFIX);
+        Log.debug(PREFIX, "Received refill credit cards request, refilling..");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        List<CreditCard> cardsToRefill = getCreditCardsToRefill();
-        refillCreditCards(cardsToRefill, 0L, false, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            List<CreditCard> cardsToRefill = getCreditCardsToRefill();
+            refillCreditCards(cardsToRefill, 0L, false, callbackBuilder);
+        });
     }
 
+    /**
+     * Fetches all credit cards that have used credit, the balances are taken from the in memory balances because
+     * the balances in the credit_cards table are only brought up to date when the service starts.
+     * @return List of credit cards that should be refilled.
+     */
     private List<CreditCard> getCreditCardsToRefill() {
         try {
             SQLConnection connection = databaseConnectionPool.getConnection();
-            PreparedStatement getCards = connection.getConnection().prepareStatement(getCreditCardsWithCredit);
+            PreparedStatement getCards = connection.getConnection().prepareStatement(getCreditCards);
             ResultSet cardsWithCredit = getCards.executeQuery();
             List<CreditCard> cardsToRefill = new LinkedList<>();
             while (cardsWithCredit.next()) {
+                Double balance = creditCardBalances.getBalance(cardsWithCredit.getLong("card_number"));
+                if (balance == null || balance == cardsWithCredit.getDouble("credit_limit")) {
+                    continue;
+                }
                 CreditCard creditCard = new CreditCard();
                 creditCard.setCreditCardNumber(cardsWithCredit.getLong("card_number"));
                 creditCard.setAccountNumber(cardsWithCredit.getString("account_number"));
                 creditCard.setPinCode(cardsWithCredit.getString("pin_code"));
                 creditCard.setLimit(cardsWithCredit.getDouble("credit_limit"));
-                creditCard.setBalance(cardsWithCredit.getDouble("balance"));
+                creditCard.setBalance(balance);
                 creditCard.setFee(cardsWithCredit.getDouble("card_fee"));
                 creditCard.setActivationDate(cardsWithCredit.getDate("active_from").toLocalDate());
                 creditCard.setActive(cardsWithCredit.getBoolean("active"));
                 cardsToRefill.add(creditCard);
             }
+            getCards.close();
+            databaseConnectionPool.returnConnection(connection);
             return cardsToRefill;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1717,63 +1683,114 @@ class PinService {
         }
     }
 
-    @RequestMapping(value = "/setFreezeUserAccount", method = RequestMethod.PUT)
-    public void processSetFreezeUserAccountRequest(
-            final Callback<String> callback, @RequestParam("request") final String dataJson) {
-        System.out.printf("%s Received setFreezeUserAccount request.\n", PREFIX);
-        FreezeAccount freezeAccount = jsonConverter.fromJson(dataJson, FreezeAccount.class);
+    /**
+     * Reloads the card cache and the credit card balances from the pin database, should be called after the
+     * database has been reset.
+     * @param callback Used to send the result of the request back to the request source.
+     */
+    @RequestMapping(value = "/reset", method = RequestMethod.POST)
+    public void processResetRequest(final Callback<String> callback) {
+        Log.debug(PREFIX, "Received reset request, reloading cards.");
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            try {
+                cardStateCache.load();
+                creditCardBalances.load();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
+            } catch (SQLException e) {
+                e.printStackTrace();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "Error connecting to the Pin database.")));
+            }
+        });
+    }
+
+    /**
+     * Sends the totals of all credit cards, these are kept in memory so no database work is needed.
+     * @param callback Used to send the totals back to the request source.
+     */
+    @RequestMapping(value = "/statistics", method = RequestMethod.GET)
+    public void processStatisticsRequest(final Callback<String> callback) {
+        Log.debug(PREFIX, "Received statistics request, sending callback.");
+        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply",
+                creditCardBalances.getStatistics())));
+    }
 
+    private void reconcileStatistics() {
         try {
-            setFreezeUserAccount(freezeAccount);
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                    false, 200, "Normal Reply")));
+            creditCardBalances.reconcile();
         } catch (SQLException e) {
-            e.printStackTrace();
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                    "Error connecting to the Pin database.1")));
+            Log.error(PREFIX, "Reconciling the credit card statistics failed: %s", e.getMessage());
         }
     }
 
+    @RequestMapping(value = "/setFreezeUserAccount", method = RequestMethod.PUT)
+    public void processSetFreezeUserAccountRequest(
+            final Callback<String> callback, @RequestParam("request") final String dataJson) {
+        Log.debug(PREFIX, "Received setFreezeUserAccount request.");
+        FreezeAccount freezeAccount = jsonConverter.fromJson(dataJson, FreezeAccount.class);
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            try {
+                setFreezeUserAccount(freezeAccount);
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                        false, 200, "Normal Reply")));
+            } catch (SQLException e) {
+                e.printStackTrace();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "Error connecting to the Pin database.1")));
+            }
+        });
+    }
+
     private void setFreezeUserAccount(final FreezeAccount freezeAccount) throws SQLException {
-        SQLConnection con = databaseConnectionPool.getConnection();
-        PreparedStatement ps = con.getConnection().prepareStatement(setFreezeStatusPin);
-        ps.setBoolean(1, freezeAccount.getFreeze());
-        ps.setLong(2, freezeAccount.getCustomerId());
-        ps.executeUpdate();
-        ps.close();
-        databaseConnectionPool.returnConnection(con);
+        cardStateCache.setFrozen(freezeAccount.getCustomerId(), freezeAccount.getFreeze());
     }
 
+    /**
+     * Processes a list of setValue requests that need to be executed today.
+     * @param callback Used to send the result of the request back to the request source.
+     * @param data MessageWrapper containing the list of setValue requests that should be processed.
+     */
     @RequestMapping(value = "/setValue", method = RequestMethod.PUT)
     public void processSetValueRequest(final Callback<String> callback,
                                        final @RequestParam("data") String data) {
-        System.out.printf("%s Received setValue request.\n", PREFIX);
-        SetValueRequest setValueRequest = jsonConverter.fromJson(
-                JSONParser.removeEscapeCharacters(data), SetValueRequest.class);
+        Log.debug(PREFIX, "Received setValue request.");
+        MessageWrapper messageWrapper = jsonConverter.fromJson(
+                JSONParser.removeEscapeCharacters(data), MessageWrapper.class);
+        LinkedList<SetValueRequest> setValueRequests = (LinkedList<SetValueRequest>) messageWrapper.getData();
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleSetValueExceptions(setValueRequest, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleSetValueExceptions(setValueRequests, callbackBuilder));
     }
 
     private void handleSetValueExceptions(
-            final SetValueRequest setValueRequest, final CallbackBuilder callbackBuilder) {
-        switch (setValueRequest.getKey()) {
-            case CREDIT_CARD_MONTHLY_FEE:       CREDIT_CARD_MONTHLY_FEE = setValueRequest.getValue();
-                                                updateCreditCardFeesInDb(callbackBuilder);
-                break;
-            case CREDIT_CARD_DEFAULT_CREDIT:    CREDIT_CARD_DEFAULT_CREDIT = setValueRequest.getValue();
-                break;
-            case CARD_EXPIRATION_LENGTH:        CARD_EXPIRATION_LENGTH = (new Double(setValueRequest.getValue())).intValue();
-                break;
-            case NEW_CARD_COST:                 NEW_CARD_COST = setValueRequest.getValue();
-                break;
-            case CARD_USAGE_ATTEMPTS:           CARD_USAGE_ATTEMPTS = (new Double(setValueRequest.getValue())).intValue();
-                break;
-            default:
-                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                        true, 500, "Internal System Error.")));
-                break;
+            final LinkedList<SetValueRequest> setValueRequests, final CallbackBuilder callbackBuilder) {
+        boolean updateCreditCardFees = false;
+        for (SetValueRequest setValueRequest : setValueRequests) {
+            switch (setValueRequest.getKey()) {
+                case CREDIT_CARD_MONTHLY_FEE:       CREDIT_CARD_MONTHLY_FEE = setValueRequest.getValue();
+                                                    updateCreditCardFees = true;
+                    break;
+                case CREDIT_CARD_DEFAULT_CREDIT:    CREDIT_CARD_DEFAULT_CREDIT = setValueRequest.getValue();
+                    break;
+                case CARD_EXPIRATION_LENGTH:        CARD_EXPIRATION_LENGTH = (new Double(setValueRequest.getValue())).intValue();
+                    break;
+                case NEW_CARD_COST:                 NEW_CARD_COST = setValueRequest.getValue();
+                    break;
+                case CARD_USAGE_ATTEMPTS:           CARD_USAGE_ATTEMPTS = (new Double(setValueRequest.getValue())).intValue();
+                    break;
+                default:
+                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                            true, 500, "Internal System Error.")));
+                    return;
+            }
+        }
+        if (updateCreditCardFees) {
+            updateCreditCardFeesInDb(callbackBuilder);
+        } else {
+            sendSetValueCallback(callbackBuilder);
         }
-        sendSetValueCallback(callbackBuilder);
     }
 
     private void updateCreditCardFeesInDb(final CallbackBuilder callbackBuilder) {
@@ -1793,7 +1810,7 @@ class PinService {
     }
 
     private void sendSetValueCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s SetValue request successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "SetValue request successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                 false, 200, "Normal Reply")));
     }
@@ -1,6 +1,8 @@
 package pin;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.MetricsServer;
 import util.PortScanner;
 
 /**
@@ -33,10 +35,12 @@ public final class PinServiceMain {
                             .setRootURI("/services")
                             .setPort(servicePort);
 
-            managedServiceBuilder.addEndpointService(new PinService(
-                    servicePort, "localhost",
-                    Integer.parseInt(args[0]), args[1]))
+            final PinService pinService = new PinService(servicePort, "localhost",
+                    Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register("localhost", servicePort, "/services", pinService);
+            managedServiceBuilder.addEndpointService(pinService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
         }
     }
 }
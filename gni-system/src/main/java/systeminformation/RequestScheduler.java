@@ -0,0 +1,253 @@
+package systeminformation;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import databeans.SetValueKey;
+import databeans.SetValueRequest;
+import databeans.TransferLimit;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * @author Saul
+ * @version 1
+ * Durable, date-ordered index of the transferLimit and setValue requests that should be executed at a later date.
+ * Requests are kept in memory sorted by their execution date and mirrored to the scheduled_requests table, so
+ * requests that were scheduled before a restart are picked up again once the service is started. Requests are
+ * removed from the table by id once they have been processed. The methods are synchronized, because requests are
+ * scheduled by request threads and restored by the callbacks of the other services.
+ */
+class RequestScheduler {
+    /** Type used in the scheduled_requests table for transferLimit requests. */
+    private static final String TRANSFER_LIMIT_TYPE = "TRANSFER_LIMIT";
+    /** Type used in the scheduled_requests table for setValue requests. */
+    private static final String SET_VALUE_TYPE = "SET_VALUE";
+    /** Database connection pool containing persistent database connections. */
+    private final ConnectionPool databaseConnectionPool;
+    /** TransferLimits that need to be set, sorted by the date they should be set on. */
+    private final TreeMap<LocalDate, LinkedList<TransferLimit>> transferLimitRequests;
+    /** SetValue requests that need to be processed, sorted by the date they should be processed on. */
+    private final TreeMap<LocalDate, LinkedList<SetValueRequest>> setValueRequests;
+    /** Ids of the scheduled requests in the scheduled_requests table, by request. */
+    private final IdentityHashMap<Object, Long> requestIds;
+    /** Id that will be given to the next request that is inserted into the scheduled_requests table. */
+    private long nextId;
+
+    /**
+     * Creates an empty scheduler, {@link #load()} should be called to restore requests that are stored in the
+     * database.
+     * @param newDatabaseConnectionPool Pool used to mirror the scheduled requests to the database.
+     */
+    RequestScheduler(final ConnectionPool newDatabaseConnectionPool) {
+        this.databaseConnectionPool = newDatabaseConnectionPool;
+        this.transferLimitRequests = new TreeMap<>();
+        this.setValueRequests = new TreeMap<>();
+        this.requestIds = new IdentityHashMap<>();
+        this.nextId = 0L;
+    }
+
+    /**
+     * Replaces the contents of the scheduler with all requests that are stored in the scheduled_requests table, the
+     * table is created first if the database predates it.
+     * @throws SQLException Thrown when the scheduled requests could not be fetched from the database.
+     */
+    synchronized void load() throws SQLException {
+        clear();
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        try {
+            try (Statement createTable = connection.getConnection().createStatement()) {
+                createTable.executeUpdate(SQLStatements.createScheduledRequestsTable);
+            }
+            try (PreparedStatement ps = connection.getConnection().prepareStatement(
+                    SQLStatements.getScheduledRequests); ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate date = rs.getDate("execution_date").toLocalDate();
+                    long id = rs.getLong("id");
+                    if (TRANSFER_LIMIT_TYPE.equals(rs.getString("type"))) {
+                        TransferLimit transferLimit = new TransferLimit(rs.getString("account_number"),
+                                rs.getDouble("value"));
+                        requestIds.put(transferLimit, id);
+                        addToIndex(transferLimitRequests, date, transferLimit);
+                    } else {
+                        SetValueRequest setValueRequest = new SetValueRequest(
+                                SetValueKey.valueOf(rs.getString("value_key")), rs.getDouble("value"), date);
+                        requestIds.put(setValueRequest, id);
+                        addToIndex(setValueRequests, date, setValueRequest);
+                    }
+                    nextId = Math.max(nextId, id + 1);
+                }
+            }
+        } finally {
+            databaseConnectionPool.returnConnection(connection);
+        }
+    }
+
+    /**
+     * Schedules a transferLimit to be set on the given date.
+     * @param date Date on which the transferLimit should be set.
+     * @param transferLimit TransferLimit that should be set.
+     * @throws SQLException Thrown when the request could not be stored in the database, in this case the request
+     * is not scheduled.
+     */
+    synchronized void scheduleTransferLimit(final LocalDate date, final TransferLimit transferLimit)
+            throws SQLException {
+        insertScheduledRequest(transferLimit, date, TRANSFER_LIMIT_TYPE, transferLimit.getIBAN(), null,
+                transferLimit.getTransferLimit());
+        addToIndex(transferLimitRequests, date, transferLimit);
+    }
+
+    /**
+     * Schedules a setValue request to be processed on the date contained in the request.
+     * @param setValueRequest Request that should be processed.
+     * @throws SQLException Thrown when the request could not be stored in the database, in this case the request
+     * is not scheduled.
+     */
+    synchronized void scheduleSetValueRequest(final SetValueRequest setValueRequest) throws SQLException {
+        insertScheduledRequest(setValueRequest, setValueRequest.getDate(), SET_VALUE_TYPE, null,
+                setValueRequest.getKey().name(), setValueRequest.getValue());
+        addToIndex(setValueRequests, setValueRequest.getDate(), setValueRequest);
+    }
+
+    /**
+     * Removes all transferLimits that should be set on or before the given date from the in memory index and
+     * returns them in order of execution date. The requests stay in the database until
+     * {@link #acknowledgeTransferLimits(List)} is called, and can be put back with
+     * {@link #restoreTransferLimits(LocalDate, List)} if processing them fails.
+     * @param date Date up to and including which requests should be released.
+     * @return List of transferLimits that are due.
+     */
+    synchronized LinkedList<TransferLimit> popDueTransferLimits(final LocalDate date) {
+        return popDue(transferLimitRequests, date);
+    }
+
+    /**
+     * Removes all setValue requests that should be processed on or before the given date from the in memory index
+     * and returns them in order of execution date. The requests stay in the database until
+     * {@link #acknowledgeSetValueRequests(List)} is called.
+     * @param date Date up to and including which requests should be released.
+     * @return List of setValue requests that are due.
+     */
+    synchronized LinkedList<SetValueRequest> popDueSetValueRequests(final LocalDate date) {
+        return popDue(setValueRequests, date);
+    }
+
+    /**
+     * Removes processed transferLimits from the database, should be called once the requests returned by
+     * {@link #popDueTransferLimits(LocalDate)} have been processed.
+     * @param transferLimits The processed requests, as they were returned by the scheduler.
+     * @throws SQLException Thrown when the requests could not be removed from the database.
+     */
+    synchronized void acknowledgeTransferLimits(final List<TransferLimit> transferLimits) throws SQLException {
+        removeScheduledRequests(transferLimits);
+    }
+
+    /**
+     * Removes processed setValue requests from the database, should be called once the requests returned by
+     * {@link #popDueSetValueRequests(LocalDate)} have been processed.
+     * @param requests The processed requests, as they were returned by the scheduler.
+     * @throws SQLException Thrown when the requests could not be removed from the database.
+     */
+    synchronized void acknowledgeSetValueRequests(final List<SetValueRequest> requests) throws SQLException {
+        removeScheduledRequests(requests);
+    }
+
+    /**
+     * Puts transferLimits that could not be processed back into the index, so they are released again the next
+     * time requests are popped.
+     * @param date Date the requests should be executed on.
+     * @param transferLimits Requests that could not be processed.
+     */
+    synchronized void restoreTransferLimits(final LocalDate date, final List<TransferLimit> transferLimits) {
+        for (TransferLimit transferLimit : transferLimits) {
+            addToIndex(transferLimitRequests, date, transferLimit);
+        }
+    }
+
+    /**
+     * Puts setValue requests that could not be processed back into the index, so they are released again the next
+     * time requests are popped.
+     * @param requests Requests that could not be processed.
+     */
+    synchronized void restoreSetValueRequests(final List<SetValueRequest> requests) {
+        for (SetValueRequest request : requests) {
+            addToIndex(setValueRequests, request.getDate(), request);
+        }
+    }
+
+    /**
+     * Empties the in memory index, used when the database has been truncated.
+     */
+    synchronized void clear() {
+        transferLimitRequests.clear();
+        setValueRequests.clear();
+        requestIds.clear();
+        nextId = 0L;
+    }
+
+    private static <T> void addToIndex(final TreeMap<LocalDate, LinkedList<T>> index, final LocalDate date,
+                                       final T request) {
+        index.computeIfAbsent(date, k -> new LinkedList<>()).add(request);
+    }
+
+    private static <T> LinkedList<T> popDue(final TreeMap<LocalDate, LinkedList<T>> index, final LocalDate date) {
+        LinkedList<T> dueRequests = new LinkedList<>();
+        NavigableMap<LocalDate, LinkedList<T>> dueDates = index.headMap(date, true);
+        for (LinkedList<T> requestsOnDay : dueDates.values()) {
+            dueRequests.addAll(requestsOnDay);
+        }
+        dueDates.clear();
+        return dueRequests;
+    }
+
+    private void insertScheduledRequest(final Object request, final LocalDate date, final String type,
+                                        final String accountNumber, final String valueKey, final double value)
+            throws SQLException {
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        try (PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.addScheduledRequest)) {
+            ps.setLong(1, nextId);
+            ps.setDate(2, Date.valueOf(date));
+            ps.setString(3, type);
+            ps.setString(4, accountNumber);
+            ps.setString(5, valueKey);
+            ps.setDouble(6, value);
+            ps.executeUpdate();
+        } finally {
+            databaseConnectionPool.returnConnection(connection);
+        }
+        requestIds.put(request, nextId);
+        nextId++;
+    }
+
+    private void removeScheduledRequests(final List<?> requests) throws SQLException {
+        if (requests.isEmpty()) {
+            return;
+        }
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        try (PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.removeScheduledRequest)) {
+            for (Object request : requests) {
+                Long id = requestIds.get(request);
+                if (id != null) {
+                    ps.setLong(1, id);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        } finally {
+            databaseConnectionPool.returnConnection(connection);
+        }
+        for (Object request : requests) {
+            requestIds.remove(request);
+        }
+    }
+}
@@ -11,12 +11,15 @@ import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import util.JSONParser;
+import util.Log;
+import util.RequestDeadline;
+import util.ServiceTransport;
 import util.TableCreator;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -25,7 +28,6 @@ import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.*;
 
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -43,29 +45,27 @@ class SystemInformationService {
     /** SystemInformation containing knwon data about the other services. */
     private SystemInformation systemInformation;
     /** Connection to the Ledger service.*/
-    private HttpClient apiClient;
+    private ServiceTransport apiClient;
     /** Connection to the Ledger service.*/
-    private HttpClient authenticationClient;
+    private ServiceTransport authenticationClient;
     /** Connection to the Ledger service.*/
-    private HttpClient ledgerClient;
+    private ServiceTransport ledgerClient;
     /** Connection to the Ledger service.*/
-    private HttpClient pinClient;
+    private ServiceTransport pinClient;
     /** Connection to the Ledger service.*/
-    private HttpClient transactionInClient;
+    private ServiceTransport transactionInClient;
     /** Connection to the Ledger service.*/
-    private HttpClient transactionOutClient;
+    private ServiceTransport transactionOutClient;
     /** Connection to the Ledger service.*/
-    private HttpClient usersClient;
+    private ServiceTransport usersClient;
     /** Used for json conversions. */
     private Gson jsonConverter;
     /** Database connection pool containing persistent database connections. */
     private ConnectionPool databaseConnectionPool;
     /** Prefix used when printing to indicate the message is coming from the SystemInformation Service. */
     private static final String PREFIX = "[SYSINFO]             :";
-    /** Map containing dates mapping to lists of transferLimits that need to be set. */
-    private Map<LocalDate, LinkedList<TransferLimit>> transferLimitRequests;
-    /** Map containing dates mapping to lists of setValue requests that need to be processed. */
-    private Map<LocalDate, LinkedList<SetValueRequest>> setValueRequests;
+    /** Date ordered, persistent index of the transferLimit and setValue requests that still need to be executed. */
+    private RequestScheduler requestScheduler;
 
     /**
      * Constructor to start the service. This will set the systemDate to the date of the day the method is ran.
@@ -73,24 +73,29 @@ class SystemInformationService {
      * @param serviceHost Host that this service is running on.
      */
     SystemInformationService(final int servicePort, final String serviceHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
         this.systemDate = LocalDate.now();
         syncCalendar();
-        System.out.printf("%s Set date to %s\n", PREFIX, systemDate.toString());
-        System.out.printf("%s Current system time %s\n", PREFIX, LocalTime.now(ZoneOffset.UTC).toString());
+        Log.debug(PREFIX, "Set date to %s", systemDate.toString());
+        Log.debug(PREFIX, "Current system time %s", LocalTime.now(ZoneOffset.UTC).toString());
         this.systemInformation = new SystemInformation();
         this.jsonConverter = new Gson();
         this.databaseConnectionPool = new ConnectionPool();
-        this.transferLimitRequests = new HashMap<>();
-        this.setValueRequests = new HashMap<>();
+        this.requestScheduler = new RequestScheduler(databaseConnectionPool);
+        try {
+            requestScheduler.load();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            Log.warn(PREFIX, "Failed to load scheduled requests from the database.");
+        }
     }
 
     @RequestMapping(value = "/newServiceInfo", method = RequestMethod.PUT)
     void processNewSystemInformation(final Callback<String> callback, final @RequestParam("serviceInfo") String body) {
         ServiceInformation serviceInformation = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(body), ServiceInformation.class);
-        System.out.printf("%s Received new service information with type: %s\n",
-                PREFIX, serviceInformation.getServiceType().toString());
+        Log.info(PREFIX, "Received new service information with type: %s",
+                serviceInformation.getServiceType().toString());
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
 
         systemInformation.addNewServiceInformation(serviceInformation);
@@ -100,7 +105,7 @@ class SystemInformationService {
     }
 
     private void startAllServices() {
-        System.out.printf("%s System Information now complete, sending start messages to all services\n", PREFIX);
+        Log.info(PREFIX, "System Information now complete, sending start messages to all services");
 
         // SystemInformationService
         startService();
@@ -126,7 +131,7 @@ class SystemInformationService {
         // UsersService
         startSingleService(usersClient, "users");
 
-        System.out.printf("%s Started all services.\n", PREFIX);
+        Log.info(PREFIX, "Started all services.");
     }
 
     /**
@@ -141,27 +146,20 @@ class SystemInformationService {
         ServiceInformation transactionOut = systemInformation.getTransactionDispatchServiceInformation();
         ServiceInformation users = systemInformation.getUsersServiceInformation();
 
-        apiClient = httpClientBuilder().setHost(api.getServiceHost())
-                .setPort(api.getServicePort()).buildAndStart();
-        authenticationClient = httpClientBuilder().setHost(authentication.getServiceHost())
-                .setPort(authentication.getServicePort()).buildAndStart();
-        ledgerClient = httpClientBuilder().setHost(ledger.getServiceHost())
-                .setPort(ledger.getServicePort()).buildAndStart();
-        pinClient = httpClientBuilder().setHost(pin.getServiceHost())
-                .setPort(pin.getServicePort()).buildAndStart();
-        transactionInClient = httpClientBuilder().setHost(transactionIn.getServiceHost())
-                .setPort(transactionIn.getServicePort()).buildAndStart();
-        transactionOutClient = httpClientBuilder().setHost(transactionOut.getServiceHost())
-                .setPort(transactionOut.getServicePort()).buildAndStart();
-        usersClient = httpClientBuilder().setHost(users.getServiceHost())
-                .setPort(users.getServicePort()).buildAndStart();
-
-        System.out.printf("%s Initialization of System Information service connections complete.\n", PREFIX);
-    }
-
-    private void startSingleService(final HttpClient client, final String serviceName) {
+        apiClient = ServiceTransport.connect(api.getServiceHost(), api.getServicePort());
+        authenticationClient = ServiceTransport.connect(authentication.getServiceHost(), authentication.getServicePort());
+        ledgerClient = ServiceTransport.connect(ledger.getServiceHost(), ledger.getServicePort());
+        pinClient = ServiceTransport.connect(pin.getServiceHost(), pin.getServicePort());
+        transactionInClient = ServiceTransport.connect(transactionIn.getServiceHost(), transactionIn.getServicePort());
+        transactionOutClient = ServiceTransport.connect(transactionOut.getServiceHost(), transactionOut.getServicePort());
+        usersClient = ServiceTransport.connect(users.getServiceHost(), users.getServicePort());
+
+        Log.info(PREFIX, "Initialization of System Information service connections complete.");
+    }
+
+    private void startSingleService(final ServiceTransport client, final String serviceName) {
         String sysInfo = jsonConverter.toJson(JSONParser.createMessageWrapper(false, 0, "Request", systemInformation));
-        System.out.printf("%s Sending ServiceInformation to the " + serviceName + " service.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the %s service.", serviceName);
         client.putFormAsyncWith1Param("/services/" + serviceName + "/start",
                 "sysInfo", sysInfo, (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -175,14 +173,17 @@ class SystemInformationService {
     }
 
     /**
-     * Increments the systemDate by the amount of days supplied by the requester.
+     * Increments the systemDate by the amount of days supplied by the requester. The steps of a day change each
+     * change state that the next step depends on, so they are not bound to the deadline of the requester, every call
+     * of the chain gets its own timeout instead.
      * @param callback Used to send the result of the request back to the requester.
      * @param days Amount of days to increment the systemDate with.
      */
     @RequestMapping(value = "/date/increment", method = RequestMethod.PUT)
     void incrementDate(final Callback<String> callback, final @RequestParam("days") long days) {
         if (days >= 0) {
-            processPassingTime(days, CallbackBuilder.newCallbackBuilder().withStringCallback(callback));
+            RequestDeadline.runWithin(RequestDeadline.NONE, () -> processPassingTime(days,
+                    CallbackBuilder.newCallbackBuilder().withStringCallback(callback)));
         } else {
             callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                     true, 418, "One of the parameters has an invalid value.",
@@ -278,12 +279,8 @@ class SystemInformationService {
 
     private void doSetTransferLimitsRequest(final Long daysLeft, final boolean sendCallback,
                                             final CallbackBuilder callbackBuilder) {
-        LinkedList<TransferLimit> limitsToBeProcessed = new LinkedList<>();
-        for (LocalDate date : transferLimitRequests.keySet()) {
-            if (!date.isAfter(systemDate)) {
-                limitsToBeProcessed.addAll(transferLimitRequests.remove(date));
-            }
-        }
+        final LocalDate processingDate = systemDate;
+        LinkedList<TransferLimit> limitsToBeProcessed = requestScheduler.popDueTransferLimits(processingDate);
         if (limitsToBeProcessed.size() > 0) {
             MessageWrapper data = JSONParser.createMessageWrapper(false, 0, "Request", limitsToBeProcessed);
             ledgerClient.putFormAsyncWith1Param("/services/ledger/transferLimit",
@@ -292,11 +289,18 @@ class SystemInformationService {
                     MessageWrapper messageWrapper = jsonConverter.fromJson(
                             JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                     if (!messageWrapper.isError()) {
+                        try {
+                            requestScheduler.acknowledgeTransferLimits(limitsToBeProcessed);
+                        } catch (SQLException e) {
+                            e.printStackTrace();
+                        }
                         doSetValueRequests(daysLeft, sendCallback, callbackBuilder);
                     } else {
+                        requestScheduler.restoreTransferLimits(processingDate, limitsToBeProcessed);
                         callbackBuilder.build().reply(body);
                     }
                 } else {
+                    requestScheduler.restoreTransferLimits(processingDate, limitsToBeProcessed);
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                             "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
                 }
@@ -308,40 +312,46 @@ class SystemInformationService {
 
     private void doSetValueRequests(final Long daysLeft, final boolean sendCallback,
                                     final CallbackBuilder callbackBuilder) {
+        final LocalDate processingDate = systemDate;
         LinkedList<SetValueRequest> ledgerSetValueRequests = new LinkedList<>();
         LinkedList<SetValueRequest> pinSetValueRequests = new LinkedList<>();
-        for (LocalDate date : setValueRequests.keySet()) {
-            if (!date.isAfter(systemDate)) {
-                for (SetValueRequest i : setValueRequests.remove(date)) {
-                    if (i.getKey().isLedgerKey()) {
-                        ledgerSetValueRequests.add(i);
-                    } else {
-                        pinSetValueRequests.add(i);
-                    }
-                }
+        for (SetValueRequest i : requestScheduler.popDueSetValueRequests(processingDate)) {
+            if (i.getKey().isLedgerKey()) {
+                ledgerSetValueRequests.add(i);
+            } else {
+                pinSetValueRequests.add(i);
             }
         }
-        sendLedgerSetValueRequests(ledgerSetValueRequests, pinSetValueRequests, daysLeft, sendCallback, callbackBuilder);
+        sendLedgerSetValueRequests(ledgerSetValueRequests, pinSetValueRequests, daysLeft,
+                sendCallback, callbackBuilder);
     }
 
+    /**
+     * Sends all due setValue requests for the ledger in a single request, removes them from the database once they
+     * have been processed and then continues with the requests for the pin service.
+     */
     private void sendLedgerSetValueRequests(final LinkedList<SetValueRequest> ledgerRequests,
-                                            final LinkedList<SetValueRequest> pinRequests,
-                                            final Long daysLeft, final boolean sendCallback,
-                                            final CallbackBuilder callbackBuilder) {
+                                            final LinkedList<SetValueRequest> pinRequests, final Long daysLeft,
+                                            final boolean sendCallback, final CallbackBuilder callbackBuilder) {
         if (ledgerRequests.size() > 0) {
+            MessageWrapper data = JSONParser.createMessageWrapper(false, 0, "Request", ledgerRequests);
             ledgerClient.putFormAsyncWith1Param("/services/ledger/setValue",
-                "data", jsonConverter.toJson(ledgerRequests.remove(0)), (code, contentType, body) -> {
+                "data", jsonConverter.toJson(data), (code, contentType, body) -> {
                     if (code == HTTP_OK) {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(
                                 JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            sendLedgerSetValueRequests(ledgerRequests, pinRequests, daysLeft, sendCallback, callbackBuilder);
+                            acknowledgeSetValueRequests(ledgerRequests);
+                            sendPinSetValueRequests(pinRequests, daysLeft, sendCallback,
+                                    callbackBuilder);
                         } else {
+                            requestScheduler.restoreSetValueRequests(ledgerRequests);
+                            requestScheduler.restoreSetValueRequests(pinRequests);
                             callbackBuilder.build().reply(body);
                         }
                     } else {
-                        System.out.println("\n\n\n" + code);
-                        System.out.println(body);
+                        requestScheduler.restoreSetValueRequests(ledgerRequests);
+                        requestScheduler.restoreSetValueRequests(pinRequests);
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                                 "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
                     }
@@ -351,36 +361,59 @@ class SystemInformationService {
         }
     }
 
-    private void sendPinSetValueRequests(final LinkedList<SetValueRequest> requests,
-                                         final Long daysLeft, final boolean sendCallBack,
-                                         final CallbackBuilder callbackBuilder) {
+    /**
+     * Sends all due setValue requests for the pin service in a single request, once these have been processed they
+     * are removed from the database.
+     */
+    private void sendPinSetValueRequests(final LinkedList<SetValueRequest> requests, final Long daysLeft,
+                                         final boolean sendCallBack, final CallbackBuilder callbackBuilder) {
         if (requests.size() > 0) {
+            MessageWrapper data = JSONParser.createMessageWrapper(false, 0, "Request", requests);
             pinClient.putFormAsyncWith1Param("/services/pin/setValue",
-                    "data", jsonConverter.toJson(requests.remove(0)), (code, contentType, body) -> {
+                    "data", jsonConverter.toJson(data), (code, contentType, body) -> {
                 if (code == HTTP_OK) {
                     MessageWrapper messageWrapper = jsonConverter.fromJson(
                             JSONParser.removeEscapeCharacters(body), MessageWrapper.class);
                     if (!messageWrapper.isError()) {
-                        sendPinSetValueRequests(requests, daysLeft, sendCallBack, callbackBuilder);
+                        acknowledgeSetValueRequests(requests);
+                        finishSetValueRequests(daysLeft, sendCallBack, callbackBuilder);
                     } else {
+                        requestScheduler.restoreSetValueRequests(requests);
                         callbackBuilder.build().reply(body);
                     }
                 } else {
+                    requestScheduler.restoreSetValueRequests(requests);
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                             "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
                 }
             });
         } else {
-            if (sendCallBack) {
-                sendIncrementDaysCallback(callbackBuilder);
-            } else {
-                doInterestProcessingRequest(daysLeft, callbackBuilder);
-            }
+            finishSetValueRequests(daysLeft, sendCallBack, callbackBuilder);
+        }
+    }
+
+    /**
+     * Removes setValue requests that have been processed from the database.
+     */
+    private void acknowledgeSetValueRequests(final List<SetValueRequest> requests) {
+        try {
+            requestScheduler.acknowledgeSetValueRequests(requests);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void finishSetValueRequests(final Long daysLeft, final boolean sendCallBack,
+                                        final CallbackBuilder callbackBuilder) {
+        if (sendCallBack) {
+            sendIncrementDaysCallback(callbackBuilder);
+        } else {
+            doInterestProcessingRequest(daysLeft, callbackBuilder);
         }
     }
 
     private void sendIncrementDaysCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s The new system date is %s\n", PREFIX, this.systemDate.toString());
+        Log.debug(PREFIX, "The new system date is %s", this.systemDate.toString());
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
                                       false, 200, "Normal Reply")));
     }
@@ -398,22 +431,38 @@ class SystemInformationService {
      */
     @RequestMapping(value = "/date", method = RequestMethod.GET)
     void getDate(final Callback<String> callback) {
-        System.out.printf("%s received date request, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "received date request, sending callback.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
                 "Normal Reply", this.systemDate)));
     }
 
     /**
-     * Reset method for the systemDate & Database.
+     * Reset method for the systemDate & Database, like a day change the reset is not bound to the deadline of the
+     * requester.
      * @param callback Used to send the result of the request back to the requester.
      */
     @RequestMapping(value = "/reset", method = RequestMethod.POST)
     void reset(final Callback<String> callback) {
+        RequestDeadline.runWithin(RequestDeadline.NONE, () -> resetSystem(callback));
+    }
+
+    private void resetSystem(final Callback<String> callback) {
         TableCreator.truncateTables();
+        requestScheduler.clear();
         this.systemDate = LocalDate.now();
-        System.out.printf("%s Reset request successful, sending callback.\n", PREFIX);
-        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
-                "Normal Reply", this.systemDate)));
+        pinClient.postAsync("/services/pin/reset", (code, contentType, body) -> {
+            if (code != HTTP_OK) {
+                Log.warn(PREFIX, "Pin service could not reload its cards after the reset.");
+            }
+            ledgerClient.postAsync("/services/ledger/reset", (ledgerCode, ledgerContentType, ledgerBody) -> {
+                if (ledgerCode != HTTP_OK) {
+                    Log.warn(PREFIX, "Ledger could not reload its accounts after the reset.");
+                }
+                Log.debug(PREFIX, "Reset request successful, sending callback.");
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
+                        "Normal Reply", this.systemDate)));
+            });
+        });
     }
 
     /**
@@ -424,9 +473,25 @@ class SystemInformationService {
     @RequestMapping(value = "/log/request", method = RequestMethod.PUT)
     void logRequest(final Callback<String> callback, final @RequestParam("request") String requestJson) {
         JSONRPC2Request request = jsonConverter.fromJson(requestJson, JSONRPC2Request.class);
-        System.out.printf("%s Logging new request.\n", PREFIX);
+        Log.debug(PREFIX, "Logging new request.");
+        logRequests(callback, Collections.singletonList(request));
+    }
+
+    /**
+     * Inserts all requests of a batch request into the request log, in a single database transaction.
+     * @param callback Used to send the result back to the request source.
+     * @param requestsJson Json array of the requests to insert into the request log.
+     */
+    @RequestMapping(value = "/log/requests", method = RequestMethod.PUT)
+    void logRequestBatch(final Callback<String> callback, final @RequestParam("requests") String requestsJson) {
+        JSONRPC2Request[] requests = jsonConverter.fromJson(requestsJson, JSONRPC2Request[].class);
+        Log.debug(PREFIX, "Logging batch of %d requests.", requests.length);
+        logRequests(callback, Arrays.asList(requests));
+    }
+
+    private void logRequests(final Callback<String> callback, final List<JSONRPC2Request> requests) {
         try {
-            addRequestLogToDb(request);
+            addRequestLogsToDb(requests);
             callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
                     "Normal Reply")));
         } catch (SQLException e) {
@@ -437,33 +502,54 @@ class SystemInformationService {
     }
 
     /**
-     * Inserts a request into the request log table.
-     * @param request Request to insert into the request log.
+     * Inserts requests into the request log table, either all requests are inserted or none are.
+     * @param requests Requests to insert into the request log.
      * @throws SQLException Thrown when a database error occurs, will cause the request to fail.
      */
-    private void addRequestLogToDb(final JSONRPC2Request request) throws SQLException {
+    private void addRequestLogsToDb(final List<JSONRPC2Request> requests) throws SQLException {
         SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-        PreparedStatement addRequestLog = databaseConnection.getConnection()
-                .prepareStatement(SQLStatements.addRequestLog);
-        addRequestLog.setString(1, request.getID().toString());
-        addRequestLog.setString(2, request.getMethod());
+        Connection con = databaseConnection.getConnection();
+        PreparedStatement addRequestLog = con.prepareStatement(SQLStatements.addRequestLog);
+        try {
+            con.setAutoCommit(false);
+            for (JSONRPC2Request request : requests) {
+                addRequestLog.setString(1, String.valueOf(request.getID()));
+                addRequestLog.setString(2, request.getMethod());
+                addRequestLog.setString(3, createParamString(request));
+                addRequestLog.setDate(4, java.sql.Date.valueOf(systemDate));
+                addRequestLog.setString(5, LocalTime.now(ZoneOffset.UTC).toString());
+                addRequestLog.addBatch();
+            }
+            addRequestLog.executeBatch();
+            con.commit();
+        } catch (SQLException e) {
+            con.rollback();
+            throw e;
+        } finally {
+            con.setAutoCommit(true);
+            addRequestLog.close();
+            databaseConnectionPool.returnConnection(databaseConnection);
+        }
+    }
+
+    /**
+     * Creates the textual representation of the parameters of a request that is stored in the request log.
+     * @param request Request to create the parameter string for.
+     * @return The parameters of the request in the format name:value, name:value.
+     */
+    private static String createParamString(final JSONRPC2Request request) {
         StringBuilder paramString = new StringBuilder();
         Map<String, Object> requestParams = request.getNamedParams();
-        if (requestParams.keySet().size() > 0) {
+        if (requestParams != null && requestParams.keySet().size() > 0) {
             for (String paramName : requestParams.keySet()) {
                 paramString.append(paramName);
                 paramString.append(":");
-                paramString.append(requestParams.get(paramName).toString());
+                paramString.append(String.valueOf(requestParams.get(paramName)));
                 paramString.append(", ");
             }
             paramString.setLength(paramString.length() - 2);
         }
-        addRequestLog.setString(3, paramString.toString());
-        addRequestLog.setDate(4, java.sql.Date.valueOf(systemDate));
-        addRequestLog.setString(5, LocalTime.now(ZoneOffset.UTC).toString());
-        addRequestLog.execute();
-        addRequestLog.close();
-        databaseConnectionPool.returnConnection(databaseConnection);
+        return paramString.toString();
     }
 
     /**
@@ -473,7 +559,7 @@ class SystemInformationService {
      */
     @RequestMapping(value = "/log/error", method = RequestMethod.PUT)
     void errorThing(final Callback<String> callback, final @RequestParam("request") String requestJson) {
-        System.out.printf("%s Logging error response.\n\n", PREFIX);
+        Log.debug(PREFIX, "Logging error response.");
         JSONRPC2Response response = jsonConverter.fromJson(requestJson, JSONRPC2Response.class);
         try {
             addErrorLogToDb(response);
@@ -481,7 +567,7 @@ class SystemInformationService {
                     "Normal Reply")));
         } catch (SQLException e) {
             e.printStackTrace();
-            System.out.println("SQLEXCEPTION");
+            Log.warn(PREFIX, "Failed to add the error response to the error log.");
             callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                     "Error connecting to the error log database.")));
         }
@@ -598,17 +684,18 @@ class SystemInformationService {
     public void setTransferLimit(final Callback<String> callback,
                                  final @RequestParam("iBAN") String iBAN,
                                  final @RequestParam("transferLimit") Double transferLimit) {
-        System.out.printf("%s Received set transfer limit request.\n", PREFIX);
+        Log.debug(PREFIX, "Received set transfer limit request.");
         LocalDate dayOfExecution = systemDate.plusDays(1L);
-        LinkedList<TransferLimit> requestsOnDay = transferLimitRequests.get(dayOfExecution);
-        if (requestsOnDay == null) {
-            requestsOnDay = new LinkedList<>();
+        try {
+            requestScheduler.scheduleTransferLimit(dayOfExecution, new TransferLimit(iBAN, transferLimit));
+            Log.debug(PREFIX, "Successfully added set transfer limit request to queue.");
+            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
+                    "Normal Reply")));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                    "Error connecting to the SystemInformation database.")));
         }
-        requestsOnDay.add(new TransferLimit(iBAN, transferLimit));
-        transferLimitRequests.put(dayOfExecution, requestsOnDay);
-        System.out.printf("%s Successfully added set transfer limit request to queue.\n", PREFIX);
-        callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
-                "Normal Reply")));
     }
 
     /**
@@ -618,7 +705,7 @@ class SystemInformationService {
      */
     @RequestMapping(value = "/setValue", method = RequestMethod.PUT)
     public void setValue(final Callback<String> callback, final @RequestParam("data") String request) {
-        System.out.printf("%s Received setValue request.\n", PREFIX);
+        Log.debug(PREFIX, "Received setValue request.");
         SetValueRequest setValueRequest = jsonConverter.fromJson(
                 JSONParser.removeEscapeCharacters(request), SetValueRequest.class);
         LocalDate dayOfExecution = setValueRequest.getDate();
@@ -626,15 +713,16 @@ class SystemInformationService {
             callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
                     "The Date parameter was incorrectly specified.")));
         } else {
-            LinkedList<SetValueRequest> requestsOnDay = setValueRequests.get(dayOfExecution);
-            if (requestsOnDay == null) {
-                requestsOnDay = new LinkedList<>();
+            try {
+                requestScheduler.scheduleSetValueRequest(setValueRequest);
+                Log.debug(PREFIX, "Successfully added setValue request to queue.");
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
+                        "Normal Reply")));
+            } catch (SQLException e) {
+                e.printStackTrace();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "Error connecting to the SystemInformation database.")));
             }
-            requestsOnDay.add(setValueRequest);
-            setValueRequests.put(dayOfExecution, requestsOnDay);
-            System.out.printf("%s Successfully added setValue request to queue.\n", PREFIX);
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200,
-                    "Normal Reply")));
         }
     }
 
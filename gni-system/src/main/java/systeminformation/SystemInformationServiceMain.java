@@ -1,6 +1,8 @@
 package systeminformation;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.MetricsServer;
 
 /**
  * Utility class that contains a main method to start up the System Information Service.
@@ -30,8 +32,12 @@ public final class SystemInformationServiceMain {
                             .setRootURI("/services")
                             .setPort(Integer.parseInt(args[0]));
 
-            managedServiceBuilder.addEndpointService(new SystemInformationService(Integer.parseInt(args[0]), args[1]))
+            final SystemInformationService systemInformationService =
+                    new SystemInformationService(Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register(args[1], Integer.parseInt(args[0]), "/services", systemInformationService);
+            managedServiceBuilder.addEndpointService(systemInformationService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
         }
     }
 }
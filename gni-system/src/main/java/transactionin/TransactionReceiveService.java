@@ -5,12 +5,12 @@ import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import util.JSONParser;
+import util.Log;
+import util.ServiceTransport;
 
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -22,9 +22,9 @@ import static java.net.HttpURLConnection.HTTP_OK;
 @RequestMapping("/transactionReceive")
 class TransactionReceiveService {
     /** Connection to the Ledger service.*/
-    private HttpClient ledgerClient;
+    private ServiceTransport ledgerClient;
     /** Connection to the SystemInformation service. */
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
     /** Used for json conversions. */
     private Gson jsonConverter;
     /** Prefix used when printing to indicate the message is coming from the Transaction Receive Service. */
@@ -39,8 +39,8 @@ class TransactionReceiveService {
      */
     TransactionReceiveService(final int servicePort, final String serviceHost,
                final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.jsonConverter = new Gson();
         sendServiceInformation(servicePort, serviceHost);
     }
@@ -53,7 +53,7 @@ class TransactionReceiveService {
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(
                 servicePort, serviceHost, ServiceType.TRANSACTION_RECEIVE_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -77,10 +77,9 @@ class TransactionReceiveService {
         SystemInformation sysInfo = (SystemInformation) messageWrapper.getData();
         ServiceInformation ledger = sysInfo.getLedgerServiceInformation();
 
-        this.ledgerClient = httpClientBuilder().setHost(ledger.getServiceHost())
-                .setPort(ledger.getServicePort()).buildAndStart();
+        this.ledgerClient = ServiceTransport.connect(ledger.getServiceHost(), ledger.getServicePort());
 
-        System.out.printf("%s Initialization of Transaction Receive service connections complete.\n", PREFIX);
+        Log.info(PREFIX, "Initialization of Transaction Receive service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -94,7 +93,7 @@ class TransactionReceiveService {
     @RequestMapping(value = "/transaction", method = RequestMethod.PUT)
     public void processIncomingTransaction(final Callback<String> callback,
                                            final @RequestParam("request") String requestWrapper) {
-        System.out.printf("%s Received incoming transaction request.\n", PREFIX);
+        Log.debug(PREFIX, "Received incoming transaction request.");
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         doIncomingTransactionRequest(requestWrapper, callbackBuilder);
     }
@@ -117,7 +116,7 @@ class TransactionReceiveService {
                             callbackBuilder.build().reply(transactionReplyJson);
                         }
                     } else {
-                        System.out.printf("%s Received a rejection from ledger, sending rejection.\n", PREFIX);
+                        Log.debug(PREFIX, "Received a rejection from ledger, sending rejection.");
                         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
                     }
                 });
@@ -129,14 +128,14 @@ class TransactionReceiveService {
             sendIncomingTransactionRequestCallback(transactionReplyJson, callbackBuilder);
             //TODO send reply to external bank.
         } else {
-            System.out.printf("%s Transaction unsuccessful, sending rejection.\n", PREFIX);
+            Log.debug(PREFIX, "Transaction unsuccessful, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Unknown error occurred.")));
         }
     }
 
     private void sendIncomingTransactionRequestCallback(final String transactionReplyJson,
                                                         final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Successfully processed incoming transaction, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Successfully processed incoming transaction, sending callback.");
         callbackBuilder.build().reply(transactionReplyJson);
     }
 }
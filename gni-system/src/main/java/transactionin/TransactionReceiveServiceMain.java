@@ -1,6 +1,8 @@
 package transactionin;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.MetricsServer;
 import util.PortScanner;
 
 /**
@@ -33,10 +35,12 @@ public final class TransactionReceiveServiceMain {
                             .setRootURI("/services")
                             .setPort(servicePort);
 
-            managedServiceBuilder.addEndpointService(new TransactionReceiveService(
-                    servicePort, "localhost",
-                    Integer.parseInt(args[0]), args[1]))
+            final TransactionReceiveService transactionReceiveService = new TransactionReceiveService(servicePort, "localhost",
+                    Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register("localhost", servicePort, "/services", transactionReceiveService);
+            managedServiceBuilder.addEndpointService(transactionReceiveService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
         }
     }
 }
@@ -5,12 +5,12 @@ import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import util.JSONParser;
+import util.Log;
+import util.ServiceTransport;
 
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -24,9 +24,9 @@ import static java.net.HttpURLConnection.HTTP_OK;
 @RequestMapping("/transactionDispatch")
 class TransactionDispatchService {
     /** Connection to the Ledger service. */
-    private HttpClient ledgerClient;
+    private ServiceTransport ledgerClient;
     /** Connection to the SystemInformation service. */
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
     /** Used for Json conversions. */
     private Gson jsonConverter;
     /** Prefix used when printing to indicate the message is coming from the Transaction Dispatch Service. */
@@ -41,8 +41,8 @@ class TransactionDispatchService {
      */
     TransactionDispatchService(final int servicePort, final String serviceHost,
                final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.jsonConverter = new Gson();
         sendServiceInformation(servicePort, serviceHost);
     }
@@ -55,7 +55,7 @@ class TransactionDispatchService {
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(
                 servicePort, serviceHost, ServiceType.TRANSACTION_DISPATCH_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -79,10 +79,9 @@ class TransactionDispatchService {
         SystemInformation sysInfo = (SystemInformation) messageWrapper.getData();
         ServiceInformation ledger = sysInfo.getLedgerServiceInformation();
 
-        this.ledgerClient = httpClientBuilder().setHost(ledger.getServiceHost())
-                .setPort(ledger.getServicePort()).buildAndStart();
+        this.ledgerClient = ServiceTransport.connect(ledger.getServiceHost(), ledger.getServicePort());
 
-        System.out.printf("%s Initialization of Transaction Dispatch service connections complete.\n", PREFIX);
+        Log.info(PREFIX, "Initialization of Transaction Dispatch service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -101,8 +100,8 @@ class TransactionDispatchService {
         MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(requestWrapper),
                                                                MessageWrapper.class);
         Transaction request = (Transaction) messageWrapper.getData();
-        System.out.printf("%s Transaction received, sourceAccount: %s ,destAccount: %s, amount: %.2f, customerId %s\n",
-                PREFIX, request.getSourceAccountNumber(), request.getDestinationAccountNumber(),
+        Log.debug(PREFIX, "Transaction received, sourceAccount: %s ,destAccount: %s, amount: %.2f, customerId %s",
+                request.getSourceAccountNumber(), request.getDestinationAccountNumber(),
                             request.getTransactionAmount(), customerId);
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         doOutgoingTransactionRequest(messageWrapper, customerId, override, callbackBuilder);
@@ -135,6 +134,27 @@ class TransactionDispatchService {
                 });
     }
 
+    /**
+     * Forwards a batch of bank initiated transactions to the ledger, the reply of the ledger contains the result
+     * of every transaction in the batch and is sent back to the source of the request as is.
+     * @param callback Callback used to send a reply back to the origin of the request.
+     * @param requestWrapper MessageWrapper containing the list of transactions to be executed.
+     */
+    @RequestMapping(value = "/transaction/batch", method = RequestMethod.PUT)
+    public void processTransactionBatchRequest(final Callback<String> callback,
+                                               @RequestParam("request") final String requestWrapper) {
+        Log.debug(PREFIX, "Transaction batch received, forwarding to the ledger.");
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        ledgerClient.putFormAsyncWith1Param("/services/ledger/transaction/batch", "request",
+                JSONParser.removeEscapeCharacters(requestWrapper), (httpStatusCode, httpContentType, replyJson) -> {
+                    if (httpStatusCode == HTTP_OK) {
+                        callbackBuilder.build().reply(replyJson);
+                    } else {
+                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "An unknown error occurred.", "There was a problem with one of the HTTP requests")));
+                    }
+                });
+    }
+
     /**
      * Checks if the transaction is processed and successful, if it is forwards the reply to the requesting service,
      * if it is not sends a rejection to the requesting service.
@@ -146,7 +166,7 @@ class TransactionDispatchService {
                                                  final CallbackBuilder callbackBuilder) {
         if (transaction.isProcessed() && transaction.isSuccessful()) {
             //TODO send outgoing transaction.
-            System.out.printf("%s Successful transaction, sending callback.\n", PREFIX);
+            Log.debug(PREFIX, "Successful transaction, sending callback.");
             callbackBuilder.build().reply(transactionReplyJson);
         } else {
             callbackBuilder.build().reply(transactionReplyJson);
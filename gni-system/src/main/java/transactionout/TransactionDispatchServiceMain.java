@@ -1,6 +1,8 @@
 package transactionout;
 
 import io.advantageous.qbit.admin.ManagedServiceBuilder;
+import util.LocalServiceRegistry;
+import util.MetricsServer;
 import util.PortScanner;
 
 /**
@@ -33,10 +35,12 @@ public final class TransactionDispatchServiceMain {
                             .setRootURI("/services")
                             .setPort(servicePort);
 
-            managedServiceBuilder.addEndpointService(new TransactionDispatchService(
-                    servicePort, "localhost",
-                    Integer.parseInt(args[0]), args[1]))
+            final TransactionDispatchService transactionDispatchService = new TransactionDispatchService(servicePort, "localhost",
+                    Integer.parseInt(args[0]), args[1]);
+            LocalServiceRegistry.register("localhost", servicePort, "/services", transactionDispatchService);
+            managedServiceBuilder.addEndpointService(transactionDispatchService)
                     .getEndpointServerBuilder().build().startServer();
+            MetricsServer.start();
         }
     }
 }
@@ -0,0 +1,119 @@
+package users;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * @author Noel
+ * @version 1
+ * Index of the children in the system sorted by the date on which they turn 18, mirrors the adult_date column of
+ * the users table. Used to find the children that should be converted to adults without scanning all children.
+ * Databases created before the column existed are migrated when the index is loaded.
+ */
+class ChildBirthdayIndex {
+    /** Database connection pool containing persistent database connections. */
+    private final ConnectionPool databaseConnectionPool;
+    /** CustomerIds of all children, sorted by the date on which they turn 18. */
+    private final TreeMap<LocalDate, Set<Long>> childrenByAdultDate;
+
+    /**
+     * Creates an empty index, {@link #load()} should be called to fill it with the children in the database.
+     * @param newDatabaseConnectionPool Pool used to read the children from the database.
+     */
+    ChildBirthdayIndex(final ConnectionPool newDatabaseConnectionPool) {
+        this.databaseConnectionPool = newDatabaseConnectionPool;
+        this.childrenByAdultDate = new TreeMap<>();
+    }
+
+    /**
+     * Replaces the contents of the index with all children that are stored in the users table, the adult_date column
+     * is added and filled in first if the users table does not have it yet.
+     * @throws SQLException Thrown when the children could not be fetched from the database.
+     */
+    void load() throws SQLException {
+        childrenByAdultDate.clear();
+        SQLConnection connection = databaseConnectionPool.getConnection();
+        try {
+            migrate(connection.getConnection());
+            try (PreparedStatement ps = connection.getConnection().prepareStatement(SQLStatements.getChildAdultDates);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    add(rs.getLong("id"), adultDate(rs));
+                }
+            }
+        } finally {
+            databaseConnectionPool.returnConnection(connection);
+        }
+    }
+
+    /**
+     * Fetches the date on which the child in the current row turns 18, derived from the date of birth if the
+     * adult_date of the row was never filled in.
+     * @param rs Result set positioned on a row with the date_of_birth and adult_date columns of a child.
+     * @return Date on which the child turns 18.
+     * @throws SQLException Thrown when the columns could not be read.
+     */
+    static LocalDate adultDate(final ResultSet rs) throws SQLException {
+        java.sql.Date adultDate = rs.getDate("adult_date");
+        if (adultDate != null) {
+            return adultDate.toLocalDate();
+        }
+        return rs.getDate("date_of_birth").toLocalDate().plusYears(18);
+    }
+
+    /**
+     * Adds the adult_date column to a users table that was created without it and fills it in for every child that
+     * does not have one yet.
+     */
+    private static void migrate(final Connection connection) throws SQLException {
+        boolean hasColumn;
+        try (ResultSet columns = connection.getMetaData().getColumns(null, null, "users", "adult_date")) {
+            hasColumn = columns.next();
+        }
+        if (!hasColumn) {
+            try (PreparedStatement ps = connection.prepareStatement(SQLStatements.addAdultDateColumnUsers)) {
+                ps.execute();
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(SQLStatements.backfillAdultDatesUsers)) {
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds a child to the index.
+     * @param customerId CustomerId of the child.
+     * @param adultDate Date on which the child turns 18.
+     */
+    void add(final long customerId, final LocalDate adultDate) {
+        childrenByAdultDate.computeIfAbsent(adultDate, k -> new HashSet<>()).add(customerId);
+    }
+
+    /**
+     * Checks if there are children that turned 18 before the given date.
+     * @param date Date of the birthday check.
+     * @return True if at least one child should be converted to an adult.
+     */
+    boolean hasChildrenTurnedAdult(final LocalDate date) {
+        return !childrenByAdultDate.headMap(date, false).isEmpty();
+    }
+
+    /**
+     * Removes all children that turned 18 before the given date from the index, should be called once they have
+     * been converted to adults.
+     * @param date Date of the birthday check.
+     */
+    void removeChildrenTurnedAdult(final LocalDate date) {
+        childrenByAdultDate.headMap(date, false).clear();
+    }
+}
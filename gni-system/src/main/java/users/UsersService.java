@@ -2,17 +2,20 @@ package users;
 
 import com.google.gson.Gson;
 import database.ConnectionPool;
+import database.DatabaseExecutor;
 import database.SQLConnection;
 import database.SQLStatements;
 import databeans.*;
 import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.annotation.RequestParam;
-import io.advantageous.qbit.http.client.HttpClient;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import pin.NoEffectException;
+import util.ApiCacheInvalidator;
 import util.JSONParser;
+import util.Log;
+import util.ServiceTransport;
 
 import java.security.InvalidParameterException;
 import java.sql.PreparedStatement;
@@ -23,7 +26,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import static database.SQLStatements.*;
-import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
 import static java.net.HttpURLConnection.HTTP_OK;
 
 /**
@@ -34,21 +36,27 @@ import static java.net.HttpURLConnection.HTTP_OK;
 @RequestMapping("/users")
 class UsersService {
     /** Connection to the Ledger service.*/
-    private HttpClient ledgerClient;
+    private ServiceTransport ledgerClient;
     /** Connection to the Transaction Dispatch service.*/
-    private HttpClient transactionDispatchClient;
+    private ServiceTransport transactionDispatchClient;
     /** Connection to the Transaction Receive Service.*/
-    private HttpClient transactionReceiveClient;
+    private ServiceTransport transactionReceiveClient;
     /** Connection to the Pin Service.*/
-    private HttpClient pinClient;
+    private ServiceTransport pinClient;
     /** Connection to the SystemInformation service. */
-    private HttpClient systemInformationClient;
+    private ServiceTransport systemInformationClient;
     /** Connection to the authentication service. */
-    private HttpClient authenticationClient;
+    private ServiceTransport authenticationClient;
     /** Connection pool with database connections for the User Service. */
     private ConnectionPool databaseConnectionPool;
+    /** Executes the database work of the requests, customer and account link changes are executed serially. */
+    private DatabaseExecutor databaseExecutor;
     /** Gson object used to convert objects to/from json. */
     private Gson jsonConverter;
+    /** Children in the system sorted by the date on which they turn 18. */
+    private ChildBirthdayIndex childBirthdayIndex;
+    /** Notifies the api when account access or freeze statuses change. */
+    private ApiCacheInvalidator apiCacheInvalidator;
     /** Prefix used when printing to indicate the message is coming from the Users Service. */
     private static final String PREFIX = "[Users]               :";
 
@@ -61,10 +69,21 @@ class UsersService {
      */
     UsersService(final int servicePort, final String serviceHost,
                final int sysInfoPort, final String sysInfoHost) {
-        System.out.printf("%s Service started on the following location: %s:%d.\n", PREFIX, serviceHost, servicePort);
-        this.systemInformationClient = httpClientBuilder().setHost(sysInfoHost).setPort(sysInfoPort).buildAndStart();
+        Log.info(PREFIX, "Service started on the following location: %s:%d.", serviceHost, servicePort);
+        this.systemInformationClient = ServiceTransport.connect(sysInfoHost, sysInfoPort);
         this.databaseConnectionPool = new ConnectionPool();
+        this.databaseExecutor = new DatabaseExecutor("Users");
+        this.apiCacheInvalidator = new ApiCacheInvalidator(PREFIX);
         this.jsonConverter = new Gson();
+        this.childBirthdayIndex = new ChildBirthdayIndex(databaseConnectionPool);
+        try {
+            childBirthdayIndex.load();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.err.println("Could not load the children from the users database.");
+            System.err.println("Shutting down the Users service.");
+            System.exit(1);
+        }
         sendServiceInformation(servicePort, serviceHost);
     }
 
@@ -75,7 +94,7 @@ class UsersService {
      */
     private void sendServiceInformation(final int servicePort, final String serviceHost) {
         ServiceInformation serviceInfo = new ServiceInformation(servicePort, serviceHost, ServiceType.USERS_SERVICE);
-        System.out.printf("%s Sending ServiceInformation to the SystemInformationService.\n", PREFIX);
+        Log.info(PREFIX, "Sending ServiceInformation to the SystemInformationService.");
         systemInformationClient.putFormAsyncWith1Param("/services/systemInfo/newServiceInfo",
                 "serviceInfo", jsonConverter.toJson(serviceInfo), (httpStatusCode, httpContentType, replyJson) -> {
                     if (httpStatusCode != HTTP_OK) {
@@ -103,18 +122,14 @@ class UsersService {
         ServiceInformation pin = sysInfo.getPinServiceInformation();
         ServiceInformation authentication = sysInfo.getAuthenticationServiceInformation();
 
-        this.ledgerClient = httpClientBuilder().setHost(ledger.getServiceHost())
-                .setPort(ledger.getServicePort()).buildAndStart();
-        this.transactionDispatchClient = httpClientBuilder().setHost(transactionDispatch.getServiceHost())
-                .setPort(transactionDispatch.getServicePort()).buildAndStart();
-        this.transactionReceiveClient = httpClientBuilder().setHost(transactionReceive.getServiceHost())
-                .setPort(transactionReceive.getServicePort()).buildAndStart();
-        this.pinClient = httpClientBuilder().setHost(pin.getServiceHost())
-                .setPort(pin.getServicePort()).buildAndStart();
-        this.authenticationClient = httpClientBuilder().setHost(authentication.getServiceHost())
-                .setPort(authentication.getServicePort()).buildAndStart();
-
-        System.out.printf("%s Initialization of Users service connections complete.\n", PREFIX);
+        this.ledgerClient = ServiceTransport.connect(ledger.getServiceHost(), ledger.getServicePort());
+        this.transactionDispatchClient = ServiceTransport.connect(transactionDispatch.getServiceHost(), transactionDispatch.getServicePort());
+        this.transactionReceiveClient = ServiceTransport.connect(transactionReceive.getServiceHost(), transactionReceive.getServicePort());
+        this.pinClient = ServiceTransport.connect(pin.getServiceHost(), pin.getServicePort());
+        this.authenticationClient = ServiceTransport.connect(authentication.getServiceHost(), authentication.getServicePort());
+        apiCacheInvalidator.connect(sysInfo.getApiServiceInformation());
+
+        Log.info(PREFIX, "Initialization of Users service connections complete.");
         callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -144,7 +159,7 @@ class UsersService {
         } else if (messageWrapper.getMethodType() == MethodType.GET_BALANCE) {
             doLedgerDataRequest(messageWrapper, true, callbackBuilder);
         } else {
-            handleInternalDataRequest(messageWrapper, callbackBuilder);
+            databaseExecutor.execute(callbackBuilder, () -> handleInternalDataRequest(messageWrapper, callbackBuilder));
         }
     }
 
@@ -155,7 +170,7 @@ class UsersService {
      * @param callbackBuilder Used to send a reply back to the service that sent the request.
      */
     private void handleInternalDataRequest(final MessageWrapper dataRequest, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Received customer data request, fetching data.\n", PREFIX);
+        Log.debug(PREFIX, "Received customer data request, fetching data.");
         switch (dataRequest.getMethodType()) {
             case GET_BANK_ACCOUNT_ACCESS:
                 handleAccountAccessListRequestExceptions(dataRequest, callbackBuilder);
@@ -275,7 +290,7 @@ class UsersService {
      * @param callbackBuilder Used to send a reply back to the service that sent the request.
      */
     private void sendAccountAccessListRequestCallback(final DataReply reply, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Sending account access list request callback.\n", PREFIX);
+        Log.debug(PREFIX, "Sending account access list request callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", reply)));
     }
 
@@ -347,7 +362,7 @@ class UsersService {
      * @param callbackBuilder Used to send a reply back to the calling service.
      */
     private void sendCustomerAccessListRequestCallback(final DataReply customerAccounts, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Sending accounts request callback.\n", PREFIX);
+        Log.debug(PREFIX, "Sending accounts request callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", customerAccounts)));
     }
 
@@ -367,7 +382,7 @@ class UsersService {
      */
     private void doLedgerDataRequest(final MessageWrapper dataRequest, final boolean getCreditCardData,
                                      final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Called for a data request, calling Ledger.\n", PREFIX);
+        Log.debug(PREFIX, "Called for a data request, calling Ledger.");
         ledgerClient.getAsyncWith1Param("/services/ledger/data", "data",
                                         jsonConverter.toJson(dataRequest),
                                         (httpStatusCode, httpContentType, dataReplyJson) -> {
@@ -394,13 +409,13 @@ class UsersService {
      * @param callbackBuilder Used to send a reply back to the service that sent the request.
      */
     private void sendLedgerDataRequestCallback(final String dataReplyJson, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Sending data request callback.\n", PREFIX);
+        Log.debug(PREFIX, "Sending data request callback.");
         callbackBuilder.build().reply(dataReplyJson);
     }
 
     private void doCreditCardBalanceRequest(final MessageWrapper datarequest, final String ledgerReplyJson,
                                             final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Forwarding dataRequest to pin.\n", PREFIX);
+        Log.debug(PREFIX, "Forwarding dataRequest to pin.");
         DataRequest request = (DataRequest) datarequest.getData();
         pinClient.getAsyncWith1Param("/services/pin/creditCard/Balance", "accountNumber",
                 request.getAccountNumber(), (httpStatusCode, httpContentType, dataReplyJson) -> {
@@ -420,7 +435,7 @@ class UsersService {
                             sendLedgerDataRequestCallback(responseJson, callbackBuilder);
                         } else if (pinReply.getCode() == 418) {
                             // no card for this account
-                            System.out.printf("%s No credit card linked to this account.\n", PREFIX);
+                            Log.debug(PREFIX, "No credit card linked to this account.");
                             sendLedgerDataRequestCallback(ledgerReplyJson, callbackBuilder);
                         } else {
                             callbackBuilder.build().reply(dataReplyJson);
@@ -439,32 +454,34 @@ class UsersService {
     public void processNewCreditCard(final Callback<String> callback,
                                      @RequestParam("accountNumber") final String accountNumber,
                                      @RequestParam("customerId") final String customerId) {
-        try {
-            CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-            if (getCustomerAccounts(Long.parseLong(customerId), true).contains(accountNumber)) {
-                pinClient.putFormAsyncWith1Param("/services/pin/creditCard", "accountNumber",
-                        accountNumber, (httpStatusCode, httpContentType, replyJson) -> {
-                            if (httpStatusCode == HTTP_OK) {
-                                MessageWrapper messageWrapper = jsonConverter.fromJson(
-                                        JSONParser.removeEscapeCharacters(replyJson), MessageWrapper.class);
-                                callbackBuilder.build().reply(jsonConverter.toJson(messageWrapper));
-                            } else {
-                                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                                        true, 500, "An unknown error occurred.",
-                                        "There was a problem with one of the HTTP requests")));
-                            }
-                });
-            } else {
-                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
-                        "This customer does not have access to this accountnumber",
-                        "Cannot create new creditCard because this customer does not have the correct access.")));
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.execute(callbackBuilder, () -> {
+            try {
+                if (getCustomerAccounts(Long.parseLong(customerId), true).contains(accountNumber)) {
+                    pinClient.putFormAsyncWith1Param("/services/pin/creditCard", "accountNumber",
+                            accountNumber, (httpStatusCode, httpContentType, replyJson) -> {
+                                if (httpStatusCode == HTTP_OK) {
+                                    MessageWrapper messageWrapper = jsonConverter.fromJson(
+                                            JSONParser.removeEscapeCharacters(replyJson), MessageWrapper.class);
+                                    callbackBuilder.build().reply(jsonConverter.toJson(messageWrapper));
+                                } else {
+                                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                                            true, 500, "An unknown error occurred.",
+                                            "There was a problem with one of the HTTP requests")));
+                                }
+                    });
+                } else {
+                    callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 419,
+                            "This customer does not have access to this accountnumber",
+                            "Cannot create new creditCard because this customer does not have the correct access.")));
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                                "An unknown error occurred.",
+                                "There was a problem with one of the HTTP requests")));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                            "An unknown error occurred.",
-                            "There was a problem with one of the HTTP requests")));
-        }
+        });
     }
 
 
@@ -481,8 +498,9 @@ class UsersService {
                                                                 MessageWrapper.class);
         Transaction transactionRequest = (Transaction) messageWrapper.getData();
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        System.out.printf("%s Sending transaction to TransactionDispatch.\n", PREFIX);
-        doTransactionRequest(transactionRequest, customerId, messageWrapper, callbackBuilder);
+        Log.debug(PREFIX, "Sending transaction to TransactionDispatch.");
+        databaseExecutor.execute(callbackBuilder, () ->
+                doTransactionRequest(transactionRequest, customerId, messageWrapper, callbackBuilder));
     }
 
     /**
@@ -548,20 +566,22 @@ class UsersService {
     @RequestMapping(value = "/setFreezeUserAccount", method = RequestMethod.PUT)
     public void processSetFreezeUserAccountRequest(
             final Callback<String> callback, @RequestParam("request") final String dataJson) {
-        System.out.printf("%s Received setFreezeUserAccount request.\n", PREFIX);
+        Log.debug(PREFIX, "Received setFreezeUserAccount request.");
         FreezeAccount freezeAccount = jsonConverter.fromJson(dataJson, FreezeAccount.class);
-
-        try {
-            setFreezeUserAccount(freezeAccount);
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
-                    false, 200, "Normal Reply")));
-        } catch (SQLException e) {
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
-                    "Error connecting to the Pin database.")));
-        } catch (NoEffectException e) {
-            callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 420,
-                    e.getMessage())));
-        }
+        CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
+        databaseExecutor.executeSerially(callbackBuilder, () -> {
+            try {
+                setFreezeUserAccount(freezeAccount);
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(
+                        false, 200, "Normal Reply")));
+            } catch (SQLException e) {
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
+                        "Error connecting to the Pin database.")));
+            } catch (NoEffectException e) {
+                callback.reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 420,
+                        e.getMessage())));
+            }
+        });
     }
 
     private void setFreezeUserAccount(final FreezeAccount freezeAccount) throws SQLException,
@@ -589,6 +609,7 @@ class UsersService {
         ps.executeUpdate();
         ps.close();
         databaseConnectionPool.returnConnection(con);
+        apiCacheInvalidator.everythingChanged();
     }
 
     /**
@@ -620,10 +641,10 @@ class UsersService {
             if (!messageWrapper.isError()) {
                 Transaction reply = (Transaction) messageWrapper.getData();
                 if (reply.isSuccessful()) {
-                    System.out.printf("%s Transaction was successful, sending callback.\n", PREFIX);
+                    Log.debug(PREFIX, "Transaction was successful, sending callback.");
                     callbackBuilder.build().reply(replyBody);
                 } else {
-                    System.out.printf("%s Transaction was unsuccessful, sending rejection.\n", PREFIX);
+                    Log.debug(PREFIX, "Transaction was unsuccessful, sending rejection.");
                     callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500,
                             "Unknown error occurred.")));
                 }
@@ -631,7 +652,7 @@ class UsersService {
                 callbackBuilder.build().reply(replyBody);
             }
         } else {
-            System.out.printf("%s Transaction request failed, sending rejection.\n", PREFIX);
+            Log.warn(PREFIX, "Transaction request failed, sending rejection.");
             callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true,
                     500, "An unknown error occurred.",
                     "There was a problem with one of the HTTP requests")));
@@ -646,7 +667,7 @@ class UsersService {
      */
     private void sendTransactionRequestCallback(final String transactionReplyJson,
                                                 final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Transaction was successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Transaction was successful, sending callback.");
         callbackBuilder.build().reply(transactionReplyJson);
     }
 
@@ -661,7 +682,8 @@ class UsersService {
                                    final @RequestParam("customer") String customerRequestJson) {
         Customer customerToEnroll = jsonConverter.fromJson(customerRequestJson, Customer.class);
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleNewCustomerRequestExceptions(customerToEnroll, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleNewCustomerRequestExceptions(customerToEnroll, callbackBuilder));
     }
 
     /**
@@ -750,10 +772,18 @@ class UsersService {
         createNewCustomer.setDate(8, java.sql.Date.valueOf(customer.getDob())); //date_of_birth
         createNewCustomer.setLong(9, customer.getSsn());                        //social_security_number
         createNewCustomer.setBoolean(10, customer.isChild());
+        if (customer.isChild()) {
+            createNewCustomer.setDate(11, java.sql.Date.valueOf(customer.getDob().plusYears(18)));
+        } else {
+            createNewCustomer.setNull(11, java.sql.Types.DATE);
+        }
         createNewCustomer.executeUpdate();
         createNewCustomer.close();
         databaseConnectionPool.returnConnection(databaseConnection);
-        System.out.printf("%s New customer successfully enrolled.\n", PREFIX);
+        if (customer.isChild()) {
+            childBirthdayIndex.add(customer.getCustomerId(), customer.getDob().plusYears(18));
+        }
+        Log.debug(PREFIX, "New customer successfully enrolled.");
     }
 
     /**
@@ -771,7 +801,8 @@ class UsersService {
             if (httpStatusCode == HTTP_OK) {
                 MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(replyAccountJson), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
-                    handleNewAccountLinkExceptions((Customer) messageWrapper.getData(), callbackBuilder);
+                    databaseExecutor.executeSerially(callbackBuilder, () -> handleNewAccountLinkExceptions(
+                            (Customer) messageWrapper.getData(), callbackBuilder));
                 } else {
                     callbackBuilder.build().reply(replyAccountJson);
                 }
@@ -822,7 +853,8 @@ class UsersService {
             linkAccountToCustomer.executeUpdate();
             linkAccountToCustomer.close();
             databaseConnectionPool.returnConnection(databaseConnection);
-            System.out.printf("%s Added Accountnumber %s to userid %d\n", PREFIX, accountNumber, customerId);
+            apiCacheInvalidator.accessChanged(accountNumber);
+            Log.debug(PREFIX, "Added Accountnumber %s to userid %d", accountNumber, customerId);
         }
     }
 
@@ -856,7 +888,7 @@ class UsersService {
      * @param callbackBuilder Used to send a reply back to the service that sent the request.
      */
     private void sendNewAccountLinkCallback(final Customer newCustomer, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s New account successfully linked, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "New account successfully linked, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", newCustomer)));
     }
 
@@ -871,7 +903,7 @@ class UsersService {
     public void processAccountLink(final Callback<String> callback,
                                    final @RequestParam("body") String accountLinkRequestJson,
                                    final @RequestParam("requesterId") String requesterId) {
-        System.out.printf("%s Received account link request.\n", PREFIX);
+        Log.debug(PREFIX, "Received account link request.");
         AccountLink accountLink = jsonConverter.fromJson(accountLinkRequestJson, AccountLink.class);
         long customerId = accountLink.getCustomerId();
         String accountNumber = accountLink.getAccountNumber();
@@ -897,8 +929,8 @@ class UsersService {
                 MessageWrapper messageWrapper = jsonConverter.fromJson(
                         JSONParser.removeEscapeCharacters(dataReplyJson), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
-                    processAccountExistsReply(
-                            (DataReply) messageWrapper.getData(), customerId, requesterId, callbackBuilder);
+                    databaseExecutor.executeSerially(callbackBuilder, () -> processAccountExistsReply(
+                            (DataReply) messageWrapper.getData(), customerId, requesterId, callbackBuilder));
                 } else {
                     callbackBuilder.build().reply(dataReplyJson);
                 }
@@ -965,7 +997,7 @@ class UsersService {
      */
     private void sendAccountLinkCallback(final String accountNumber, final long customerId, final CallbackBuilder callbackBuilder) {
         AccountLink reply = new AccountLink(customerId, accountNumber, true);
-        System.out.printf("%s Account link successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Account link successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", reply)));
     }
 
@@ -980,12 +1012,13 @@ class UsersService {
     public void processAccountLinkRemoval(final Callback<String> callback,
                                           final @RequestParam("request") String accountLinkRequestJson,
                                           final @RequestParam("requesterId") String requesterId) {
-        System.out.printf("%s Received account link removal.\n", PREFIX);
+        Log.debug(PREFIX, "Received account link removal.");
         AccountLink accountLink = jsonConverter.fromJson(accountLinkRequestJson, AccountLink.class);
         long customerId = accountLink.getCustomerId();
         String accountNumber = accountLink.getAccountNumber();
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        removeAccountLinks(accountNumber, Long.toString(customerId), requesterId, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                removeAccountLinks(accountNumber, Long.toString(customerId), requesterId, callbackBuilder));
     }
 
     private void removeAccountLinks(final String accountNumber, final String customerId,
@@ -1026,10 +1059,11 @@ class UsersService {
         removeAccountLink.executeUpdate();
         removeAccountLink.close();
         databaseConnectionPool.returnConnection(databaseConnection);
+        apiCacheInvalidator.accessChanged(accountNumber);
     }
 
     private void sendRemoveAccountLinkCallback(final String customerId, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Account link removal successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Account link removal successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", customerId)));
     }
 
@@ -1062,9 +1096,10 @@ class UsersService {
     @RequestMapping(value = "/account/new", method = RequestMethod.PUT)
     public void processNewAccount(final Callback<String> callback,
                                   final @RequestParam("customerId") Long customerId) {
-        System.out.printf("%s Received account creation request.\n", PREFIX);
+        Log.debug(PREFIX, "Received account creation request.");
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleNewAccountExceptions(customerId, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleNewAccountExceptions(customerId, callbackBuilder));
     }
 
     /**
@@ -1103,9 +1138,10 @@ class UsersService {
     public void processAccountRemoval(final Callback<String> callback,
                                       final @RequestParam("accountNumber") String accountNumber,
                                       final @RequestParam("customerId") String customerId) {
-        System.out.printf("%s Received account removal request.\n", PREFIX);
+        Log.debug(PREFIX, "Received account removal request.");
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        verifyAccountRemovalInput(accountNumber, Long.parseLong(customerId), callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                verifyAccountRemovalInput(accountNumber, Long.parseLong(customerId), callbackBuilder));
     }
 
     /**
@@ -1147,6 +1183,7 @@ class UsersService {
         removeAccountLink.execute();
         removeAccountLink.close();
         databaseConnectionPool.returnConnection(databaseConnection);
+        apiCacheInvalidator.accessChanged(accountNumber);
     }
 
     /**
@@ -1164,13 +1201,15 @@ class UsersService {
             if (httpStatusCode == HTTP_OK) {
                 MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(jsonReply), MessageWrapper.class);
                 if (!messageWrapper.isError()) {
-                    try {
-                        removeAccountLinks(accountNumber);
-                        checkIfCustomerOwnsAccounts(customerId, callbackBuilder);
-                    } catch (SQLException e) {
-                        System.out.printf("%s Failed to remove accountLink, sending rejection.\n", PREFIX);
-                        callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to Users database.")));
-                    }
+                    databaseExecutor.executeSerially(callbackBuilder, () -> {
+                        try {
+                            removeAccountLinks(accountNumber);
+                            checkIfCustomerOwnsAccounts(customerId, callbackBuilder);
+                        } catch (SQLException e) {
+                            Log.warn(PREFIX, "Failed to remove accountLink, sending rejection.");
+                            callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to Users database.")));
+                        }
+                    });
                 } else {
                     callbackBuilder.build().reply(jsonReply);
                 }
@@ -1228,13 +1267,14 @@ class UsersService {
 
             ps.close();
             databaseConnectionPool.returnConnection(con);
+            apiCacheInvalidator.accessChanged(null);
         } catch (SQLException e) {
-            System.out.printf("%s Failed to remove customer from system", PREFIX);
+            Log.warn(PREFIX, "Failed to remove customer from system");
         }
     }
 
     private void sendAccountRemovalCallback(final boolean removedCustomer, final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Account removal successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Account removal successful, sending callback.");
         CloseAccountReply reply = new CloseAccountReply(removedCustomer, true, "");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply", reply)));
     }
@@ -1242,12 +1282,13 @@ class UsersService {
     @RequestMapping(value = "/transferBankAccount", method = RequestMethod.PUT)
     public void processTransferBankAccountRequest(final Callback<String> callback,
                                           final @RequestParam("request") String accountLinkRequestJson) {
-        System.out.printf("%s Received bank account transfer request.\n", PREFIX);
+        Log.debug(PREFIX, "Received bank account transfer request.");
         AccountLink accountLink = jsonConverter.fromJson(accountLinkRequestJson, AccountLink.class);
         long customerId = accountLink.getCustomerId();
         String accountNumber = accountLink.getAccountNumber();
         final CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
-        handleTransferBankAccountExceptions(accountNumber, customerId, callbackBuilder);
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleTransferBankAccountExceptions(accountNumber, customerId, callbackBuilder));
     }
 
     private void handleTransferBankAccountExceptions(
@@ -1293,13 +1334,15 @@ class UsersService {
                     if (httpStatusCode == HTTP_OK) {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(jsonReply), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            try {
-                                transferAccountAccess(customer.getAccount().getAccountNumber(), customer.getCustomerId());
-                                sendTransferBankAccountCallback(callbackBuilder);
-                            } catch (SQLException e) {
-                                System.out.printf("%s Failed to transfer bank account, sending rejection.\n", PREFIX);
-                                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to Users database.")));
-                            }
+                            databaseExecutor.executeSerially(callbackBuilder, () -> {
+                                try {
+                                    transferAccountAccess(customer.getAccount().getAccountNumber(), customer.getCustomerId());
+                                    sendTransferBankAccountCallback(callbackBuilder);
+                                } catch (SQLException e) {
+                                    Log.warn(PREFIX, "Failed to transfer bank account, sending rejection.");
+                                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to Users database.")));
+                                }
+                            });
                         } else {
                             callbackBuilder.build().reply(jsonReply);
                         }
@@ -1322,10 +1365,11 @@ class UsersService {
         ps1.close();
         ps2.close();
         databaseConnectionPool.returnConnection(databaseConnection);
+        apiCacheInvalidator.accessChanged(accountNumber);
     }
 
     private void sendTransferBankAccountCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Bank Account transfer successful, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Bank Account transfer successful, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
@@ -1334,8 +1378,9 @@ class UsersService {
                                                 final @RequestParam("request") String body) {
         CallbackBuilder callbackBuilder = CallbackBuilder.newCallbackBuilder().withStringCallback(callback);
         LocalDate localDate = jsonConverter.fromJson(body, LocalDate.class);
-        System.out.printf("%s Received a request for checking child birthdays.\n", PREFIX);
-        handleChildBirthdayExceptions(localDate, callbackBuilder);
+        Log.debug(PREFIX, "Received a request for checking child birthdays.");
+        databaseExecutor.executeSerially(callbackBuilder, () ->
+                handleChildBirthdayExceptions(localDate, callbackBuilder));
     }
 
     private void handleChildBirthdayExceptions(final LocalDate date, final CallbackBuilder callbackBuilder) {
@@ -1348,27 +1393,39 @@ class UsersService {
         }
     }
 
+    /**
+     * Converts the children that turned 18 before the given date to adults. The birthday index is used to skip the
+     * check when no child turned 18, otherwise the children and their accounts are fetched with a single query.
+     * @param date Date of the birthday check.
+     * @param callbackBuilder Used to send the result of the request back to the request source.
+     * @throws SQLException Thrown when the children could not be fetched from the database.
+     */
     private void checkChildBirthdays(final LocalDate date, final CallbackBuilder callbackBuilder) throws SQLException {
+        if (!childBirthdayIndex.hasChildrenTurnedAdult(date)) {
+            sendChildBirthdaysCallback(callbackBuilder);
+            return;
+        }
         List<BirthdayInterestPayment> res = new LinkedList<>();
 
-        // get all child accounts
+        // get the children that turned 18 together with their accounts
         SQLConnection con = databaseConnectionPool.getConnection();
-        PreparedStatement ps = con.getConnection().prepareStatement(getAllChildrenUsers);
+        PreparedStatement ps = con.getConnection().prepareStatement(getChildrenTurnedAdult);
+        ps.setDate(1, java.sql.Date.valueOf(date));
         ResultSet rs = ps.executeQuery();
 
-        // check em
+        // rows are sorted by customerId, a child should have exactly one row with an account
+        Long previousId = null;
         while (rs.next()) {
-            List<String> accounts = getCustomerAccounts(rs.getLong("id"), false);
-            if (accounts.size() != 1) {
-                throw new InvalidParameterException("Child somehow has more than one account, this should not be possible.");
-            } else {
-                // check birthday
-                LocalDate dob = rs.getDate("date_of_birth").toLocalDate();
-                LocalDate adjustedDob = dob.plusYears(18);
-                if (date.isAfter(adjustedDob)) {
-                    res.add(new BirthdayInterestPayment(rs.getLong("id"), date, adjustedDob, accounts.get(0)));
-                }
+            long childId = rs.getLong("id");
+            String accountNumber = rs.getString("account_number");
+            if ((previousId != null && previousId == childId) || accountNumber == null) {
+                rs.close();
+                ps.close();
+                databaseConnectionPool.returnConnection(con);
+                throw new InvalidParameterException("Child somehow does not have exactly one account, this should not be possible.");
             }
+            previousId = childId;
+            res.add(new BirthdayInterestPayment(childId, date, ChildBirthdayIndex.adultDate(rs), accountNumber));
         }
 
         rs.close();
@@ -1381,13 +1438,16 @@ class UsersService {
                     if (httpStatusCode == HTTP_OK) {
                         MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(jsonReply), MessageWrapper.class);
                         if (!messageWrapper.isError()) {
-                            try {
-                                revokeGuardianAccess(res);
-                                sendAuthenticationUpdateMessage(request, callbackBuilder);
-                            } catch (SQLException e) {
-                                System.out.printf("%s Failed to revoke guardian access, sending rejection.\n", PREFIX);
-                                callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to Users database.")));
-                            }
+                            databaseExecutor.executeSerially(callbackBuilder, () -> {
+                                try {
+                                    revokeGuardianAccess(res);
+                                    childBirthdayIndex.removeChildrenTurnedAdult(date);
+                                    sendAuthenticationUpdateMessage(request, callbackBuilder);
+                                } catch (SQLException e) {
+                                    Log.warn(PREFIX, "Failed to revoke guardian access, sending rejection.");
+                                    callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(true, 500, "Error connecting to Users database.")));
+                                }
+                            });
                         } else {
                             callbackBuilder.build().reply(jsonReply);
                         }
@@ -1408,6 +1468,7 @@ class UsersService {
             ps2.executeUpdate();
             ps1.close();
             ps2.close();
+            apiCacheInvalidator.accessChanged(i.getAccountNumber());
         }
         databaseConnectionPool.returnConnection(con);
     }
@@ -1429,7 +1490,7 @@ class UsersService {
     }
 
     private void sendChildBirthdaysCallback(final CallbackBuilder callbackBuilder) {
-        System.out.printf("%s Children's birthday check complete, sending callback.\n", PREFIX);
+        Log.debug(PREFIX, "Children's birthday check complete, sending callback.");
         callbackBuilder.build().reply(jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply")));
     }
 
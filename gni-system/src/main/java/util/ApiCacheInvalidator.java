@@ -0,0 +1,82 @@
+package util;
+
+import databeans.CacheScope;
+import databeans.ServiceInformation;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * @author Saul
+ * @version 1
+ * Notifies the api that responses in its response cache are outdated because a service changed the data they were
+ * created from. Notifications are sent without waiting for the api, notifications that are sent before the
+ * connection to the api is known are dropped, because the api can not have cached anything at that point. The
+ * {@link InternalToken} is sent along, the api rejects notifications without it.
+ */
+public class ApiCacheInvalidator {
+    /** Prefix of the service that sends the notifications, used when logging. */
+    private final String prefix;
+    /** Connection to the api service. */
+    private volatile ServiceTransport apiClient;
+
+    /**
+     * Creates an invalidator that is not connected to the api yet.
+     * @param newPrefix Prefix of the service that sends the notifications, used when logging.
+     */
+    public ApiCacheInvalidator(final String newPrefix) {
+        this.prefix = newPrefix;
+    }
+
+    /**
+     * Connects the invalidator to the api service.
+     * @param api Location of the api service.
+     */
+    public void connect(final ServiceInformation api) {
+        this.apiClient = ServiceTransport.connect(api.getServiceHost(), api.getServicePort());
+    }
+
+    /**
+     * Notifies the api that the balance or limits of an account changed.
+     * @param accountNumber Account number of the account.
+     */
+    public void accountChanged(final String accountNumber) {
+        send(CacheScope.ACCOUNT, accountNumber);
+    }
+
+    /**
+     * Notifies the api that the customers that have access to an account changed.
+     * @param accountNumber Account number of the account, or null if the account is not known.
+     */
+    public void accessChanged(final String accountNumber) {
+        send(CacheScope.ACCESS, accountNumber);
+    }
+
+    /**
+     * Notifies the api that all of its cached responses are outdated.
+     */
+    public void everythingChanged() {
+        send(CacheScope.ALL, null);
+    }
+
+    private void send(final CacheScope scope, final String accountNumber) {
+        ServiceTransport client = apiClient;
+        if (client == null) {
+            return;
+        }
+        if (accountNumber == null) {
+            client.putFormAsyncWith2Params("/services/api/cache/invalidate", "token", InternalToken.get(),
+                    "scope", scope.name(),
+                    (httpStatusCode, httpContentType, replyJson) -> printFailure(httpStatusCode, scope));
+        } else {
+            client.putFormAsyncWith3Params("/services/api/cache/invalidate", "token", InternalToken.get(),
+                    "scope", scope.name(), "accountNumber", accountNumber,
+                    (httpStatusCode, httpContentType, replyJson) -> printFailure(httpStatusCode, scope));
+        }
+    }
+
+    private void printFailure(final int httpStatusCode, final CacheScope scope) {
+        if (httpStatusCode != HTTP_OK) {
+            Log.warn(prefix, "Failed to invalidate the %s scope of the api cache.", scope.name());
+        }
+    }
+}
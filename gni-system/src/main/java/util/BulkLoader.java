@@ -0,0 +1,246 @@
+package util;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Saul
+ * @version 1
+ * Loads rows into a single table in large chunks, either with multi-row INSERT statements or by streaming the rows
+ * to LOAD DATA LOCAL INFILE, which is the fastest way to load a MySQL table. Rows are buffered until the chunk size
+ * is reached, {@link #close()} loads the remaining rows.
+ */
+abstract class BulkLoader implements AutoCloseable {
+    /** Connection the rows are loaded on. */
+    final Connection connection;
+    /** Table the rows are loaded into. */
+    final String table;
+    /** Columns of the table the values of a row are loaded into, in the order of the values. */
+    final String[] columns;
+    /** Amount of rows that are loaded at once. */
+    final int chunkRows;
+    /** Amount of rows that were loaded. */
+    private long loadedRows;
+
+    private BulkLoader(final Connection newConnection, final String newTable, final String[] newColumns,
+                       final int newChunkRows) {
+        this.connection = newConnection;
+        this.table = newTable;
+        this.columns = newColumns;
+        this.chunkRows = newChunkRows;
+    }
+
+    /**
+     * Creates a loader.
+     * @param useInfile Whether the rows should be streamed to LOAD DATA LOCAL INFILE instead of inserted.
+     * @param connection Connection the rows are loaded on.
+     * @param table Table the rows are loaded into.
+     * @param chunkRows Amount of rows that are loaded at once.
+     * @param columns Columns of the table the values of a row are loaded into.
+     * @return The loader.
+     */
+    static BulkLoader create(final boolean useInfile, final Connection connection, final String table,
+                             final int chunkRows, final String... columns) {
+        if (useInfile) {
+            return new InfileLoader(connection, table, columns, chunkRows);
+        }
+        return new InsertLoader(connection, table, columns, chunkRows);
+    }
+
+    /**
+     * Adds a row, the rows are loaded once a chunk is full.
+     * @param values Value of every column, null, String, Number, Boolean or LocalDate.
+     * @throws SQLException When a chunk could not be loaded.
+     */
+    void add(final Object... values) throws SQLException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values for " + table + ".");
+        }
+        if (buffer(values) >= chunkRows) {
+            flush();
+        }
+    }
+
+    /**
+     * Loads the buffered rows.
+     * @throws SQLException When the rows could not be loaded.
+     */
+    void flush() throws SQLException {
+        loadedRows += load();
+    }
+
+    /**
+     * Returns the amount of rows that were loaded.
+     * @return Amount of loaded rows.
+     */
+    long getLoadedRows() {
+        return loadedRows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+    }
+
+    /**
+     * Buffers a row.
+     * @return Amount of buffered rows.
+     */
+    abstract int buffer(Object[] values);
+
+    /**
+     * Loads the buffered rows and empties the buffer.
+     * @return Amount of rows that were loaded.
+     */
+    abstract int load() throws SQLException;
+
+    /**
+     * Loads rows with INSERT statements of {@link #chunkRows} rows each.
+     */
+    private static final class InsertLoader extends BulkLoader {
+        /** Rows waiting to be inserted. */
+        private final List<Object[]> rows;
+        /** Statement for a full chunk, prepared once. */
+        private PreparedStatement chunkStatement;
+
+        private InsertLoader(final Connection newConnection, final String newTable, final String[] newColumns,
+                             final int newChunkRows) {
+            super(newConnection, newTable, newColumns, newChunkRows);
+            this.rows = new ArrayList<>(newChunkRows);
+        }
+
+        @Override
+        int buffer(final Object[] values) {
+            rows.add(values);
+            return rows.size();
+        }
+
+        @Override
+        int load() throws SQLException {
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            PreparedStatement statement;
+            if (rows.size() == chunkRows) {
+                if (chunkStatement == null) {
+                    chunkStatement = connection.prepareStatement(createInsert(chunkRows));
+                }
+                statement = chunkStatement;
+            } else {
+                statement = connection.prepareStatement(createInsert(rows.size()));
+            }
+            int parameter = 1;
+            for (Object[] row : rows) {
+                for (Object value : row) {
+                    statement.setObject(parameter++, value instanceof LocalDate
+                            ? java.sql.Date.valueOf((LocalDate) value) : value);
+                }
+            }
+            statement.executeUpdate();
+            if (statement != chunkStatement) {
+                statement.close();
+            }
+            int loaded = rows.size();
+            rows.clear();
+            return loaded;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            super.close();
+            if (chunkStatement != null) {
+                chunkStatement.close();
+            }
+        }
+
+        private String createInsert(final int rowCount) {
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0; i < columns.length; i++) {
+                row.append(i == 0 ? "?" : ", ?");
+            }
+            row.append(')');
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+                    .append(String.join(", ", columns)).append(") VALUES ");
+            for (int i = 0; i < rowCount; i++) {
+                sql.append(i == 0 ? "" : ", ").append(row);
+            }
+            return sql.toString();
+        }
+    }
+
+    /**
+     * Streams chunks of {@link #chunkRows} rows as tab separated text to LOAD DATA LOCAL INFILE, without writing
+     * files. Requires allowLoadLocalInfile on the connection, which is the default of the MySQL driver.
+     */
+    private static final class InfileLoader extends BulkLoader {
+        /** Rows waiting to be loaded, as tab separated text. */
+        private final StringBuilder text;
+        /** Amount of rows in the text. */
+        private int rowCount;
+
+        private InfileLoader(final Connection newConnection, final String newTable, final String[] newColumns,
+                             final int newChunkRows) {
+            super(newConnection, newTable, newColumns, newChunkRows);
+            this.text = new StringBuilder();
+        }
+
+        @Override
+        int buffer(final Object[] values) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    text.append('\t');
+                }
+                appendValue(values[i]);
+            }
+            text.append('\n');
+            return ++rowCount;
+        }
+
+        private void appendValue(final Object value) {
+            if (value == null) {
+                text.append("\\N");
+            } else if (value instanceof Boolean) {
+                text.append((Boolean) value ? '1' : '0');
+            } else {
+                String string = value.toString();
+                for (int i = 0; i < string.length(); i++) {
+                    char c = string.charAt(i);
+                    if (c == '\t') {
+                        text.append("\\t");
+                    } else if (c == '\n') {
+                        text.append("\\n");
+                    } else if (c == '\\') {
+                        text.append("\\\\");
+                    } else {
+                        text.append(c);
+                    }
+                }
+            }
+        }
+
+        @Override
+        int load() throws SQLException {
+            if (rowCount == 0) {
+                return 0;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.unwrap(com.mysql.cj.api.jdbc.Statement.class).setLocalInfileInputStream(
+                        new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8)));
+                statement.execute("LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + table
+                        + " CHARACTER SET utf8 FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n' ("
+                        + String.join(", ", columns) + ")");
+            }
+            int loaded = rowCount;
+            text.setLength(0);
+            rowCount = 0;
+            return loaded;
+        }
+    }
+}
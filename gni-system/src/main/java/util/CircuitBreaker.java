@@ -0,0 +1,65 @@
+package util;
+
+/**
+ * @author Saul
+ * @version 1
+ * Circuit breaker for the calls to a single service. After a number of consecutive failed calls the circuit opens
+ * and calls are rejected without contacting the service, once the open period has passed a single trial call is let
+ * through, the circuit closes again when this call succeeds and stays open for another period when it fails.
+ */
+class CircuitBreaker {
+    /** Amount of consecutive failures after which the circuit opens. */
+    private final int failureThreshold;
+    /** Time the circuit stays open before a trial call is let through. */
+    private final long openMillis;
+    /** Amount of consecutive failed calls. */
+    private int consecutiveFailures;
+    /** Time until which calls are rejected, in epoch milliseconds. */
+    private long openUntil;
+    /** Whether a trial call is in flight while the circuit is half open. */
+    private boolean trialInFlight;
+
+    /**
+     * Creates a closed circuit breaker.
+     * @param newFailureThreshold Amount of consecutive failures after which the circuit opens.
+     * @param newOpenMillis Time the circuit stays open before a trial call is let through.
+     */
+    CircuitBreaker(final int newFailureThreshold, final long newOpenMillis) {
+        this.failureThreshold = newFailureThreshold;
+        this.openMillis = newOpenMillis;
+    }
+
+    /**
+     * Checks if a call may be made, when the circuit is half open only the first caller is allowed through.
+     * @return Whether the call may be made.
+     */
+    synchronized boolean allowRequest() {
+        if (consecutiveFailures < failureThreshold) {
+            return true;
+        }
+        if (System.currentTimeMillis() < openUntil || trialInFlight) {
+            return false;
+        }
+        trialInFlight = true;
+        return true;
+    }
+
+    /**
+     * Registers a successful call, which closes the circuit.
+     */
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Registers a failed call, the circuit opens when the failure threshold is reached.
+     */
+    synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (consecutiveFailures >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + openMillis;
+        }
+    }
+}
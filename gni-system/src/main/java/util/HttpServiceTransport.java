@@ -0,0 +1,78 @@
+package util;
+
+import io.advantageous.qbit.http.client.HttpClient;
+import io.advantageous.qbit.http.request.HttpTextReceiver;
+
+import static io.advantageous.qbit.http.client.HttpClientBuilder.httpClientBuilder;
+
+
+/**
+ * @author Saul
+ * @version 1
+ * Connection to a service that is sent over HTTP using a QBit HttpClient.
+ */
+public class HttpServiceTransport implements ServiceTransport {
+    /** Client used to send the requests. */
+    private final HttpClient httpClient;
+
+    /**
+     * Creates and starts a HttpClient for the service on the given location.
+     * @param host Host the service can be found on.
+     * @param port Port the service can be found on.
+     */
+    public HttpServiceTransport(final String host, final int port) {
+        this.httpClient = httpClientBuilder().setHost(host).setPort(port).buildAndStart();
+    }
+
+    @Override
+    public void getAsync(final String uri, final HttpTextReceiver receiver) {
+        httpClient.getAsync(uri, receiver);
+    }
+
+    @Override
+    public void getAsyncWith1Param(final String uri, final String key, final Object value,
+                                   final HttpTextReceiver receiver) {
+        httpClient.getAsyncWith1Param(uri, key, value, receiver);
+    }
+
+    @Override
+    public void getAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                    final Object value2, final HttpTextReceiver receiver) {
+        httpClient.getAsyncWith2Params(uri, key, value, key2, value2, receiver);
+    }
+
+    @Override
+    public void postAsync(final String uri, final HttpTextReceiver receiver) {
+        httpClient.postAsync(uri, receiver);
+    }
+
+    @Override
+    public void postFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                        final HttpTextReceiver receiver) {
+        httpClient.postFormAsyncWith1Param(uri, key, value, receiver);
+    }
+
+    @Override
+    public void putFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                       final HttpTextReceiver receiver) {
+        httpClient.putFormAsyncWith1Param(uri, key, value, receiver);
+    }
+
+    @Override
+    public void putFormAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final HttpTextReceiver receiver) {
+        httpClient.putFormAsyncWith2Params(uri, key, value, key2, value2, receiver);
+    }
+
+    @Override
+    public void putFormAsyncWith3Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final String key3, final Object value3,
+                                        final HttpTextReceiver receiver) {
+        httpClient.putFormAsyncWith3Params(uri, key, value, key2, value2, key3, value3, receiver);
+    }
+
+    @Override
+    public void stop() {
+        httpClient.stop();
+    }
+}
@@ -0,0 +1,126 @@
+package util;
+
+/**
+ * @author Saul
+ * @version 1
+ * Packs GNI account numbers into a long. A GNI account number is NL, two check digits, GNIB and ten digits, followed
+ * by an S for the savings account of the account. The packed value holds the twelve digits as a number, shifted one
+ * bit to the left to make room for the savings flag, so a packed account number is a non-negative long below 2^41
+ * and the main and savings account of an account only differ in their lowest bit. Letters are matched regardless of
+ * case, like the collation of the account number columns in the database.
+ */
+public final class Iban {
+    /** Result of packing a string that is not a GNI account number. */
+    public static final long INVALID = -1L;
+    /** Country code that starts every GNI account number. */
+    private static final String COUNTRY_CODE = "NL";
+    /** Bank code that follows the check digits. */
+    private static final String BANK_CODE = "GNIB";
+    /** Position of the bank code. */
+    private static final int BANK_CODE_OFFSET = 4;
+    /** Length of the account number of a main account. */
+    private static final int LENGTH = 18;
+    /** Suffix of the account number of a savings account. */
+    private static final char SAVINGS_SUFFIX = 'S';
+    /** Bit of a packed account number that marks a savings account. */
+    private static final long SAVINGS_FLAG = 1L;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private Iban() {
+        //Not called
+    }
+
+    /**
+     * Packs an account number.
+     * @param accountNumber The account number of a main or savings account.
+     * @return The packed account number, or {@link #INVALID} if it is not a GNI account number.
+     */
+    public static long pack(final String accountNumber) {
+        if (accountNumber == null) {
+            return INVALID;
+        }
+        int length = accountNumber.length();
+        boolean savings = length == LENGTH + 1 && Character.toUpperCase(accountNumber.charAt(LENGTH)) == SAVINGS_SUFFIX;
+        if ((length != LENGTH && !savings) || !accountNumber.regionMatches(true, 0, COUNTRY_CODE, 0, 2)
+                || !accountNumber.regionMatches(true, BANK_CODE_OFFSET, BANK_CODE, 0, BANK_CODE.length())) {
+            return INVALID;
+        }
+        long digits = 0;
+        for (int i = COUNTRY_CODE.length(); i < LENGTH; i++) {
+            if (i == BANK_CODE_OFFSET) {
+                i += BANK_CODE.length();
+            }
+            char digit = accountNumber.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return INVALID;
+            }
+            digits = digits * 10 + (digit - '0');
+        }
+        return digits << 1 | (savings ? SAVINGS_FLAG : 0);
+    }
+
+    /**
+     * Unpacks an account number.
+     * @param packed The packed account number, as returned by {@link #pack}.
+     * @return The account number.
+     */
+    public static String unpack(final long packed) {
+        long digits = packed >>> 1;
+        char[] accountNumber = new char[isSavings(packed) ? LENGTH + 1 : LENGTH];
+        COUNTRY_CODE.getChars(0, COUNTRY_CODE.length(), accountNumber, 0);
+        BANK_CODE.getChars(0, BANK_CODE.length(), accountNumber, BANK_CODE_OFFSET);
+        for (int i = LENGTH - 1; i >= COUNTRY_CODE.length(); i--) {
+            if (i == BANK_CODE_OFFSET + BANK_CODE.length() - 1) {
+                i = BANK_CODE_OFFSET - 1;
+            }
+            accountNumber[i] = (char) ('0' + digits % 10);
+            digits /= 10;
+        }
+        if (isSavings(packed)) {
+            accountNumber[LENGTH] = SAVINGS_SUFFIX;
+        }
+        return new String(accountNumber);
+    }
+
+    /**
+     * Checks if a packed account number is the account number of a savings account.
+     * @param packed The packed account number.
+     * @return True for a savings account.
+     */
+    public static boolean isSavings(final long packed) {
+        return (packed & SAVINGS_FLAG) != 0;
+    }
+
+    /**
+     * Returns the main account of a packed account number.
+     * @param packed The packed account number of a main or savings account.
+     * @return The packed account number of the main account.
+     */
+    public static long mainAccount(final long packed) {
+        return packed & ~SAVINGS_FLAG;
+    }
+
+    /**
+     * Returns the savings account of a packed account number.
+     * @param packed The packed account number of a main or savings account.
+     * @return The packed account number of the savings account.
+     */
+    public static long savingsAccount(final long packed) {
+        return packed | SAVINGS_FLAG;
+    }
+
+    /**
+     * Checks if an account number is the savings account of another account number, without creating strings.
+     * @param savingsAccountNumber The account number that might be a savings account.
+     * @param accountNumber The account number of the main account.
+     * @return True if savingsAccountNumber is accountNumber followed by the savings suffix.
+     */
+    public static boolean isSavingsAccountOf(final String savingsAccountNumber, final String accountNumber) {
+        int length = accountNumber.length();
+        return savingsAccountNumber.length() == length + 1
+                && Character.toUpperCase(savingsAccountNumber.charAt(length)) == SAVINGS_SUFFIX
+                && savingsAccountNumber.regionMatches(true, 0, accountNumber, 0, length);
+    }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * @author Saul
+ * @version 1
+ * Token that services send along with calls to endpoints that are only meant for other services, but are served on a
+ * public port, so outside callers can not use them. Services in the same JVM share a random token, services in
+ * different JVMs need to be started with the same -Dgni.internalToken.
+ */
+public final class InternalToken {
+    /** Token of the services of this JVM. */
+    private static final String TOKEN = System.getProperty("gni.internalToken", randomToken());
+
+    /**
+     * Private constructor for utility class.
+     */
+    private InternalToken() {
+        //Not called
+    }
+
+    /**
+     * Fetches the token that should be sent along with internal calls.
+     * @return The token.
+     */
+    public static String get() {
+        return TOKEN;
+    }
+
+    /**
+     * Checks if a call was made by a service.
+     * @param token Token sent along with the call, can be null.
+     * @return True if the token is the token of the services.
+     */
+    public static boolean matches(final String token) {
+        return token != null && MessageDigest.isEqual(TOKEN.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String randomToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+        return token.toString();
+    }
+}
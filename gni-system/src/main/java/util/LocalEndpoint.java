@@ -0,0 +1,203 @@
+package util;
+
+import io.advantageous.qbit.annotation.RequestMapping;
+import io.advantageous.qbit.annotation.RequestMethod;
+import io.advantageous.qbit.annotation.RequestParam;
+import io.advantageous.qbit.http.request.HttpTextReceiver;
+import io.advantageous.qbit.reactive.Callback;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.net.HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * @author Saul
+ * @version 1
+ * Service object that runs in this JVM and can be called without HTTP. The {@link RequestMapping} annotations of the
+ * service are resolved once when it is registered, requests are then executed one at a time on the queue of the
+ * endpoint, with the reply of the service handed directly to the receiver of the caller. The handler runs with the
+ * {@link RequestDeadline} and {@link RequestTrace} of the caller, a request whose deadline passed while it waited in
+ * the queue is answered with a 504 without running the handler, because the caller has stopped waiting for it. The
+ * latency and status of every request are recorded in the metrics of its endpoint and as a span of the trace of the
+ * caller.
+ */
+class LocalEndpoint {
+    /** Content type that is reported to the receiver, the same type QBit uses for replies. */
+    private static final String CONTENT_TYPE = "application/json";
+    /** Service object the requests are executed on. */
+    private final Object service;
+    /** Handler methods of the service indexed by request method and full path. */
+    private final Map<String, Method> routes;
+    /** Metrics of the handler methods, indexed in the same way as the routes. */
+    private final Map<String, Metrics.Timer> timers;
+    /** Queue the requests for this service are executed on. */
+    private final ExecutorService queue;
+
+    /**
+     * Resolves the handler methods of a service.
+     * @param rootUri Root uri the service is registered under, e.g. /services.
+     * @param newService Service object containing {@link RequestMapping} annotated methods.
+     */
+    LocalEndpoint(final String rootUri, final Object newService) {
+        this.service = newService;
+        this.routes = new HashMap<>();
+        this.timers = new HashMap<>();
+        String servicePath = "";
+        RequestMapping serviceMapping = newService.getClass().getAnnotation(RequestMapping.class);
+        if (serviceMapping != null && serviceMapping.value().length > 0) {
+            servicePath = serviceMapping.value()[0];
+        }
+        for (Method method : newService.getClass().getDeclaredMethods()) {
+            RequestMapping mapping = method.getAnnotation(RequestMapping.class);
+            if (mapping != null) {
+                method.setAccessible(true);
+                RequestMethod[] requestMethods = mapping.method();
+                if (requestMethods.length == 0) {
+                    requestMethods = new RequestMethod[] {RequestMethod.GET};
+                }
+                for (String path : mapping.value()) {
+                    for (RequestMethod requestMethod : requestMethods) {
+                        String routeKey = routeKey(requestMethod, rootUri + servicePath + path);
+                        routes.put(routeKey, method);
+                        timers.put(routeKey, Metrics.ENDPOINT_REQUESTS.timer(newService.getClass().getSimpleName(),
+                                routeKey(requestMethod, servicePath + path)));
+                    }
+                }
+            }
+        }
+        this.queue = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "local-" + newService.getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a request for the service, the receiver is called with the reply of the service, with a 404 if there
+     * is no handler for the request, with a 504 if the deadline of the request passed before the handler could run
+     * or with a 500 if the handler throws an exception.
+     * @param requestMethod Http method of the request.
+     * @param uri Full path of the request.
+     * @param params Parameters of the request, indexed by name.
+     * @param receiver Receiver of the reply.
+     */
+    void dispatch(final RequestMethod requestMethod, final String uri, final Map<String, Object> params,
+                  final HttpTextReceiver receiver) {
+        String routeKey = routeKey(requestMethod, uri);
+        Method handler = routes.get(routeKey);
+        if (handler == null) {
+            receiver.response(HTTP_NOT_FOUND, CONTENT_TYPE, "No handler found for " + requestMethod + " " + uri);
+            return;
+        }
+        Metrics.Timer timer = timers.get(routeKey);
+        RequestTrace.Span span = RequestTrace.startSpan(service.getClass().getSimpleName(), routeKey);
+        long startNanos = System.nanoTime();
+        HttpTextReceiver timedReceiver = (code, contentType, body) -> {
+            int status = Metrics.statusOf(code, body);
+            timer.recordSince(startNanos, status);
+            span.finish(status);
+            receiver.response(code, contentType, body);
+        };
+        long deadline = RequestDeadline.current();
+        queue.execute(() -> RequestDeadline.runWithin(deadline, () -> RequestTrace.runWithin(span.context(), () -> {
+            if (deadline != RequestDeadline.NONE && System.currentTimeMillis() >= deadline) {
+                timedReceiver.response(HTTP_GATEWAY_TIMEOUT, CONTENT_TYPE,
+                        "Deadline passed before " + routeKey + " could be handled.");
+                return;
+            }
+            try {
+                handler.invoke(service, createArguments(handler, params, timedReceiver));
+            } catch (InvocationTargetException e) {
+                e.getCause().printStackTrace();
+                timedReceiver.response(HTTP_INTERNAL_ERROR, CONTENT_TYPE,
+                        String.valueOf(e.getCause().getMessage()));
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                e.printStackTrace();
+                timedReceiver.response(HTTP_INTERNAL_ERROR, CONTENT_TYPE, String.valueOf(e.getMessage()));
+            }
+        })));
+    }
+
+    /**
+     * Stops the queue of the endpoint.
+     */
+    void stop() {
+        queue.shutdown();
+    }
+
+    private Object[] createArguments(final Method handler, final Map<String, Object> params,
+                                     final HttpTextReceiver receiver) {
+        Class<?>[] types = handler.getParameterTypes();
+        Annotation[][] annotations = handler.getParameterAnnotations();
+        Object[] arguments = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (Callback.class.isAssignableFrom(types[i])) {
+                arguments[i] = createCallback(receiver);
+            } else {
+                for (Annotation annotation : annotations[i]) {
+                    if (annotation instanceof RequestParam) {
+                        arguments[i] = convert(params.get(((RequestParam) annotation).value()), types[i]);
+                    }
+                }
+            }
+        }
+        return arguments;
+    }
+
+    private static Callback<Object> createCallback(final HttpTextReceiver receiver) {
+        return new Callback<Object>() {
+            @Override
+            public void accept(final Object reply) {
+                receiver.response(HTTP_OK, CONTENT_TYPE, String.valueOf(reply));
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                receiver.response(HTTP_INTERNAL_ERROR, CONTENT_TYPE, String.valueOf(error.getMessage()));
+            }
+        };
+    }
+
+    /**
+     * Converts a request parameter to the type of the handler parameter, in the same way a form parameter would be
+     * parsed when the request is sent over HTTP.
+     */
+    private static Object convert(final Object value, final Class<?> type) {
+        if (value == null) {
+            if (type == boolean.class) {
+                return false;
+            } else if (type.isPrimitive()) {
+                return convert("0", type);
+            }
+            return null;
+        }
+        String text = String.valueOf(value);
+        if (type == String.class) {
+            return text;
+        } else if (type == long.class || type == Long.class) {
+            return Long.parseLong(text);
+        } else if (type == int.class || type == Integer.class) {
+            return Integer.parseInt(text);
+        } else if (type == double.class || type == Double.class) {
+            return Double.parseDouble(text);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return Boolean.parseBoolean(text);
+        } else if (type.isInstance(value)) {
+            return value;
+        }
+        return text;
+    }
+
+    private static String routeKey(final RequestMethod requestMethod, final String path) {
+        return requestMethod.name() + " " + path;
+    }
+}
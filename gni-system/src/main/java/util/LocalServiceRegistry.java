@@ -0,0 +1,61 @@
+package util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Saul
+ * @version 1
+ * Registry of the services that run in this JVM, indexed by the location they listen on. A service that is
+ * registered here can be called by {@link LocalServiceTransport} without going through HTTP.
+ */
+public final class LocalServiceRegistry {
+    /** Services that run in this JVM, indexed by host:port. */
+    private static final ConcurrentHashMap<String, LocalEndpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private LocalServiceRegistry() {
+        //Not called
+    }
+
+    /**
+     * Registers a service so other services in this JVM can call it directly.
+     * @param host Host the service listens on.
+     * @param port Port the service listens on.
+     * @param rootUri Root uri of the endpoint server of the service, e.g. /services.
+     * @param service Service object containing the request handlers.
+     */
+    public static void register(final String host, final int port, final String rootUri, final Object service) {
+        LocalEndpoint previous = ENDPOINTS.put(locationKey(host, port), new LocalEndpoint(rootUri, service));
+        if (previous != null) {
+            previous.stop();
+        }
+    }
+
+    /**
+     * Removes a service from the registry, after this requests for the service are sent over HTTP.
+     * @param host Host the service listens on.
+     * @param port Port the service listens on.
+     */
+    public static void unregister(final String host, final int port) {
+        LocalEndpoint endpoint = ENDPOINTS.remove(locationKey(host, port));
+        if (endpoint != null) {
+            endpoint.stop();
+        }
+    }
+
+    /**
+     * Fetches the service that listens on the given location.
+     * @param host Host of the service.
+     * @param port Port of the service.
+     * @return The endpoint of the service, or null if the service does not run in this JVM.
+     */
+    static LocalEndpoint lookup(final String host, final int port) {
+        return ENDPOINTS.get(locationKey(host, port));
+    }
+
+    private static String locationKey(final String host, final int port) {
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,142 @@
+package util;
+
+import io.advantageous.qbit.annotation.RequestMethod;
+import io.advantageous.qbit.http.request.HttpTextReceiver;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Saul
+ * @version 1
+ * Connection to a service that is handed directly to the queue of the service when the service is registered in
+ * the {@link LocalServiceRegistry} of this JVM. The registry is checked for every request, because services send
+ * requests to each other before all services are started, when the service is not registered the request is sent
+ * over HTTP instead.
+ */
+class LocalServiceTransport implements ServiceTransport {
+    /** Host the service can be found on. */
+    private final String host;
+    /** Port the service can be found on. */
+    private final int port;
+    /** Connection used when the service does not run in this JVM, created when it is first needed. */
+    private volatile HttpServiceTransport httpTransport;
+
+    LocalServiceTransport(final String newHost, final int newPort) {
+        this.host = newHost;
+        this.port = newPort;
+    }
+
+    @Override
+    public void getAsync(final String uri, final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.GET, uri, params(), receiver);
+        } else {
+            getHttpTransport().getAsync(uri, receiver);
+        }
+    }
+
+    @Override
+    public void getAsyncWith1Param(final String uri, final String key, final Object value,
+                                   final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.GET, uri, params(key, value), receiver);
+        } else {
+            getHttpTransport().getAsyncWith1Param(uri, key, value, receiver);
+        }
+    }
+
+    @Override
+    public void getAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                    final Object value2, final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.GET, uri, params(key, value, key2, value2), receiver);
+        } else {
+            getHttpTransport().getAsyncWith2Params(uri, key, value, key2, value2, receiver);
+        }
+    }
+
+    @Override
+    public void postAsync(final String uri, final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.POST, uri, params(), receiver);
+        } else {
+            getHttpTransport().postAsync(uri, receiver);
+        }
+    }
+
+    @Override
+    public void postFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                        final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.POST, uri, params(key, value), receiver);
+        } else {
+            getHttpTransport().postFormAsyncWith1Param(uri, key, value, receiver);
+        }
+    }
+
+    @Override
+    public void putFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                       final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.PUT, uri, params(key, value), receiver);
+        } else {
+            getHttpTransport().putFormAsyncWith1Param(uri, key, value, receiver);
+        }
+    }
+
+    @Override
+    public void putFormAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.PUT, uri, params(key, value, key2, value2), receiver);
+        } else {
+            getHttpTransport().putFormAsyncWith2Params(uri, key, value, key2, value2, receiver);
+        }
+    }
+
+    @Override
+    public void putFormAsyncWith3Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final String key3, final Object value3,
+                                        final HttpTextReceiver receiver) {
+        LocalEndpoint endpoint = LocalServiceRegistry.lookup(host, port);
+        if (endpoint != null) {
+            endpoint.dispatch(RequestMethod.PUT, uri, params(key, value, key2, value2, key3, value3), receiver);
+        } else {
+            getHttpTransport().putFormAsyncWith3Params(uri, key, value, key2, value2, key3, value3, receiver);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (httpTransport != null) {
+            httpTransport.stop();
+        }
+    }
+
+    private HttpServiceTransport getHttpTransport() {
+        if (httpTransport == null) {
+            synchronized (this) {
+                if (httpTransport == null) {
+                    httpTransport = new HttpServiceTransport(host, port);
+                }
+            }
+        }
+        return httpTransport;
+    }
+
+    private static Map<String, Object> params(final Object... keysAndValues) {
+        Map<String, Object> params = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            params.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return params;
+    }
+}
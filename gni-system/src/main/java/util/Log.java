@@ -0,0 +1,314 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Saul
+ * @version 1
+ * Logs the messages of the services to the standard output, one json object per line. Messages are only queued when
+ * their level is enabled, formatting and writing them happens on a single background thread so the thread that
+ * handles a request never waits for the output. The lowest enabled level is set with gni.log.level and defaults to
+ * INFO, which leaves out the DEBUG messages that are logged for every request. When the queue is full new messages
+ * are dropped, the amount of dropped messages is logged once the queue has been written. Messages that are logged
+ * while handling a traced request carry the id of its {@link RequestTrace}, so the messages of all services that
+ * worked on a request can be found together.
+ */
+public final class Log {
+    /** Lowest level that is logged. */
+    private static final LogLevel LEVEL = LogLevel.parse(System.getProperty("gni.log.level"), LogLevel.INFO);
+    /** Maximum amount of messages waiting to be written. */
+    private static final int QUEUE_SIZE = Integer.getInteger("gni.log.queueSize", 8192);
+    /** Service name used for the messages of the logger itself. */
+    private static final String SOURCE = "Log";
+    /** Messages waiting to be written. */
+    private static final BlockingQueue<LogRecord> QUEUE = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    /** Amount of messages dropped since the last report. */
+    private static final AtomicLong DROPPED = new AtomicLong();
+    /** Amount of messages dropped since the start of the service. */
+    private static final AtomicLong TOTAL_DROPPED = new AtomicLong();
+    /** Buffered standard output, only used while holding its own lock. */
+    private static final Writer OUT = new BufferedWriter(new OutputStreamWriter(System.out,
+            StandardCharsets.UTF_8), 1 << 16);
+
+    static {
+        Thread writer = new Thread(Log::writeRecords, "gni-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "gni-log-flush"));
+    }
+
+    /**
+     * Private constructor for utility class.
+     */
+    private Log() {
+        //Not called
+    }
+
+    /**
+     * Checks if messages of a level are logged, can be used to skip building arguments that are expensive to create.
+     * @param level Level of the message.
+     * @return Whether messages of the level are logged.
+     */
+    public static boolean isEnabled(final LogLevel level) {
+        return level.compareTo(LEVEL) >= 0;
+    }
+
+    /**
+     * Checks if DEBUG messages are logged.
+     * @return Whether DEBUG messages are logged.
+     */
+    public static boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
+    }
+
+    /**
+     * Returns the amount of messages that were dropped because the queue was full.
+     * @return Amount of dropped messages since the start of the service.
+     */
+    public static long getDroppedCount() {
+        return TOTAL_DROPPED.get();
+    }
+
+    /**
+     * Logs the progress of a single request.
+     * @param source Prefix or name of the service that logs the message.
+     * @param format Message in {@link String#format} syntax.
+     * @param args Arguments of the message, only formatted when the message is written.
+     */
+    public static void debug(final String source, final String format, final Object... args) {
+        log(LogLevel.DEBUG, source, format, args);
+    }
+
+    /**
+     * Logs an event that happens once or rarely.
+     * @param source Prefix or name of the service that logs the message.
+     * @param format Message in {@link String#format} syntax.
+     * @param args Arguments of the message, only formatted when the message is written.
+     */
+    public static void info(final String source, final String format, final Object... args) {
+        log(LogLevel.INFO, source, format, args);
+    }
+
+    /**
+     * Logs a failure the service recovers from.
+     * @param source Prefix or name of the service that logs the message.
+     * @param format Message in {@link String#format} syntax.
+     * @param args Arguments of the message, only formatted when the message is written.
+     */
+    public static void warn(final String source, final String format, final Object... args) {
+        log(LogLevel.WARN, source, format, args);
+    }
+
+    /**
+     * Logs a failure that leaves the service unable to do its work.
+     * @param source Prefix or name of the service that logs the message.
+     * @param format Message in {@link String#format} syntax.
+     * @param args Arguments of the message, only formatted when the message is written.
+     */
+    public static void error(final String source, final String format, final Object... args) {
+        log(LogLevel.ERROR, source, format, args);
+    }
+
+    private static void log(final LogLevel level, final String source, final String format, final Object[] args) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        // arguments that can change after this call are turned into text now, the rest is formatted later
+        for (int i = 0; i < args.length; i++) {
+            if (!isImmutable(args[i])) {
+                args[i] = String.valueOf(args[i]);
+            }
+        }
+        LogRecord record = new LogRecord(System.currentTimeMillis(), level, source,
+                Thread.currentThread().getName(), RequestTrace.current(), format, args);
+        if (!QUEUE.offer(record)) {
+            DROPPED.incrementAndGet();
+            TOTAL_DROPPED.incrementAndGet();
+        }
+    }
+
+    private static boolean isImmutable(final Object arg) {
+        return arg == null || arg instanceof String || arg instanceof Number || arg instanceof Boolean
+                || arg instanceof Character || arg instanceof Enum || arg instanceof LocalDate;
+    }
+
+    /**
+     * Writes queued messages until the service stops, the output is flushed whenever the queue is empty.
+     */
+    private static void writeRecords() {
+        while (true) {
+            try {
+                LogRecord first = QUEUE.take();
+                synchronized (OUT) {
+                    write(first);
+                    flush();
+                }
+            } catch (InterruptedException e) {
+                flush();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes all queued messages and flushes the output.
+     */
+    private static void flush() {
+        List<LogRecord> records = new ArrayList<>();
+        synchronized (OUT) {
+            while (QUEUE.drainTo(records) > 0) {
+                for (LogRecord record : records) {
+                    write(record);
+                }
+                records.clear();
+            }
+            long dropped = DROPPED.getAndSet(0);
+            if (dropped > 0) {
+                write(new LogRecord(System.currentTimeMillis(), LogLevel.WARN, SOURCE,
+                        Thread.currentThread().getName(), null, "Dropped %d messages because the log queue was full.",
+                        new Object[] {dropped}));
+            }
+            try {
+                OUT.flush();
+            } catch (IOException e) {
+                // the standard output is gone, there is nowhere left to report this
+            }
+        }
+    }
+
+    private static void write(final LogRecord record) {
+        try {
+            OUT.write(record.toJson());
+            OUT.write('\n');
+        } catch (IOException e) {
+            // the standard output is gone, there is nowhere left to report this
+        }
+    }
+
+    /**
+     * A single log message, formatted when it is written.
+     */
+    private static final class LogRecord {
+        /** Time the message was logged, in epoch milliseconds. */
+        private final long timestamp;
+        /** Level of the message. */
+        private final LogLevel level;
+        /** Prefix or name of the service that logged the message. */
+        private final String source;
+        /** Name of the thread that logged the message. */
+        private final String thread;
+        /** Trace of the request the message was logged for, null if there is none. */
+        private final RequestTrace.Context trace;
+        /** Message in {@link String#format} syntax. */
+        private final String format;
+        /** Arguments of the message. */
+        private final Object[] args;
+
+        private LogRecord(final long newTimestamp, final LogLevel newLevel, final String newSource,
+                          final String newThread, final RequestTrace.Context newTrace, final String newFormat,
+                          final Object[] newArgs) {
+            this.timestamp = newTimestamp;
+            this.level = newLevel;
+            this.source = newSource;
+            this.thread = newThread;
+            this.trace = newTrace;
+            this.format = newFormat;
+            this.args = newArgs;
+        }
+
+        /**
+         * Creates the json representation of the message.
+         * @return The message as a single line json object.
+         */
+        private String toJson() {
+            StringBuilder json = new StringBuilder(128);
+            json.append("{\"time\":\"").append(Instant.ofEpochMilli(timestamp)).append("\",\"level\":\"")
+                    .append(level.name()).append("\",\"service\":");
+            appendString(json, serviceName());
+            json.append(",\"thread\":");
+            appendString(json, thread);
+            if (trace != null) {
+                json.append(",\"trace\":\"").append(trace.getTraceId()).append('"');
+            }
+            json.append(",\"message\":");
+            appendString(json, message());
+            return json.append('}').toString();
+        }
+
+        /**
+         * Turns a prefix like "[Ledger]    :" into the name of the service.
+         * @return The name of the service.
+         */
+        private String serviceName() {
+            if (source == null) {
+                return "";
+            }
+            String name = source.trim();
+            if (name.endsWith(":")) {
+                name = name.substring(0, name.length() - 1).trim();
+            }
+            if (name.startsWith("[") && name.endsWith("]")) {
+                name = name.substring(1, name.length() - 1);
+            }
+            return name;
+        }
+
+        private String message() {
+            if (args.length == 0) {
+                return format;
+            }
+            try {
+                return String.format(format, args);
+            } catch (IllegalFormatException e) {
+                StringBuilder message = new StringBuilder(format);
+                for (Object arg : args) {
+                    message.append(' ').append(arg);
+                }
+                return message.toString();
+            }
+        }
+
+        private static void appendString(final StringBuilder json, final String value) {
+            json.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '\n':
+                        json.append("\\n");
+                        break;
+                    case '\r':
+                        json.append("\\r");
+                        break;
+                    case '\t':
+                        json.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            json.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                }
+            }
+            json.append('"');
+        }
+    }
+}
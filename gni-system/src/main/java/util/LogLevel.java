@@ -0,0 +1,38 @@
+package util;
+
+/**
+ * @author Saul
+ * @version 1
+ * Severity of a log message, in increasing order of severity.
+ */
+public enum LogLevel {
+
+    /** Progress of a single request, logged for every request. */
+    DEBUG,
+
+    /** Events that happen once or rarely, e.g. the start of a service. */
+    INFO,
+
+    /** Failures of a single request or call that the system recovers from. */
+    WARN,
+
+    /** Failures that leave a service unable to do its work. */
+    ERROR;
+
+    /**
+     * Finds the level with the given name, ignoring case.
+     * @param name Name of the level, can be null.
+     * @param defaultLevel Level that is returned when there is no level with the given name.
+     * @return The level.
+     */
+    public static LogLevel parse(final String name, final LogLevel defaultLevel) {
+        if (name != null) {
+            for (LogLevel level : values()) {
+                if (level.name().equalsIgnoreCase(name.trim())) {
+                    return level;
+                }
+            }
+        }
+        return defaultLevel;
+    }
+}
@@ -0,0 +1,206 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author Saul
+ * @version 1
+ * Open addressing hash map from primitive long keys to primitive long values, for the in memory caches of the
+ * services. An entry costs two longs instead of a node and two boxed longs. Lookups are lock free and may run
+ * concurrently with updates, updates are synchronized. The value of a slot is written before its key, removed slots
+ * are only reused once the table is rebuilt, and a rebuilt table is only published once it is filled, so a lookup
+ * always sees either the old or the new value of a key. Long.MIN_VALUE and Long.MIN_VALUE + 1 mark empty and removed
+ * slots and can not be used as keys.
+ */
+public final class LongLongMap {
+    /** Key of an empty slot. */
+    private static final long EMPTY = Long.MIN_VALUE;
+    /** Key of a slot from which an entry was removed. */
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+    /** Smallest amount of slots of a table. */
+    private static final int MIN_CAPACITY = 16;
+    /** Keys and values of the map, replaced as a whole when the map is resized. */
+    private volatile Table table;
+    /** Amount of entries in the map. */
+    private volatile int size;
+    /** Amount of slots that are not empty, including the removed slots. */
+    private int usedSlots;
+
+    /**
+     * Creates an empty map.
+     */
+    public LongLongMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold the expected amount of entries without resizing.
+     * @param expectedSize Expected amount of entries.
+     */
+    public LongLongMap(final int expectedSize) {
+        this.table = new Table(LongObjectMap.capacityFor(expectedSize));
+    }
+
+    /**
+     * Fetches the value of a key.
+     * @param key The key.
+     * @param absentValue Value that is returned if the map does not contain the key.
+     * @return The value, or absentValue if the map does not contain the key.
+     */
+    public long get(final long key, final long absentValue) {
+        Table current = table;
+        int mask = current.keys.length() - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long slotKey = current.keys.get(slot);
+            if (slotKey == EMPTY) {
+                return absentValue;
+            } else if (slotKey == key) {
+                return current.values.get(slot);
+            }
+        }
+    }
+
+    /**
+     * Checks if the map contains a key.
+     * @param key The key.
+     * @return True if the map contains the key.
+     */
+    public boolean containsKey(final long key) {
+        Table current = table;
+        int mask = current.keys.length() - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long slotKey = current.keys.get(slot);
+            if (slotKey == EMPTY) {
+                return false;
+            } else if (slotKey == key) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     * @param key The key, not Long.MIN_VALUE or Long.MIN_VALUE + 1.
+     * @param value The new value of the key.
+     */
+    public synchronized void put(final long key, final long value) {
+        if (key == EMPTY || key == REMOVED) {
+            throw new IllegalArgumentException("LongLongMap does not allow the key " + key + ".");
+        }
+        int slot = find(table, key);
+        if (table.keys.get(slot) == key) {
+            table.values.set(slot, value);
+            return;
+        }
+        if ((usedSlots + 1) * 4L > table.keys.length() * 3L) {
+            resize();
+            slot = find(table, key);
+        }
+        usedSlots++;
+        table.values.set(slot, value);
+        table.keys.set(slot, key);
+        size++;
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key.
+     * @return True if the map contained the key.
+     */
+    public synchronized boolean remove(final long key) {
+        int slot = find(table, key);
+        if (table.keys.get(slot) != key || key == EMPTY) {
+            return false;
+        }
+        table.keys.set(slot, REMOVED);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        usedSlots = 0;
+    }
+
+    /**
+     * Returns the amount of entries in the map.
+     * @return The amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every key of the map to an action, keys that are added or removed while the map is traversed may or may
+     * not be passed.
+     * @param action Action to perform for every key.
+     */
+    public void forEachKey(final java.util.function.LongConsumer action) {
+        Table current = table;
+        for (int slot = 0; slot < current.keys.length(); slot++) {
+            long key = current.keys.get(slot);
+            if (key != EMPTY && key != REMOVED) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Copies the entries into a new table without removed slots, doubling it when it is more than half full.
+     */
+    private void resize() {
+        Table current = table;
+        Table resized = new Table(size * 2 >= current.keys.length() ? current.keys.length() * 2
+                : current.keys.length());
+        for (int slot = 0; slot < current.keys.length(); slot++) {
+            long key = current.keys.get(slot);
+            if (key != EMPTY && key != REMOVED) {
+                int newSlot = find(resized, key);
+                resized.values.set(newSlot, current.values.get(slot));
+                resized.keys.set(newSlot, key);
+            }
+        }
+        table = resized;
+        usedSlots = size;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot that ends its probe sequence, removed slots are skipped.
+     */
+    private static int find(final Table current, final long key) {
+        int mask = current.keys.length() - 1;
+        int slot = hash(key) & mask;
+        long slotKey;
+        while ((slotKey = current.keys.get(slot)) != EMPTY && slotKey != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(final long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * Keys and values of the map, the key of a slot is EMPTY while the slot is empty.
+     */
+    private static final class Table {
+        /** Keys of the slots, EMPTY for an empty slot and REMOVED for a removed entry. */
+        private final AtomicLongArray keys;
+        /** Values of the slots. */
+        private final AtomicLongArray values;
+
+        private Table(final int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicLongArray(capacity);
+            for (int slot = 0; slot < capacity; slot++) {
+                keys.lazySet(slot, EMPTY);
+            }
+        }
+    }
+}
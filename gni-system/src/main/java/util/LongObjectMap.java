@@ -0,0 +1,225 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * @author Saul
+ * @version 1
+ * Open addressing hash map from primitive long keys to objects, for the in memory caches of the services. The keys
+ * are stored in a long array instead of as boxed keys in entry objects, so an entry costs two array slots instead of
+ * a node, a boxed key and a slot. Lookups are lock free and may run concurrently with updates, updates are
+ * synchronized. The key of a slot is written before its value and never changes afterwards, removed slots are only
+ * reused once the table is rebuilt, and a rebuilt table is only published once it is filled, so a lookup always sees
+ * either the old or the new value of a key. Null values are not allowed.
+ * @param <V> Type of the values.
+ */
+public final class LongObjectMap<V> {
+    /** Value of a slot from which an entry was removed. */
+    private static final Object REMOVED = new Object();
+    /** Smallest amount of slots of a table. */
+    private static final int MIN_CAPACITY = 16;
+    /** Keys and values of the map, replaced as a whole when the map is resized. */
+    private volatile Table table;
+    /** Amount of entries in the map. */
+    private volatile int size;
+    /** Amount of slots that are not empty, including the removed slots. */
+    private int usedSlots;
+
+    /**
+     * Creates an empty map.
+     */
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold the expected amount of entries without resizing.
+     * @param expectedSize Expected amount of entries.
+     */
+    public LongObjectMap(final int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Fetches the value of a key.
+     * @param key The key.
+     * @return The value, or null if the map does not contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        Table current = table;
+        int mask = current.keys.length() - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            Object value = current.values.get(slot);
+            if (value == null) {
+                return null;
+            } else if (value != REMOVED && current.keys.get(slot) == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * Checks if the map contains a key.
+     * @param key The key.
+     * @return True if the map contains the key.
+     */
+    public boolean containsKey(final long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Sets the value of a key.
+     * @param key The key.
+     * @param value The new value of the key, not null.
+     * @return The previous value of the key, or null if the map did not contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V put(final long key, final V value) {
+        if (value == null) {
+            throw new NullPointerException("LongObjectMap does not allow null values.");
+        }
+        int slot = find(table, key);
+        Object previous = table.values.get(slot);
+        if (previous != null) {
+            table.values.set(slot, value);
+            return (V) previous;
+        }
+        if ((usedSlots + 1) * 4L > table.keys.length() * 3L) {
+            resize();
+        }
+        slot = findFree(table, key);
+        usedSlots++;
+        table.keys.set(slot, key);
+        table.values.set(slot, value);
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes a key from the map.
+     * @param key The key.
+     * @return The value of the key, or null if the map did not contain the key.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(final long key) {
+        int slot = find(table, key);
+        Object previous = table.values.get(slot);
+        if (previous == null) {
+            return null;
+        }
+        table.values.set(slot, REMOVED);
+        size--;
+        return (V) previous;
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public synchronized void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        usedSlots = 0;
+    }
+
+    /**
+     * Returns the amount of entries in the map.
+     * @return The amount of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every value of the map to an action, values that are added or removed while the map is traversed may or
+     * may not be passed.
+     * @param action Action to perform for every value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(final Consumer<? super V> action) {
+        Table current = table;
+        for (int slot = 0; slot < current.values.length(); slot++) {
+            Object value = current.values.get(slot);
+            if (value != null && value != REMOVED) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Copies the entries into a new table without removed slots, doubling it when it is more than half full.
+     */
+    private void resize() {
+        Table current = table;
+        Table resized = new Table(size * 2 >= current.keys.length() ? current.keys.length() * 2
+                : current.keys.length());
+        for (int slot = 0; slot < current.values.length(); slot++) {
+            Object value = current.values.get(slot);
+            if (value != null && value != REMOVED) {
+                int newSlot = findFree(resized, current.keys.get(slot));
+                resized.keys.set(newSlot, current.keys.get(slot));
+                resized.values.set(newSlot, value);
+            }
+        }
+        table = resized;
+        usedSlots = size;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot that ends its probe sequence.
+     */
+    private static int find(final Table current, final long key) {
+        int mask = current.keys.length() - 1;
+        int slot = hash(key) & mask;
+        Object value;
+        while ((value = current.values.get(slot)) != null && (value == REMOVED || current.keys.get(slot) != key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Finds the first empty slot in the probe sequence of a key.
+     */
+    private static int findFree(final Table current, final long key) {
+        int mask = current.keys.length() - 1;
+        int slot = hash(key) & mask;
+        while (current.values.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(final long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    /**
+     * Returns the smallest power of two that holds the expected amount of entries below the load factor.
+     */
+    static int capacityFor(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Keys and values of the map, the value of a slot is null while the slot is empty.
+     */
+    private static final class Table {
+        /** Keys of the slots. */
+        private final AtomicLongArray keys;
+        /** Values of the slots, null for an empty slot and REMOVED for a removed entry. */
+        private final AtomicReferenceArray<Object> values;
+
+        private Table(final int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+    }
+}
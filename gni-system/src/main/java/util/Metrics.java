@@ -0,0 +1,408 @@
+package util;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @author Saul
+ * @version 1
+ * Registry of the metrics of all services in this JVM: the latency, count and errors of the api methods, of the
+ * endpoints of the services and of the calls the services make to each other, and gauges registered by the services.
+ * Recording never takes a lock, counters are striped and latencies go to HdrHistogram recorders, which are only
+ * combined when the metrics are read. The metrics are served by {@link MetricsServer}.
+ */
+public final class Metrics {
+    /** Latency of the JSON-RPC requests to the api, by method. */
+    public static final Family API_REQUESTS = new Family("gni_api_request",
+            "JSON-RPC requests handled by the api.", "method");
+    /** Latency of the requests handled by the endpoints of the services, by service and endpoint. */
+    public static final Family ENDPOINT_REQUESTS = new Family("gni_endpoint_request",
+            "Requests handled by the endpoints of the services.", "service", "endpoint");
+    /** Latency of the calls the services make to other services, by target and uri. */
+    public static final Family CLIENT_CALLS = new Family("gni_client_call",
+            "Calls made to other services.", "target", "uri");
+    /** All timer families, in output order. */
+    private static final List<Family> FAMILIES = Arrays.asList(API_REQUESTS, ENDPOINT_REQUESTS, CLIENT_CALLS);
+    /** Maximum amount of label combinations per family, further combinations share one timer. */
+    private static final int MAX_SERIES = Integer.getInteger("gni.metrics.maxSeries", 512);
+    /** Label value used for the combinations over {@link #MAX_SERIES}. */
+    private static final String OTHER = "other";
+    /** Highest latency that can be recorded, higher latencies are recorded as this value. */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    /** Precision of the latency histograms. */
+    private static final int SIGNIFICANT_DIGITS = 2;
+    /** Quantiles that are reported for every timer. */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    /** Gauges registered by the services, indexed by name. */
+    private static final Map<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    static {
+        gauge("gni_log_dropped_messages", "Log messages dropped because the log queue was full.",
+                Log::getDroppedCount);
+    }
+
+    /**
+     * Private constructor for utility class.
+     */
+    private Metrics() {
+        //Not called
+    }
+
+    /**
+     * Registers a gauge, a gauge with the same name replaces the earlier gauge.
+     * @param name Name of the gauge.
+     * @param help Description of the gauge.
+     * @param value Reads the current value, called when the metrics are read.
+     */
+    public static void gauge(final String name, final String help, final Supplier<Number> value) {
+        GAUGES.put(name, new Gauge(help, value));
+    }
+
+    /**
+     * Derives the status of a reply between services, which is the http code when it is not 200, or the code of the
+     * message wrapper in the body when it is an error.
+     * @param httpCode Http code of the reply.
+     * @param body Body of the reply.
+     * @return 0 for a successful reply, otherwise the error code.
+     */
+    static int statusOf(final int httpCode, final String body) {
+        if (httpCode != 200) {
+            return httpCode;
+        }
+        if (body == null) {
+            return 0;
+        }
+        int errorIndex = body.indexOf("error");
+        if (errorIndex < 0) {
+            return 0;
+        }
+        int valueIndex = skipSeparators(body, errorIndex + "error".length());
+        if (!body.startsWith("true", valueIndex)) {
+            return 0;
+        }
+        int codeIndex = body.indexOf("code", valueIndex);
+        return codeIndex < 0 ? 500 : parseCode(body, skipSeparators(body, codeIndex + "code".length()), 500);
+    }
+
+    /**
+     * Finds the error code of a JSON-RPC response.
+     * @param response Json representation of the response.
+     * @return 0 for a successful response, otherwise the error code.
+     */
+    public static int jsonRpcErrorCode(final String response) {
+        if (response == null) {
+            return 500;
+        }
+        // the error member of a response is an object, a result can contain error flags of the services
+        int errorIndex = response.indexOf("\"error\"");
+        while (errorIndex >= 0) {
+            int valueIndex = skipSeparators(response, errorIndex + "\"error\"".length());
+            if (valueIndex < response.length() && response.charAt(valueIndex) == '{') {
+                int codeIndex = response.indexOf("\"code\"", valueIndex);
+                return codeIndex < 0 ? 500 : parseCode(response,
+                        skipSeparators(response, codeIndex + "\"code\"".length()), 500);
+            }
+            errorIndex = response.indexOf("\"error\"", valueIndex);
+        }
+        return 0;
+    }
+
+    private static int skipSeparators(final String text, final int start) {
+        int index = start;
+        while (index < text.length() && "\\\": ".indexOf(text.charAt(index)) >= 0) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int parseCode(final String text, final int start, final int defaultCode) {
+        int end = start;
+        if (end < text.length() && text.charAt(end) == '-') {
+            end++;
+        }
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        try {
+            int code = Integer.parseInt(text.substring(start, end));
+            return code == 0 ? defaultCode : code;
+        } catch (NumberFormatException e) {
+            return defaultCode;
+        }
+    }
+
+    /**
+     * Creates the metrics in the Prometheus text format.
+     * @return All metrics.
+     */
+    public static String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        for (Family family : FAMILIES) {
+            family.appendPrometheus(text);
+        }
+        for (Map.Entry<String, Gauge> gauge : GAUGES.entrySet()) {
+            text.append("# HELP ").append(gauge.getKey()).append(' ').append(gauge.getValue().help).append('\n');
+            text.append("# TYPE ").append(gauge.getKey()).append(" gauge\n");
+            text.append(gauge.getKey()).append(' ').append(gauge.getValue().read()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Creates a snapshot of the metrics that can be converted to json.
+     * @return The timers indexed by family name and the gauges indexed by name.
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        Map<String, Object> timers = new LinkedHashMap<>();
+        for (Family family : FAMILIES) {
+            timers.put(family.name, family.snapshot());
+        }
+        snapshot.put("timers", timers);
+        Map<String, Object> gauges = new LinkedHashMap<>();
+        for (Map.Entry<String, Gauge> gauge : GAUGES.entrySet()) {
+            gauges.put(gauge.getKey(), gauge.getValue().read());
+        }
+        snapshot.put("gauges", gauges);
+        return snapshot;
+    }
+
+    /**
+     * Timers of a single kind of operation, one timer per combination of label values.
+     */
+    public static final class Family {
+        /** Name of the family, used as prefix of the metric names. */
+        private final String name;
+        /** Description of the family. */
+        private final String help;
+        /** Names of the labels. */
+        private final String[] labelNames;
+        /** Timers indexed by their label values. */
+        private final ConcurrentHashMap<List<String>, Timer> timers;
+
+        private Family(final String newName, final String newHelp, final String... newLabelNames) {
+            this.name = newName;
+            this.help = newHelp;
+            this.labelNames = newLabelNames;
+            this.timers = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Fetches the timer for a combination of label values, callers that record often should keep the timer.
+         * @param labelValues Value of every label of the family, in the order of the label names.
+         * @return The timer.
+         */
+        public Timer timer(final String... labelValues) {
+            List<String> key = Arrays.asList(labelValues);
+            Timer timer = timers.get(key);
+            if (timer != null) {
+                return timer;
+            }
+            if (timers.size() >= MAX_SERIES) {
+                String[] other = new String[labelValues.length];
+                Arrays.fill(other, OTHER);
+                key = Arrays.asList(other);
+            }
+            return timers.computeIfAbsent(key, k -> new Timer(formatLabels(k)));
+        }
+
+        private String formatLabels(final List<String> labelValues) {
+            StringBuilder labels = new StringBuilder();
+            for (int i = 0; i < labelNames.length; i++) {
+                if (i > 0) {
+                    labels.append(',');
+                }
+                String value = i < labelValues.size() ? String.valueOf(labelValues.get(i)) : "";
+                labels.append(labelNames[i]).append("=\"")
+                        .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                        .append('"');
+            }
+            return labels.toString();
+        }
+
+        private void appendPrometheus(final StringBuilder text) {
+            String seconds = name + "_seconds";
+            String errors = name + "_errors_total";
+            text.append("# HELP ").append(seconds).append(' ').append(help).append('\n');
+            text.append("# TYPE ").append(seconds).append(" summary\n");
+            List<Timer.Snapshot> snapshots = new ArrayList<>();
+            for (Timer timer : timers.values()) {
+                Timer.Snapshot snapshot = timer.snapshot();
+                snapshots.add(snapshot);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    text.append(seconds).append('{').append(timer.labels).append(",quantile=\"").append(QUANTILES[i])
+                            .append("\"} ").append(snapshot.quantileSeconds[i]).append('\n');
+                }
+                text.append(seconds).append("_sum{").append(timer.labels).append("} ")
+                        .append(snapshot.sumSeconds).append('\n');
+                text.append(seconds).append("_count{").append(timer.labels).append("} ")
+                        .append(snapshot.count).append('\n');
+            }
+            text.append("# HELP ").append(errors).append(' ').append(help).append(" Failed, by error code.\n");
+            text.append("# TYPE ").append(errors).append(" counter\n");
+            for (Timer.Snapshot snapshot : snapshots) {
+                for (Map.Entry<Integer, Long> error : snapshot.errors.entrySet()) {
+                    text.append(errors).append('{').append(snapshot.labels).append(",code=\"").append(error.getKey())
+                            .append("\"} ").append(error.getValue()).append('\n');
+                }
+            }
+        }
+
+        private List<Map<String, Object>> snapshot() {
+            List<Map<String, Object>> snapshots = new ArrayList<>();
+            for (Map.Entry<List<String>, Timer> entry : timers.entrySet()) {
+                Timer.Snapshot snapshot = entry.getValue().snapshot();
+                Map<String, Object> values = new LinkedHashMap<>();
+                Map<String, String> labels = new LinkedHashMap<>();
+                for (int i = 0; i < labelNames.length; i++) {
+                    labels.put(labelNames[i], entry.getKey().get(i));
+                }
+                values.put("labels", labels);
+                values.put("count", snapshot.count);
+                values.put("sumSeconds", snapshot.sumSeconds);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    values.put("p" + new BigDecimal(Double.toString(QUANTILES[i] * 100)).stripTrailingZeros().toPlainString(),
+                            snapshot.quantileSeconds[i]);
+                }
+                values.put("maxSeconds", snapshot.maxSeconds);
+                values.put("errors", snapshot.errors);
+                snapshots.add(values);
+            }
+            return snapshots;
+        }
+    }
+
+    /**
+     * Count, errors and latency distribution of a single operation.
+     */
+    public static final class Timer {
+        /** Prometheus representation of the labels of the timer. */
+        private final String labels;
+        /** Amount of recorded operations. */
+        private final LongAdder count;
+        /** Total latency of the recorded operations. */
+        private final LongAdder sumNanos;
+        /** Amount of failed operations, indexed by error code. */
+        private final ConcurrentHashMap<Integer, LongAdder> errors;
+        /** Latencies recorded since the last snapshot, in microseconds. */
+        private final Recorder recorder;
+        /** All latencies up to the last snapshot, only used while holding the lock of the timer. */
+        private final Histogram total;
+        /** Histogram that is reused for the interval of the recorder. */
+        private Histogram interval;
+
+        private Timer(final String newLabels) {
+            this.labels = newLabels;
+            this.count = new LongAdder();
+            this.sumNanos = new LongAdder();
+            this.errors = new ConcurrentHashMap<>();
+            this.recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            this.total = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        }
+
+        /**
+         * Records a finished operation.
+         * @param startNanos Value of {@link System#nanoTime()} when the operation started.
+         * @param status 0 if the operation succeeded, otherwise its error code.
+         */
+        public void recordSince(final long startNanos, final int status) {
+            record(System.nanoTime() - startNanos, status);
+        }
+
+        /**
+         * Records a finished operation.
+         * @param latencyNanos Time the operation took.
+         * @param status 0 if the operation succeeded, otherwise its error code.
+         */
+        public void record(final long latencyNanos, final int status) {
+            count.increment();
+            sumNanos.add(latencyNanos);
+            recorder.recordValue(Math.max(0, Math.min(HIGHEST_TRACKABLE_MICROS, latencyNanos / 1000)));
+            if (status != 0) {
+                LongAdder errorCount = errors.get(status);
+                if (errorCount == null) {
+                    errorCount = errors.computeIfAbsent(status, code -> new LongAdder());
+                }
+                errorCount.increment();
+            }
+        }
+
+        private synchronized Snapshot snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            double[] quantileSeconds = new double[QUANTILES.length];
+            for (int i = 0; i < QUANTILES.length; i++) {
+                quantileSeconds[i] = total.getValueAtPercentile(QUANTILES[i] * 100) / 1e6;
+            }
+            Map<Integer, Long> errorCounts = new LinkedHashMap<>();
+            for (Map.Entry<Integer, LongAdder> error : errors.entrySet()) {
+                errorCounts.put(error.getKey(), error.getValue().sum());
+            }
+            return new Snapshot(labels, count.sum(), sumNanos.sum() / 1e9, quantileSeconds,
+                    total.getMaxValue() / 1e6, errorCounts);
+        }
+
+        /**
+         * Values of a timer at a single moment.
+         */
+        private static final class Snapshot {
+            /** Prometheus representation of the labels of the timer. */
+            private final String labels;
+            /** Amount of recorded operations. */
+            private final long count;
+            /** Total latency of the recorded operations. */
+            private final double sumSeconds;
+            /** Latency at each of the {@link #QUANTILES}. */
+            private final double[] quantileSeconds;
+            /** Highest recorded latency. */
+            private final double maxSeconds;
+            /** Amount of failed operations, indexed by error code. */
+            private final Map<Integer, Long> errors;
+
+            private Snapshot(final String newLabels, final long newCount, final double newSumSeconds,
+                             final double[] newQuantileSeconds, final double newMaxSeconds,
+                             final Map<Integer, Long> newErrors) {
+                this.labels = newLabels;
+                this.count = newCount;
+                this.sumSeconds = newSumSeconds;
+                this.quantileSeconds = newQuantileSeconds;
+                this.maxSeconds = newMaxSeconds;
+                this.errors = newErrors;
+            }
+        }
+    }
+
+    /**
+     * A value that is read when the metrics are read.
+     */
+    private static final class Gauge {
+        /** Description of the gauge. */
+        private final String help;
+        /** Reads the current value. */
+        private final Supplier<Number> value;
+
+        private Gauge(final String newHelp, final Supplier<Number> newValue) {
+            this.help = newHelp;
+            this.value = newValue;
+        }
+
+        private Number read() {
+            try {
+                return value.get();
+            } catch (RuntimeException e) {
+                return Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package util;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import database.QueryStatistics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * @author Saul
+ * @version 1
+ * Admin endpoint that serves the {@link Metrics} of this JVM, in the Prometheus text format on /metrics and as json on
+ * /metrics.json, and the traces recorded by {@link RequestTrace}: /traces lists the slowest recorded traces and
+ * /traces?id=[traceId] shows the spans of a single trace. /queries lists the database statements that took the most
+ * time in total, from the {@link QueryStatistics} of this JVM. It listens on gni.metrics.port, or on a free port when that
+ * port is taken by the metrics endpoint of another JVM. Only one endpoint is started per JVM, no matter how many services run in it.
+ */
+public final class MetricsServer {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Metrics]             :";
+    /** Port the endpoint listens on, 0 disables the endpoint. */
+    private static final int PORT = Integer.getInteger("gni.metrics.port", 9998);
+    /** Content type of the Prometheus text format. */
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    /** Content type of the json representation. */
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    /** Amount of traces or statements listed when no limit is given. */
+    private static final int DEFAULT_LIMIT = 50;
+    /** The endpoint, null until it is started. */
+    private static HttpServer server;
+
+    /**
+     * Private constructor for utility class.
+     */
+    private MetricsServer() {
+        //Not called
+    }
+
+    /**
+     * Starts the endpoint if it has not been started yet.
+     */
+    public static synchronized void start() {
+        if (server != null || PORT <= 0) {
+            return;
+        }
+        try {
+            try {
+                server = HttpServer.create(new InetSocketAddress(PORT), 0);
+            } catch (BindException e) {
+                server = HttpServer.create(new InetSocketAddress(0), 0);
+            }
+        } catch (IOException e) {
+            Log.warn(PREFIX, "Could not open the metrics endpoint: %s", e.getMessage());
+            return;
+        }
+        Gson gson = new Gson();
+        server.createContext("/metrics", exchange -> {
+            if ("/metrics.json".equals(exchange.getRequestURI().getPath())) {
+                reply(exchange, JSON_CONTENT_TYPE, () -> gson.toJson(Metrics.snapshot()));
+            } else {
+                reply(exchange, PROMETHEUS_CONTENT_TYPE, Metrics::toPrometheus);
+            }
+        });
+        server.createContext("/traces", exchange -> {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (query.containsKey("id")) {
+                reply(exchange, JSON_CONTENT_TYPE, () -> gson.toJson(RequestTrace.findTrace(query.get("id"))));
+            } else {
+                int limit = parseLimit(query);
+                reply(exchange, JSON_CONTENT_TYPE, () -> gson.toJson(RequestTrace.slowestTraces(limit)));
+            }
+        });
+        server.createContext("/queries", exchange -> {
+            int limit = parseLimit(parseQuery(exchange.getRequestURI().getRawQuery()));
+            reply(exchange, JSON_CONTENT_TYPE, () -> gson.toJson(QueryStatistics.top(limit)));
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gni-metrics");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        Log.info(PREFIX, "Metrics endpoint started on port %d.", server.getAddress().getPort());
+    }
+
+    private static Map<String, String> parseQuery(final String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static int parseLimit(final Map<String, String> query) {
+        try {
+            return Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_LIMIT)));
+        } catch (NumberFormatException e) {
+            return DEFAULT_LIMIT;
+        }
+    }
+
+    private static void reply(final HttpExchange exchange, final String contentType, final Supplier<String> body)
+            throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
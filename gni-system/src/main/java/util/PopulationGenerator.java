@@ -0,0 +1,374 @@
+package util;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * @author Saul
+ * @version 1
+ * Fills the database with a synthetic population for benchmarks, without going through the services: customers with
+ * their login, accounts (some shared with a second owner), a pin card per account owner and a transaction history.
+ * The history is generated day by day, so the new balances of the transactions and the final balances of the
+ * accounts are consistent. The data only depends on the seed, running the generator twice with the same settings on
+ * empty tables creates the same database. Tables are created with {@link TableCreator} first, ids continue after the
+ * highest ids in the tables.
+ *
+ * Settings, as system properties:
+ * gni.population.customers (10000), gni.population.seed (42), gni.population.startDate (2017-01-01),
+ * gni.population.months (24), gni.population.transactionsPerMonth (average per account, 20),
+ * gni.population.chunkRows (1000) and gni.population.infile (true to load with LOAD DATA LOCAL INFILE instead of
+ * multi-row inserts).
+ */
+public final class PopulationGenerator {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Population]          :";
+    /** Amount of customers to create. */
+    private static final int CUSTOMERS = Integer.getInteger("gni.population.customers", 10000);
+    /** Seed all data is derived from. */
+    private static final long SEED = Long.getLong("gni.population.seed", 42L);
+    /** First day of the transaction history. */
+    private static final LocalDate START_DATE = LocalDate.parse(System.getProperty("gni.population.startDate",
+            "2017-01-01"));
+    /** Length of the transaction history. */
+    private static final int MONTHS = Integer.getInteger("gni.population.months", 24);
+    /** Average amount of payments an account makes per month. */
+    private static final double TRANSACTIONS_PER_MONTH = Double.parseDouble(
+            System.getProperty("gni.population.transactionsPerMonth", "20"));
+    /** Amount of rows loaded at once. */
+    private static final int CHUNK_ROWS = Integer.getInteger("gni.population.chunkRows", 1000);
+    /** Whether rows are loaded with LOAD DATA LOCAL INFILE. */
+    private static final boolean USE_INFILE = Boolean.getBoolean("gni.population.infile");
+    /** Weekly transfer limit of new accounts, the default of the ledger. */
+    private static final double TRANSFER_LIMIT = 2500.0;
+    /** Validity of a pin card in years, the default of the pin service. */
+    private static final int CARD_VALIDITY_YEARS = 5;
+    /** Day of the month salaries are paid on. */
+    private static final int SALARY_DAY = 25;
+    /** Share of the payments that go to another account of the population, the rest goes to merchants. */
+    private static final double INTERNAL_TRANSFER_SHARE = 0.4;
+    /** Share of the accounts that have a second owner. */
+    private static final double SHARED_ACCOUNT_SHARE = 0.1;
+    /** Amount of accounts outside the bank that pay salaries or receive payments. */
+    private static final int EXTERNAL_ACCOUNTS = 1000;
+    /** Multiplier that spreads account indexes over the account number space, coprime with 10^10. */
+    private static final long ACCOUNT_NUMBER_MULTIPLIER = 7919L * 104729L;
+    /** Size of the account number space. */
+    private static final long ACCOUNT_NUMBER_SPACE = 10000000000L;
+    /** First names of the customers. */
+    private static final String[] FIRST_NAMES = {"Anna", "Bram", "Daan", "Emma", "Eva", "Finn", "Julia", "Lars",
+            "Lieke", "Lotte", "Luuk", "Milan", "Noah", "Noor", "Sanne", "Sem", "Sophie", "Thijs", "Tess", "Tim"};
+    /** Surnames of the customers. */
+    private static final String[] LAST_NAMES = {"de Jong", "Jansen", "de Vries", "van den Berg", "van Dijk",
+            "Bakker", "Janssen", "Visser", "Smit", "Meijer", "de Boer", "Mulder", "de Groot", "Bos", "Vos", "Peters",
+            "Hendriks", "van Leeuwen", "Dekker", "Brouwer"};
+    /** Cities in the addresses of the customers. */
+    private static final String[] CITIES = {"Amsterdam", "Rotterdam", "Den Haag", "Utrecht", "Eindhoven",
+            "Groningen", "Tilburg", "Almere", "Breda", "Nijmegen"};
+    /** Streets in the addresses of the customers. */
+    private static final String[] STREETS = {"Kerkstraat", "Schoolstraat", "Molenweg", "Dorpsstraat", "Stationsweg",
+            "Julianastraat", "Beatrixlaan", "Parallelweg", "Nieuwstraat", "Markt"};
+    /** Merchants outside the bank that receive payments. */
+    private static final String[] MERCHANTS = {"Albert Heijn", "Jumbo", "Bol.com", "NS", "Shell", "HEMA",
+            "Coolblue", "Kruidvat", "Thuisbezorgd", "Eneco", "Ziggo", "Action"};
+
+    /** Id of the first generated customer. */
+    private long firstUserId;
+    /** Id of the first generated account. */
+    private long firstAccountId;
+    /** Number of the first generated pin card. */
+    private long firstCardNumber;
+    /** Id of the next incoming transaction. */
+    private long nextIncomingId;
+    /** Id of the next outgoing transaction. */
+    private long nextOutgoingId;
+    /** Owner (customer index) of every account. */
+    private int[] accountOwners;
+    /** Second owner of every account, -1 if the account has one owner. */
+    private int[] secondOwners;
+    /** Account number of every account. */
+    private String[] accountNumbers;
+    /** Name of every account in the ledger, initials and surname of the owner like the users service uses. */
+    private String[] accountNames;
+    /** Current balance of every account. */
+    private double[] balances;
+    /** Overdraft limit of every account. */
+    private double[] overdraftLimits;
+    /** Monthly salary paid into every account, 0 for accounts without salary. */
+    private double[] salaries;
+
+    /**
+     * Private constructor, the generator is started with {@link #main(String[])}.
+     */
+    private PopulationGenerator() {
+        //Started from main
+    }
+
+    /**
+     * Generates and loads the population.
+     * @param args Not used, the settings are read from system properties.
+     */
+    public static void main(final String[] args) {
+        ConnectionPool pool = new ConnectionPool();
+        SQLConnection sqlConnection = pool.getConnection();
+        try {
+            new PopulationGenerator().generate(sqlConnection);
+        } catch (SQLException e) {
+            Log.error(PREFIX, "Generating the population failed: %s", e.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.returnConnection(sqlConnection);
+            pool.close();
+        }
+    }
+
+    private void generate(final SQLConnection sqlConnection) throws SQLException {
+        Connection connection = sqlConnection.getConnection();
+        long startMillis = System.currentTimeMillis();
+        firstUserId = sqlConnection.getNextID(SQLStatements.getNextUserID);
+        firstAccountId = sqlConnection.getNextID(SQLStatements.getNextAccountID);
+        firstCardNumber = sqlConnection.getNextID(SQLStatements.getHighestCardNumber);
+        nextIncomingId = sqlConnection.getNextID(SQLStatements.getHighestIncomingTransactionID);
+        nextOutgoingId = sqlConnection.getNextID(SQLStatements.getHighestOutgoingTransactionID);
+        Log.info(PREFIX, "Generating %d customers with %d months of history from seed %d.", CUSTOMERS, MONTHS, SEED);
+        loadCustomers(connection);
+        loadAccounts(connection);
+        loadHistory(connection);
+        loadLedger(connection);
+        Log.info(PREFIX, "Generated %d customers and %d accounts in %d seconds.", CUSTOMERS, accountOwners.length,
+                (System.currentTimeMillis() - startMillis) / 1000);
+    }
+
+    /**
+     * Random generator for the properties of a single customer, so they can be derived again from the index of the
+     * customer without storing them.
+     */
+    private static SplittableRandom customerRandom(final int customer) {
+        return new SplittableRandom(SEED * 0x9E3779B97F4A7C15L + customer);
+    }
+
+    private static String firstName(final int customer) {
+        return FIRST_NAMES[customerRandom(customer).nextInt(FIRST_NAMES.length)];
+    }
+
+    private static String lastName(final int customer) {
+        SplittableRandom random = customerRandom(customer);
+        random.nextInt(FIRST_NAMES.length);
+        return LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static String initials(final int customer) {
+        return firstName(customer).charAt(0) + ".";
+    }
+
+    private void loadCustomers(final Connection connection) throws SQLException {
+        try (BulkLoader users = BulkLoader.create(USE_INFILE, connection, "users", CHUNK_ROWS, "id", "initials",
+                "firstname", "lastname", "email", "telephone_number", "address", "date_of_birth",
+                "social_security_number", "child", "adult_date");
+             BulkLoader logins = BulkLoader.create(USE_INFILE, connection, "authentication", CHUNK_ROWS, "user_id",
+                     "username", "password", "frozen", "child")) {
+            for (int customer = 0; customer < CUSTOMERS; customer++) {
+                SplittableRandom random = customerRandom(customer);
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                long userId = firstUserId + customer;
+                // ages between 18 and 85, skewed towards the middle
+                int age = 18 + (int) (67 * (random.nextDouble() + random.nextDouble()) / 2);
+                LocalDate dateOfBirth = START_DATE.minusYears(age).minusDays(random.nextInt(365));
+                String address = STREETS[random.nextInt(STREETS.length)] + " " + (1 + random.nextInt(200)) + ", "
+                        + CITIES[random.nextInt(CITIES.length)];
+                users.add(userId, firstName.charAt(0) + ".", firstName, lastName,
+                        firstName.toLowerCase() + "." + lastName.replace(" ", "").toLowerCase() + customer
+                                + "@example.com",
+                        String.format("06%08d", random.nextInt(100000000)), address, dateOfBirth,
+                        100000000L + userId, false, null);
+                logins.add(userId, "user" + userId, "pass" + userId, false, false);
+            }
+        }
+        Log.info(PREFIX, "Loaded %d customers.", CUSTOMERS);
+    }
+
+    private void loadAccounts(final Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] accountsPerCustomer = new int[CUSTOMERS];
+        int accountCount = 0;
+        for (int customer = 0; customer < CUSTOMERS; customer++) {
+            // most customers have one account, some have two or three
+            double draw = random.nextDouble();
+            accountsPerCustomer[customer] = draw < 0.7 ? 1 : draw < 0.9 ? 2 : 3;
+            accountCount += accountsPerCustomer[customer];
+        }
+        accountOwners = new int[accountCount];
+        secondOwners = new int[accountCount];
+        accountNumbers = new String[accountCount];
+        accountNames = new String[accountCount];
+        balances = new double[accountCount];
+        overdraftLimits = new double[accountCount];
+        salaries = new double[accountCount];
+        try (BulkLoader links = BulkLoader.create(USE_INFILE, connection, "accounts", CHUNK_ROWS, "user_id",
+                "account_number", "primary_owner", "frozen");
+             BulkLoader cards = BulkLoader.create(USE_INFILE, connection, "pin", CHUNK_ROWS, "account_number",
+                     "user_id", "card_number", "pin_code", "expiration_date", "incorrect_attempts", "active",
+                     "frozen")) {
+            int account = 0;
+            long cardNumber = firstCardNumber;
+            for (int customer = 0; customer < CUSTOMERS; customer++) {
+                for (int i = 0; i < accountsPerCustomer[customer]; i++) {
+                    accountOwners[account] = customer;
+                    secondOwners[account] = -1;
+                    if (CUSTOMERS > 1 && random.nextDouble() < SHARED_ACCOUNT_SHARE) {
+                        secondOwners[account] = (customer + 1 + random.nextInt(CUSTOMERS - 1)) % CUSTOMERS;
+                    }
+                    // starting balances are log-normal around 1500, the first account receives the salary
+                    balances[account] = roundCents(Math.exp(Math.log(1500) + gaussian(random)));
+                    overdraftLimits[account] = random.nextDouble() < 0.2 ? 500.0 * (1 + random.nextInt(4)) : 0.0;
+                    if (i == 0) {
+                        salaries[account] = roundCents(Math.exp(Math.log(2800) + 0.4 * gaussian(random)));
+                    }
+                    String accountNumber = accountNumber(account);
+                    accountNumbers[account] = accountNumber;
+                    accountNames[account] = initials(customer) + lastName(customer);
+                    for (int owner : new int[] {customer, secondOwners[account]}) {
+                        if (owner < 0) {
+                            continue;
+                        }
+                        links.add(firstUserId + owner, accountNumber, owner == customer, false);
+                        LocalDate issued = START_DATE.plusDays(random.nextInt(365 * CARD_VALIDITY_YEARS));
+                        cards.add(accountNumber, firstUserId + owner, cardNumber++,
+                                String.format("%04d", random.nextInt(10000)),
+                                issued.plusYears(CARD_VALIDITY_YEARS), 0, true, false);
+                    }
+                    account++;
+                }
+            }
+        }
+        Log.info(PREFIX, "Loaded %d accounts.", accountOwners.length);
+    }
+
+    /**
+     * Generates the transactions day by day: salaries on {@link #SALARY_DAY} and a Poisson distributed amount of
+     * payments per day, made by accounts chosen with a skewed distribution so some accounts are far more active than
+     * others. Payments that would exceed the overdraft limit are not made.
+     */
+    private void loadHistory(final Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        int accountCount = accountOwners.length;
+        LocalDate endDate = START_DATE.plusMonths(MONTHS);
+        try (BulkLoader incoming = BulkLoader.create(USE_INFILE, connection, "transactions_in", CHUNK_ROWS, "id",
+                "date", "account_to", "account_to_name", "account_from", "amount", "new_balance",
+                "new_savings_balance", "description");
+             BulkLoader outgoing = BulkLoader.create(USE_INFILE, connection, "transactions_out", CHUNK_ROWS, "id",
+                     "date", "account_to", "account_to_name", "account_from", "amount", "new_balance",
+                     "new_savings_balance", "description")) {
+            for (LocalDate date = START_DATE; date.isBefore(endDate); date = date.plusDays(1)) {
+                if (date.getDayOfMonth() == SALARY_DAY) {
+                    for (int account = 0; account < accountCount; account++) {
+                        if (salaries[account] > 0) {
+                            balances[account] = roundCents(balances[account] + salaries[account]);
+                            incoming.add(nextIncomingId++, date, accountNumbers[account], accountNames[account],
+                                    externalAccountNumber(account % EXTERNAL_ACCOUNTS), salaries[account],
+                                    balances[account], 0.0, "Salary " + date.getMonth());
+                        }
+                    }
+                }
+                double expectedPayments = accountCount * TRANSACTIONS_PER_MONTH * 12 / 365;
+                int payments = poisson(random, expectedPayments);
+                for (int i = 0; i < payments; i++) {
+                    int from = (int) (accountCount * Math.pow(random.nextDouble(), 2));
+                    double amount = roundCents(Math.min(5000, Math.exp(Math.log(35) + gaussian(random))));
+                    if (amount < 0.01 || balances[from] - amount < -overdraftLimits[from]) {
+                        continue;
+                    }
+                    balances[from] = roundCents(balances[from] - amount);
+                    if (accountCount > 1 && random.nextDouble() < INTERNAL_TRANSFER_SHARE) {
+                        int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+                        String description = "Transfer from " + firstName(accountOwners[from]);
+                        outgoing.add(nextOutgoingId++, date, accountNumbers[to], accountNames[to], accountNumbers[from],
+                                amount, balances[from], 0.0, description);
+                        balances[to] = roundCents(balances[to] + amount);
+                        incoming.add(nextIncomingId++, date, accountNumbers[to], accountNames[to], accountNumbers[from],
+                                amount, balances[to], 0.0, description);
+                    } else {
+                        int merchant = random.nextInt(MERCHANTS.length);
+                        outgoing.add(nextOutgoingId++, date, externalAccountNumber(merchant), MERCHANTS[merchant],
+                                accountNumbers[from], amount, balances[from], 0.0, MERCHANTS[merchant] + " purchase");
+                    }
+                }
+            }
+            Log.info(PREFIX, "Loaded %d incoming and %d outgoing transactions.", incoming.getLoadedRows(),
+                    outgoing.getLoadedRows());
+        }
+    }
+
+    /**
+     * Loads the accounts with their balances at the end of the history.
+     */
+    private void loadLedger(final Connection connection) throws SQLException {
+        try (BulkLoader ledger = BulkLoader.create(USE_INFILE, connection, "ledger", CHUNK_ROWS, "id",
+                "account_number", "name", "overdraft_limit", "balance", "savings_active", "savings_balance",
+                "transfer_limit", "child")) {
+            for (int account = 0; account < accountOwners.length; account++) {
+                ledger.add(firstAccountId + account, accountNumbers[account], accountNames[account],
+                        overdraftLimits[account], balances[account], false, 0.0, TRANSFER_LIMIT, false);
+            }
+        }
+    }
+
+    /**
+     * Creates the account number of an account index, unique for every index below 10^10.
+     */
+    private static String accountNumber(final int account) {
+        long number = (account * ACCOUNT_NUMBER_MULTIPLIER + SEED) % ACCOUNT_NUMBER_SPACE;
+        return iban("GNIB", number);
+    }
+
+    private static String externalAccountNumber(final int index) {
+        return iban("EXTB", index * ACCOUNT_NUMBER_MULTIPLIER % ACCOUNT_NUMBER_SPACE);
+    }
+
+    /**
+     * Creates a Dutch IBAN with valid check digits.
+     * @param bankCode Four letter bank code.
+     * @param number Account number within the bank, below 10^10.
+     * @return The IBAN.
+     */
+    static String iban(final String bankCode, final long number) {
+        String bban = bankCode + String.format("%010d", number);
+        // ISO 13616: the bban followed by the country code and 00, letters as numbers, modulo 97
+        String rearranged = bban + "NL00";
+        int remainder = 0;
+        for (int i = 0; i < rearranged.length(); i++) {
+            int digit = Character.getNumericValue(rearranged.charAt(i));
+            remainder = (remainder * (digit >= 10 ? 100 : 10) + digit) % 97;
+        }
+        return String.format("NL%02d%s", 98 - remainder, bban);
+    }
+
+    private static int poisson(final SplittableRandom random, final double mean) {
+        if (mean > 100) {
+            return Math.max(0, (int) Math.round(mean + Math.sqrt(mean) * gaussian(random)));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static double gaussian(final SplittableRandom random) {
+        // Box-Muller, SplittableRandom has no gaussian of its own
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double roundCents(final double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+}
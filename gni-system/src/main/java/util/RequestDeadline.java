@@ -0,0 +1,69 @@
+package util;
+
+/**
+ * @author Saul
+ * @version 1
+ * Deadline of the request that is currently being handled on this thread. The deadline is set when a request enters
+ * the system through the api and is carried along to every call to another service, so calls that are made to
+ * handle the request stop waiting once the original request can no longer be answered in time. Code that continues a
+ * request on another thread captures the deadline with {@link #current()} and restores it with
+ * {@link #runWithin(long, Runnable)}.
+ */
+public final class RequestDeadline {
+    /** Value used when there is no deadline. */
+    public static final long NONE = 0L;
+    /** Deadline of the request handled by the current thread, in epoch milliseconds. */
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * Private constructor for utility class.
+     */
+    private RequestDeadline() {
+        //Not called
+    }
+
+    /**
+     * Creates a deadline that lies the given amount of milliseconds in the future.
+     * @param timeoutMillis Time the request is allowed to take.
+     * @return The deadline in epoch milliseconds.
+     */
+    public static long after(final long timeoutMillis) {
+        return System.currentTimeMillis() + timeoutMillis;
+    }
+
+    /**
+     * Fetches the deadline of the request handled by the current thread.
+     * @return The deadline in epoch milliseconds, or {@link #NONE} if the request has no deadline.
+     */
+    public static long current() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return NONE;
+        }
+        return deadline;
+    }
+
+    /**
+     * Runs a task with the given deadline as deadline of the current thread, the previous deadline of the thread is
+     * restored afterwards.
+     * @param deadline Deadline in epoch milliseconds, or {@link #NONE}.
+     * @param task Task to run.
+     */
+    public static void runWithin(final long deadline, final Runnable task) {
+        Long previous = DEADLINE.get();
+        if (deadline == NONE) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadline);
+        }
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                DEADLINE.remove();
+            } else {
+                DEADLINE.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package util;
+
+import database.ConnectionPool;
+import database.SQLConnection;
+import database.SQLStatements;
+import net.minidev.json.JSONValue;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * @author Saul
+ * @version 1
+ * Exports the request log of a window of days in the format of the traffic capture of the api service, so the
+ * requests can be replayed with the replay tool of the test suite when capturing was not enabled. The request log
+ * stores the parameters of a request as text, they are parsed back on a best effort basis: amounts and counts become
+ * numbers again, lists are parsed as json and all other values stay text. The log does not hold the latency, error
+ * code or result of a request, so these are left out, the start of a request is its system date with the time of day
+ * it was logged.
+ *
+ * Settings, as system properties:
+ * gni.export.beginDate and gni.export.endDate (the window, both default to today) and gni.export.file (requests.log).
+ */
+public final class RequestLogExporter {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Export]              :";
+    /** First day of the exported window. */
+    private static final LocalDate BEGIN_DATE = LocalDate.parse(System.getProperty("gni.export.beginDate",
+            LocalDate.now().toString()));
+    /** Last day of the exported window. */
+    private static final LocalDate END_DATE = LocalDate.parse(System.getProperty("gni.export.endDate",
+            BEGIN_DATE.toString()));
+    /** File the requests are written to. */
+    private static final String FILE = System.getProperty("gni.export.file", "requests.log");
+    /** Parameters the api expects as decimal number. */
+    private static final Set<String> DECIMAL_PARAMS = new HashSet<>(Arrays.asList(
+            "amount", "transferLimit", "overdraftLimit", "value"));
+    /** Parameters the api expects as whole number. */
+    private static final Set<String> WHOLE_PARAMS = new HashSet<>(Arrays.asList("nrOfTransactions", "nrOfDays"));
+    /** Separator between the parameters in the log, a comma followed by the name of the next parameter. */
+    private static final Pattern PARAM_SEPARATOR = Pattern.compile(", (?=[A-Za-z]+:)");
+
+    /**
+     * Private constructor for utility class.
+     */
+    private RequestLogExporter() {
+        //Not called
+    }
+
+    /**
+     * Exports the request log of the configured window.
+     * @param args Not used.
+     */
+    public static void main(final String[] args) {
+        ConnectionPool pool = new ConnectionPool();
+        SQLConnection sqlConnection = pool.getConnection();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FILE),
+                StandardCharsets.UTF_8))) {
+            long exported = export(sqlConnection, out);
+            Log.info(PREFIX, "Exported %d requests from %s to %s to %s.", exported, BEGIN_DATE, END_DATE, FILE);
+        } catch (SQLException | IOException e) {
+            Log.error(PREFIX, "Exporting the request log failed: %s", e.getMessage());
+            e.printStackTrace();
+        } finally {
+            pool.returnConnection(sqlConnection);
+            pool.close();
+        }
+    }
+
+    private static long export(final SQLConnection sqlConnection, final Writer out) throws SQLException,
+            IOException {
+        long exported = 0;
+        try (PreparedStatement getRequestLogs = sqlConnection.getConnection()
+                .prepareStatement(SQLStatements.getOrderedRequestLogs)) {
+            getRequestLogs.setDate(1, java.sql.Date.valueOf(BEGIN_DATE));
+            getRequestLogs.setDate(2, java.sql.Date.valueOf(END_DATE));
+            try (ResultSet requestLogs = getRequestLogs.executeQuery()) {
+                while (requestLogs.next()) {
+                    Map<String, Object> request = new LinkedHashMap<>();
+                    request.put("method", requestLogs.getString("method"));
+                    request.put("params", parseParams(requestLogs.getString("params")));
+                    request.put("id", requestLogs.getString("request_id"));
+                    request.put("jsonrpc", "2.0");
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("start", requestLogs.getDate("date").toLocalDate()
+                            .atTime(LocalTime.parse(requestLogs.getString("time")))
+                            .toInstant(ZoneOffset.UTC).toEpochMilli());
+                    line.put("request", request);
+                    out.write(JSONValue.toJSONString(line));
+                    out.write('\n');
+                    exported++;
+                }
+            }
+        }
+        return exported;
+    }
+
+    /**
+     * Parses the parameters of a request from the format name:value, name:value of the request log.
+     * @param params The parameters as stored in the log.
+     * @return The parameters by name.
+     */
+    static Map<String, Object> parseParams(final String params) {
+        Map<String, Object> parsed = new LinkedHashMap<>();
+        if (params == null || params.isEmpty()) {
+            return parsed;
+        }
+        for (String param : PARAM_SEPARATOR.split(params)) {
+            int separator = param.indexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            String name = param.substring(0, separator);
+            parsed.put(name, parseValue(name, param.substring(separator + 1)));
+        }
+        return parsed;
+    }
+
+    private static Object parseValue(final String name, final String value) {
+        try {
+            if (DECIMAL_PARAMS.contains(name)) {
+                return Double.parseDouble(value);
+            } else if (WHOLE_PARAMS.contains(name)) {
+                return Long.parseLong(value);
+            }
+        } catch (NumberFormatException e) {
+            return value;
+        }
+        if ("true".equals(value) || "false".equals(value)) {
+            return Boolean.parseBoolean(value);
+        } else if (value.startsWith("[")) {
+            Object list = JSONValue.parse(value);
+            return list == null ? value : list;
+        }
+        return value;
+    }
+}
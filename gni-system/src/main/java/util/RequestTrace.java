@@ -0,0 +1,331 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author Saul
+ * @version 1
+ * Trace of the request that is currently being handled on this thread. A trace is started when a request enters the
+ * system through the api and is carried along to every call to another service in the same way as the
+ * {@link RequestDeadline}, every hop and every database query of the request is recorded as a span with its start
+ * time, duration and status. Only a fraction of the traces, set with gni.trace.sampleRate, is recorded, the spans of
+ * recorded traces are kept in a fixed size ring buffer that is served by the {@link MetricsServer}. Traces that are
+ * not recorded still carry their id, which is added to the log messages of the request.
+ */
+public final class RequestTrace {
+    /** Fraction of the traces that is recorded. */
+    private static final double SAMPLE_RATE = Double.parseDouble(System.getProperty("gni.trace.sampleRate", "0.1"));
+    /** Amount of spans that are kept, rounded up to a power of two. */
+    private static final int BUFFER_SIZE = Integer.highestOneBit(Math.max(2,
+            Integer.getInteger("gni.trace.bufferSize", 8192) - 1)) << 1;
+    /** Maximum length of a span name, database spans are named after their query. */
+    private static final int MAX_NAME_LENGTH = 200;
+    /** Recorded spans, the oldest span is overwritten by a new span. */
+    private static final AtomicReferenceArray<SpanRecord> SPANS = new AtomicReferenceArray<>(BUFFER_SIZE);
+    /** Amount of spans that were ever recorded, the next span is written at this index modulo the buffer size. */
+    private static final AtomicLong SPAN_COUNT = new AtomicLong();
+    /** Trace of the request handled by the current thread. */
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+    /** Span that records nothing, used when there is no trace or the trace is not recorded. */
+    private static final Span NOOP = new Span(null, null, null, 0L, 0L, 0L);
+
+    /**
+     * Private constructor for utility class.
+     */
+    private RequestTrace() {
+        //Not called
+    }
+
+    /**
+     * Fetches the trace of the request handled by the current thread.
+     * @return The trace, or null if the thread is not handling a traced request.
+     */
+    public static Context current() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * Fetches the id of the trace of the request handled by the current thread.
+     * @return The id of the trace as hexadecimal string, or null if the thread is not handling a traced request.
+     */
+    public static String currentTraceId() {
+        Context context = CONTEXT.get();
+        return context == null ? null : context.getTraceId();
+    }
+
+    /**
+     * Runs a task within the given trace, the previous trace of the thread is restored afterwards.
+     * @param context Trace to run the task in, or null to run the task without trace.
+     * @param task Task to run.
+     */
+    public static void runWithin(final Context context, final Runnable task) {
+        Context previous = CONTEXT.get();
+        if (context == null) {
+            CONTEXT.remove();
+        } else {
+            CONTEXT.set(context);
+        }
+        try {
+            task.run();
+        } finally {
+            if (previous == null) {
+                CONTEXT.remove();
+            } else {
+                CONTEXT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Starts a new trace with a root span, the trace is recorded for {@link #SAMPLE_RATE} of the calls.
+     * @param service Name of the service that starts the trace.
+     * @param name Name of the root span.
+     * @return The root span, its context has to be used for the work of the request.
+     */
+    public static Span startTrace(final String service, final String name) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Context context = new Context(random.nextLong(), random.nextLong(), random.nextDouble() < SAMPLE_RATE);
+        return new Span(context, service, name, 0L, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    /**
+     * Starts a span within the trace of the current thread.
+     * @param service Name of the service the span belongs to.
+     * @param name Name of the span, e.g. the endpoint or the query.
+     * @return The span, a span that records nothing when the current trace is not recorded.
+     */
+    public static Span startSpan(final String service, final String name) {
+        Context parent = CONTEXT.get();
+        if (parent == null) {
+            return NOOP;
+        }
+        if (!parent.sampled) {
+            return parent.unsampledSpan;
+        }
+        Context context = new Context(parent.traceId, ThreadLocalRandom.current().nextLong(), true);
+        return new Span(context, service, name, parent.spanId, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    /**
+     * Checks if the trace of the current thread is recorded, can be used to skip the creation of span names that are
+     * expensive to create.
+     * @return Whether spans started on this thread are recorded.
+     */
+    public static boolean isRecording() {
+        Context context = CONTEXT.get();
+        return context != null && context.sampled;
+    }
+
+    /**
+     * Summarizes the recorded traces with the longest duration.
+     * @param limit Maximum amount of traces to return.
+     * @return Per trace its id, the name, service and duration of its longest span and its amount of spans, ordered
+     * by decreasing duration.
+     */
+    public static List<Map<String, Object>> slowestTraces(final int limit) {
+        Map<Long, List<SpanRecord>> traces = new LinkedHashMap<>();
+        for (SpanRecord span : snapshot()) {
+            traces.computeIfAbsent(span.traceId, id -> new ArrayList<>()).add(span);
+        }
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (List<SpanRecord> spans : traces.values()) {
+            SpanRecord longest = spans.get(0);
+            for (SpanRecord span : spans) {
+                if (span.durationNanos > longest.durationNanos) {
+                    longest = span;
+                }
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("traceId", toHex(longest.traceId));
+            summary.put("service", longest.service);
+            summary.put("name", longest.name);
+            summary.put("start", longest.startMillis);
+            summary.put("durationMillis", longest.durationNanos / 1e6);
+            summary.put("spans", spans.size());
+            summaries.add(summary);
+        }
+        summaries.sort(Comparator.comparing(summary -> -(Double) summary.get("durationMillis")));
+        return summaries.subList(0, Math.min(limit, summaries.size()));
+    }
+
+    /**
+     * Fetches the recorded spans of a trace.
+     * @param traceId Id of the trace as hexadecimal string.
+     * @return The spans of the trace in order of their start time, empty if the trace is not recorded or no longer
+     * in the buffer.
+     */
+    public static List<Map<String, Object>> findTrace(final String traceId) {
+        long id;
+        try {
+            id = Long.parseUnsignedLong(traceId, 16);
+        } catch (NumberFormatException e) {
+            return new ArrayList<>();
+        }
+        List<SpanRecord> spans = new ArrayList<>();
+        for (SpanRecord span : snapshot()) {
+            if (span.traceId == id) {
+                spans.add(span);
+            }
+        }
+        spans.sort(Comparator.comparingLong((SpanRecord span) -> span.startMillis)
+                .thenComparingLong(span -> -span.durationNanos));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (SpanRecord span : spans) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("spanId", toHex(span.spanId));
+            values.put("parentId", span.parentId == 0L ? null : toHex(span.parentId));
+            values.put("service", span.service);
+            values.put("name", span.name);
+            values.put("start", span.startMillis);
+            values.put("durationMillis", span.durationNanos / 1e6);
+            values.put("status", span.status);
+            values.put("thread", span.thread);
+            result.add(values);
+        }
+        return result;
+    }
+
+    private static List<SpanRecord> snapshot() {
+        List<SpanRecord> spans = new ArrayList<>(BUFFER_SIZE);
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+            SpanRecord span = SPANS.get(i);
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    private static String toHex(final long id) {
+        String hex = Long.toHexString(id);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    /**
+     * Identifies a trace and the span the current work belongs to, immutable so it can be shared between threads.
+     */
+    public static final class Context {
+        /** Id of the trace. */
+        private final long traceId;
+        /** Id of the span the current work belongs to, parent of the spans that are started within it. */
+        private final long spanId;
+        /** Whether the spans of the trace are recorded. */
+        private final boolean sampled;
+        /** Span handed out for all work in a trace that is not recorded, so it carries the trace id without cost. */
+        private final Span unsampledSpan;
+
+        private Context(final long newTraceId, final long newSpanId, final boolean newSampled) {
+            this.traceId = newTraceId;
+            this.spanId = newSpanId;
+            this.sampled = newSampled;
+            this.unsampledSpan = newSampled ? null : new Span(this, null, null, 0L, 0L, 0L);
+        }
+
+        /**
+         * Returns the id of the trace.
+         * @return The id of the trace as hexadecimal string.
+         */
+        public String getTraceId() {
+            return toHex(traceId);
+        }
+    }
+
+    /**
+     * A single unit of work within a trace, recorded when it is finished. Finishing a span more than once has no
+     * effect after the first time.
+     */
+    public static final class Span {
+        /** Trace of the span, with the id of the span as span id. */
+        private final Context context;
+        /** Name of the service the span belongs to. */
+        private final String service;
+        /** Name of the span. */
+        private final String name;
+        /** Id of the parent span, 0 for the root span of a trace. */
+        private final long parentId;
+        /** Start time in epoch milliseconds. */
+        private final long startMillis;
+        /** Start time in nanoseconds, used to measure the duration. */
+        private final long startNanos;
+        /** Whether the span has been finished. */
+        private volatile boolean finished;
+
+        private Span(final Context newContext, final String newService, final String newName, final long newParentId,
+                     final long newStartMillis, final long newStartNanos) {
+            this.context = newContext;
+            this.service = newService;
+            this.name = newName == null || newName.length() <= MAX_NAME_LENGTH ? newName
+                    : newName.substring(0, MAX_NAME_LENGTH);
+            this.parentId = newParentId;
+            this.startMillis = newStartMillis;
+            this.startNanos = newStartNanos;
+        }
+
+        /**
+         * Returns the context that work within this span has to run in.
+         * @return The context, or null if there is no trace.
+         */
+        public Context context() {
+            return context;
+        }
+
+        /**
+         * Finishes the span and records it if its trace is recorded.
+         * @param status 0 if the work succeeded, otherwise its error code.
+         */
+        public void finish(final int status) {
+            if (context == null || !context.sampled || finished) {
+                return;
+            }
+            finished = true;
+            SpanRecord record = new SpanRecord(context.traceId, context.spanId, parentId, service, name, startMillis,
+                    System.nanoTime() - startNanos, status, Thread.currentThread().getName());
+            SPANS.set((int) (SPAN_COUNT.getAndIncrement() & (BUFFER_SIZE - 1)), record);
+        }
+    }
+
+    /**
+     * A finished span as it is stored in the buffer.
+     */
+    private static final class SpanRecord {
+        /** Id of the trace. */
+        private final long traceId;
+        /** Id of the span. */
+        private final long spanId;
+        /** Id of the parent span, 0 for the root span of a trace. */
+        private final long parentId;
+        /** Name of the service the span belongs to. */
+        private final String service;
+        /** Name of the span. */
+        private final String name;
+        /** Start time in epoch milliseconds. */
+        private final long startMillis;
+        /** Duration of the span. */
+        private final long durationNanos;
+        /** 0 if the work succeeded, otherwise its error code. */
+        private final int status;
+        /** Name of the thread that finished the span. */
+        private final String thread;
+
+        private SpanRecord(final long newTraceId, final long newSpanId, final long newParentId,
+                           final String newService, final String newName, final long newStartMillis,
+                           final long newDurationNanos, final int newStatus, final String newThread) {
+            this.traceId = newTraceId;
+            this.spanId = newSpanId;
+            this.parentId = newParentId;
+            this.service = newService;
+            this.name = newName;
+            this.startMillis = newStartMillis;
+            this.durationNanos = newDurationNanos;
+            this.status = newStatus;
+            this.thread = newThread;
+        }
+    }
+}
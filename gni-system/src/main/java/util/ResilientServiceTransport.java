@@ -0,0 +1,232 @@
+package util;
+
+import io.advantageous.qbit.http.request.HttpTextReceiver;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static java.net.HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * @author Saul
+ * @version 1
+ * Connection to a service that guarantees the receiver of every call is answered exactly once. A call waits until
+ * the deadline of the request it belongs to, or a default timeout when there is no such request, after which the
+ * receiver is answered with a 504. Calls are rejected with a 503 while the circuit breaker of the service is open,
+ * and reads (GET requests) are retried a bounded amount of times when they fail and the deadline allows it. The
+ * receiver runs with the deadline and trace of the call, so calls it makes in turn share the same deadline. A call
+ * that is not made for a request with a deadline does not pass its default timeout on to its receiver, so every step
+ * of a chain of maintenance calls gets a timeout of its own instead of the time the earlier steps left over. The
+ * attempts of a call are made with the deadline and trace of the call, also when a retry runs on the timer. The
+ * latency and status of every call, including its retries, are recorded in the metrics of its uri.
+ * A 504 only means the caller stopped waiting, not that the call had no effect. Writes are never retried, but a
+ * write that times out after the service started handling it may still be committed by the service. A service in
+ * this JVM abandons a request whose deadline passed before its handler ran, a service reached over HTTP does not
+ * receive the deadline. Callers of writes that must not be lost or repeated should check the outcome, for example
+ * by reading the result back, instead of treating a 504 as a rejection.
+ */
+class ResilientServiceTransport implements ServiceTransport {
+    /** Prefix used when logging. */
+    private static final String PREFIX = "[Transport]           :";
+    /** Time a call may take when it is not made for a request with a deadline. */
+    private static final long DEFAULT_TIMEOUT_MILLIS = Long.getLong("gni.transport.timeoutMillis", 60000L);
+    /** Amount of times a failed read is retried. */
+    private static final int MAX_READ_RETRIES = Integer.getInteger("gni.transport.readRetries", 2);
+    /** Time waited before the first retry, doubled for every following retry. */
+    private static final long RETRY_BACKOFF_MILLIS = Long.getLong("gni.transport.retryBackoffMillis", 50L);
+    /** Amount of consecutive failures after which the circuit of a service opens. */
+    private static final int BREAKER_FAILURE_THRESHOLD = Integer.getInteger("gni.transport.breakerFailures", 5);
+    /** Time the circuit of a service stays open. */
+    private static final long BREAKER_OPEN_MILLIS = Long.getLong("gni.transport.breakerOpenMillis", 5000L);
+    /** Content type that is reported to the receiver for errors generated by the transport. */
+    private static final String CONTENT_TYPE = "text/plain";
+    /** Circuit breakers of all services called from this JVM, indexed by host:port. */
+    private static final ConcurrentHashMap<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+    /** Timer used for timeouts and retry backoff. */
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "service-transport-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Location of the service, used in error messages. */
+    private final String target;
+    /** Circuit breaker of the service. */
+    private final CircuitBreaker breaker;
+    /** Connection the calls are made on. */
+    private final ServiceTransport transport;
+    /** Metrics of the calls made on this connection, indexed by uri. */
+    private final ConcurrentHashMap<String, Metrics.Timer> timers;
+
+    ResilientServiceTransport(final String host, final int port, final ServiceTransport newTransport) {
+        this.target = host + ":" + port;
+        this.breaker = BREAKERS.computeIfAbsent(target,
+                key -> new CircuitBreaker(BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MILLIS));
+        this.transport = newTransport;
+        this.timers = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void getAsync(final String uri, final HttpTextReceiver receiver) {
+        send(uri, true, attemptReceiver -> transport.getAsync(uri, attemptReceiver), receiver);
+    }
+
+    @Override
+    public void getAsyncWith1Param(final String uri, final String key, final Object value,
+                                   final HttpTextReceiver receiver) {
+        send(uri, true, attemptReceiver -> transport.getAsyncWith1Param(uri, key, value, attemptReceiver),
+                receiver);
+    }
+
+    @Override
+    public void getAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                    final Object value2, final HttpTextReceiver receiver) {
+        send(uri, true, attemptReceiver -> transport.getAsyncWith2Params(uri, key, value, key2, value2,
+                attemptReceiver), receiver);
+    }
+
+    @Override
+    public void postAsync(final String uri, final HttpTextReceiver receiver) {
+        send(uri, false, attemptReceiver -> transport.postAsync(uri, attemptReceiver), receiver);
+    }
+
+    @Override
+    public void postFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                        final HttpTextReceiver receiver) {
+        send(uri, false, attemptReceiver -> transport.postFormAsyncWith1Param(uri, key, value, attemptReceiver),
+                receiver);
+    }
+
+    @Override
+    public void putFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                       final HttpTextReceiver receiver) {
+        send(uri, false, attemptReceiver -> transport.putFormAsyncWith1Param(uri, key, value, attemptReceiver),
+                receiver);
+    }
+
+    @Override
+    public void putFormAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final HttpTextReceiver receiver) {
+        send(uri, false, attemptReceiver -> transport.putFormAsyncWith2Params(uri, key, value, key2, value2,
+                attemptReceiver), receiver);
+    }
+
+    @Override
+    public void putFormAsyncWith3Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final String key3, final Object value3,
+                                        final HttpTextReceiver receiver) {
+        send(uri, false, attemptReceiver -> transport.putFormAsyncWith3Params(uri, key, value, key2, value2, key3,
+                value3, attemptReceiver), receiver);
+    }
+
+    @Override
+    public void stop() {
+        transport.stop();
+    }
+
+    private void send(final String uri, final boolean idempotent, final Consumer<HttpTextReceiver> call,
+                      final HttpTextReceiver receiver) {
+        long requestDeadline = RequestDeadline.current();
+        long deadline = requestDeadline;
+        if (deadline == RequestDeadline.NONE) {
+            deadline = RequestDeadline.after(DEFAULT_TIMEOUT_MILLIS);
+        }
+        Metrics.Timer timer = timers.get(uri);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(uri, key -> Metrics.CLIENT_CALLS.timer(target, key));
+        }
+        Metrics.Timer callTimer = timer;
+        long startNanos = System.nanoTime();
+        RequestTrace.Context trace = RequestTrace.current();
+        HttpTextReceiver timedReceiver = (code, contentType, body) -> {
+            callTimer.recordSince(startNanos, Metrics.statusOf(code, body));
+            RequestDeadline.runWithin(requestDeadline,
+                    () -> RequestTrace.runWithin(trace, () -> receiver.response(code, contentType, body)));
+        };
+        long callDeadline = deadline;
+        Consumer<HttpTextReceiver> tracedCall = attemptReceiver -> RequestDeadline.runWithin(callDeadline,
+                () -> RequestTrace.runWithin(trace, () -> call.accept(attemptReceiver)));
+        attempt(uri, tracedCall, timedReceiver, deadline, idempotent ? MAX_READ_RETRIES : 0, RETRY_BACKOFF_MILLIS);
+    }
+
+    /**
+     * Makes a single attempt of a call, a failed attempt is retried while retries are left and the deadline has not
+     * passed, otherwise the failure is handed to the receiver.
+     */
+    private void attempt(final String uri, final Consumer<HttpTextReceiver> call, final HttpTextReceiver receiver,
+                         final long deadline, final int retriesLeft, final long backoffMillis) {
+        long remainingMillis = deadline - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            reply(receiver, deadline, HTTP_GATEWAY_TIMEOUT, "Deadline passed before " + uri + " on " + target
+                    + " could be called.");
+            return;
+        }
+        if (!breaker.allowRequest()) {
+            reply(receiver, deadline, HTTP_UNAVAILABLE, "Circuit breaker for " + target + " is open.");
+            return;
+        }
+        AtomicBoolean answered = new AtomicBoolean(false);
+        ScheduledFuture<?> timeout = TIMER.schedule(() -> {
+            if (answered.compareAndSet(false, true)) {
+                breaker.recordFailure();
+                retryOrFail(uri, call, receiver, deadline, retriesLeft, backoffMillis, HTTP_GATEWAY_TIMEOUT,
+                        CONTENT_TYPE, "Call to " + uri + " on " + target + " timed out.");
+            }
+        }, remainingMillis, TimeUnit.MILLISECONDS);
+        try {
+            call.accept((code, contentType, body) -> {
+                if (!answered.compareAndSet(false, true)) {
+                    // the call already timed out, the receiver has been answered
+                    return;
+                }
+                timeout.cancel(false);
+                if (isFailure(code)) {
+                    breaker.recordFailure();
+                    retryOrFail(uri, call, receiver, deadline, retriesLeft, backoffMillis, code, contentType, body);
+                } else {
+                    breaker.recordSuccess();
+                    RequestDeadline.runWithin(deadline, () -> receiver.response(code, contentType, body));
+                }
+            });
+        } catch (RuntimeException e) {
+            if (answered.compareAndSet(false, true)) {
+                timeout.cancel(false);
+                breaker.recordFailure();
+                retryOrFail(uri, call, receiver, deadline, retriesLeft, backoffMillis, HTTP_INTERNAL_ERROR,
+                        CONTENT_TYPE, String.valueOf(e.getMessage()));
+            }
+        }
+    }
+
+    private void retryOrFail(final String uri, final Consumer<HttpTextReceiver> call, final HttpTextReceiver receiver,
+                             final long deadline, final int retriesLeft, final long backoffMillis, final int code,
+                             final String contentType, final String body) {
+        if (retriesLeft > 0 && System.currentTimeMillis() + backoffMillis < deadline) {
+            Log.warn(PREFIX, "Call to %s on %s failed with code %d, retrying.", uri, target, code);
+            TIMER.schedule(() -> attempt(uri, call, receiver, deadline, retriesLeft - 1, backoffMillis * 2),
+                    backoffMillis, TimeUnit.MILLISECONDS);
+        } else {
+            RequestDeadline.runWithin(deadline, () -> receiver.response(code, contentType, body));
+        }
+    }
+
+    private static void reply(final HttpTextReceiver receiver, final long deadline, final int code,
+                              final String message) {
+        Log.warn(PREFIX, "%s", message);
+        RequestDeadline.runWithin(deadline, () -> receiver.response(code, CONTENT_TYPE, message));
+    }
+
+    /**
+     * Checks if a reply means the service could not handle the call, errors of the service itself are replied with
+     * 200 and an error message wrapper, so they do not count as failures.
+     */
+    private static boolean isFailure(final int code) {
+        return code < 200 || code >= 500;
+    }
+}
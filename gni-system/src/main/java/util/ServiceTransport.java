@@ -0,0 +1,49 @@
+package util;
+
+import io.advantageous.qbit.http.request.HttpTextReceiver;
+
+/**
+ * @author Saul
+ * @version 1
+ * Connection from one service to another service. Mirrors the asynchronous methods of the QBit HttpClient that are
+ * used by the services, so a call site does not need to know if the other service runs in the same JVM or is only
+ * reachable over HTTP. The uri of every request is the full path of the endpoint, including the /services root.
+ */
+public interface ServiceTransport {
+
+    /**
+     * Creates a connection to the service that listens on the given location. Requests are handed directly to the
+     * service when it runs in this JVM, and are sent over HTTP otherwise. Every request is bounded by the
+     * {@link RequestDeadline} of the request it is made for and guarded by the circuit breaker of the service.
+     * @param host Host the service can be found on.
+     * @param port Port the service can be found on.
+     * @return Connection to the service.
+     */
+    static ServiceTransport connect(final String host, final int port) {
+        return new ResilientServiceTransport(host, port, new LocalServiceTransport(host, port));
+    }
+
+    void getAsync(String uri, HttpTextReceiver receiver);
+
+    void getAsyncWith1Param(String uri, String key, Object value, HttpTextReceiver receiver);
+
+    void getAsyncWith2Params(String uri, String key, Object value, String key2, Object value2,
+                             HttpTextReceiver receiver);
+
+    void postAsync(String uri, HttpTextReceiver receiver);
+
+    void postFormAsyncWith1Param(String uri, String key, Object value, HttpTextReceiver receiver);
+
+    void putFormAsyncWith1Param(String uri, String key, Object value, HttpTextReceiver receiver);
+
+    void putFormAsyncWith2Params(String uri, String key, Object value, String key2, Object value2,
+                                 HttpTextReceiver receiver);
+
+    void putFormAsyncWith3Params(String uri, String key, Object value, String key2, Object value2, String key3,
+                                 Object value3, HttpTextReceiver receiver);
+
+    /**
+     * Closes the connection, requests that are still in flight are not answered.
+     */
+    void stop();
+}
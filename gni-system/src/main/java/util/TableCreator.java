@@ -4,6 +4,7 @@ import database.ConnectionPool;
 import database.SQLConnection;
 import database.SQLStatements;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
@@ -22,13 +23,16 @@ public class TableCreator {
             SQLStatements.createPinTable,
             SQLStatements.createTransactionsInTable,
             SQLStatements.createTransactionsOutTable,
+            SQLStatements.createTransactionsInArchiveTable,
+            SQLStatements.createTransactionsOutArchiveTable,
             SQLStatements.createAuthTable,
             SQLStatements.createUsersTable,
             SQLStatements.createRequestLogTable,
             SQLStatements.createErrorLogTable,
             SQLStatements.createAdminTable,
             SQLStatements.createCreditCardsTable,
-            SQLStatements.createCreditCardTransactionsTable};
+            SQLStatements.createCreditCardTransactionsTable,
+            SQLStatements.createScheduledRequestsTable};
 
     /** SQL statements to drop all necessary tables in the database. */
     private static final String[] DROP_TABLE_ARRAY = {
@@ -37,13 +41,16 @@ public class TableCreator {
             SQLStatements.dropPinTable,
             SQLStatements.dropTransactionsInTable,
             SQLStatements.dropTransactionsOutTable,
+            SQLStatements.dropTransactionsInArchiveTable,
+            SQLStatements.dropTransactionsOutArchiveTable,
             SQLStatements.dropAuthTable,
             SQLStatements.dropUsersTable,
             SQLStatements.dropRequestLogTable,
             SQLStatements.dropErrorLogTable,
             SQLStatements.dropAdminTable,
             SQLStatements.dropCreditCardsTable,
-            SQLStatements.getDropCreditCardTransactionsTable};
+            SQLStatements.getDropCreditCardTransactionsTable,
+            SQLStatements.dropScheduledRequestsTable};
 
     /** SQL statements to truncate all tables in the database. */
     private static final String[] TRUNCATE_ARRAY = {
@@ -52,13 +59,16 @@ public class TableCreator {
             SQLStatements.truncatePinTable,
             SQLStatements.truncateTransactionsInTable,
             SQLStatements.truncateTransactionsOutTable,
+            SQLStatements.truncateTransactionsInArchiveTable,
+            SQLStatements.truncateTransactionsOutArchiveTable,
             SQLStatements.truncateAuthTable,
             SQLStatements.truncateUsersTable,
             SQLStatements.truncateRequestLogTable,
             SQLStatements.truncateErrorLogTable,
             SQLStatements.truncateAdminTable,
             SQLStatements.truncateCreditCardsTable,
-            SQLStatements.truncateCreditCardTransactionsTable};
+            SQLStatements.truncateCreditCardTransactionsTable,
+            SQLStatements.truncateScheduledRequestsTable};
 
     /** Drops all tables and creates new tables to use the system with.
      * @param args Arguments are not used, just there so we can run the main method. */
@@ -87,7 +97,8 @@ public class TableCreator {
                 SQLStatements.grantGetEventLogs,
                 SQLStatements.grantTransferBankAccount,
                 SQLStatements.grantSetFreezeUserAccount,
-                SQLStatements.grantSetValue});
+                SQLStatements.grantSetValue,
+                SQLStatements.grantGetBankStatistics});
     }
 
     private static void createNewTables() {
@@ -95,19 +106,27 @@ public class TableCreator {
         executeStatements(CREATE_TABLE_ARRAY);
     }
 
+    /**
+     * Executes the statements in order, a statement that fails is logged and does not stop the statements after it.
+     * @param statements The statements to execute.
+     */
     private static void executeStatements(final String[] statements) {
-        try {
-            SQLConnection databaseConnection = databaseConnectionPool.getConnection();
-            for (String statement : statements) {
-                databaseConnection.getConnection().prepareStatement(statement).execute();
+        SQLConnection databaseConnection = databaseConnectionPool.getConnection();
+        for (String statement : statements) {
+            try (PreparedStatement ps = databaseConnection.getConnection().prepareStatement(statement)) {
+                ps.execute();
+            } catch (SQLException e) {
+                e.printStackTrace();
             }
-            databaseConnectionPool.returnConnection(databaseConnection);
-        }  catch (SQLException e) {
-            e.printStackTrace();
         }
+        databaseConnectionPool.returnConnection(databaseConnection);
     }
 
+    /**
+     * Empties all tables, tables that were added after the database was created are created first.
+     */
     public static void truncateTables() {
+        executeStatements(CREATE_TABLE_ARRAY);
         executeStatements(TRUNCATE_ARRAY);
         createDefaultAdmin();
     }
@@ -0,0 +1,93 @@
+package api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the overall and per method limits of the AdmissionController, the limits are the defaults unless a test sets
+ * its own method limit.
+ */
+public class AdmissionControllerTest {
+
+    private static final int INITIAL_LIMIT = 64;
+    private AdmissionController controller;
+
+    @Before
+    public void setUp() {
+        controller = new AdmissionController();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> methodStatistics(final String method) {
+        return (Map<String, Object>) ((Map<String, Object>) controller.getStatistics().get("methods")).get(method);
+    }
+
+    @Test
+    public void requestsOverTheOverallLimitAreRejected() {
+        List<AdmissionController.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < INITIAL_LIMIT; i++) {
+            AdmissionController.Permit permit = controller.tryAcquire("getBalance");
+            assertNotNull(permit);
+            permits.add(permit);
+        }
+        assertNull(controller.tryAcquire("getBalance"));
+        assertNull(controller.tryAcquire("transferMoney"));
+
+        permits.get(0).release();
+        assertNotNull(controller.tryAcquire("transferMoney"));
+        Map<String, Object> statistics = controller.getStatistics();
+        assertEquals(INITIAL_LIMIT + 1L, statistics.get("admitted"));
+        assertEquals(2L, statistics.get("rejected"));
+    }
+
+    @Test
+    public void methodLimitOnlyRejectsThatMethod() {
+        System.setProperty("gni.api.concurrency.limitedMethod", "2");
+        try {
+            assertNotNull(controller.tryAcquire("limitedMethod"));
+            assertNotNull(controller.tryAcquire("limitedMethod"));
+            assertNull(controller.tryAcquire("limitedMethod"));
+            assertNotNull(controller.tryAcquire("getBalance"));
+            assertEquals(1L, methodStatistics("limitedMethod").get("rejected"));
+        } finally {
+            System.clearProperty("gni.api.concurrency.limitedMethod");
+        }
+    }
+
+    @Test
+    public void releasingTwiceOnlyReleasesOnce() {
+        AdmissionController.Permit first = controller.tryAcquire("getBalance");
+        controller.tryAcquire("getBalance");
+        first.release();
+        first.release();
+        assertEquals(1, controller.getStatistics().get("inFlight"));
+        assertEquals(1, methodStatistics("getBalance").get("inFlight"));
+    }
+
+    @Test
+    public void untrackedMethodsShareOneState() {
+        for (int i = 0; i < 64; i++) {
+            controller.tryAcquire("method" + i).release();
+        }
+        controller.tryAcquire("oneMethodTooMany").release();
+        assertNull(methodStatistics("oneMethodTooMany"));
+        assertNotNull(methodStatistics("other"));
+    }
+
+    @Test
+    public void limitStaysWithinItsBounds() {
+        for (int i = 0; i < 10000; i++) {
+            controller.tryAcquire("getBalance").release();
+        }
+        int limit = (Integer) controller.getStatistics().get("limit");
+        assertTrue(limit >= 8);
+        assertTrue(limit <= 1000);
+    }
+}
@@ -0,0 +1,67 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests how the ApiBatch combines the responses to the calls of a batch.
+ */
+public class ApiBatchTest {
+
+    @Test
+    public void responsesAreSentInTheOrderOfTheBatch() {
+        List<String> replies = new ArrayList<>();
+        ApiBatch batch = new ApiBatch(3, replies::add);
+        batch.callbackFor(2, 3L).reply("{\"id\":3}");
+        batch.callbackFor(0, 1L).reply("{\"id\":1}");
+        assertTrue(replies.isEmpty());
+        batch.callbackFor(1, 2L).reply("{\"id\":2}");
+        assertEquals(1, replies.size());
+        assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", replies.get(0));
+    }
+
+    @Test
+    public void onlyTheFirstResponseToACallIsUsed() {
+        List<String> replies = new ArrayList<>();
+        ApiBatch batch = new ApiBatch(2, replies::add);
+        batch.complete(0, "{\"id\":1}");
+        batch.complete(0, "{\"id\":\"again\"}");
+        assertTrue(replies.isEmpty());
+        batch.complete(1, "{\"id\":2}");
+        assertEquals("[{\"id\":1},{\"id\":2}]", replies.get(0));
+    }
+
+    @Test
+    public void notificationsAreLeftOut() {
+        List<String> replies = new ArrayList<>();
+        ApiBatch batch = new ApiBatch(3, replies::add);
+        batch.notificationCallbackFor(0).reply("{\"id\":null}");
+        batch.callbackFor(1, 2L).reply("{\"id\":2}");
+        batch.notificationCallbackFor(2).onError(new IllegalStateException());
+        assertEquals("[{\"id\":2}]", replies.get(0));
+    }
+
+    @Test
+    public void batchOfOnlyNotificationsGetsAnEmptyReply() {
+        List<String> replies = new ArrayList<>();
+        ApiBatch batch = new ApiBatch(2, replies::add);
+        batch.notificationCallbackFor(0).reply("{\"id\":null}");
+        batch.notificationCallbackFor(1).reply("{\"id\":null}");
+        assertEquals(1, replies.size());
+        assertEquals("", replies.get(0));
+    }
+
+    @Test
+    public void failedCallIsAnsweredWithAnError() {
+        List<String> replies = new ArrayList<>();
+        ApiBatch batch = new ApiBatch(1, replies::add);
+        batch.callbackFor(0, 7L).onError(new IllegalStateException("broken"));
+        assertTrue(replies.get(0).contains("\"id\":7"));
+        assertTrue(replies.get(0).contains("broken"));
+    }
+}
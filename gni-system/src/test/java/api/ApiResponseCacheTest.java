@@ -0,0 +1,111 @@
+package api;
+
+import databeans.CacheScope;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests which results the ApiResponseCache stores and which writes invalidate them.
+ */
+public class ApiResponseCacheTest {
+
+    private static final String ACCOUNT = "NL00GNIB0000000001";
+    private static final String OTHER_ACCOUNT = "NL00GNIB0000000002";
+    private ApiResponseCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new ApiResponseCache();
+    }
+
+    private static Map<String, Object> params(final String accountNumber) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("authToken", "token");
+        params.put("iBAN", accountNumber);
+        return params;
+    }
+
+    private String store(final String method, final String accountNumber, final Object result) {
+        Map<String, Object> params = params(accountNumber);
+        String key = ApiResponseCache.createKey(method, params);
+        cache.put(key, method, params, result, cache.getVersion());
+        return key;
+    }
+
+    @Test
+    public void onlyReadMethodsAreCached() {
+        assertTrue(ApiResponseCache.isCached("getBalance"));
+        assertTrue(ApiResponseCache.isCached("getUserAccess"));
+        assertFalse(ApiResponseCache.isCached("transferMoney"));
+        assertFalse(ApiResponseCache.isCached("getBankStatistics"));
+    }
+
+    @Test
+    public void storedResultIsReturned() {
+        String key = store("getBalance", ACCOUNT, "balance");
+        assertEquals("balance", cache.get(key));
+    }
+
+    @Test
+    public void writeToAnAccountOnlyInvalidatesThatAccount() {
+        String key = store("getBalance", ACCOUNT, "balance");
+        String otherKey = store("getBalance", OTHER_ACCOUNT, "other balance");
+        Map<String, Object> transfer = new HashMap<>();
+        transfer.put("sourceIBAN", ACCOUNT);
+        cache.invalidateFor("payFromAccount", transfer);
+        assertNull(cache.get(key));
+        assertEquals("other balance", cache.get(otherKey));
+    }
+
+    @Test
+    public void readsDoNotInvalidate() {
+        String key = store("getBalance", ACCOUNT, "balance");
+        cache.invalidateFor("getTransactionsOverview", params(ACCOUNT));
+        cache.invalidateFor("getBalance", params(ACCOUNT));
+        assertEquals("balance", cache.get(key));
+    }
+
+    @Test
+    public void accessChangeInvalidatesAllUserAccessResults() {
+        String accessKey = store("getUserAccess", null, "access");
+        String balanceKey = store("getBalance", OTHER_ACCOUNT, "balance");
+        cache.invalidate(CacheScope.ACCESS, ACCOUNT);
+        assertNull(cache.get(accessKey));
+        assertEquals("balance", cache.get(balanceKey));
+    }
+
+    @Test
+    public void globalMethodsInvalidateEverything() {
+        String key = store("getBalance", ACCOUNT, "balance");
+        String dateKey = store("getDate", null, "date");
+        cache.invalidateFor("simulateTime", new HashMap<>());
+        assertNull(cache.get(key));
+        assertNull(cache.get(dateKey));
+    }
+
+    @Test
+    public void resultFetchedBeforeAnInvalidationIsNotStored() {
+        Map<String, Object> params = params(ACCOUNT);
+        String key = ApiResponseCache.createKey("getBalance", params);
+        long requestVersion = cache.getVersion();
+        cache.invalidate(CacheScope.ACCOUNT, ACCOUNT);
+        cache.put(key, "getBalance", params, "stale balance", requestVersion);
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void invalidationOfAnotherAccountDoesNotBlockStoring() {
+        Map<String, Object> params = params(ACCOUNT);
+        String key = ApiResponseCache.createKey("getBalance", params);
+        long requestVersion = cache.getVersion();
+        cache.invalidate(CacheScope.ACCOUNT, OTHER_ACCOUNT);
+        cache.put(key, "getBalance", params, "balance", requestVersion);
+        assertEquals("balance", cache.get(key));
+    }
+}
@@ -0,0 +1,95 @@
+package database;
+
+import io.advantageous.qbit.reactive.CallbackBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the queueing of the DatabaseExecutor, the tasks do not use the database.
+ */
+public class DatabaseExecutorTest {
+
+    private DatabaseExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new DatabaseExecutor("Test", 1, 1, false);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    private static CallbackBuilder callback(final List<String> replies) {
+        return CallbackBuilder.newCallbackBuilder().withStringCallback(replies::add);
+    }
+
+    @Test
+    public void fullQueueRejectsTheRequest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<String> replies = Collections.synchronizedList(new ArrayList<>());
+        executor.execute(callback(replies), () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(callback(replies), () -> { });
+        assertTrue(replies.isEmpty());
+
+        executor.execute(callback(replies), () -> fail("A rejected task should not run."));
+        release.countDown();
+        assertEquals(1, replies.size());
+        assertTrue(replies.get(0).contains("\"code\":500"));
+    }
+
+    @Test
+    public void serialTasksRunInTheOrderTheyWereQueued() throws InterruptedException {
+        DatabaseExecutor serialExecutor = new DatabaseExecutor("Serial", 4, 1000, false);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(500);
+        List<String> replies = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final int task = i;
+            serialExecutor.executeSerially(callback(replies), () -> {
+                order.add(task);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        serialExecutor.shutdown();
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+        assertTrue(replies.isEmpty());
+    }
+
+    @Test
+    public void failingTaskIsAnsweredWithAnError() throws InterruptedException {
+        List<String> replies = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(CallbackBuilder.newCallbackBuilder().withStringCallback(reply -> {
+            replies.add(reply);
+            done.countDown();
+        }), () -> {
+            throw new IllegalStateException("broken task");
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(replies.get(0).contains("Unknown error occurred."));
+    }
+}
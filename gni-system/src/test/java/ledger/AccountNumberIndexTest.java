@@ -0,0 +1,60 @@
+package ledger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import util.Iban;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the updates and lookups of the AccountNumberIndex, loading needs the database and is not tested here.
+ */
+public class AccountNumberIndexTest {
+
+    private static final String ACCOUNT = "NL12GNIB0123456789";
+    private AccountNumberIndex index;
+
+    @Before
+    public void setUp() {
+        index = new AccountNumberIndex(null);
+    }
+
+    @Test
+    public void addedAccountsAreFound() {
+        assertFalse(index.contains(ACCOUNT));
+        index.add(ACCOUNT, 42L);
+        assertTrue(index.contains(ACCOUNT));
+        assertTrue(index.contains(ACCOUNT.toLowerCase()));
+        assertEquals(42L, index.id(Iban.pack(ACCOUNT)));
+    }
+
+    @Test
+    public void savingsAccountsAreNotLedgerAccounts() {
+        index.add(ACCOUNT, 1L);
+        assertFalse(index.contains(ACCOUNT + "S"));
+    }
+
+    @Test
+    public void removedAccountsAreGone() {
+        index.add(ACCOUNT, 7L);
+        index.remove(ACCOUNT);
+        assertFalse(index.contains(ACCOUNT));
+        assertEquals(-1L, index.id(Iban.pack(ACCOUNT)));
+    }
+
+    @Test
+    public void otherAccountNumbersAreKeptAsStrings() {
+        String foreign = "NL91ABNA0417164300";
+        index.add(foreign, 3L);
+        assertTrue(index.contains(foreign));
+        index.remove(foreign);
+        assertFalse(index.contains(foreign));
+    }
+
+    @Test
+    public void unknownIdIsMinusOne() {
+        assertEquals(-1L, index.id(Iban.pack("NL00GNIB0000000001")));
+    }
+}
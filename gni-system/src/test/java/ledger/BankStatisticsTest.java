@@ -0,0 +1,96 @@
+package ledger;
+
+import databeans.Account;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the in memory totals of BankStatistics, reconciling needs the database and is not tested here.
+ */
+public class BankStatisticsTest {
+
+    private BankStatistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = new BankStatistics(null);
+    }
+
+    private static Account account(final double balance) {
+        Account account = new Account("NL00GNIB0000000001");
+        account.setBalance(balance);
+        account.setSavingsBalance(0.0);
+        return account;
+    }
+
+    @Test
+    public void newAccountsAreCounted() {
+        statistics.accountCreated(account(10.0));
+        statistics.accountCreated(account(-5.0));
+        Map<String, Object> totals = statistics.snapshot();
+        assertEquals(2L, totals.get("accounts"));
+        assertEquals(10.0, (Double) totals.get("totalDeposits"), 0.0);
+        assertEquals(5.0, (Double) totals.get("overdraftExposure"), 0.0);
+        assertEquals(1L, totals.get("overdrawnAccounts"));
+    }
+
+    @Test
+    public void goingOverdraftMovesTheBalanceBetweenTotals() {
+        Account account = account(20.0);
+        statistics.accountCreated(account);
+        account.setBalance(-7.5);
+        statistics.balanceWritten(account);
+        Map<String, Object> totals = statistics.snapshot();
+        assertEquals(0.0, (Double) totals.get("totalDeposits"), 0.0);
+        assertEquals(7.5, (Double) totals.get("overdraftExposure"), 0.0);
+        assertEquals(1L, totals.get("overdrawnAccounts"));
+
+        account.setBalance(3.0);
+        statistics.balanceWritten(account);
+        totals = statistics.snapshot();
+        assertEquals(3.0, (Double) totals.get("totalDeposits"), 0.0);
+        assertEquals(0.0, (Double) totals.get("overdraftExposure"), 0.0);
+        assertEquals(0L, totals.get("overdrawnAccounts"));
+    }
+
+    @Test
+    public void manySmallWritesDoNotDrift() {
+        Account account = account(0.0);
+        statistics.accountCreated(account);
+        for (int i = 0; i < 1000; i++) {
+            account.setBalance(account.getBalance() + 0.1);
+            statistics.balanceWritten(account);
+        }
+        assertEquals(Math.round(account.getBalance() * 100) / 100.0,
+                (Double) statistics.snapshot().get("totalDeposits"), 0.0);
+    }
+
+    @Test
+    public void savingsAreTrackedSeparately() {
+        Account account = account(1.0);
+        statistics.accountCreated(account);
+        account.setSavingsBalance(50.25);
+        statistics.savingsBalanceWritten(account);
+        assertEquals(50.25, (Double) statistics.snapshot().get("totalSavings"), 0.0);
+        assertEquals(1.0, (Double) statistics.snapshot().get("totalDeposits"), 0.0);
+    }
+
+    @Test
+    public void removedAccountsLeaveTheTotals() {
+        Account account = account(-4.0);
+        statistics.accountCreated(account);
+        account.setSavingsBalance(2.0);
+        statistics.savingsBalanceWritten(account);
+        statistics.accountRemoved(account);
+        Map<String, Object> totals = statistics.snapshot();
+        assertEquals(0L, totals.get("accounts"));
+        assertEquals(0.0, (Double) totals.get("overdraftExposure"), 0.0);
+        assertEquals(0.0, (Double) totals.get("totalSavings"), 0.0);
+        assertEquals(0L, totals.get("overdrawnAccounts"));
+    }
+}
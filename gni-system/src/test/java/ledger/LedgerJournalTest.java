@@ -0,0 +1,364 @@
+package ledger;
+
+import databeans.Account;
+import databeans.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the crash recovery of the LedgerJournal, a crash is simulated by opening the journal directory again without
+ * closing the journal that wrote it.
+ */
+public class LedgerJournalTest {
+
+    private static final int RECORD_SIZE = 40;
+    private static final double ABSENT = -12345.0;
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path file : files("*")) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private static String accountNumber(final int i) {
+        return String.format("NL%02dGNIB%010d", i % 100, i);
+    }
+
+    private static Account account(final int i, final double balance, final double savingsBalance) {
+        Account account = new Account("holder", 0.0, balance, false, savingsBalance);
+        account.setAccountNumber(accountNumber(i));
+        return account;
+    }
+
+    private static TransactionRow row(final int id, final int i, final double amount) {
+        Transaction transaction = new Transaction(id, accountNumber(i), accountNumber(0), "holder",
+                "description " + id, amount);
+        transaction.setDate(LocalDate.of(2017, 1, 1).plusDays(id));
+        transaction.setNewBalance(-amount);
+        return new TransactionRow(transaction, false);
+    }
+
+    private static List<Long> recoveredIds(final LedgerJournal journal) {
+        List<Long> ids = new ArrayList<>();
+        for (LedgerJournal.Posting posting : journal.takeRecoveredPostings()) {
+            for (TransactionRow row : posting.getRows()) {
+                ids.add(row.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static double[] balances(final LedgerJournal journal, final int i) {
+        Account account = account(i, ABSENT, ABSENT);
+        journal.readBalances(account);
+        return new double[] {account.getBalance(), account.getSavingsBalance()};
+    }
+
+    private static int size(final LedgerJournal journal) {
+        int[] size = {0};
+        journal.forEachBalance(balances -> size[0]++);
+        return size[0];
+    }
+
+    private List<Path> files(final String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private Path newestSegment() throws IOException {
+        List<Path> segments = files("journal-*.log");
+        return segments.get(segments.size() - 1);
+    }
+
+    private static void overwrite(final Path file, final long position, final byte[] bytes) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            raf.write(bytes);
+        }
+    }
+
+    @Test
+    public void postingsAreRecoveredAfterACrash() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        for (int i = 0; i < 100; i++) {
+            journal.post(account(i % 10, i, i * 2));
+        }
+        journal.awaitDurable();
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertEquals(10, size(recovered));
+        for (int i = 0; i < 10; i++) {
+            assertArrayEquals(new double[] {90 + i, (90 + i) * 2}, balances(recovered, i), 0.0);
+        }
+    }
+
+    @Test
+    public void tornRecordDropsTheRecordsAfterIt() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        for (int i = 0; i < 3; i++) {
+            journal.post(account(i, 10.0, 0.0));
+        }
+        journal.close();
+        overwrite(newestSegment(), RECORD_SIZE + 30, new byte[] {0x55});
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertArrayEquals(new double[] {10.0, 0.0}, balances(recovered, 0), 0.0);
+        assertArrayEquals(new double[] {ABSENT, ABSENT}, balances(recovered, 1), 0.0);
+        assertArrayEquals(new double[] {ABSENT, ABSENT}, balances(recovered, 2), 0.0);
+
+        recovered.post(account(3, 30.0, 0.0));
+        recovered.close();
+        LedgerJournal again = new LedgerJournal(directory);
+        assertEquals(2, size(again));
+        assertArrayEquals(new double[] {30.0, 0.0}, balances(again, 3), 0.0);
+    }
+
+    @Test
+    public void zeroFilledRecordsAreNotApplied() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(account(1, 1.0, 0.0));
+        journal.post(account(2, 2.0, 0.0));
+        journal.close();
+        overwrite(newestSegment(), RECORD_SIZE, new byte[RECORD_SIZE]);
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertEquals(1, size(recovered));
+        assertArrayEquals(new double[] {1.0, 0.0}, balances(recovered, 1), 0.0);
+    }
+
+    @Test
+    public void snapshotAndLaterSegmentsAreCombined() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(account(1, 1.0, 0.0));
+        journal.post(account(2, 2.0, 0.0));
+        journal.snapshot();
+        journal.post(account(2, 3.0, 4.0));
+        journal.post(account(5, 5.0, 0.0));
+        journal.awaitDurable();
+        assertEquals(1, files("snapshot-*.dat").size());
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertEquals(3, size(recovered));
+        assertArrayEquals(new double[] {1.0, 0.0}, balances(recovered, 1), 0.0);
+        assertArrayEquals(new double[] {3.0, 4.0}, balances(recovered, 2), 0.0);
+        assertArrayEquals(new double[] {5.0, 0.0}, balances(recovered, 5), 0.0);
+    }
+
+    @Test
+    public void damagedSnapshotFallsBackToTheSegments() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(account(1, 1.0, 0.0));
+        journal.close();
+        Files.write(directory.resolve(String.format("snapshot-%020d.dat", 1)), new byte[] {1, 2, 3});
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertArrayEquals(new double[] {1.0, 0.0}, balances(recovered, 1), 0.0);
+    }
+
+    @Test
+    public void fullSegmentsAreRolledAndDeleted() throws IOException {
+        int segmentSize = 4 * RECORD_SIZE;
+        LedgerJournal journal = new LedgerJournal(directory, segmentSize);
+        for (int i = 0; i < 30; i++) {
+            journal.post(account(i % 7, i, 0.0));
+        }
+        journal.awaitDurable();
+        assertEquals(1, files("journal-*.log").size());
+        assertEquals(1, files("snapshot-*.dat").size());
+
+        LedgerJournal recovered = new LedgerJournal(directory, segmentSize);
+        assertEquals(7, size(recovered));
+        for (int i = 23; i < 30; i++) {
+            assertArrayEquals(new double[] {i, 0.0}, balances(recovered, i % 7), 0.0);
+        }
+    }
+
+    @Test
+    public void missingSegmentIsAnError() throws IOException {
+        int segmentSize = 2 * RECORD_SIZE;
+        LedgerJournal journal = new LedgerJournal(directory, segmentSize);
+        for (int i = 0; i < 5; i++) {
+            journal.post(account(i, i, 0.0));
+        }
+        journal.close();
+        for (Path snapshot : files("snapshot-*.dat")) {
+            Files.delete(snapshot);
+        }
+        try {
+            new LedgerJournal(directory, segmentSize);
+            fail("A journal without the records before its segments should not be opened.");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("missing record"));
+        }
+    }
+
+    @Test
+    public void removedAccountsAreNotRecovered() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(account(1, 1.0, 0.0));
+        journal.post(account(2, 2.0, 0.0));
+        journal.remove(accountNumber(1));
+        journal.awaitDurable();
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertEquals(1, size(recovered));
+        assertArrayEquals(new double[] {ABSENT, ABSENT}, balances(recovered, 1), 0.0);
+        assertArrayEquals(new double[] {2.0, 0.0}, balances(recovered, 2), 0.0);
+    }
+
+    @Test
+    public void incompleteBatchIsDropped() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(account(1, 1.0, 0.0));
+        journal.post(Arrays.asList(account(1, 10.0, 0.0), account(2, 20.0, 0.0), account(3, 30.0, 0.0)));
+        journal.close();
+        overwrite(newestSegment(), 3 * RECORD_SIZE + 30, new byte[] {0x55});
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertEquals(1, size(recovered));
+        assertArrayEquals(new double[] {1.0, 0.0}, balances(recovered, 1), 0.0);
+
+        recovered.post(account(4, 40.0, 0.0));
+        recovered.close();
+        LedgerJournal again = new LedgerJournal(directory);
+        assertEquals(2, size(again));
+        assertArrayEquals(new double[] {1.0, 0.0}, balances(again, 1), 0.0);
+        assertArrayEquals(new double[] {ABSENT, ABSENT}, balances(again, 2), 0.0);
+        assertArrayEquals(new double[] {40.0, 0.0}, balances(again, 4), 0.0);
+    }
+
+    @Test
+    public void completeBatchIsRecovered() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(Arrays.asList(account(1, 10.0, 0.0), account(2, 20.0, 0.0)));
+        journal.awaitDurable();
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertArrayEquals(new double[] {10.0, 0.0}, balances(recovered, 1), 0.0);
+        assertArrayEquals(new double[] {20.0, 0.0}, balances(recovered, 2), 0.0);
+    }
+
+    @Test
+    public void transactionRowsAreRecoveredWithTheirBalances() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(Collections.singletonList(account(1, -10.0, 0.0)), Collections.singletonList(row(7, 1, 10.0)));
+        journal.post(Arrays.asList(account(2, -20.0, 0.0), account(3, -30.0, 0.0)),
+                Arrays.asList(row(8, 2, 20.0), row(9, 3, 30.0)));
+        journal.awaitDurable();
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertArrayEquals(new double[] {-30.0, 0.0}, balances(recovered, 3), 0.0);
+        List<LedgerJournal.Posting> postings = recovered.takeRecoveredPostings();
+        assertEquals(2, postings.size());
+        TransactionRow row = postings.get(1).getRows().get(1);
+        assertEquals(9L, row.getId());
+        assertFalse(row.isIncoming());
+        assertEquals(accountNumber(3), row.getAccountFrom());
+        assertEquals(accountNumber(0), row.getAccountTo());
+        assertEquals(30.0, row.getAmount(), 0.0);
+        assertEquals(LocalDate.of(2017, 1, 10), row.getDate());
+        assertEquals("description 9", row.getDescription());
+        assertTrue(recovered.takeRecoveredPostings().isEmpty());
+    }
+
+    @Test
+    public void incompleteBatchDropsItsTransactionRows() throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory);
+        journal.post(account(1, 1.0, 0.0));
+        LedgerJournal.Posting posting = journal.post(Collections.singletonList(account(2, -20.0, 0.0)),
+                Collections.singletonList(row(5, 2, 20.0)));
+        journal.close();
+        overwrite(newestSegment(), (posting.getSequence() - 1) * RECORD_SIZE + 30, new byte[] {0x55});
+
+        LedgerJournal recovered = new LedgerJournal(directory);
+        assertTrue(recovered.takeRecoveredPostings().isEmpty());
+        assertArrayEquals(new double[] {ABSENT, ABSENT}, balances(recovered, 2), 0.0);
+
+        recovered.post(Collections.singletonList(account(3, -30.0, 0.0)), Collections.singletonList(row(6, 3, 30.0)));
+        recovered.close();
+        LedgerJournal again = new LedgerJournal(directory);
+        assertEquals(Collections.singletonList(6L), recoveredIds(again));
+        assertArrayEquals(new double[] {ABSENT, ABSENT}, balances(again, 2), 0.0);
+        assertArrayEquals(new double[] {-30.0, 0.0}, balances(again, 3), 0.0);
+    }
+
+    @Test
+    public void segmentsAreKeptUntilTheirTransactionRowsAreProjected() throws IOException {
+        int segmentSize = 8 * RECORD_SIZE;
+        LedgerJournal journal = new LedgerJournal(directory, segmentSize);
+        for (int i = 0; i < 4; i++) {
+            journal.post(Collections.singletonList(account(i, -i, 0.0)), Collections.singletonList(row(i, i, i)));
+        }
+        journal.awaitDurable();
+        assertEquals(4, files("journal-*.log").size());
+
+        LedgerJournal recovered = new LedgerJournal(directory, segmentSize);
+        assertEquals(4, size(recovered));
+        List<LedgerJournal.Posting> postings = recovered.takeRecoveredPostings();
+        assertEquals(4, postings.size());
+        recovered.projected(postings.get(2).getSequence());
+        recovered.snapshot();
+        assertEquals(2, files("journal-*.log").size());
+        recovered.projected(postings.get(3).getSequence());
+        recovered.snapshot();
+        assertEquals(1, files("journal-*.log").size());
+
+        LedgerJournal again = new LedgerJournal(directory, segmentSize);
+        assertTrue(again.takeRecoveredPostings().isEmpty());
+        assertEquals(4, size(again));
+        assertArrayEquals(new double[] {-3.0, 0.0}, balances(again, 3), 0.0);
+    }
+
+    @Test
+    public void durableActionsRunInOrder() throws Exception {
+        LedgerJournal journal = new LedgerJournal(directory);
+        int actions = 1000;
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(actions);
+        for (int i = 0; i < actions; i++) {
+            if (i % 3 != 0) {
+                journal.post(account(i % 50, i, 0.0));
+            }
+            final int action = i;
+            journal.whenDurable(() -> {
+                order.add(action);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < actions; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+}
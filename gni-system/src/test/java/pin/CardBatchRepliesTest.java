@@ -0,0 +1,119 @@
+package pin;
+
+import com.google.gson.Gson;
+import databeans.CreditCard;
+import databeans.MessageWrapper;
+import databeans.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+import util.JSONParser;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the matching of the ledger replies to the cards of a credit card refill or fee batch.
+ */
+public class CardBatchRepliesTest {
+
+    private static final int BATCH_SIZE = 3;
+    private List<CreditCard> batch;
+    private List<Transaction> sent;
+
+    @Before
+    public void setUp() {
+        batch = new ArrayList<>();
+        sent = new LinkedList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            CreditCard card = new CreditCard();
+            card.setCreditCardNumber(5248860000000000L + i);
+            card.setAccountNumber(String.format("NL00GNIB%010d", i));
+            batch.add(card);
+            Transaction transaction = new Transaction();
+            transaction.setSourceAccountNumber(card.getAccountNumber());
+            transaction.setTransactionAmount(10.0 * (i + 1));
+            transaction.setDescription("Refill of credit card #" + card.getCreditCardNumber());
+            sent.add(transaction);
+        }
+    }
+
+    private List<Transaction> replies(final boolean... successful) {
+        List<Transaction> replies = new ArrayList<>();
+        for (int i = 0; i < successful.length; i++) {
+            Transaction reply = new Transaction();
+            reply.setSourceAccountNumber(sent.get(i).getSourceAccountNumber());
+            reply.setTransactionAmount(sent.get(i).getTransactionAmount());
+            reply.setDescription(sent.get(i).getDescription());
+            reply.setProcessed(true);
+            reply.setSuccessful(successful[i]);
+            replies.add(reply);
+        }
+        return replies;
+    }
+
+    @Test
+    public void completeReplyMatchesEveryCard() {
+        CardBatchReplies replies = CardBatchReplies.match(batch, sent, replies(true, false, true));
+        assertEquals(0, replies.unmatched());
+        assertEquals(1, replies.failures());
+        assertTrue(replies.succeeded(0));
+        assertFalse(replies.succeeded(1));
+        assertTrue(replies.succeeded(2));
+        assertSame(batch.get(2), replies.card(2));
+        assertEquals(30.0, replies.reply(2).getTransactionAmount(), 0.0);
+    }
+
+    @Test
+    public void shortReplyFailsEveryCard() {
+        CardBatchReplies replies = CardBatchReplies.match(batch, sent, replies(true, true));
+        assertEquals(BATCH_SIZE, replies.unmatched());
+        assertEquals(BATCH_SIZE, replies.failures());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            assertNull(replies.reply(i));
+            assertFalse(replies.succeeded(i));
+        }
+    }
+
+    @Test
+    public void longReplyFailsEveryCard() {
+        sent.add(sent.get(0));
+        CardBatchReplies replies = CardBatchReplies.match(batch, sent, replies(true, true, true, true));
+        assertEquals(BATCH_SIZE, replies.failures());
+    }
+
+    @Test
+    public void missingReplyListFailsEveryCard() {
+        CardBatchReplies replies = CardBatchReplies.match(batch, sent, null);
+        assertEquals(BATCH_SIZE, replies.unmatched());
+        assertEquals(BATCH_SIZE, replies.size());
+    }
+
+    @Test
+    public void replyForAnotherCardIsNotMatched() {
+        List<Transaction> received = replies(true, true, true);
+        Transaction swapped = received.get(0);
+        received.set(0, received.get(1));
+        received.set(1, swapped);
+        CardBatchReplies replies = CardBatchReplies.match(batch, sent, received);
+        assertEquals(2, replies.unmatched());
+        assertNull(replies.reply(0));
+        assertNull(replies.reply(1));
+        assertTrue(replies.succeeded(2));
+    }
+
+    @Test
+    public void repliesSurviveTheMessageWrapper() {
+        Gson jsonConverter = new Gson();
+        String body = jsonConverter.toJson(JSONParser.createMessageWrapper(false, 200, "Normal Reply",
+                replies(true, true, false)));
+        MessageWrapper messageWrapper = jsonConverter.fromJson(JSONParser.removeEscapeCharacters(body),
+                MessageWrapper.class);
+        CardBatchReplies replies = CardBatchReplies.match(batch, sent, (List<Transaction>) messageWrapper.getData());
+        assertEquals(0, replies.unmatched());
+        assertEquals(1, replies.failures());
+    }
+}
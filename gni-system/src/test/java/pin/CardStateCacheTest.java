@@ -0,0 +1,109 @@
+package pin;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the pin attempt counting of {@link CardState} and the parts of the {@link CardStateCache} that do not need
+ * the database.
+ */
+public class CardStateCacheTest {
+
+    private static final int ALLOWED_ATTEMPTS = 3;
+    private CardState card;
+
+    @Before
+    public void setUp() {
+        card = new CardState(5248860000000001L, "NL00GNIB0000000001", 1L, "1234",
+                LocalDate.of(2030, 1, 1), true, false, 0);
+    }
+
+    @Test
+    public void pinMatchesOnlyTheCorrectPinCode() {
+        assertTrue(card.pinMatches("1234"));
+        assertFalse(card.pinMatches("4321"));
+        assertFalse(card.pinMatches(null));
+    }
+
+    @Test
+    public void reservationsStopAtTheAllowedAttempts() {
+        for (int i = 0; i < ALLOWED_ATTEMPTS; i++) {
+            assertTrue(card.reserveAttempt(ALLOWED_ATTEMPTS));
+        }
+        assertFalse(card.reserveAttempt(ALLOWED_ATTEMPTS));
+        assertTrue(card.isBlocked(ALLOWED_ATTEMPTS));
+        assertEquals(ALLOWED_ATTEMPTS, card.getIncorrectAttempts());
+    }
+
+    @Test
+    public void releasedReservationsDoNotCount() {
+        assertTrue(card.reserveAttempt(ALLOWED_ATTEMPTS));
+        card.releaseAttempt();
+        assertEquals(0, card.getIncorrectAttempts());
+        // a release after a reset must not make the count negative
+        card.releaseAttempt();
+        assertEquals(0, card.getIncorrectAttempts());
+    }
+
+    @Test
+    public void blockedCardCanNotBeReserved() {
+        CardState blocked = new CardState(5248860000000002L, "NL00GNIB0000000001", 1L, "1234",
+                LocalDate.of(2030, 1, 1), true, false, ALLOWED_ATTEMPTS);
+        assertFalse(blocked.reserveAttempt(ALLOWED_ATTEMPTS));
+        assertEquals(ALLOWED_ATTEMPTS, blocked.resetIncorrectAttempts());
+        assertTrue(blocked.reserveAttempt(ALLOWED_ATTEMPTS));
+    }
+
+    @Test
+    public void concurrentGuessesNeverExceedTheAllowedAttempts() throws Exception {
+        final int threads = 8;
+        final int guessesPerThread = 1000;
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> guessers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread guesser = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < guessesPerThread; i++) {
+                    if (card.reserveAttempt(ALLOWED_ATTEMPTS)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+            });
+            guesser.start();
+            guessers.add(guesser);
+        }
+        start.countDown();
+        for (Thread guesser : guessers) {
+            guesser.join();
+        }
+        assertEquals(ALLOWED_ATTEMPTS, reserved.get());
+        assertEquals(ALLOWED_ATTEMPTS, card.getIncorrectAttempts());
+    }
+
+    @Test
+    public void cacheResetWithoutAttemptsDoesNotNeedTheDatabase() throws Exception {
+        CardStateCache cache = new CardStateCache(null);
+        assertEquals(0, cache.resetIncorrectAttempts(card));
+    }
+
+    @Test
+    public void emptyCacheKnowsNoCards() {
+        CardStateCache cache = new CardStateCache(null);
+        assertNull(cache.get(card.getCardNumber()));
+        assertFalse(cache.isAccountFrozen("NL00GNIB0000000001"));
+    }
+}
@@ -0,0 +1,122 @@
+package pin;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the compare-and-set balance changes of CreditCardBalances and the order of the entries they log, which the
+ * recovery on startup relies on. Loading needs the database and is not tested here.
+ */
+public class CreditCardBalancesTest {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 1, 1);
+    private static final String ACCOUNT = "NL00GNIB0000000001";
+    private static final int THREADS = 8;
+    private CreditCardTransactionLogTest.RecordingLog log;
+    private CreditCardBalances balances;
+
+    @Before
+    public void setUp() {
+        log = new CreditCardTransactionLogTest.RecordingLog();
+        log.release.countDown();
+        balances = new CreditCardBalances(null, log);
+    }
+
+    private static void runConcurrently(final Runnable task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                task.run();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Test
+    public void unknownCardIsNotChanged() {
+        assertNull(balances.getBalance(1L));
+        assertNull(balances.withdraw(1L, DATE, ACCOUNT, 1.0));
+        assertNull(balances.refill(1L, DATE, ACCOUNT, 1.0));
+    }
+
+    @Test
+    public void withdrawalAboveTheBalanceIsRefused() {
+        balances.register(1L, 100.0, 100.0);
+        assertNull(balances.withdraw(1L, DATE, ACCOUNT, 100.01));
+        assertNotNull(balances.withdraw(1L, DATE, ACCOUNT, 100.0));
+        assertEquals(0.0, balances.getBalance(1L), 0.0);
+    }
+
+    @Test
+    public void concurrentDebitsNeverOverspend() throws InterruptedException {
+        balances.register(1L, 1000.0, 1000.0);
+        AtomicInteger successful = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 500; i++) {
+                if (balances.withdraw(1L, DATE, ACCOUNT, 1.0) != null) {
+                    successful.incrementAndGet();
+                }
+            }
+        });
+        assertEquals(1000, successful.get());
+        assertEquals(0.0, balances.getBalance(1L), 0.0);
+        assertEquals(1000.0, balances.getStatistics().get("usedCredit"));
+        log.awaitWritten(1000);
+    }
+
+    @Test
+    public void newestEntryOfACardHasTheHighestId() throws InterruptedException {
+        for (long card = 1L; card <= 4L; card++) {
+            balances.register(card, 500.0, 500.0);
+        }
+        AtomicInteger changes = new AtomicInteger();
+        runConcurrently(() -> {
+            for (int i = 0; i < 1000; i++) {
+                long card = 1L + i % 4;
+                CreditCardLogEntry entry = i % 3 == 0 ? balances.refill(card, DATE, ACCOUNT, 2.0)
+                        : balances.withdraw(card, DATE, ACCOUNT, 1.0);
+                if (entry != null) {
+                    changes.incrementAndGet();
+                }
+            }
+        });
+        log.awaitWritten(changes.get());
+
+        // recovery applies the entry with the highest id of every card, which must hold the current balance
+        Map<Long, CreditCardLogEntry> newest = new HashMap<>();
+        Map<Long, Double> previousBalance = new HashMap<>();
+        List<CreditCardLogEntry> entries = log.written();
+        entries.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        for (CreditCardLogEntry entry : entries) {
+            double before = previousBalance.getOrDefault(entry.getCardNumber(), 500.0);
+            assertEquals(before - entry.getAmount(), entry.getNewBalance(), 1e-9);
+            previousBalance.put(entry.getCardNumber(), entry.getNewBalance());
+            newest.put(entry.getCardNumber(), entry);
+        }
+        for (long card = 1L; card <= 4L; card++) {
+            assertEquals(balances.getBalance(card), newest.get(card).getNewBalance(), 0.0);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package pin;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the batching and retrying of the CreditCardTransactionLog, the database writes are replaced by a recording
+ * writer.
+ */
+public class CreditCardTransactionLogTest {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 1, 1);
+
+    /**
+     * Log that records the batches it is asked to write instead of writing them to the database.
+     */
+    static class RecordingLog extends CreditCardTransactionLog {
+        final List<List<CreditCardLogEntry>> batches = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch firstBatch = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        RecordingLog() {
+            super(null);
+        }
+
+        @Override
+        void writeBatch(final List<CreditCardLogEntry> batch) throws SQLException {
+            firstBatch.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new SQLException("The database is unavailable.");
+            }
+            batches.add(new ArrayList<>(batch));
+        }
+
+        List<CreditCardLogEntry> written() {
+            List<CreditCardLogEntry> written = new ArrayList<>();
+            synchronized (batches) {
+                for (List<CreditCardLogEntry> batch : batches) {
+                    written.addAll(batch);
+                }
+            }
+            return written;
+        }
+
+        void awaitWritten(final int entries) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000L;
+            while (written().size() < entries && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertEquals(entries, written().size());
+        }
+    }
+
+    private static CreditCardLogEntry entry(final long id) {
+        return new CreditCardLogEntry(id, DATE, 1L, "NL00GNIB0000000001", 1.0, 100.0 - id);
+    }
+
+    @Test
+    public void entriesAreWrittenInBatchesInOrder() throws InterruptedException {
+        RecordingLog log = new RecordingLog();
+        log.append(entry(0L));
+        assertTrue(log.firstBatch.await(5, TimeUnit.SECONDS));
+        int entries = 2 * CreditCardTransactionLog.BATCH_SIZE + 100;
+        for (int i = 1; i < entries; i++) {
+            log.append(entry(i));
+        }
+        log.release.countDown();
+        log.awaitWritten(entries);
+
+        List<CreditCardLogEntry> written = log.written();
+        for (int i = 0; i < entries; i++) {
+            assertEquals(i, written.get(i).getId());
+        }
+        int largestBatch = 0;
+        for (List<CreditCardLogEntry> batch : log.batches) {
+            largestBatch = Math.max(largestBatch, batch.size());
+        }
+        assertEquals(CreditCardTransactionLog.BATCH_SIZE, largestBatch);
+        assertTrue(log.batches.size() >= 4);
+    }
+
+    @Test
+    public void failedBatchIsRetried() throws InterruptedException {
+        RecordingLog log = new RecordingLog();
+        log.failuresLeft.set(1);
+        log.release.countDown();
+        for (int i = 0; i < 10; i++) {
+            log.append(entry(i));
+        }
+        log.awaitWritten(10);
+        List<CreditCardLogEntry> written = log.written();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, written.get(i).getId());
+        }
+    }
+
+    @Test
+    public void clearedEntriesAreNotWritten() throws InterruptedException {
+        RecordingLog log = new RecordingLog();
+        log.append(entry(0L));
+        assertTrue(log.firstBatch.await(5, TimeUnit.SECONDS));
+        log.append(entry(1L));
+        log.clear();
+        log.append(entry(2L));
+        log.release.countDown();
+        log.awaitWritten(2);
+        assertEquals(0L, log.written().get(0).getId());
+        assertEquals(2L, log.written().get(1).getId());
+    }
+}
@@ -0,0 +1,107 @@
+package systeminformation;
+
+import databeans.SetValueKey;
+import databeans.SetValueRequest;
+import databeans.TransferLimit;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the in memory index of the RequestScheduler, requests are put in with the restore methods so no database
+ * is needed.
+ */
+public class RequestSchedulerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2017, 6, 1);
+    private RequestScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new RequestScheduler(null);
+    }
+
+    @Test
+    public void popDueTransferLimitsReturnsDueRequestsInDateOrder() {
+        TransferLimit later = new TransferLimit("NL00GNIB0000000003", 300.0);
+        TransferLimit first = new TransferLimit("NL00GNIB0000000001", 100.0);
+        TransferLimit second = new TransferLimit("NL00GNIB0000000002", 200.0);
+        scheduler.restoreTransferLimits(TODAY.plusDays(1), Collections.singletonList(later));
+        scheduler.restoreTransferLimits(TODAY, Collections.singletonList(second));
+        scheduler.restoreTransferLimits(TODAY.minusDays(3), Collections.singletonList(first));
+
+        LinkedList<TransferLimit> due = scheduler.popDueTransferLimits(TODAY);
+        assertEquals(2, due.size());
+        assertSame(first, due.get(0));
+        assertSame(second, due.get(1));
+        assertTrue(scheduler.popDueTransferLimits(TODAY).isEmpty());
+        assertEquals(Collections.singletonList(later), scheduler.popDueTransferLimits(TODAY.plusDays(1)));
+    }
+
+    @Test
+    public void restoredSetValueRequestsAreReleasedAgain() {
+        SetValueRequest request = new SetValueRequest(SetValueKey.NEW_CARD_COST, 7.5, TODAY);
+        scheduler.restoreSetValueRequests(Collections.singletonList(request));
+        LinkedList<SetValueRequest> due = scheduler.popDueSetValueRequests(TODAY);
+        assertEquals(1, due.size());
+
+        scheduler.restoreSetValueRequests(due);
+        assertSame(request, scheduler.popDueSetValueRequests(TODAY.plusDays(10)).getFirst());
+    }
+
+    @Test
+    public void acknowledgingNothingDoesNotNeedTheDatabase() throws Exception {
+        scheduler.acknowledgeTransferLimits(new LinkedList<>());
+        scheduler.acknowledgeSetValueRequests(new LinkedList<>());
+    }
+
+    @Test
+    public void clearEmptiesTheIndex() {
+        scheduler.restoreTransferLimits(TODAY, Collections.singletonList(new TransferLimit("NL00GNIB0000000001", 1.0)));
+        scheduler.clear();
+        assertTrue(scheduler.popDueTransferLimits(TODAY.plusYears(1)).isEmpty());
+    }
+
+    @Test
+    public void concurrentRestoresAndPopsLoseNoRequests() throws Exception {
+        final int threads = 4;
+        final int requestsPerThread = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < requestsPerThread; i++) {
+                    scheduler.restoreTransferLimits(TODAY.minusDays((i + offset) % 30), Collections.singletonList(
+                            new TransferLimit("NL00GNIB0000000001", (double) i)));
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        int popped = 0;
+        start.countDown();
+        for (Thread writer : writers) {
+            while (writer.isAlive()) {
+                popped += scheduler.popDueTransferLimits(TODAY).size();
+            }
+            writer.join();
+        }
+        popped += scheduler.popDueTransferLimits(TODAY).size();
+        assertEquals(threads * requestsPerThread, popped);
+    }
+}
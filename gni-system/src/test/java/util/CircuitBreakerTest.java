@@ -0,0 +1,77 @@
+package util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the transitions of the CircuitBreaker between closed, open and half open.
+ */
+public class CircuitBreakerTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_MILLIS = 100L;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        breaker = new CircuitBreaker(FAILURE_THRESHOLD, OPEN_MILLIS);
+    }
+
+    private void open() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.recordFailure();
+        }
+    }
+
+    @Test
+    public void staysClosedBelowTheThreshold() {
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            breaker.recordFailure();
+        }
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void opensAtTheThreshold() {
+        open();
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void letsOneTrialThroughWhenHalfOpen() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void successfulTrialClosesTheCircuit() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertTrue(breaker.allowRequest());
+        }
+    }
+
+    @Test
+    public void failedTrialOpensTheCircuitAgain() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+        Thread.sleep(OPEN_MILLIS + 20);
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,55 @@
+package util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests packing GNI account numbers into longs and back.
+ */
+public class IbanTest {
+
+    private static final String ACCOUNT = "NL12GNIB0123456789";
+
+    @Test
+    public void packedAccountsUnpackToTheSameNumber() {
+        assertEquals(ACCOUNT, Iban.unpack(Iban.pack(ACCOUNT)));
+        assertEquals(ACCOUNT + "S", Iban.unpack(Iban.pack(ACCOUNT + "S")));
+        assertEquals("NL00GNIB0000000000", Iban.unpack(Iban.pack("NL00GNIB0000000000")));
+        assertEquals("NL99GNIB9999999999S", Iban.unpack(Iban.pack("NL99GNIB9999999999S")));
+    }
+
+    @Test
+    public void packingIgnoresCase() {
+        assertEquals(Iban.pack(ACCOUNT), Iban.pack(ACCOUNT.toLowerCase()));
+        assertEquals(Iban.pack(ACCOUNT + "S"), Iban.pack(ACCOUNT.toLowerCase() + "s"));
+    }
+
+    @Test
+    public void savingsSuffixIsAFlag() {
+        long packed = Iban.pack(ACCOUNT);
+        long savings = Iban.pack(ACCOUNT + "S");
+        assertFalse(Iban.isSavings(packed));
+        assertTrue(Iban.isSavings(savings));
+        assertEquals(savings, Iban.savingsAccount(packed));
+        assertEquals(packed, Iban.mainAccount(savings));
+    }
+
+    @Test
+    public void otherNumbersAreInvalid() {
+        assertEquals(Iban.INVALID, Iban.pack(null));
+        assertEquals(Iban.INVALID, Iban.pack("NL12GNIB012345678X"));
+        assertEquals(Iban.INVALID, Iban.pack("NL12ABNA0123456789"));
+        assertEquals(Iban.INVALID, Iban.pack("NL12GNIB0123456789T"));
+        assertEquals(Iban.INVALID, Iban.pack("NL12GNIB012345678"));
+    }
+
+    @Test
+    public void savingsAccountBelongsToItsMainAccount() {
+        assertTrue(Iban.isSavingsAccountOf(ACCOUNT + "s", ACCOUNT.toLowerCase()));
+        assertFalse(Iban.isSavingsAccountOf(ACCOUNT, ACCOUNT));
+        assertFalse(Iban.isSavingsAccountOf(ACCOUNT + "X", ACCOUNT));
+        assertFalse(Iban.isSavingsAccountOf("NL12GNIB0123456788S", ACCOUNT));
+    }
+}
@@ -0,0 +1,94 @@
+package util;
+
+import io.advantageous.qbit.annotation.RequestMapping;
+import io.advantageous.qbit.annotation.RequestMethod;
+import io.advantageous.qbit.annotation.RequestParam;
+import io.advantageous.qbit.reactive.Callback;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.net.HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests that a LocalEndpoint only runs the handler of a request while the caller is still waiting for it.
+ */
+public class LocalEndpointTest {
+
+    /**
+     * Service whose handler blocks until it is released, so requests can be kept waiting in the queue.
+     */
+    @RequestMapping("/test")
+    public static final class BlockingService {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger handled = new AtomicInteger();
+
+        @RequestMapping(value = "/call", method = RequestMethod.PUT)
+        public void call(final Callback<String> callback, @RequestParam("wait") final boolean wait)
+                throws InterruptedException {
+            if (wait) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            handled.incrementAndGet();
+            callback.accept("done");
+        }
+    }
+
+    private BlockingService service;
+    private LocalEndpoint endpoint;
+
+    @Before
+    public void setUp() {
+        service = new BlockingService();
+        endpoint = new LocalEndpoint("/services", service);
+    }
+
+    @After
+    public void tearDown() {
+        endpoint.stop();
+    }
+
+    private CountDownLatch dispatch(final boolean wait, final AtomicReference<Integer> code) {
+        CountDownLatch answered = new CountDownLatch(1);
+        endpoint.dispatch(RequestMethod.PUT, "/services/test/call", Collections.singletonMap("wait", wait),
+                (replyCode, contentType, body) -> {
+                    code.set(replyCode);
+                    answered.countDown();
+                });
+        return answered;
+    }
+
+    @Test
+    public void requestWithinItsDeadlineIsHandled() throws InterruptedException {
+        AtomicReference<Integer> code = new AtomicReference<>();
+        AtomicReference<CountDownLatch> answered = new AtomicReference<>();
+        RequestDeadline.runWithin(RequestDeadline.after(5000L), () -> answered.set(dispatch(false, code)));
+        assertTrue(answered.get().await(5, TimeUnit.SECONDS));
+        assertEquals(HTTP_OK, (int) code.get());
+        assertEquals(1, service.handled.get());
+    }
+
+    @Test
+    public void expiredRequestIsAbandoned() throws InterruptedException {
+        AtomicReference<Integer> blockingCode = new AtomicReference<>();
+        CountDownLatch blocking = dispatch(true, blockingCode);
+        AtomicReference<Integer> code = new AtomicReference<>();
+        AtomicReference<CountDownLatch> expired = new AtomicReference<>();
+        RequestDeadline.runWithin(RequestDeadline.after(50L), () -> expired.set(dispatch(false, code)));
+        Thread.sleep(100L);
+        service.release.countDown();
+        assertTrue(blocking.await(5, TimeUnit.SECONDS));
+        assertTrue(expired.get().await(5, TimeUnit.SECONDS));
+        assertEquals(HTTP_GATEWAY_TIMEOUT, (int) code.get());
+        assertEquals(1, service.handled.get());
+    }
+}
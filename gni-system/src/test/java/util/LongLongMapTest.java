@@ -0,0 +1,103 @@
+package util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the LongLongMap against a HashMap and checks that readers never see the value of another key.
+ */
+public class LongLongMapTest {
+
+    private static final long ABSENT = 42L;
+
+    @Test
+    public void behavesLikeAHashMap() {
+        LongLongMap map = new LongLongMap(4);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(5000) - 2500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key) != null, map.remove(key));
+            } else {
+                long value = random.nextInt(1000000);
+                reference.put(key, value);
+                map.put(key, value);
+            }
+            long query = random.nextInt(5000) - 2500;
+            Long expected = reference.get(query);
+            assertEquals(expected == null ? ABSENT : expected, map.get(query, ABSENT));
+            assertEquals(expected != null, map.containsKey(query));
+            assertEquals(reference.size(), map.size());
+        }
+        final Map<Long, Boolean> seen = new HashMap<>();
+        map.forEachKey(key -> seen.put(key, true));
+        assertEquals(reference.keySet(), seen.keySet());
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        LongLongMap map = new LongLongMap();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(5L));
+        map.put(5L, 6L);
+        assertEquals(6L, map.get(5L, ABSENT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reservedKeyIsRejected() {
+        new LongLongMap().put(Long.MIN_VALUE, 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherReservedKeyIsRejected() {
+        new LongLongMap().put(Long.MIN_VALUE + 1, 1L);
+    }
+
+    @Test
+    public void readersNeverSeeTheValueOfAnotherKey() throws InterruptedException {
+        final LongLongMap map = new LongLongMap();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                Random random = new Random();
+                while (!stop.get()) {
+                    long key = random.nextInt(10000);
+                    long value = map.get(key, -7L);
+                    if (value != -7L && value != key * 3 && value != key * 5) {
+                        failure.compareAndSet(null, "key " + key + " had value " + value);
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        Random random = new Random(2);
+        for (int i = 0; i < 1000000; i++) {
+            long key = random.nextInt(10000);
+            if (random.nextBoolean()) {
+                map.put(key, random.nextBoolean() ? key * 3 : key * 5);
+            } else {
+                map.remove(key);
+            }
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,91 @@
+package util;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the LongObjectMap against a HashMap and checks that readers never see the value of another key.
+ */
+public class LongObjectMapTest {
+
+    @Test
+    public void behavesLikeAHashMap() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        Map<Long, String> reference = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(5000) - 2500;
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(key), map.remove(key));
+            } else {
+                String value = "value" + random.nextInt(1000);
+                assertEquals(reference.put(key, value), map.put(key, value));
+            }
+            long query = random.nextInt(5000) - 2500;
+            assertEquals(reference.get(query), map.get(query));
+            assertEquals(reference.containsKey(query), map.containsKey(query));
+            assertEquals(reference.size(), map.size());
+        }
+        final Set<String> values = new HashSet<>();
+        map.forEachValue(values::add);
+        assertEquals(new HashSet<>(reference.values()), values);
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, "value");
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(5L));
+        assertNull(map.put(5L, "five"));
+        assertEquals("five", map.get(5L));
+    }
+
+    @Test
+    public void readersNeverSeeTheValueOfAnotherKey() throws InterruptedException {
+        final LongObjectMap<Long> map = new LongObjectMap<>();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                Random random = new Random();
+                while (!stop.get()) {
+                    long key = random.nextInt(10000);
+                    Long value = map.get(key);
+                    if (value != null && value != key * 3 && value != key * 5) {
+                        failure.compareAndSet(null, "key " + key + " had value " + value);
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        Random random = new Random(2);
+        for (int i = 0; i < 1000000; i++) {
+            long key = random.nextInt(10000);
+            if (random.nextBoolean()) {
+                map.put(key, random.nextBoolean() ? key * 3 : key * 5);
+            } else {
+                map.remove(key);
+            }
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,58 @@
+package util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests that the RequestDeadline is visible inside runWithin and restored afterwards.
+ */
+public class RequestDeadlineTest {
+
+    @Test
+    public void noDeadlineOutsideARequest() {
+        assertEquals(RequestDeadline.NONE, RequestDeadline.current());
+    }
+
+    @Test
+    public void deadlineIsSetWithinTheTask() {
+        long deadline = RequestDeadline.after(1000L);
+        AtomicLong seen = new AtomicLong();
+        RequestDeadline.runWithin(deadline, () -> seen.set(RequestDeadline.current()));
+        assertEquals(deadline, seen.get());
+        assertEquals(RequestDeadline.NONE, RequestDeadline.current());
+    }
+
+    @Test
+    public void nestedDeadlinesAreRestored() {
+        long outer = RequestDeadline.after(1000L);
+        long inner = outer + 500L;
+        AtomicLong seenInner = new AtomicLong();
+        AtomicLong seenNone = new AtomicLong(-1L);
+        AtomicLong seenAfter = new AtomicLong();
+        RequestDeadline.runWithin(outer, () -> {
+            RequestDeadline.runWithin(inner, () -> seenInner.set(RequestDeadline.current()));
+            RequestDeadline.runWithin(RequestDeadline.NONE, () -> seenNone.set(RequestDeadline.current()));
+            seenAfter.set(RequestDeadline.current());
+        });
+        assertEquals(inner, seenInner.get());
+        assertEquals(RequestDeadline.NONE, seenNone.get());
+        assertEquals(outer, seenAfter.get());
+    }
+
+    @Test
+    public void deadlineIsRestoredWhenTheTaskThrows() {
+        long deadline = RequestDeadline.after(1000L);
+        try {
+            RequestDeadline.runWithin(deadline, () -> {
+                throw new IllegalStateException("failed");
+            });
+            fail("The exception of the task should be thrown.");
+        } catch (IllegalStateException e) {
+            assertEquals(RequestDeadline.NONE, RequestDeadline.current());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package util;
+
+import io.advantageous.qbit.http.request.HttpTextReceiver;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static java.net.HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static org.junit.Assert.*;
+
+/**
+ * @author Saul
+ * Tests the retries, timeouts and deadline propagation of the ResilientServiceTransport against a fake service, every
+ * test uses its own port so it gets a circuit breaker of its own.
+ */
+public class ResilientServiceTransportTest {
+
+    private static final AtomicInteger PORT = new AtomicInteger(40000);
+    private static final String URI = "/services/test/call";
+
+    /**
+     * Service that answers every call with the given behaviour and counts the calls it receives.
+     */
+    private static final class FakeTransport implements ServiceTransport {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Consumer<HttpTextReceiver> behaviour;
+
+        FakeTransport(final Consumer<HttpTextReceiver> newBehaviour) {
+            this.behaviour = newBehaviour;
+        }
+
+        private void call(final HttpTextReceiver receiver) {
+            calls.incrementAndGet();
+            behaviour.accept(receiver);
+        }
+
+        @Override
+        public void getAsync(final String uri, final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void getAsyncWith1Param(final String uri, final String key, final Object value,
+                                       final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void getAsyncWith2Params(final String uri, final String key, final Object value, final String key2,
+                                        final Object value2, final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void postAsync(final String uri, final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void postFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                            final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void putFormAsyncWith1Param(final String uri, final String key, final Object value,
+                                           final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void putFormAsyncWith2Params(final String uri, final String key, final Object value,
+                                            final String key2, final Object value2,
+                                            final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void putFormAsyncWith3Params(final String uri, final String key, final Object value,
+                                            final String key2, final Object value2, final String key3,
+                                            final Object value3, final HttpTextReceiver receiver) {
+            call(receiver);
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    /**
+     * Receiver that records the replies it is answered with.
+     */
+    private static final class RecordingReceiver implements HttpTextReceiver {
+        private final AtomicInteger replies = new AtomicInteger();
+        private final AtomicInteger code = new AtomicInteger();
+        private final AtomicLong deadline = new AtomicLong();
+        private final CountDownLatch answered = new CountDownLatch(1);
+
+        @Override
+        public void response(final int newCode, final String contentType, final String body) {
+            replies.incrementAndGet();
+            code.set(newCode);
+            deadline.set(RequestDeadline.current());
+            answered.countDown();
+        }
+
+        int await() throws InterruptedException {
+            assertTrue(answered.await(5, TimeUnit.SECONDS));
+            return code.get();
+        }
+    }
+
+    private static ResilientServiceTransport connect(final FakeTransport fake) {
+        return new ResilientServiceTransport("test", PORT.getAndIncrement(), fake);
+    }
+
+    private static Consumer<HttpTextReceiver> reply(final int code) {
+        return receiver -> receiver.response(code, "application/json", "reply");
+    }
+
+    @Test
+    public void failedReadIsRetried() throws InterruptedException {
+        FakeTransport fake = new FakeTransport(reply(HTTP_UNAVAILABLE));
+        RecordingReceiver receiver = new RecordingReceiver();
+        connect(fake).getAsync(URI, receiver);
+        assertEquals(HTTP_UNAVAILABLE, receiver.await());
+        assertEquals(3, fake.calls.get());
+        assertEquals(1, receiver.replies.get());
+    }
+
+    @Test
+    public void readSucceedsOnRetry() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        FakeTransport fake = new FakeTransport(receiver -> receiver.response(
+                attempts.incrementAndGet() == 1 ? HTTP_UNAVAILABLE : HTTP_OK, "application/json", "reply"));
+        RecordingReceiver receiver = new RecordingReceiver();
+        connect(fake).getAsyncWith1Param(URI, "key", "value", receiver);
+        assertEquals(HTTP_OK, receiver.await());
+        assertEquals(2, fake.calls.get());
+    }
+
+    @Test
+    public void failedWriteIsNotRetried() throws InterruptedException {
+        FakeTransport fake = new FakeTransport(reply(HTTP_UNAVAILABLE));
+        RecordingReceiver receiver = new RecordingReceiver();
+        connect(fake).putFormAsyncWith1Param(URI, "key", "value", receiver);
+        assertEquals(HTTP_UNAVAILABLE, receiver.await());
+        Thread.sleep(200);
+        assertEquals(1, fake.calls.get());
+        assertEquals(1, receiver.replies.get());
+    }
+
+    @Test
+    public void lateReplyAfterATimeoutIsDropped() throws InterruptedException {
+        AtomicReference<HttpTextReceiver> pending = new AtomicReference<>();
+        FakeTransport fake = new FakeTransport(pending::set);
+        RecordingReceiver receiver = new RecordingReceiver();
+        ResilientServiceTransport transport = connect(fake);
+        RequestDeadline.runWithin(RequestDeadline.after(100L),
+                () -> transport.putFormAsyncWith1Param(URI, "key", "value", receiver));
+        assertEquals(HTTP_GATEWAY_TIMEOUT, receiver.await());
+        pending.get().response(HTTP_OK, "application/json", "late");
+        assertEquals(1, receiver.replies.get());
+        assertEquals(HTTP_GATEWAY_TIMEOUT, receiver.code.get());
+    }
+
+    @Test
+    public void duplicateReplyIsDropped() throws InterruptedException {
+        FakeTransport fake = new FakeTransport(receiver -> {
+            receiver.response(HTTP_OK, "application/json", "first");
+            receiver.response(HTTP_OK, "application/json", "second");
+        });
+        RecordingReceiver receiver = new RecordingReceiver();
+        connect(fake).getAsync(URI, receiver);
+        assertEquals(HTTP_OK, receiver.await());
+        assertEquals(1, receiver.replies.get());
+    }
+
+    @Test
+    public void deadlineIsPassedToTheCallAndTheReceiver() throws InterruptedException {
+        long deadline = RequestDeadline.after(5000L);
+        AtomicLong callDeadline = new AtomicLong();
+        FakeTransport fake = new FakeTransport(receiver -> {
+            callDeadline.set(RequestDeadline.current());
+            new Thread(() -> receiver.response(HTTP_OK, "application/json", "reply")).start();
+        });
+        RecordingReceiver receiver = new RecordingReceiver();
+        ResilientServiceTransport transport = connect(fake);
+        RequestDeadline.runWithin(deadline, () -> transport.getAsync(URI, receiver));
+        assertEquals(HTTP_OK, receiver.await());
+        assertEquals(deadline, callDeadline.get());
+        assertEquals(deadline, receiver.deadline.get());
+    }
+
+    @Test
+    public void callWithoutARequestDoesNotPassItsTimeoutOn() throws InterruptedException {
+        AtomicLong callDeadline = new AtomicLong();
+        FakeTransport fake = new FakeTransport(receiver -> {
+            callDeadline.set(RequestDeadline.current());
+            receiver.response(HTTP_OK, "application/json", "reply");
+        });
+        RecordingReceiver receiver = new RecordingReceiver();
+        connect(fake).getAsync(URI, receiver);
+        assertEquals(HTTP_OK, receiver.await());
+        assertNotEquals(RequestDeadline.NONE, callDeadline.get());
+        assertEquals(RequestDeadline.NONE, receiver.deadline.get());
+    }
+
+    @Test
+    public void openCircuitRejectsWithoutCalling() throws InterruptedException {
+        FakeTransport fake = new FakeTransport(reply(HTTP_UNAVAILABLE));
+        ResilientServiceTransport transport = connect(fake);
+        for (int i = 0; i < 5; i++) {
+            RecordingReceiver receiver = new RecordingReceiver();
+            transport.putFormAsyncWith1Param(URI, "key", "value", receiver);
+            receiver.await();
+        }
+        RecordingReceiver rejected = new RecordingReceiver();
+        transport.putFormAsyncWith1Param(URI, "key", "value", rejected);
+        assertEquals(HTTP_UNAVAILABLE, rejected.await());
+        assertEquals(5, fake.calls.get());
+    }
+}